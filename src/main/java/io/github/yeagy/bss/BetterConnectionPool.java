@@ -0,0 +1,602 @@
+package io.github.yeagy.bss;
+
+import java.lang.ref.WeakReference;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * small lock-free connection pool over a connection supplier, for services without a pooling DataSource.
+ * <p>
+ * borrowing tries the connections this thread returned last, then scans the pool, then opens a new connection if under the max size,
+ * then waits for a returned connection to be handed off, up to the connection timeout.
+ * a connection idle longer than the validation skip window is checked with isValid before it is handed out.
+ * connections idle past the idle timeout are closed, swept lazily while borrowing.
+ * <p>
+ * closing a borrowed connection returns it to the pool: uncommitted work is rolled back, and autocommit, isolation and read only
+ * are put back the way the connection came from the supplier. each pooled connection tracks its session state across borrows,
+ * like {@link StateTrackingConnection}: known state is read without asking the driver, sets of the value in place are skipped,
+ * and with autocommit on, isolation and read only changes wait until a statement runs or a transaction starts.
+ * so the reset costs nothing when the state wasn't changed, and a transaction at a non default isolation, repeated borrow after borrow,
+ * sets it on the driver once rather than setting and restoring it each time. a connection that reported a connection error (SQLState 08xxx),
+ * from its own methods or from its statements and result sets, or that failed to reset is closed instead.
+ * after any other SQLException the connection is checked with isValid on return, skip window or not, since a reset with nothing
+ * to change never reaches the driver. open statements are not closed on return, close them yourself.
+ * <p>
+ * each borrow is a new connection handle, so the statement cache sees it as a new connection.
+ * the with methods return new, empty pools, configure before use.
+ */
+public final class BetterConnectionPool implements ConnectionSupplier, AutoCloseable {
+    private static final int IDLE = 0;
+    private static final int IN_USE = 1;
+    private static final int REMOVED = -1;
+    private static final int RECENT_PER_THREAD = 16;
+    private static final int HANDOFF_SPINS = 255;
+    private static final long WAIT_SLICE_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long[] WAIT_BUCKET_NANOS = {
+            TimeUnit.MICROSECONDS.toNanos(100), TimeUnit.MILLISECONDS.toNanos(1), TimeUnit.MILLISECONDS.toNanos(5),
+            TimeUnit.MILLISECONDS.toNanos(10), TimeUnit.MILLISECONDS.toNanos(50), TimeUnit.MILLISECONDS.toNanos(100),
+            TimeUnit.MILLISECONDS.toNanos(500), TimeUnit.SECONDS.toNanos(1), TimeUnit.SECONDS.toNanos(5), Long.MAX_VALUE};
+
+    private final ConnectionSupplier factory;
+    private final int maxSize;
+    private final long connectionTimeoutNanos;
+    private final long idleTimeoutNanos;
+    private final long validationSkipNanos;
+    private final int validationTimeoutSeconds;
+
+    private final CopyOnWriteArrayList<Entry> entries = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<ArrayDeque<WeakReference<Entry>>> recent = ThreadLocal.withInitial(ArrayDeque::new);
+    private final SynchronousQueue<Entry> handoff = new SynchronousQueue<>(true);
+    private final AtomicInteger size = new AtomicInteger();//entries, plus those being opened
+    private final AtomicInteger waiters = new AtomicInteger();
+    private final AtomicLong lastSweep = new AtomicLong(System.nanoTime());
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLongArray waits = new AtomicLongArray(WAIT_BUCKET_NANOS.length);
+    private volatile boolean closed;
+
+    private BetterConnectionPool(ConnectionSupplier factory, int maxSize, long connectionTimeoutNanos, long idleTimeoutNanos,
+                                 long validationSkipNanos, int validationTimeoutSeconds) {
+        this.factory = factory;
+        this.maxSize = maxSize;
+        this.connectionTimeoutNanos = connectionTimeoutNanos;
+        this.idleTimeoutNanos = idleTimeoutNanos;
+        this.validationSkipNanos = validationSkipNanos;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+    }
+
+    /**
+     * @param factory opens the physical connections, like DriverManager::getConnection
+     * @return pool of up to 10 connections, 30s connection timeout, 10m idle timeout, 500ms validation skip window
+     */
+    public static BetterConnectionPool from(ConnectionSupplier factory) {
+        Objects.requireNonNull(factory);
+        return new BetterConnectionPool(factory, 10, TimeUnit.SECONDS.toNanos(30), TimeUnit.MINUTES.toNanos(10), TimeUnit.MILLISECONDS.toNanos(500), 5);
+    }
+
+    /**
+     * @param maxSize most connections open at once
+     * @return new pool with the max size set
+     */
+    public BetterConnectionPool withMaxSize(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("max size must be positive");
+        }
+        return new BetterConnectionPool(factory, maxSize, connectionTimeoutNanos, idleTimeoutNanos, validationSkipNanos, validationTimeoutSeconds);
+    }
+
+    /**
+     * @param timeout how long {@link #get()} waits for a connection before failing with SQLTransientConnectionException
+     * @param unit    time unit
+     * @return new pool with the connection timeout set
+     */
+    public BetterConnectionPool withConnectionTimeout(long timeout, TimeUnit unit) {
+        if (timeout < 0) {
+            throw new IllegalArgumentException("connection timeout must not be negative");
+        }
+        return new BetterConnectionPool(factory, maxSize, unit.toNanos(timeout), idleTimeoutNanos, validationSkipNanos, validationTimeoutSeconds);
+    }
+
+    /**
+     * @param timeout idle time after which a connection is closed. 0 keeps idle connections open
+     * @param unit    time unit
+     * @return new pool with the idle timeout set
+     */
+    public BetterConnectionPool withIdleTimeout(long timeout, TimeUnit unit) {
+        if (timeout < 0) {
+            throw new IllegalArgumentException("idle timeout must not be negative");
+        }
+        return new BetterConnectionPool(factory, maxSize, connectionTimeoutNanos, unit.toNanos(timeout), validationSkipNanos, validationTimeoutSeconds);
+    }
+
+    /**
+     * @param skip connections used within this window are handed out without validation. 0 validates every borrow
+     * @param unit time unit
+     * @return new pool with the validation skip window set
+     */
+    public BetterConnectionPool withValidationSkip(long skip, TimeUnit unit) {
+        if (skip < 0) {
+            throw new IllegalArgumentException("validation skip must not be negative");
+        }
+        return new BetterConnectionPool(factory, maxSize, connectionTimeoutNanos, idleTimeoutNanos, unit.toNanos(skip), validationTimeoutSeconds);
+    }
+
+    /**
+     * @return borrowed connection. close it to return it to the pool
+     * @throws SQLTransientConnectionException when none comes free within the connection timeout
+     */
+    @Override
+    public Connection get() throws SQLException {
+        final long start = System.nanoTime();
+        sweep(start);
+        try {
+            while (true) {
+                final Entry entry = borrow(start + connectionTimeoutNanos);
+                if (entry == null) {
+                    timeouts.incrementAndGet();
+                    throw new SQLTransientConnectionException("no connection available within " + TimeUnit.NANOSECONDS.toMillis(connectionTimeoutNanos)
+                            + "ms, " + size.get() + " of " + maxSize + " in use");
+                }
+                if (validate(entry)) {
+                    recordWait(System.nanoTime() - start);
+                    return entry.lease();
+                }
+                remove(entry);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("interrupted waiting for a connection", e);
+        }
+    }
+
+    /**
+     * close idle connections now. borrowed connections are closed as they come back
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (Entry entry : entries) {
+            if (entry.state.compareAndSet(IDLE, REMOVED)) {
+                remove(entry);
+            }
+        }
+    }
+
+    /**
+     * @return open connections, idle and borrowed
+     */
+    public int getSize() {
+        return size.get();
+    }
+
+    /**
+     * @return open connections not borrowed
+     */
+    public int getIdle() {
+        int idle = 0;
+        for (Entry entry : entries) {
+            if (entry.state.get() == IDLE) {
+                idle++;
+            }
+        }
+        return idle;
+    }
+
+    /**
+     * @return threads waiting for a connection
+     */
+    public int getWaiters() {
+        return waiters.get();
+    }
+
+    /**
+     * @return borrows that gave up after the connection timeout
+     */
+    public long getTimeouts() {
+        return timeouts.get();
+    }
+
+    /**
+     * @return how long successful borrows waited
+     */
+    public WaitHistogram getWaitHistogram() {
+        final long[] counts = new long[WAIT_BUCKET_NANOS.length];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = waits.get(i);
+        }
+        return new WaitHistogram(counts);
+    }
+
+    private Entry borrow(long deadline) throws SQLException, InterruptedException {
+        final ArrayDeque<WeakReference<Entry>> mine = recent.get();
+        while (!mine.isEmpty()) {
+            final Entry entry = mine.pollLast().get();
+            if (entry != null && entry.state.compareAndSet(IDLE, IN_USE)) {
+                return entry;
+            }
+        }
+        waiters.incrementAndGet();
+        try {
+            while (true) {
+                if (closed) {
+                    throw new SQLException("pool is closed");
+                }
+                for (Entry entry : entries) {
+                    if (entry.state.compareAndSet(IDLE, IN_USE)) {
+                        return entry;
+                    }
+                }
+                final Entry opened = open();
+                if (opened != null) {
+                    return opened;
+                }
+                final long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return null;
+                }
+                //wait in slices, so capacity freed by a removed connection is noticed too
+                final Entry handed = handoff.poll(Math.min(remaining, WAIT_SLICE_NANOS), TimeUnit.NANOSECONDS);
+                if (handed != null && handed.state.compareAndSet(IDLE, IN_USE)) {
+                    return handed;
+                }
+            }
+        } finally {
+            waiters.decrementAndGet();
+        }
+    }
+
+    /**
+     * @return new connection, already in use, or null at max size
+     */
+    private Entry open() throws SQLException {
+        int current;
+        do {
+            current = size.get();
+            if (current >= maxSize) {
+                return null;
+            }
+        } while (!size.compareAndSet(current, current + 1));
+        Connection connection = null;
+        try {
+            connection = factory.get();
+            final Entry entry = new Entry(connection);
+            entries.add(entry);
+            return entry;
+        } catch (SQLException | RuntimeException e) {
+            size.decrementAndGet();
+            if (connection != null) {
+                closeQuietly(connection);
+            }
+            throw e;
+        }
+    }
+
+    private boolean validate(Entry entry) {
+        if (System.nanoTime() - entry.lastUsed <= validationSkipNanos) {
+            return true;
+        }
+        return valid(entry);
+    }
+
+    private boolean valid(Entry entry) {
+        try {
+            return entry.connection.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void release(Entry entry, boolean broken) {
+        if (!broken && !closed) {
+            try {
+                final SessionState session = entry.session;
+                if (!session.getAutoCommit()) {
+                    entry.connection.rollback();
+                }
+                session.setAutoCommit(entry.autoCommit);
+                session.setTransactionIsolation(entry.isolation);//with autocommit on, only applied once the next borrower runs something else
+                session.setReadOnly(entry.readOnly);
+            } catch (SQLException e) {
+                broken = true;
+            }
+        }
+        if (broken || closed) {
+            remove(entry);
+            return;
+        }
+        entry.lastUsed = System.nanoTime();
+        entry.state.set(IDLE);
+        for (int i = 0; i < HANDOFF_SPINS && waiters.get() > 0; i++) {
+            if (entry.state.get() != IDLE || handoff.offer(entry)) {
+                return;
+            }
+            Thread.yield();
+        }
+        final ArrayDeque<WeakReference<Entry>> mine = recent.get();
+        if (mine.size() >= RECENT_PER_THREAD) {
+            mine.pollFirst();
+        }
+        mine.addLast(new WeakReference<>(entry));
+    }
+
+    /**
+     * close a connection the caller owns, in use or just marked removed
+     */
+    private void remove(Entry entry) {
+        entry.state.set(REMOVED);
+        if (entries.remove(entry)) {
+            size.decrementAndGet();
+            closeQuietly(entry.connection);
+        }
+    }
+
+    private void sweep(long now) {
+        if (idleTimeoutNanos == 0) {
+            return;
+        }
+        final long last = lastSweep.get();
+        if (now - last < idleTimeoutNanos / 2 || !lastSweep.compareAndSet(last, now)) {
+            return;
+        }
+        for (Entry entry : entries) {
+            if (now - entry.lastUsed > idleTimeoutNanos && entry.state.compareAndSet(IDLE, REMOVED)) {
+                remove(entry);
+            }
+        }
+    }
+
+    private void recordWait(long nanos) {
+        for (int i = 0; i < WAIT_BUCKET_NANOS.length; i++) {
+            if (nanos <= WAIT_BUCKET_NANOS[i]) {
+                waits.incrementAndGet(i);
+                return;
+            }
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+            //going away anyway
+        }
+    }
+
+    /**
+     * borrow wait times, counted in buckets
+     */
+    public static final class WaitHistogram {
+        private final long[] counts;
+
+        private WaitHistogram(long[] counts) {
+            this.counts = counts;
+        }
+
+        /**
+         * @return inclusive upper bound of each bucket in nanos. the last is Long.MAX_VALUE
+         */
+        public long[] getBucketBounds() {
+            return WAIT_BUCKET_NANOS.clone();
+        }
+
+        /**
+         * @return borrow count per bucket
+         */
+        public long[] getCounts() {
+            return counts.clone();
+        }
+
+        public long getCount() {
+            long total = 0;
+            for (long count : counts) {
+                total += count;
+            }
+            return total;
+        }
+
+        /**
+         * @param percentile 0 to 100
+         * @return upper bound of the bucket holding the percentile, 0 if nothing was counted
+         */
+        public long getPercentileNanos(double percentile) {
+            if (percentile < 0 || percentile > 100) {
+                throw new IllegalArgumentException("percentile must be between 0 and 100");
+            }
+            final long total = getCount();
+            if (total == 0) {
+                return 0;
+            }
+            final long rank = (long) Math.ceil(total * percentile / 100);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank && seen > 0) {
+                    return WAIT_BUCKET_NANOS[i];
+                }
+            }
+            return WAIT_BUCKET_NANOS[WAIT_BUCKET_NANOS.length - 1];
+        }
+
+        @Override
+        public String toString() {
+            return "WaitHistogram" + Arrays.toString(counts);
+        }
+    }
+
+    private final class Entry {
+        private final Connection connection;
+        private final AtomicInteger state = new AtomicInteger(IN_USE);
+        private final SessionState session;//as the driver has it now, outlives each borrow
+        //as the connection came from the supplier, put back on return
+        private final boolean autoCommit;
+        private final int isolation;
+        private final boolean readOnly;
+        private volatile long lastUsed = System.nanoTime();
+
+        private Entry(Connection connection) throws SQLException {
+            this.connection = connection;
+            this.session = new SessionState(connection);
+            this.autoCommit = session.getAutoCommit();
+            this.isolation = session.getTransactionIsolation();
+            this.readOnly = session.isReadOnly();
+        }
+
+        private Connection lease() {
+            return new Lease(this);
+        }
+    }
+
+    /**
+     * one borrow of a pooled connection. close returns it, and the handle is dead after.
+     * statements and result sets are wrapped too, so their failures count against the connection
+     */
+    private final class Lease extends DelegatingConnection {
+        private final Entry entry;
+        private volatile boolean returned;
+        private volatile boolean broken;
+        private volatile boolean failed;//some call threw, validate on return
+
+        private Lease(Entry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        Connection delegate() throws SQLException {
+            if (returned) {
+                throw new SQLException("connection is closed, it went back to the pool");
+            }
+            return entry.connection;
+        }
+
+        private SessionState session() throws SQLException {
+            if (returned) {
+                throw new SQLException("connection is closed, it went back to the pool");
+            }
+            return entry.session;
+        }
+
+        @Override
+        void beforeStatement() throws SQLException {
+            try {
+                entry.session.settle();
+            } catch (SQLException e) {
+                failed(e);
+                throw e;
+            }
+        }
+
+        @Override
+        void failed(SQLException e) {
+            failed = true;
+            final String state = e.getSQLState();
+            if (state != null && state.startsWith("08")) {
+                broken = true;//connection exception, don't pool it again
+            }
+        }
+
+        @Override
+        Statement wrap(Statement statement) {
+            return new DelegatingStatement(statement, this);
+        }
+
+        @Override
+        PreparedStatement wrap(PreparedStatement statement) {
+            return new DelegatingPreparedStatement(statement, this);
+        }
+
+        @Override
+        CallableStatement wrap(CallableStatement statement) {
+            return new DelegatingCallableStatement(statement, this);
+        }
+
+        @Override
+        public boolean getAutoCommit() throws SQLException {
+            try {
+                return session().getAutoCommit();
+            } catch (SQLException e) {
+                failed(e);
+                throw e;
+            }
+        }
+
+        @Override
+        public void setAutoCommit(boolean autoCommit) throws SQLException {
+            try {
+                session().setAutoCommit(autoCommit);
+            } catch (SQLException e) {
+                failed(e);
+                throw e;
+            }
+        }
+
+        @Override
+        public int getTransactionIsolation() throws SQLException {
+            try {
+                return session().getTransactionIsolation();
+            } catch (SQLException e) {
+                failed(e);
+                throw e;
+            }
+        }
+
+        @Override
+        public void setTransactionIsolation(int level) throws SQLException {
+            try {
+                session().setTransactionIsolation(level);
+            } catch (SQLException e) {
+                failed(e);
+                throw e;
+            }
+        }
+
+        @Override
+        public boolean isReadOnly() throws SQLException {
+            try {
+                return session().isReadOnly();
+            } catch (SQLException e) {
+                failed(e);
+                throw e;
+            }
+        }
+
+        @Override
+        public void setReadOnly(boolean readOnly) throws SQLException {
+            try {
+                session().setReadOnly(readOnly);
+            } catch (SQLException e) {
+                failed(e);
+                throw e;
+            }
+        }
+
+        @Override
+        public void close() {
+            if (!returned) {
+                returned = true;
+                release(entry, broken || failed && !valid(entry));
+            }
+        }
+
+        @Override
+        public boolean isClosed() throws SQLException {
+            return returned || entry.connection.isClosed();
+        }
+
+        @Override
+        public String toString() {
+            return "PooledConnection[" + entry.connection + (returned ? ", returned]" : "]");
+        }
+    }
+}
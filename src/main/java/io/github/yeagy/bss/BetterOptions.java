@@ -7,21 +7,26 @@ import java.util.Set;
 
 /**
  * configuration for BSS classes. in a single DS application i would just set the defaults and use that.
- * right now the only option is array support, geared towards postgres.
+ * array support is geared towards postgres. the statement cache is opt-in, see {@link #withStatementCacheSize(int)}.
+ * so is statement observation, see {@link #withExecutionListener(ExecutionListener)}.
  */
 public final class BetterOptions {
     public enum Option {ARRAY_SUPPORT}
 
-    private static BetterOptions defaults = new BetterOptions(Collections.emptySet());
+    private static BetterOptions defaults = new BetterOptions(Collections.emptySet(), 0, null);
 
     private final Set<Option> options;
+    private final int statementCacheSize;
+    private final ExecutionListener executionListener;
 
-    private BetterOptions(Set<Option> options){
+    private BetterOptions(Set<Option> options, int statementCacheSize, ExecutionListener executionListener){
         this.options = options;
+        this.statementCacheSize = statementCacheSize;
+        this.executionListener = executionListener;
     }
 
     public static BetterOptions from(Set<Option> options){
-        return new BetterOptions(options);
+        return new BetterOptions(options, 0, null);
     }
 
     public static BetterOptions from(Option... options){
@@ -44,6 +49,41 @@ public final class BetterOptions {
         return options.contains(option);
     }
 
+    /**
+     * cache prepared statements per connection, least recently used evicted past the given size.
+     * statements are keyed by connection instance, so pooled connection handles only share statements within a checkout.
+     *
+     * @param statementCacheSize max statements cached per connection. 0 disables the cache (default)
+     * @return copy of these options with the cache size set
+     */
+    public BetterOptions withStatementCacheSize(int statementCacheSize){
+        if (statementCacheSize < 0) {
+            throw new IllegalArgumentException("statement cache size must not be negative");
+        }
+        return new BetterOptions(options, statementCacheSize, executionListener);
+    }
+
+    public int getStatementCacheSize(){
+        return statementCacheSize;
+    }
+
+    /**
+     * report every statement execution to a listener. see {@link ExecutionListener}
+     *
+     * @param executionListener listener, or null for none (default)
+     * @return copy of these options with the listener set
+     */
+    public BetterOptions withExecutionListener(ExecutionListener executionListener){
+        return new BetterOptions(options, statementCacheSize, executionListener);
+    }
+
+    /**
+     * @return execution listener, or null
+     */
+    public ExecutionListener getExecutionListener(){
+        return executionListener;
+    }
+
     boolean arraySupport(){
         return enabled(Option.ARRAY_SUPPORT);
     }
@@ -25,6 +25,7 @@ import java.time.LocalTime;
 import java.time.OffsetDateTime;
 import java.util.Calendar;
 import java.util.Collection;
+import java.util.Map;
 
 /**
  * Enhanced delegate class for PreparedStatement
@@ -32,6 +33,7 @@ import java.util.Collection;
  * -- Forwards connection create methods
  * -- :named parameters
  * -- java 8 time set methods
+ * -- bind :named parameters from an entity or map
  */
 public interface BetterPreparedStatement extends PreparedStatement {
     /**
@@ -80,6 +82,41 @@ public interface BetterPreparedStatement extends PreparedStatement {
 
     Array createArray(Collection<?> elements) throws SQLException;
 
+    Array createArray(long[] elements) throws SQLException;
+
+    Array createArray(int[] elements) throws SQLException;
+
+    Array createArray(double[] elements) throws SQLException;
+
+    Array createArray(short[] elements) throws SQLException;
+
+    Array createArray(boolean[] elements) throws SQLException;
+
+    /**
+     * resolve a :named parameter once, for setting it repeatedly (say in a batch loop) without name lookups.
+     *
+     * @param namedParameter parameter name, without the colon
+     * @return handle for this statement
+     */
+    ParamHandle param(String namedParameter);
+
+    /**
+     * set every :named parameter matching an entity column (by column name, or field name).
+     * the matching is worked out once per sql and entity class. unmatched parameters are left for you to set.
+     *
+     * @param entity entity with TableData metadata
+     * @throws SQLException from JDBC
+     */
+    void bindEntity(Object entity) throws SQLException;
+
+    /**
+     * set every :named parameter with a key in the map. unmatched parameters are left for you to set.
+     *
+     * @param values parameter values by name. null values are set as SQL NULL
+     * @throws SQLException from JDBC
+     */
+    void bindMap(Map<String, ?> values) throws SQLException;
+
     void setArray(int parameterIndex, Collection<?> x) throws SQLException;
 
     void setArray(String namedParameter, Collection<?> x) throws SQLException;
@@ -88,6 +125,26 @@ public interface BetterPreparedStatement extends PreparedStatement {
 
     void setArray(String namedParameter, Object[] x) throws SQLException;
 
+    void setArray(int parameterIndex, long[] x) throws SQLException;
+
+    void setArray(String namedParameter, long[] x) throws SQLException;
+
+    void setArray(int parameterIndex, int[] x) throws SQLException;
+
+    void setArray(String namedParameter, int[] x) throws SQLException;
+
+    void setArray(int parameterIndex, double[] x) throws SQLException;
+
+    void setArray(String namedParameter, double[] x) throws SQLException;
+
+    void setArray(int parameterIndex, short[] x) throws SQLException;
+
+    void setArray(String namedParameter, short[] x) throws SQLException;
+
+    void setArray(int parameterIndex, boolean[] x) throws SQLException;
+
+    void setArray(String namedParameter, boolean[] x) throws SQLException;
+
     void setTime(int parameterIndex, LocalTime x) throws SQLException;
 
     void setTime(String namedParameter, LocalTime x) throws SQLException;
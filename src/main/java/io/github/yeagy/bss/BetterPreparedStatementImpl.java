@@ -31,6 +31,7 @@ import java.time.OffsetDateTime;
 import java.util.Calendar;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 /**
@@ -40,6 +41,12 @@ import java.util.Objects;
  * -- :named parameters
  */
 class BetterPreparedStatementImpl implements BetterPreparedStatement {
+    private static final String LONG_SQL_TYPE = TypeMappers.getSqlType(long.class);
+    private static final String INT_SQL_TYPE = TypeMappers.getSqlType(int.class);
+    private static final String DOUBLE_SQL_TYPE = TypeMappers.getSqlType(double.class);
+    private static final String SHORT_SQL_TYPE = TypeMappers.getSqlType(short.class);
+    private static final String BOOLEAN_SQL_TYPE = TypeMappers.getSqlType(boolean.class);
+
     private final PreparedStatement ps;
     private final NamedParameters namedParameters;
 
@@ -51,39 +58,36 @@ class BetterPreparedStatementImpl implements BetterPreparedStatement {
     static BetterPreparedStatement from(Connection connection, String statement, boolean returnGeneratedKeys, boolean simulatedIn) throws SQLException {
         Objects.requireNonNull(statement);
         Objects.requireNonNull(connection);
-        if (simulatedIn && detectInClause(statement)) {
-            return DelayedBindingProxy.from(connection, statement, returnGeneratedKeys);
-        }
-        final NamedParameters named = NamedParameters.from(statement);
-        if (named != null) {
-            statement = named.getProcessedSql();
+        return from(connection, SqlTemplate.from(statement, simulatedIn), returnGeneratedKeys);
+    }
+
+    static BetterPreparedStatement from(Connection connection, SqlTemplate template, boolean returnGeneratedKeys) throws SQLException {
+        if (template.isSimulatedIn()) {
+            return DelayedBindingProxy.from(connection, template, returnGeneratedKeys);
         }
         final int returnKeys = returnGeneratedKeys ? RETURN_GENERATED_KEYS : NO_GENERATED_KEYS;
-        return new BetterPreparedStatementImpl(connection.prepareStatement(statement, returnKeys), named);
+        return new BetterPreparedStatementImpl(connection.prepareStatement(template.getProcessedSql(), returnKeys), template.getNamedParameters());
     }
 
     //todo beef this up
-    private static boolean detectInClause(String statement) {
+    static boolean detectInClause(String statement) {
         return statement.toLowerCase().matches(".+[\t\n ]+in[\t\n ]+\\(.*");
     }
 
-    @FunctionalInterface
-    private interface NamedParameterSetter {
-        void set(BetterPreparedStatement ps, int idx) throws SQLException;
-    }
-
-    private void setNamedParameter(String namedParameter, NamedParameterSetter setter) throws SQLException {
+    private int[] namedParameterIndices(String namedParameter) {
         if (namedParameters == null) {
             throw new IllegalStateException("no named parameters found in statement");
         }
-        final List<Integer> indices = namedParameters.getIndices(namedParameter);
-        if (indices != null) {
-            for (Integer idx : indices) {
-                setter.set(this, idx);
-            }
-        } else {
+        final int[] indices = namedParameters.getIndices(namedParameter);
+        if (indices == null) {
             throw new IllegalStateException(String.format("no named parameter %s found in statement: %s", namedParameter, namedParameters.getUnprocessedSql()));
         }
+        return indices;
+    }
+
+    @Override
+    public ParamHandle param(String namedParameter) {
+        return new ParamHandle(this, namedParameterIndices(namedParameter));
     }
 
     //connection forwards
@@ -133,6 +137,78 @@ class BetterPreparedStatementImpl implements BetterPreparedStatement {
         return createArray(elements == null ? null : elements.toArray());
     }
 
+    //element type is known from the array type, no inference from the first element. JDBC createArrayOf only takes Object[], so primitives are boxed once here
+
+    @Override
+    public Array createArray(long[] elements) throws SQLException {
+        if (elements == null || elements.length == 0) {
+            throw new IllegalArgumentException("array must have elements");
+        }
+        final Long[] boxed = new Long[elements.length];
+        for (int i = 0; i < elements.length; i++) {
+            boxed[i] = elements[i];
+        }
+        return createArrayOf(LONG_SQL_TYPE, boxed);
+    }
+
+    @Override
+    public Array createArray(int[] elements) throws SQLException {
+        if (elements == null || elements.length == 0) {
+            throw new IllegalArgumentException("array must have elements");
+        }
+        final Integer[] boxed = new Integer[elements.length];
+        for (int i = 0; i < elements.length; i++) {
+            boxed[i] = elements[i];
+        }
+        return createArrayOf(INT_SQL_TYPE, boxed);
+    }
+
+    @Override
+    public Array createArray(double[] elements) throws SQLException {
+        if (elements == null || elements.length == 0) {
+            throw new IllegalArgumentException("array must have elements");
+        }
+        final Double[] boxed = new Double[elements.length];
+        for (int i = 0; i < elements.length; i++) {
+            boxed[i] = elements[i];
+        }
+        return createArrayOf(DOUBLE_SQL_TYPE, boxed);
+    }
+
+    @Override
+    public Array createArray(short[] elements) throws SQLException {
+        if (elements == null || elements.length == 0) {
+            throw new IllegalArgumentException("array must have elements");
+        }
+        final Short[] boxed = new Short[elements.length];
+        for (int i = 0; i < elements.length; i++) {
+            boxed[i] = elements[i];
+        }
+        return createArrayOf(SHORT_SQL_TYPE, boxed);
+    }
+
+    @Override
+    public Array createArray(boolean[] elements) throws SQLException {
+        if (elements == null || elements.length == 0) {
+            throw new IllegalArgumentException("array must have elements");
+        }
+        final Boolean[] boxed = new Boolean[elements.length];
+        for (int i = 0; i < elements.length; i++) {
+            boxed[i] = elements[i];
+        }
+        return createArrayOf(BOOLEAN_SQL_TYPE, boxed);
+    }
+
+    @Override
+    public void bindEntity(Object entity) throws SQLException {
+        ParameterBindingPlan.bindEntity(this, namedParameters, entity);
+    }
+
+    @Override
+    public void bindMap(Map<String, ?> values) throws SQLException {
+        ParameterBindingPlan.bindMap(this, namedParameters, values);
+    }
+
     @Override
     public void setArray(int parameterIndex, Collection<?> x) throws SQLException {
         setArray(parameterIndex, createArray(x));
@@ -140,7 +216,9 @@ class BetterPreparedStatementImpl implements BetterPreparedStatement {
 
     @Override
     public void setArray(String namedParameter, Collection<?> x) throws SQLException {
-        setNamedParameter(namedParameter, (ps, parameterIndex) -> setArray(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setArray(parameterIndex, x);
+        }
     }
 
     @Override
@@ -150,7 +228,69 @@ class BetterPreparedStatementImpl implements BetterPreparedStatement {
 
     @Override
     public void setArray(String namedParameter, Object[] x) throws SQLException {
-        setNamedParameter(namedParameter, (ps, parameterIndex) -> setArray(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setArray(parameterIndex, x);
+        }
+    }
+
+    @Override
+    public void setArray(int parameterIndex, long[] x) throws SQLException {
+        setArray(parameterIndex, createArray(x));
+    }
+
+    @Override
+    public void setArray(String namedParameter, long[] x) throws SQLException {
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setArray(parameterIndex, x);
+        }
+    }
+
+    @Override
+    public void setArray(int parameterIndex, int[] x) throws SQLException {
+        setArray(parameterIndex, createArray(x));
+    }
+
+    @Override
+    public void setArray(String namedParameter, int[] x) throws SQLException {
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setArray(parameterIndex, x);
+        }
+    }
+
+    @Override
+    public void setArray(int parameterIndex, double[] x) throws SQLException {
+        setArray(parameterIndex, createArray(x));
+    }
+
+    @Override
+    public void setArray(String namedParameter, double[] x) throws SQLException {
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setArray(parameterIndex, x);
+        }
+    }
+
+    @Override
+    public void setArray(int parameterIndex, short[] x) throws SQLException {
+        setArray(parameterIndex, createArray(x));
+    }
+
+    @Override
+    public void setArray(String namedParameter, short[] x) throws SQLException {
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setArray(parameterIndex, x);
+        }
+    }
+
+    @Override
+    public void setArray(int parameterIndex, boolean[] x) throws SQLException {
+        setArray(parameterIndex, createArray(x));
+    }
+
+    @Override
+    public void setArray(String namedParameter, boolean[] x) throws SQLException {
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setArray(parameterIndex, x);
+        }
     }
 
     // java 8 time
@@ -162,7 +302,9 @@ class BetterPreparedStatementImpl implements BetterPreparedStatement {
 
     @Override
     public void setTime(String namedParameter, LocalTime x) throws SQLException {
-        setNamedParameter(namedParameter, (ps, parameterIndex) -> setTime(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setTime(parameterIndex, x);
+        }
     }
 
     @Override
@@ -172,7 +314,9 @@ class BetterPreparedStatementImpl implements BetterPreparedStatement {
 
     @Override
     public void setDate(String namedParameter, LocalDate x) throws SQLException {
-        setNamedParameter(namedParameter, (ps, parameterIndex) -> setDate(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setDate(parameterIndex, x);
+        }
     }
 
     @Override
@@ -182,7 +326,9 @@ class BetterPreparedStatementImpl implements BetterPreparedStatement {
 
     @Override
     public void setTimestamp(String namedParameter, LocalDateTime x) throws SQLException {
-        setNamedParameter(namedParameter, (ps, parameterIndex) -> setTimestamp(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setTimestamp(parameterIndex, x);
+        }
     }
 
     @Override
@@ -192,7 +338,9 @@ class BetterPreparedStatementImpl implements BetterPreparedStatement {
 
     @Override
     public void setTimestamp(String namedParameter, OffsetDateTime x) throws SQLException {
-        setNamedParameter(namedParameter, (ps, parameterIndex) -> setTimestamp(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setTimestamp(parameterIndex, x);
+        }
     }
 
     @Override
@@ -202,7 +350,9 @@ class BetterPreparedStatementImpl implements BetterPreparedStatement {
 
     @Override
     public void setTimestamp(String namedParameter, Instant x) throws SQLException {
-        setNamedParameter(namedParameter, (ps, parameterIndex) -> setTimestamp(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setTimestamp(parameterIndex, x);
+        }
     }
 
     //additional setters
@@ -210,247 +360,345 @@ class BetterPreparedStatementImpl implements BetterPreparedStatement {
 
     @Override
     public void setNull(String namedParameter, int sqlType) throws SQLException {
-        setNamedParameter(namedParameter, (ps, parameterIndex) -> setNull(parameterIndex, sqlType));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setNull(parameterIndex, sqlType);
+        }
     }
 
     @Override
     public void setBoolean(String namedParameter, boolean x) throws SQLException {
-        setNamedParameter(namedParameter, (ps, parameterIndex) -> setBoolean(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setBoolean(parameterIndex, x);
+        }
     }
 
     @Override
     public void setByte(String namedParameter, byte x) throws SQLException {
-        setNamedParameter(namedParameter, (ps, parameterIndex) -> setByte(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setByte(parameterIndex, x);
+        }
     }
 
     @Override
     public void setShort(String namedParameter, short x) throws SQLException {
-        setNamedParameter(namedParameter, (ps, parameterIndex) -> setShort(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setShort(parameterIndex, x);
+        }
     }
 
     @Override
     public void setInt(String namedParameter, int x) throws SQLException {
-        setNamedParameter(namedParameter, (ps, parameterIndex) -> setInt(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setInt(parameterIndex, x);
+        }
     }
 
     @Override
     public void setLong(String namedParameter, long x) throws SQLException {
-        setNamedParameter(namedParameter, (ps, parameterIndex) -> setLong(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setLong(parameterIndex, x);
+        }
     }
 
     @Override
     public void setFloat(String namedParameter, float x) throws SQLException {
-        setNamedParameter(namedParameter, (ps, parameterIndex) -> setFloat(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setFloat(parameterIndex, x);
+        }
     }
 
     @Override
     public void setDouble(String namedParameter, double x) throws SQLException {
-        setNamedParameter(namedParameter, (ps, parameterIndex) -> setDouble(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setDouble(parameterIndex, x);
+        }
     }
 
     @Override
     public void setBigDecimal(String namedParameter, BigDecimal x) throws SQLException {
-        setNamedParameter(namedParameter, (ps, parameterIndex) -> setBigDecimal(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setBigDecimal(parameterIndex, x);
+        }
     }
 
     @Override
     public void setString(String namedParameter, String x) throws SQLException {
-        setNamedParameter(namedParameter, (ps, parameterIndex) -> setString(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setString(parameterIndex, x);
+        }
     }
 
     @Override
     public void setBytes(String namedParameter, byte[] x) throws SQLException {
-        setNamedParameter(namedParameter, (ps, parameterIndex) -> setBytes(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setBytes(parameterIndex, x);
+        }
     }
 
     @Override
     public void setDate(String namedParameter, Date x) throws SQLException {
-        setNamedParameter(namedParameter, (ps, parameterIndex) -> setDate(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setDate(parameterIndex, x);
+        }
     }
 
     @Override
     public void setTime(String namedParameter, Time x) throws SQLException {
-        setNamedParameter(namedParameter, (ps, parameterIndex) -> setTime(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setTime(parameterIndex, x);
+        }
     }
 
     @Override
     public void setTimestamp(String namedParameter, Timestamp x) throws SQLException {
-        setNamedParameter(namedParameter, (ps, parameterIndex) -> setTimestamp(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setTimestamp(parameterIndex, x);
+        }
     }
 
     @Override
     public void setAsciiStream(String namedParameter, InputStream x, int length) throws SQLException {
-        setNamedParameter(namedParameter, (ps, parameterIndex) -> setAsciiStream(parameterIndex, x, length));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setAsciiStream(parameterIndex, x, length);
+        }
     }
 
     @Override
     public void setBinaryStream(String namedParameter, InputStream x, int length) throws SQLException {
-        setNamedParameter(namedParameter, (ps, parameterIndex) -> setBinaryStream(parameterIndex, x, length));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setBinaryStream(parameterIndex, x, length);
+        }
     }
 
     @Override
     public void setObject(String namedParameter, Object x, int targetSqlType) throws SQLException {
-        setNamedParameter(namedParameter, (ps, parameterIndex) -> setObject(parameterIndex, x, targetSqlType));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setObject(parameterIndex, x, targetSqlType);
+        }
     }
 
     @Override
     public void setObject(String namedParameter, Object x) throws SQLException {
-        setNamedParameter(namedParameter, (ps, parameterIndex) -> setObject(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setObject(parameterIndex, x);
+        }
     }
 
     @Override
     public void setCharacterStream(String namedParameter, Reader reader, int length) throws SQLException {
-        setNamedParameter(namedParameter, (ps, parameterIndex) -> setCharacterStream(parameterIndex, reader, length));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setCharacterStream(parameterIndex, reader, length);
+        }
     }
 
     @Override
     public void setRef(String namedParameter, Ref x) throws SQLException {
-        setNamedParameter(namedParameter, (ps, parameterIndex) -> setRef(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setRef(parameterIndex, x);
+        }
     }
 
     @Override
     public void setBlob(String namedParameter, Blob x) throws SQLException {
-        setNamedParameter(namedParameter, (ps, parameterIndex) -> setBlob(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setBlob(parameterIndex, x);
+        }
     }
 
     @Override
     public void setClob(String namedParameter, Clob x) throws SQLException {
-        setNamedParameter(namedParameter, (ps, parameterIndex) -> setClob(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setClob(parameterIndex, x);
+        }
     }
 
     @Override
     public void setArray(String namedParameter, Array x) throws SQLException {
-        setNamedParameter(namedParameter, (ps, parameterIndex) -> setArray(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setArray(parameterIndex, x);
+        }
     }
 
     @Override
     public void setDate(String namedParameter, Date x, Calendar cal) throws SQLException {
-        setNamedParameter(namedParameter, (ps, parameterIndex) -> setDate(parameterIndex, x, cal));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setDate(parameterIndex, x, cal);
+        }
     }
 
     @Override
     public void setTime(String namedParameter, Time x, Calendar cal) throws SQLException {
-        setNamedParameter(namedParameter, (ps, parameterIndex) -> setTime(parameterIndex, x, cal));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setTime(parameterIndex, x, cal);
+        }
     }
 
     @Override
     public void setTimestamp(String namedParameter, Timestamp x, Calendar cal) throws SQLException {
-        setNamedParameter(namedParameter, (ps, parameterIndex) -> setTimestamp(parameterIndex, x, cal));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setTimestamp(parameterIndex, x, cal);
+        }
     }
 
     @Override
     public void setNull(String namedParameter, int sqlType, String typeName) throws SQLException {
-        setNamedParameter(namedParameter, (ps, parameterIndex) -> setNull(parameterIndex, sqlType, typeName));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setNull(parameterIndex, sqlType, typeName);
+        }
     }
 
     @Override
     public void setURL(String namedParameter, URL x) throws SQLException {
-        setNamedParameter(namedParameter, (ps, parameterIndex) -> setURL(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setURL(parameterIndex, x);
+        }
     }
 
     @Override
     public void setRowId(String namedParameter, RowId x) throws SQLException {
-        setNamedParameter(namedParameter, (ps, parameterIndex) -> setRowId(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setRowId(parameterIndex, x);
+        }
     }
 
     @Override
     public void setNString(String namedParameter, String value) throws SQLException {
-        setNamedParameter(namedParameter, (ps, parameterIndex) -> setNString(parameterIndex, value));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setNString(parameterIndex, value);
+        }
     }
 
     @Override
     public void setNCharacterStream(String namedParameter, Reader value, long length) throws SQLException {
-        setNamedParameter(namedParameter, (ps, parameterIndex) -> setNCharacterStream(parameterIndex, value, length));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setNCharacterStream(parameterIndex, value, length);
+        }
     }
 
     @Override
     public void setNClob(String namedParameter, NClob value) throws SQLException {
-        setNamedParameter(namedParameter, (ps, parameterIndex) -> setNClob(parameterIndex, value));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setNClob(parameterIndex, value);
+        }
     }
 
     @Override
     public void setClob(String namedParameter, Reader reader, long length) throws SQLException {
-        setNamedParameter(namedParameter, (ps, parameterIndex) -> setClob(parameterIndex, reader, length));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setClob(parameterIndex, reader, length);
+        }
     }
 
     @Override
     public void setBlob(String namedParameter, InputStream inputStream, long length) throws SQLException {
-        setNamedParameter(namedParameter, (ps, parameterIndex) -> setBlob(parameterIndex, inputStream, length));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setBlob(parameterIndex, inputStream, length);
+        }
     }
 
     @Override
     public void setNClob(String namedParameter, Reader reader, long length) throws SQLException {
-        setNamedParameter(namedParameter, (ps, parameterIndex) -> setNClob(parameterIndex, reader, length));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setNClob(parameterIndex, reader, length);
+        }
     }
 
     @Override
     public void setSQLXML(String namedParameter, SQLXML xmlObject) throws SQLException {
-        setNamedParameter(namedParameter, (ps, parameterIndex) -> setSQLXML(parameterIndex, xmlObject));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setSQLXML(parameterIndex, xmlObject);
+        }
     }
 
     @Override
     public void setObject(String namedParameter, Object x, int targetSqlType, int scaleOrLength) throws SQLException {
-        setNamedParameter(namedParameter, (ps, parameterIndex) -> setObject(parameterIndex, x, targetSqlType, scaleOrLength));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setObject(parameterIndex, x, targetSqlType, scaleOrLength);
+        }
     }
 
     @Override
     public void setAsciiStream(String namedParameter, InputStream x, long length) throws SQLException {
-        setNamedParameter(namedParameter, (ps, parameterIndex) -> setAsciiStream(parameterIndex, x, length));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setAsciiStream(parameterIndex, x, length);
+        }
     }
 
     @Override
     public void setBinaryStream(String namedParameter, InputStream x, long length) throws SQLException {
-        setNamedParameter(namedParameter, (ps, parameterIndex) -> setBinaryStream(parameterIndex, x, length));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setBinaryStream(parameterIndex, x, length);
+        }
     }
 
     @Override
     public void setCharacterStream(String namedParameter, Reader reader, long length) throws SQLException {
-        setNamedParameter(namedParameter, (ps, parameterIndex) -> setCharacterStream(parameterIndex, reader, length));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setCharacterStream(parameterIndex, reader, length);
+        }
     }
 
     @Override
     public void setAsciiStream(String namedParameter, InputStream x) throws SQLException {
-        setNamedParameter(namedParameter, (ps, parameterIndex) -> setAsciiStream(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setAsciiStream(parameterIndex, x);
+        }
     }
 
     @Override
     public void setBinaryStream(String namedParameter, InputStream x) throws SQLException {
-        setNamedParameter(namedParameter, (ps, parameterIndex) -> setBinaryStream(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setBinaryStream(parameterIndex, x);
+        }
     }
 
     @Override
     public void setCharacterStream(String namedParameter, Reader reader) throws SQLException {
-        setNamedParameter(namedParameter, (ps, parameterIndex) -> setCharacterStream(parameterIndex, reader));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setCharacterStream(parameterIndex, reader);
+        }
     }
 
     @Override
     public void setNCharacterStream(String namedParameter, Reader value) throws SQLException {
-        setNamedParameter(namedParameter, (ps, parameterIndex) -> setNCharacterStream(parameterIndex, value));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setNCharacterStream(parameterIndex, value);
+        }
     }
 
     @Override
     public void setClob(String namedParameter, Reader reader) throws SQLException {
-        setNamedParameter(namedParameter, (ps, parameterIndex) -> setClob(parameterIndex, reader));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setClob(parameterIndex, reader);
+        }
     }
 
     @Override
     public void setBlob(String namedParameter, InputStream inputStream) throws SQLException {
-        setNamedParameter(namedParameter, (ps, parameterIndex) -> setBlob(parameterIndex, inputStream));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setBlob(parameterIndex, inputStream);
+        }
     }
 
     @Override
     public void setNClob(String namedParameter, Reader reader) throws SQLException {
-        setNamedParameter(namedParameter, (ps, parameterIndex) -> setNClob(parameterIndex, reader));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setNClob(parameterIndex, reader);
+        }
     }
 
     @Override
     public void setObject(String namedParameter, Object x, SQLType targetSqlType, int scaleOrLength) throws SQLException {
-        setNamedParameter(namedParameter, (ps, parameterIndex) -> setObject(parameterIndex, x, targetSqlType, scaleOrLength));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setObject(parameterIndex, x, targetSqlType, scaleOrLength);
+        }
     }
 
     @Override
     public void setObject(String namedParameter, Object x, SQLType targetSqlType) throws SQLException {
-        setNamedParameter(namedParameter, (ps, parameterIndex) -> setObject(parameterIndex, x, targetSqlType));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setObject(parameterIndex, x, targetSqlType);
+        }
     }
 
     @Override
@@ -9,7 +9,7 @@ import java.time.LocalTime;
 /**
  * Enhanced delegate class for ResultSet
  * -- Null-safe primitive get methods
- * -- SQL arrays casted to their java type
+ * -- SQL arrays casted to their java type, or extracted to primitive arrays
  * -- java 8 time get methods
  */
 public interface BetterResultSet extends ResultSet {
@@ -21,6 +21,39 @@ public interface BetterResultSet extends ResultSet {
 
     <T> T[] getArrayCasted(String columnLabel) throws SQLException;
 
+    /**
+     * @param columnIndex column of a SQL array
+     * @return elements read through Array.getResultSet, without a boxed array. null if SQL NULL.
+     * @throws SQLException from JDBC, or if an element is null. getIntArray also throws if an element is out of int range
+     */
+    long[] getLongArray(int columnIndex) throws SQLException;
+
+    long[] getLongArray(String columnLabel) throws SQLException;
+
+    int[] getIntArray(int columnIndex) throws SQLException;
+
+    int[] getIntArray(String columnLabel) throws SQLException;
+
+    double[] getDoubleArray(int columnIndex) throws SQLException;
+
+    double[] getDoubleArray(String columnLabel) throws SQLException;
+
+    String[] getStringArray(int columnIndex) throws SQLException;
+
+    String[] getStringArray(String columnLabel) throws SQLException;
+
+    /**
+     * stream the elements of a SQL array through Array.getResultSet, without materializing the whole array.
+     * does nothing if SQL NULL.
+     *
+     * @param columnIndex column of a SQL array
+     * @param consumer    called once per element
+     * @throws SQLException from JDBC
+     */
+    void forEachArrayElement(int columnIndex, ArrayElementConsumer consumer) throws SQLException;
+
+    void forEachArrayElement(String columnLabel, ArrayElementConsumer consumer) throws SQLException;
+
     LocalTime getLocalTime(int columnIndex) throws SQLException;
 
     LocalTime getLocalTime(String columnLabel) throws SQLException;
@@ -60,4 +93,13 @@ public interface BetterResultSet extends ResultSet {
     Float getFloatNullable(String columnLabel) throws SQLException;
 
     Double getDoubleNullable(String columnLabel) throws SQLException;
+
+    @FunctionalInterface
+    interface ArrayElementConsumer {
+        /**
+         * @param element result set positioned on the element. column 1 is the element index, column 2 the value.
+         * @throws SQLException from JDBC
+         */
+        void accept(BetterResultSet element) throws SQLException;
+    }
 }
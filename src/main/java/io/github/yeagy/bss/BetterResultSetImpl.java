@@ -14,6 +14,7 @@ import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.RowId;
 import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
 import java.sql.SQLType;
 import java.sql.SQLWarning;
 import java.sql.SQLXML;
@@ -24,6 +25,7 @@ import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Map;
 import java.util.Objects;
@@ -32,9 +34,11 @@ import java.util.Objects;
 /**
  * Enhanced delegate class for ResultSet
  * -- Null-safe primitive get methods
- * -- SQL arrays casted to their java type
+ * -- SQL arrays casted to their java type, or extracted to primitive arrays. the Array is freed once read.
  */
 class BetterResultSetImpl implements BetterResultSet {
+    private static final int INITIAL_ARRAY_CAPACITY = 16;
+
     private final ResultSet rs;
 
     BetterResultSetImpl(ResultSet rs) {
@@ -49,15 +53,197 @@ class BetterResultSetImpl implements BetterResultSet {
     @Override
     @SuppressWarnings("unchecked")
     public <T> T[] getArrayCasted(int columnIndex) throws SQLException {
-        final Array v = getArray(columnIndex);
-        return wasNull() ? null : (T[]) v.getArray();
+        return (T[]) elements(getArray(columnIndex));
     }
 
     @Override
     @SuppressWarnings("unchecked")
     public <T> T[] getArrayCasted(String columnLabel) throws SQLException {
-        final Array v = getArray(columnLabel);
-        return wasNull() ? null : (T[]) v.getArray();
+        return (T[]) elements(getArray(columnLabel));
+    }
+
+    @Override
+    public long[] getLongArray(int columnIndex) throws SQLException {
+        return toLongArray(getArray(columnIndex));
+    }
+
+    @Override
+    public long[] getLongArray(String columnLabel) throws SQLException {
+        return toLongArray(getArray(columnLabel));
+    }
+
+    @Override
+    public int[] getIntArray(int columnIndex) throws SQLException {
+        return toIntArray(getArray(columnIndex));
+    }
+
+    @Override
+    public int[] getIntArray(String columnLabel) throws SQLException {
+        return toIntArray(getArray(columnLabel));
+    }
+
+    @Override
+    public double[] getDoubleArray(int columnIndex) throws SQLException {
+        return toDoubleArray(getArray(columnIndex));
+    }
+
+    @Override
+    public double[] getDoubleArray(String columnLabel) throws SQLException {
+        return toDoubleArray(getArray(columnLabel));
+    }
+
+    @Override
+    public String[] getStringArray(int columnIndex) throws SQLException {
+        return toStringArray(getArray(columnIndex));
+    }
+
+    @Override
+    public String[] getStringArray(String columnLabel) throws SQLException {
+        return toStringArray(getArray(columnLabel));
+    }
+
+    @Override
+    public void forEachArrayElement(int columnIndex, ArrayElementConsumer consumer) throws SQLException {
+        forEachElement(getArray(columnIndex), consumer);
+    }
+
+    @Override
+    public void forEachArrayElement(String columnLabel, ArrayElementConsumer consumer) throws SQLException {
+        forEachElement(getArray(columnLabel), consumer);
+    }
+
+    /**
+     * @return the array contents, freeing the driver resources. null if SQL NULL.
+     */
+    private static Object elements(Array array) throws SQLException {
+        if (array == null) {
+            return null;
+        }
+        try {
+            return array.getArray();
+        } finally {
+            free(array);
+        }
+    }
+
+    private static void forEachElement(Array array, ArrayElementConsumer consumer) throws SQLException {
+        Objects.requireNonNull(consumer);
+        if (array == null) {
+            return;
+        }
+        try (BetterResultSet elements = from(array.getResultSet())) {
+            while (elements.next()) {
+                consumer.accept(elements);
+            }
+        } finally {
+            free(array);
+        }
+    }
+
+    private static void free(Array array) throws SQLException {
+        try {
+            array.free();
+        } catch (SQLFeatureNotSupportedException ignored) {
+            //jdbc 3 drivers
+        }
+    }
+
+    //primitive arrays are read through the element result set, column 2 holding the values, so no boxed array is built.
+    //the element count isn't known up front, the array grows as needed and is trimmed at the end
+
+    private static long[] toLongArray(Array array) throws SQLException {
+        if (array == null) {
+            return null;
+        }
+        try (ResultSet elements = array.getResultSet()) {
+            long[] values = new long[INITIAL_ARRAY_CAPACITY];
+            int size = 0;
+            while (elements.next()) {
+                final long value = elements.getLong(2);
+                if (elements.wasNull()) {
+                    throw nullElement(size);
+                }
+                if (size == values.length) {
+                    values = Arrays.copyOf(values, size * 2);
+                }
+                values[size++] = value;
+            }
+            return size == values.length ? values : Arrays.copyOf(values, size);
+        } finally {
+            free(array);
+        }
+    }
+
+    private static int[] toIntArray(Array array) throws SQLException {
+        if (array == null) {
+            return null;
+        }
+        try (ResultSet elements = array.getResultSet()) {
+            int[] values = new int[INITIAL_ARRAY_CAPACITY];
+            int size = 0;
+            while (elements.next()) {
+                final long value = elements.getLong(2);//read wide, drivers differ on narrowing
+                if (elements.wasNull()) {
+                    throw nullElement(size);
+                }
+                if ((int) value != value) {
+                    throw new SQLException("array element " + value + " at index " + size + " is out of int range");
+                }
+                if (size == values.length) {
+                    values = Arrays.copyOf(values, size * 2);
+                }
+                values[size++] = (int) value;
+            }
+            return size == values.length ? values : Arrays.copyOf(values, size);
+        } finally {
+            free(array);
+        }
+    }
+
+    private static double[] toDoubleArray(Array array) throws SQLException {
+        if (array == null) {
+            return null;
+        }
+        try (ResultSet elements = array.getResultSet()) {
+            double[] values = new double[INITIAL_ARRAY_CAPACITY];
+            int size = 0;
+            while (elements.next()) {
+                final double value = elements.getDouble(2);
+                if (elements.wasNull()) {
+                    throw nullElement(size);
+                }
+                if (size == values.length) {
+                    values = Arrays.copyOf(values, size * 2);
+                }
+                values[size++] = value;
+            }
+            return size == values.length ? values : Arrays.copyOf(values, size);
+        } finally {
+            free(array);
+        }
+    }
+
+    private static String[] toStringArray(Array array) throws SQLException {
+        if (array == null) {
+            return null;
+        }
+        try (ResultSet elements = array.getResultSet()) {
+            String[] values = new String[INITIAL_ARRAY_CAPACITY];
+            int size = 0;
+            while (elements.next()) {
+                if (size == values.length) {
+                    values = Arrays.copyOf(values, size * 2);
+                }
+                values[size++] = elements.getString(2);
+            }
+            return size == values.length ? values : Arrays.copyOf(values, size);
+        } finally {
+            free(array);
+        }
+    }
+
+    private static SQLException nullElement(int index) {
+        return new SQLException("null element at array index " + index + " cannot be unboxed");
     }
 
     //java 8 time
@@ -0,0 +1,235 @@
+package io.github.yeagy.bss;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * CompletableFuture facade over BetterSqlSupport and BetterSqlMapper.
+ * each operation acquires a connection from the supplier, runs on the executor, and closes the connection when done.
+ * <p>
+ * the work is blocking JDBC, so size the executor for blocking I/O. a virtual thread per task executor fits well on newer JDKs.
+ * <p>
+ * cancelling a returned future cancels the statement it is running, via Statement.cancel.
+ */
+public final class BetterSqlAsync {
+    private final BetterSqlSupport support;
+    private final BetterSqlMapper mapper;
+    private final ConnectionSupplier supplier;
+    private final Executor executor;
+
+    private BetterSqlAsync(BetterOptions options, ConnectionSupplier supplier, Executor executor) {
+        this.support = BetterSqlSupport.from(options);
+        this.mapper = BetterSqlMapper.from(options);
+        this.supplier = supplier;
+        this.executor = executor;
+    }
+
+    public static BetterSqlAsync fromDefaults(ConnectionSupplier supplier, Executor executor) {
+        return from(BetterOptions.fromDefaults(), supplier, executor);
+    }
+
+    public static BetterSqlAsync from(BetterOptions options, ConnectionSupplier supplier, Executor executor) {
+        Objects.requireNonNull(options);
+        Objects.requireNonNull(supplier);
+        Objects.requireNonNull(executor);
+        return new BetterSqlAsync(options, supplier, executor);
+    }
+
+    /**
+     * see {@link BetterSqlSupport#query(Connection, String, StatementBinding, ResultMapping)}
+     */
+    public <T> CompletableFuture<T> query(String sql, StatementBinding binding, ResultMapping<T> mapping) {
+        return submit(connection -> support.query(connection, sql, binding, mapping));
+    }
+
+    /**
+     * see {@link BetterSqlSupport#queryList(Connection, String, StatementBinding, ResultMapping)}
+     */
+    public <T> CompletableFuture<List<T>> queryList(String sql, StatementBinding binding, ResultMapping<T> mapping) {
+        return submit(connection -> support.queryList(connection, sql, binding, mapping));
+    }
+
+    /**
+     * see {@link BetterSqlSupport#update(Connection, String, StatementBinding)}
+     */
+    public CompletableFuture<Integer> update(String sql, StatementBinding binding) {
+        return submit(connection -> support.update(connection, sql, binding));
+    }
+
+    /**
+     * see {@link BetterSqlSupport#insert(Connection, String, StatementBinding)}
+     */
+    public <K> CompletableFuture<K> insert(String sql, StatementBinding binding) {
+        return submit(connection -> support.insert(connection, sql, binding));
+    }
+
+    /**
+     * see {@link BetterSqlSupport#insert(Connection, String, StatementBinding, ResultMapping)}
+     */
+    public <K> CompletableFuture<K> insert(String sql, StatementBinding binding, ResultMapping<K> generatedKeyMapping) {
+        return submit(connection -> support.insert(connection, sql, binding, generatedKeyMapping));
+    }
+
+    /**
+     * see {@link BetterSqlMapper#insert(Connection, Object)}
+     */
+    public <T> CompletableFuture<T> insert(T entity) {
+        return submit(connection -> mapper.insert(connection, entity));
+    }
+
+    /**
+     * see {@link BetterSqlMapper#find(Connection, Object, Class)}
+     */
+    public <T> CompletableFuture<T> find(Object key, Class<T> clazz) {
+        return submit(connection -> mapper.find(connection, key, clazz));
+    }
+
+    /**
+     * see {@link BetterSqlMapper#find(Connection, Collection, Class)}
+     */
+    public <T> CompletableFuture<List<T>> find(Collection<?> keys, Class<T> clazz) {
+        return submit(connection -> mapper.find(connection, keys, clazz));
+    }
+
+    /**
+     * see {@link BetterSqlMapper.SelectBuilder#list(Connection)}
+     */
+    public <T> CompletableFuture<List<T>> list(BetterSqlMapper.SelectBuilder<T> select) {
+        Objects.requireNonNull(select);
+        return submit(select::list);
+    }
+
+    /**
+     * run your own logic on a supplied connection. the connection is closed afterwards.
+     *
+     * @param work your logic goes here
+     * @param <T>  return type
+     * @return future result
+     */
+    public <T> CompletableFuture<T> withConnection(ConnectionWork<T> work) {
+        Objects.requireNonNull(work);
+        return submit(work);
+    }
+
+    private <T> CompletableFuture<T> submit(ConnectionWork<T> work) {
+        final Operation<T> operation = new Operation<>();
+        try {
+            executor.execute(() -> operation.run(supplier, work));
+        } catch (RejectedExecutionException e) {
+            operation.completeExceptionally(e);
+        }
+        return operation;
+    }
+
+    @FunctionalInterface
+    public interface ConnectionWork<T> {
+        T apply(Connection connection) throws Exception;
+    }
+
+    /**
+     * future that tracks the statements its work creates, so cancel can reach them
+     */
+    private static final class Operation<T> extends CompletableFuture<T> {
+        private final List<Statement> statements = new ArrayList<>();
+        private Connection connection;
+
+        private void run(ConnectionSupplier supplier, ConnectionWork<T> work) {
+            if (isDone()) {
+                return;//cancelled before it started
+            }
+            try {
+                connection = supplier.get();
+                complete(work.apply(new Tracked(connection)));
+            } catch (BetterSqlException e) {
+                completeExceptionally(e);
+            } catch (Throwable e) {
+                completeExceptionally(new BetterSqlException(e));
+            } finally {
+                synchronized (statements) {
+                    statements.clear();
+                }
+                if (connection != null) {
+                    try {
+                        connection.close();
+                    } catch (SQLException e) {
+                        completeExceptionally(new BetterSqlException(e));//no-op if already complete
+                    }
+                }
+            }
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            final boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if (cancelled) {
+                final List<Statement> running;
+                synchronized (statements) {
+                    running = new ArrayList<>(statements);
+                }
+                for (Statement statement : running) {
+                    try {
+                        statement.cancel();
+                    } catch (SQLException ignored) {
+                        //closed or finished already
+                    }
+                }
+            }
+            return cancelled;
+        }
+
+        /**
+         * records each statement before handing it over, and refuses to create more once cancelled
+         */
+        private <S extends Statement> S track(S statement) throws SQLException {
+            synchronized (statements) {
+                statements.add(statement);
+            }
+            if (isCancelled()) {
+                statement.close();
+                throw new SQLException("operation cancelled");
+            }
+            return statement;
+        }
+
+        /**
+         * the connection as the work sees it
+         */
+        private final class Tracked extends DelegatingConnection {
+            private final Connection connection;
+
+            private Tracked(Connection connection) {
+                this.connection = connection;
+            }
+
+            @Override
+            Connection delegate() {
+                return connection;
+            }
+
+            @Override
+            Statement wrap(Statement statement) throws SQLException {
+                return track(statement);
+            }
+
+            @Override
+            PreparedStatement wrap(PreparedStatement statement) throws SQLException {
+                return track(statement);
+            }
+
+            @Override
+            CallableStatement wrap(CallableStatement statement) throws SQLException {
+                return track(statement);
+            }
+        }
+    }
+}
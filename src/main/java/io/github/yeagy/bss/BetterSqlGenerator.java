@@ -73,6 +73,35 @@ public final class BetterSqlGenerator {
         return String.format("SELECT %s FROM %s WHERE %s IN (SELECT unnest(%s))", columns, tableName, primaryKey, primaryKeyValue);
     }
 
+    public String generateKeyRangeSqlTemplate(TableData table) {
+        if (table.hasCompositeKey()) {
+            throw new UnsupportedOperationException("key range sql generation not supported for compound keys");
+        }
+        final String pk = TableData.getColumnName(table.getPrimaryKey());
+        return String.format("SELECT MIN(%s), MAX(%s) FROM %s", pk, pk, table.getTableName());
+    }
+
+    public String generateRangeSelectSqlTemplate(TableData table) {
+        if (table.hasCompositeKey()) {
+            throw new UnsupportedOperationException("range select sql generation not supported for compound keys");
+        }
+        return formatRangeSelect(columns(table, true), table.getTableName(), TableData.getColumnName(table.getPrimaryKey()), "?", "?");
+    }
+
+    /**
+     * inclusive range on the primary key, bound by :range_start and :range_end
+     */
+    public String generateRangeSelectSqlTemplateNamed(TableData table) {
+        if (table.hasCompositeKey()) {
+            throw new UnsupportedOperationException("range select sql generation not supported for compound keys");
+        }
+        return formatRangeSelect(columns(table, true), table.getTableName(), TableData.getColumnName(table.getPrimaryKey()), ":range_start", ":range_end");
+    }
+
+    private String formatRangeSelect(String columns, String tableName, String primaryKey, String start, String end) {
+        return String.format("SELECT %s FROM %s WHERE %s BETWEEN %s AND %s", columns, tableName, primaryKey, start, end);
+    }
+
     public String generateInsertSqlTemplate(TableData table) {
         return generateInsertSqlTemplate(table, false);
     }
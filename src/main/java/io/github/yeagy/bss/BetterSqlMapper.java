@@ -5,12 +5,16 @@ import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 /**
@@ -33,6 +37,13 @@ public final class BetterSqlMapper {
         return new BetterSqlMapper(options);
     }
 
+    /**
+     * @return the statement cache, or null if not enabled in the options
+     */
+    public StatementCache getStatementCache() {
+        return support.getStatementCache();
+    }
+
     /**
      * Find entity with matching primary key
      *
@@ -52,7 +63,7 @@ public final class BetterSqlMapper {
         }
         final String select = generator.generateSelectSqlTemplate(tableData);
         return support.builder(select).bind(ps -> setParameter(ps, key, 1))
-                .mapResult(rs -> createEntity(rs, tableData, clazz)).query(connection);
+                .mapResult(EntityRowPlan.from(clazz).newMapping()).query(connection);
     }
 
     /**
@@ -74,7 +85,7 @@ public final class BetterSqlMapper {
         }
         final String select = generator.generateBulkSelectSqlTemplate(tableData);
         return support.builder(select).bind(ps -> ps.setArray(1, keys))
-                .mapResult(rs -> createEntity(rs, tableData, clazz)).queryList(connection);
+                .mapResult(EntityRowPlan.from(clazz).newMapping()).queryList(connection);
     }
 
     /**
@@ -253,6 +264,36 @@ public final class BetterSqlMapper {
         return new SelectBuilder<>(sql, clazz);
     }
 
+    /**
+     * Compile a select once for repeated use. Columns are mapped to the entity like the select builder does.
+     * The returned query is immutable and thread-safe, fit for a static final field.
+     *
+     * @param sql   select statement
+     * @param clazz entity type class
+     * @param <T>   entity type
+     * @return compiled query
+     */
+    public <T> PreparedQuery<T> compile(String sql, Class<T> clazz) {
+        Objects.requireNonNull(sql);
+        Objects.requireNonNull(clazz);
+        final EntityRowPlan<T> plan = EntityRowPlan.from(clazz);
+        return new PreparedQuery<>(support, support.template(sql), plan::newMapping);
+    }
+
+    /**
+     * Read a whole table in parallel, split into primary key ranges. See {@link PartitionedScan}.
+     *
+     * @param supplier   connections for the slices. each slice is read on its own connection, closed afterwards
+     * @param clazz      entity type class. needs a single integral primary key
+     * @param partitions number of key ranges
+     * @param <T>        entity type
+     * @return scan, run it with {@link PartitionedScan#stream()} or {@link PartitionedScan#forEach}
+     */
+    public <T> PartitionedScan<T> scan(ConnectionSupplier supplier, Class<T> clazz, int partitions) {
+        Objects.requireNonNull(clazz);
+        return new PartitionedScan<>(support, generator, supplier, clazz, partitions);
+    }
+
     public final class SelectBuilder<T> {
         private final String sql;
         private final Class<T> clazz;
@@ -277,6 +318,28 @@ public final class BetterSqlMapper {
             return this;
         }
 
+        /**
+         * Bind :named parameters from an entity's columns. See {@link BetterPreparedStatement#bindEntity(Object)}
+         *
+         * @param entity entity holding the parameter values
+         * @return this
+         */
+        public SelectBuilder<T> bindEntity(Object entity) {
+            Objects.requireNonNull(entity);
+            return bind(ps -> ps.bindEntity(entity));
+        }
+
+        /**
+         * Bind :named parameters from a map. See {@link BetterPreparedStatement#bindMap(Map)}
+         *
+         * @param values parameter values by name
+         * @return this
+         */
+        public SelectBuilder<T> bindMap(Map<String, ?> values) {
+            Objects.requireNonNull(values);
+            return bind(ps -> ps.bindMap(values));
+        }
+
         /**
          * Query for a single result.
          *
@@ -297,6 +360,24 @@ public final class BetterSqlMapper {
             return prepareBuilder(connection).queryList(connection);
         }
 
+        /**
+         * Query for a list of results, with fetching and mapping pipelined. This thread reads, the executor maps. See {@link PipelinedQuery}
+         *
+         * @param connection db connection. close it yourself
+         * @param executor   maps the rows to entities
+         * @return entities or empty set
+         */
+        public List<T> listPipelined(Connection connection, Executor executor) {
+            Objects.requireNonNull(connection);
+            Objects.requireNonNull(executor);
+            final EntityRowPlan<T> plan = EntityRowPlan.from(clazz);
+            try (final BetterPreparedStatement ps = support.prepare(connection, support.template(sql), false)) {
+                return PipelinedQuery.queryList(ps, statementBinding, plan::newMapping, executor);
+            } catch (Exception e) {
+                throw new BetterSqlException(e);
+            }
+        }
+
         /**
          * Return a map of results.
          *
@@ -321,12 +402,221 @@ public final class BetterSqlMapper {
             return prepareBuilder(connection).mapKey(keyMapping).queryMultiMap(connection);
         }
 
+        /**
+         * Stream results to a subscriber with backpressure. See {@link ResultPublisher}
+         *
+         * @param supplier connections for the query, one per subscription. closed when the subscription ends
+         * @param executor reads the results, a thread per active subscription
+         * @return publisher. each subscribe runs the query
+         */
+        public ResultPublisher<T> publish(ConnectionSupplier supplier, Executor executor) {
+            return new ResultPublisher<>(support, supplier, executor, support.template(sql), statementBinding, EntityRowPlan.from(clazz)::newMapping, ResultPublisher.DEFAULT_MAX_FETCH_SIZE);
+        }
+
         private BetterSqlSupport.BoundResultBuilder<T> prepareBuilder(Connection connection) {
             Objects.requireNonNull(connection);
-            final TableData tableData = TableData.from(clazz);
             return support.builder(sql)
                     .bind(statementBinding)
-                    .mapResult(rs -> createEntity(rs, tableData, clazz));
+                    .mapResult(EntityRowPlan.from(clazz).newMapping());
+        }
+    }
+
+    /**
+     * Create a unit of work on the connection. Entity writes are recorded and run as grouped JDBC batches on flush.
+     * See {@link BetterSqlTransaction#withUnitOfWork(BetterSqlMapper, BetterSqlTransaction.UnitOfWorkConsumer)} to flush on commit.
+     *
+     * @param connection db connection. close it yourself
+     * @return new unit of work
+     */
+    public UnitOfWork unitOfWork(Connection connection) {
+        return new UnitOfWork(connection);
+    }
+
+    /**
+     * Write-behind of entity inserts, updates and deletes.
+     * <p>
+     * Operations are grouped by statement (table, operation and template) and flushed as one JDBC batch per group:
+     * inserts first, then updates, then deletes. Within each operation, groups run in the order their table was first recorded,
+     * so record parents before children for inserts and children before parents for deletes, like you would run them.
+     * Flush between dependent operations on the same row, e.g. a delete and re-insert of the same key.
+     * <p>
+     * Generated keys are written back into the recorded entities when the driver returns one key row per batched row.
+     * Nothing hits the database until {@link #flush()}, so flush before reading your own writes.
+     */
+    public final class UnitOfWork {
+        private final Connection connection;
+        private final Map<String, WriteGroup> inserts = new LinkedHashMap<>();
+        private final Map<String, WriteGroup> updates = new LinkedHashMap<>();
+        private final Map<String, WriteGroup> deletes = new LinkedHashMap<>();
+        private int pending = 0;
+
+        private UnitOfWork(Connection connection) {
+            Objects.requireNonNull(connection);
+            this.connection = connection;
+        }
+
+        /**
+         * Record an insert. A null primary key is generated by the database, and written back into this entity on flush if the driver can.
+         *
+         * @param entity entity to insert
+         */
+        public void insert(Object entity) {
+            Objects.requireNonNull(entity);
+            final TableData tableData = TableData.from(entity.getClass());
+            final boolean includePrimaryKey = !getPrimaryKeyValues(entity, tableData).isEmpty();
+            final String insert = generator.generateInsertSqlTemplate(tableData, includePrimaryKey);
+            inserts.computeIfAbsent(insert, k -> new WriteGroup(tableData, insert, !includePrimaryKey)).entities.add(entity);
+            pending++;
+        }
+
+        /**
+         * Record an update. Flush fails if it does not update exactly one row.
+         *
+         * @param entity entity to update
+         */
+        public void update(Object entity) {
+            Objects.requireNonNull(entity);
+            final TableData tableData = TableData.from(entity.getClass());
+            if (getPrimaryKeyValues(entity, tableData).isEmpty()) {
+                throw new BetterSqlException("primary key(s) cannot be null");
+            }
+            final String update = generator.generateUpdateSqlTemplate(tableData);
+            updates.computeIfAbsent(update, k -> new WriteGroup(tableData, update, false)).entities.add(entity);
+            pending++;
+        }
+
+        /**
+         * Record a delete. Flush fails if it does not delete exactly one row.
+         *
+         * @param entity entity to delete
+         */
+        public void delete(Object entity) {
+            Objects.requireNonNull(entity);
+            final TableData tableData = TableData.from(entity.getClass());
+            if (getPrimaryKeyValues(entity, tableData).isEmpty()) {
+                throw new BetterSqlException("primary key(s) cannot be null");
+            }
+            final String delete = generator.generateDeleteSqlTemplate(tableData);
+            deletes.computeIfAbsent(delete, k -> new WriteGroup(tableData, delete, false)).entities.add(entity);
+            pending++;
+        }
+
+        /**
+         * @return number of recorded operations not yet flushed
+         */
+        public int getPending() {
+            return pending;
+        }
+
+        /**
+         * Run every recorded operation as grouped batches. Recorded operations are discarded, even if the flush fails.
+         */
+        public void flush() {
+            try {
+                for (WriteGroup group : inserts.values()) {
+                    group.flush(connection, Operation.INSERT);
+                }
+                for (WriteGroup group : updates.values()) {
+                    group.flush(connection, Operation.UPDATE);
+                }
+                for (WriteGroup group : deletes.values()) {
+                    group.flush(connection, Operation.DELETE);
+                }
+            } catch (BetterSqlException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new BetterSqlException(e);
+            } finally {
+                inserts.clear();
+                updates.clear();
+                deletes.clear();
+                pending = 0;
+            }
+        }
+    }
+
+    private enum Operation {INSERT, UPDATE, DELETE}
+
+    private final class WriteGroup {
+        private final TableData tableData;
+        private final String sql;
+        private final boolean generatedKeys;
+        private final List<Object> entities = new ArrayList<>();
+
+        private WriteGroup(TableData tableData, String sql, boolean generatedKeys) {
+            this.tableData = tableData;
+            this.sql = sql;
+            this.generatedKeys = generatedKeys;
+        }
+
+        private void flush(Connection connection, Operation operation) throws Exception {
+            try (final BetterPreparedStatement ps = support.prepare(connection, support.template(sql), generatedKeys)) {
+                for (Object entity : entities) {
+                    int idx = 0;
+                    if (operation == Operation.DELETE || operation == Operation.INSERT && !generatedKeys) {
+                        for (Field field : tableData.getPrimaryKeys()) {
+                            setParameter(ps, field, entity, ++idx);
+                        }
+                    }
+                    if (operation != Operation.DELETE) {
+                        for (Field field : tableData.getColumns()) {
+                            setParameter(ps, field, entity, ++idx);
+                        }
+                    }
+                    if (operation == Operation.UPDATE) {
+                        for (Field field : tableData.getPrimaryKeys()) {
+                            setParameter(ps, field, entity, ++idx);
+                        }
+                    }
+                    ps.addBatch();
+                }
+                final int[] counts = ps.executeBatch();
+                if (operation != Operation.INSERT) {
+                    verifyCounts(counts, operation);
+                } else if (generatedKeys) {
+                    writeGeneratedKeys(ps);
+                }
+            }
+        }
+
+        private void verifyCounts(int[] counts, Operation operation) {
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] != 1 && counts[i] != Statement.SUCCESS_NO_INFO) {
+                    final Object entity = entities.get(i);
+                    final String pks = getPrimaryKeyValues(entity, tableData).stream().map(pk -> TableData.getColumnName(pk.field) + ": " + pk.value).collect(Collectors.joining(", "));
+                    final String verb = operation == Operation.UPDATE ? "updated" : "deleted";
+                    throw new BetterSqlException(String.format("%s rows %s. 1 row expected. [table %s] primary key(s) %s", counts[i], verb, tableData.getTableName(), pks));
+                }
+            }
+        }
+
+        private void writeGeneratedKeys(BetterPreparedStatement ps) throws SQLException, IllegalAccessException {
+            final List<Object[]> keys = new ArrayList<>(entities.size());
+            final List<Field> primaryKeys = tableData.getPrimaryKeys();
+            try (final BetterResultSet rs = tableData.hasCompositeKey() ? MetadataTranslatingResultSet.fromGeneratedKeys(ps) : BetterResultSet.from(ps.getGeneratedKeys())) {
+                while (rs.next()) {
+                    final Object[] row = new Object[primaryKeys.size()];
+                    if (tableData.hasCompositeKey()) {
+                        for (int i = 0; i < row.length; i++) {
+                            row[i] = rs.getObject(TableData.getColumnName(primaryKeys.get(i)));
+                        }
+                    } else {
+                        row[0] = rs.getObject(1);
+                    }
+                    keys.add(row);
+                }
+            } catch (SQLFeatureNotSupportedException e) {
+                return;//no batch keys from this driver
+            }
+            if (keys.size() != entities.size()) {
+                return;//driver only reports some keys, can't line them up
+            }
+            for (int i = 0; i < entities.size(); i++) {
+                final Object[] row = keys.get(i);
+                for (int k = 0; k < row.length; k++) {
+                    primaryKeys.get(k).set(entities.get(i), row[k]);
+                }
+            }
         }
     }
 
@@ -385,31 +675,6 @@ public final class BetterSqlMapper {
         }
     }
 
-    private static void setField(BetterResultSet rs, Field field, Object target, Integer idx) throws SQLException, IllegalAccessException {
-        final TypeMappers.FieldResultWriter writer = TypeMappers.getFieldResultWriter(field.getType());
-        if (writer != null) {
-            writer.write(rs, field, target, idx);
-        } else if (field.getType().isEnum()) {
-            String s = idx == null ? rs.getString(TableData.getColumnName(field)) : rs.getString(idx);
-            //noinspection unchecked
-            field.set(target, Enum.valueOf((Class<Enum>) field.getType(), s));
-        } else {
-            final Object v = idx == null ? rs.getObject(TableData.getColumnName(field)) : rs.getObject(idx);
-            field.set(target, v);
-        }
-    }
-
-    private static <T> T createEntity(BetterResultSet rs, TableData tableData, Class<T> clazz) throws NoSuchMethodException, IllegalAccessException, InvocationTargetException, InstantiationException, SQLException {
-        final T result = constructNewInstance(clazz);
-        for (Field field : tableData.getPrimaryKeys()) {
-            setField(rs, field, result, null);
-        }
-        for (Field field : tableData.getColumns()) {
-            setField(rs, field, result, null);
-        }
-        return result;
-    }
-
     private static <T> T constructNewInstance(Class<T> clazz) throws NoSuchMethodException, IllegalAccessException, InvocationTargetException, InstantiationException {
         final Constructor<T> constructor = clazz.getDeclaredConstructor();
         if (constructor == null) {
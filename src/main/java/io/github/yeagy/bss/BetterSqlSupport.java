@@ -1,21 +1,27 @@
 package io.github.yeagy.bss;
 
 import java.sql.Connection;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.Executor;
 
 /**
  * CRUD automagic
  */
 public final class BetterSqlSupport {
     private final BetterOptions options;
+    private final StatementCache statementCache;
+    private final ExecutionListener executionListener;
 
     private BetterSqlSupport(BetterOptions options) {
         this.options = options;
+        this.statementCache = options.getStatementCacheSize() > 0 ? new StatementCache(options.getStatementCacheSize()) : null;
+        this.executionListener = options.getExecutionListener();
     }
 
     public static BetterSqlSupport fromDefaults() {
@@ -40,20 +46,11 @@ public final class BetterSqlSupport {
         Objects.requireNonNull(connection);
         Objects.requireNonNull(sql);
         Objects.requireNonNull(mapping);
-        T entity = null;
-        try (final BetterPreparedStatement ps = BetterPreparedStatement.create(connection, sql, false, !options.arraySupport())) {
-            if (binding != null) {
-                binding.bind(ps);
-            }
-            try (final BetterResultSet rs = BetterResultSet.from(ps.executeQuery())) {
-                if (rs.next()) {
-                    entity = mapping.map(rs);
-                }
-            }
+        try (final BetterPreparedStatement ps = prepare(connection, sql, false)) {
+            return query(ps, binding, mapping);
         } catch (Exception e) {
             throw new BetterSqlException(e);
         }
-        return entity;
     }
 
     /**
@@ -70,20 +67,35 @@ public final class BetterSqlSupport {
         Objects.requireNonNull(connection);
         Objects.requireNonNull(sql);
         Objects.requireNonNull(mapping);
-        final List<T> entities = new ArrayList<>();
-        try (final BetterPreparedStatement ps = BetterPreparedStatement.create(connection, sql, false, !options.arraySupport())) {
-            if (binding != null) {
-                binding.bind(ps);
-            }
-            try (final BetterResultSet rs = BetterResultSet.from(ps.executeQuery())) {
-                while (rs.next()) {
-                    entities.add(mapping.map(rs));
-                }
-            }
+        try (final BetterPreparedStatement ps = prepare(connection, sql, false)) {
+            return queryList(ps, binding, mapping);
+        } catch (Exception e) {
+            throw new BetterSqlException(e);
+        }
+    }
+
+    /**
+     * bulk SELECT with fetching and mapping pipelined, for wide rows where mapping costs as much as fetching.
+     * this thread reads raw values into row buffers, the executor maps them in parallel. order is kept. see {@link PipelinedQuery}
+     *
+     * @param connection db connection. close it yourself
+     * @param sql        sql template
+     * @param binding    bind parameter values to the PreparedStatement (optional)
+     * @param mapping    map ResultSet to return entity. called from several threads at once, so it must be thread-safe
+     * @param executor   maps the row buffers
+     * @param <T>        entity type
+     * @return list of entity or empty list
+     */
+    public <T> List<T> queryListPipelined(Connection connection, String sql, StatementBinding binding, ResultMapping<T> mapping, Executor executor) {
+        Objects.requireNonNull(connection);
+        Objects.requireNonNull(sql);
+        Objects.requireNonNull(mapping);
+        Objects.requireNonNull(executor);
+        try (final BetterPreparedStatement ps = prepare(connection, sql, false)) {
+            return PipelinedQuery.queryList(ps, binding, () -> mapping, executor);
         } catch (Exception e) {
             throw new BetterSqlException(e);
         }
-        return Collections.unmodifiableList(entities);
     }
 
     /**
@@ -103,20 +115,11 @@ public final class BetterSqlSupport {
         Objects.requireNonNull(sql);
         Objects.requireNonNull(resultMapping);
         Objects.requireNonNull(keyMapping);
-        final Map<K, T> map = new HashMap<>();
-        try (final BetterPreparedStatement ps = BetterPreparedStatement.create(connection, sql, false, !options.arraySupport())) {
-            if (binding != null) {
-                binding.bind(ps);
-            }
-            try (final BetterResultSet rs = BetterResultSet.from(ps.executeQuery())) {
-                while (rs.next()) {
-                    map.put(keyMapping.map(rs), resultMapping.map(rs));
-                }
-            }
+        try (final BetterPreparedStatement ps = prepare(connection, sql, false)) {
+            return queryMap(ps, binding, resultMapping, keyMapping);
         } catch (Exception e) {
             throw new BetterSqlException(e);
         }
-        return Collections.unmodifiableMap(map);
     }
 
     /**
@@ -136,21 +139,11 @@ public final class BetterSqlSupport {
         Objects.requireNonNull(sql);
         Objects.requireNonNull(resultMapping);
         Objects.requireNonNull(keyMapping);
-        final Map<K, List<T>> mmap = new HashMap<>();
-        try (final BetterPreparedStatement ps = BetterPreparedStatement.create(connection, sql, false, !options.arraySupport())) {
-            if (binding != null) {
-                binding.bind(ps);
-            }
-            try (final BetterResultSet rs = BetterResultSet.from(ps.executeQuery())) {
-                while (rs.next()) {
-                    mmap.computeIfAbsent(keyMapping.map(rs), k -> new ArrayList<>()).add(resultMapping.map(rs));
-                }
-            }
+        try (final BetterPreparedStatement ps = prepare(connection, sql, false)) {
+            return queryMultiMap(ps, binding, resultMapping, keyMapping);
         } catch (Exception e) {
             throw new BetterSqlException(e);
         }
-        return Collections.unmodifiableMap(mmap);
-
     }
 
     /**
@@ -164,7 +157,7 @@ public final class BetterSqlSupport {
     public int update(Connection connection, String sql, StatementBinding binding) {
         Objects.requireNonNull(connection);
         Objects.requireNonNull(sql);
-        try (final BetterPreparedStatement ps = BetterPreparedStatement.create(connection, sql, false, !options.arraySupport())) {
+        try (final BetterPreparedStatement ps = prepare(connection, sql, false)) {
             if (binding != null) {
                 binding.bind(ps);
             }
@@ -190,7 +183,7 @@ public final class BetterSqlSupport {
     public <K> K insert(Connection connection, String sql, StatementBinding binding, ResultMapping<K> generatedKeyMapping) {
         Objects.requireNonNull(connection);
         Objects.requireNonNull(sql);
-        try (final BetterPreparedStatement ps = BetterPreparedStatement.create(connection, sql, true, !options.arraySupport())) {
+        try (final BetterPreparedStatement ps = prepare(connection, sql, true)) {
             if (binding != null) {
                 binding.bind(ps);
             }
@@ -220,7 +213,7 @@ public final class BetterSqlSupport {
         Objects.requireNonNull(connection);
         Objects.requireNonNull(sql);
         K key = null;
-        try (final BetterPreparedStatement ps = BetterPreparedStatement.create(connection, sql, true, !options.arraySupport())) {
+        try (final BetterPreparedStatement ps = prepare(connection, sql, true)) {
             if (binding != null) {
                 binding.bind(ps);
             }
@@ -237,6 +230,123 @@ public final class BetterSqlSupport {
         return key;
     }
 
+    /**
+     * @return the statement cache, or null if not enabled in the options
+     */
+    public StatementCache getStatementCache() {
+        return statementCache;
+    }
+
+    /**
+     * compile a query once for repeated use. the returned query is immutable and thread-safe, fit for a static final field.
+     *
+     * @param sql     sql template
+     * @param mapping map ResultSet to return entity. shared by all executions, so it must be thread-safe too
+     * @param <T>     entity type
+     * @return compiled query
+     */
+    public <T> PreparedQuery<T> compile(String sql, ResultMapping<T> mapping) {
+        Objects.requireNonNull(sql);
+        Objects.requireNonNull(mapping);
+        return new PreparedQuery<>(this, template(sql), () -> mapping);
+    }
+
+    /**
+     * stream query results to a subscriber with backpressure. see {@link ResultPublisher}
+     *
+     * @param supplier connections for the query, one per subscription. closed when the subscription ends
+     * @param executor reads the results, a thread per active subscription
+     * @param sql      sql template
+     * @param binding  bind parameter values to the PreparedStatement (optional)
+     * @param mapping  map ResultSet to return entity. shared by all subscriptions, so it must be thread-safe
+     * @param <T>      entity type
+     * @return publisher. each subscribe runs the query
+     */
+    public <T> ResultPublisher<T> publish(ConnectionSupplier supplier, Executor executor, String sql, StatementBinding binding, ResultMapping<T> mapping) {
+        Objects.requireNonNull(sql);
+        Objects.requireNonNull(mapping);
+        return new ResultPublisher<>(this, supplier, executor, template(sql), binding, () -> mapping, ResultPublisher.DEFAULT_MAX_FETCH_SIZE);
+    }
+
+    SqlTemplate template(String sql) {
+        return SqlTemplate.from(sql, !options.arraySupport());
+    }
+
+    private BetterPreparedStatement prepare(Connection connection, String sql, boolean returnGeneratedKeys) throws SQLException {
+        if (executionListener != null) {
+            return prepare(connection, template(sql), returnGeneratedKeys);
+        }
+        if (statementCache != null) {
+            return statementCache.prepare(connection, sql, returnGeneratedKeys, !options.arraySupport());
+        }
+        return BetterPreparedStatement.create(connection, sql, returnGeneratedKeys, !options.arraySupport());
+    }
+
+    BetterPreparedStatement prepare(Connection connection, SqlTemplate template, boolean returnGeneratedKeys) throws SQLException {
+        Objects.requireNonNull(connection);
+        final BetterPreparedStatement ps;
+        if (statementCache != null) {
+            ps = statementCache.prepare(connection, template, returnGeneratedKeys);
+        } else {
+            ps = BetterPreparedStatementImpl.from(connection, template, returnGeneratedKeys);
+        }
+        if (executionListener != null) {
+            return new ObservedStatement(ps, template.getSql(), template.getProcessedSql(), executionListener);
+        }
+        return ps;
+    }
+
+    static <T> T query(BetterPreparedStatement ps, StatementBinding binding, ResultMapping<T> mapping) throws Exception {
+        if (binding != null) {
+            binding.bind(ps);
+        }
+        try (final BetterResultSet rs = BetterResultSet.from(ps.executeQuery())) {
+            if (rs.next()) {
+                return mapping.map(rs);
+            }
+        }
+        return null;
+    }
+
+    static <T> List<T> queryList(BetterPreparedStatement ps, StatementBinding binding, ResultMapping<T> mapping) throws Exception {
+        if (binding != null) {
+            binding.bind(ps);
+        }
+        final List<T> entities = new ArrayList<>();
+        try (final BetterResultSet rs = BetterResultSet.from(ps.executeQuery())) {
+            while (rs.next()) {
+                entities.add(mapping.map(rs));
+            }
+        }
+        return Collections.unmodifiableList(entities);
+    }
+
+    static <K, T> Map<K, T> queryMap(BetterPreparedStatement ps, StatementBinding binding, ResultMapping<T> resultMapping, ResultMapping<K> keyMapping) throws Exception {
+        if (binding != null) {
+            binding.bind(ps);
+        }
+        final Map<K, T> map = new HashMap<>();
+        try (final BetterResultSet rs = BetterResultSet.from(ps.executeQuery())) {
+            while (rs.next()) {
+                map.put(keyMapping.map(rs), resultMapping.map(rs));
+            }
+        }
+        return Collections.unmodifiableMap(map);
+    }
+
+    static <K, T> Map<K, List<T>> queryMultiMap(BetterPreparedStatement ps, StatementBinding binding, ResultMapping<T> resultMapping, ResultMapping<K> keyMapping) throws Exception {
+        if (binding != null) {
+            binding.bind(ps);
+        }
+        final Map<K, List<T>> mmap = new HashMap<>();
+        try (final BetterResultSet rs = BetterResultSet.from(ps.executeQuery())) {
+            while (rs.next()) {
+                mmap.computeIfAbsent(keyMapping.map(rs), k -> new ArrayList<>()).add(resultMapping.map(rs));
+            }
+        }
+        return Collections.unmodifiableMap(mmap);
+    }
+
     //all cascading builders below
 
     public Builder builder(String sql) {
@@ -262,6 +372,14 @@ public final class BetterSqlSupport {
             return new BoundBuilder(sql, statementBinding);
         }
 
+        public BoundBuilder bindEntity(Object entity) {
+            return bind(ps -> ps.bindEntity(entity));
+        }
+
+        public BoundBuilder bindMap(Map<String, ?> values) {
+            return bind(ps -> ps.bindMap(values));
+        }
+
         public <T> ResultBuilder<T> mapResult(ResultMapping<T> resultMapping) {
             return new ResultBuilder<>(sql, resultMapping);
         }
@@ -314,6 +432,14 @@ public final class BetterSqlSupport {
             return new BoundKeyedBuilder<>(sql, statementBinding, keyMapping);
         }
 
+        public BoundKeyedBuilder<K> bindEntity(Object entity) {
+            return bind(ps -> ps.bindEntity(entity));
+        }
+
+        public BoundKeyedBuilder<K> bindMap(Map<String, ?> values) {
+            return bind(ps -> ps.bindMap(values));
+        }
+
         public <T> KeyedResultBuilder<K, T> mapResult(ResultMapping<T> resultMapping) {
             return new KeyedResultBuilder<>(sql, resultMapping, keyMapping);
         }
@@ -360,6 +486,14 @@ public final class BetterSqlSupport {
             return new BoundResultBuilder<>(sql, statementBinding, resultMapping);
         }
 
+        public BoundResultBuilder<T> bindEntity(Object entity) {
+            return bind(ps -> ps.bindEntity(entity));
+        }
+
+        public BoundResultBuilder<T> bindMap(Map<String, ?> values) {
+            return bind(ps -> ps.bindMap(values));
+        }
+
         public <K> KeyedResultBuilder<K, T> mapKey(ResultMapping<K> keyMapping) {
             return new KeyedResultBuilder<>(sql, resultMapping, keyMapping);
         }
@@ -411,6 +545,14 @@ public final class BetterSqlSupport {
         public BoundKeyedResultBuilder<K, T> bind(StatementBinding statementBinding) {
             return new BoundKeyedResultBuilder<>(sql, statementBinding, resultMapping, keyMapping);
         }
+
+        public BoundKeyedResultBuilder<K, T> bindEntity(Object entity) {
+            return bind(ps -> ps.bindEntity(entity));
+        }
+
+        public BoundKeyedResultBuilder<K, T> bindMap(Map<String, ?> values) {
+            return bind(ps -> ps.bindMap(values));
+        }
     }
 
     public final class BoundKeyedResultBuilder<K, T> {
@@ -2,12 +2,24 @@ package io.github.yeagy.bss;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Savepoint;
 import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import static java.sql.Connection.*;
 
 /**
  * Simplified Transactions
+ * <p>
+ * Transactions nest. Executed on a connection that already has a transaction open (autocommit off), a transaction runs
+ * as a savepoint within it: a failure rolls back to the savepoint and is rethrown, success leaves the commit to the outer transaction.
+ * Only execute(Connection) nests. A connection taken from a supplier is never inside a transaction of ours, so it always gets
+ * its own commit, even when the supplier hands it out with autocommit off.
+ * <p>
+ * Transactions can be named and watched by a {@link TransactionListener}, see {@link TransactionMetrics}.
  */
 public final class BetterSqlTransaction {
     public enum Isolation {
@@ -23,6 +35,10 @@ public final class BetterSqlTransaction {
         }
     }
 
+    static final String UNNAMED = "unnamed";
+
+    private static final Logger LOGGER = Logger.getLogger(BetterSqlTransaction.class.getName());
+
     private BetterSqlTransaction() { }
 
     /**
@@ -71,10 +87,70 @@ public final class BetterSqlTransaction {
         return new VoidTransaction(consumer, isolation);
     }
 
-    private static <T> T executeInternalChecked(Connection connection, TransactionTransformer<T> transformer, Isolation isolation) throws SQLException {
+    /**
+     * Transaction with a unit of work. Recorded writes are flushed as grouped batches just before commit.
+     *
+     * @param mapper   mapper generating the entity statements
+     * @param consumer your logic goes here
+     * @return transaction context, abstracts away connection handling. call execute.
+     */
+    public static VoidTransaction withUnitOfWork(BetterSqlMapper mapper, UnitOfWorkConsumer consumer) {
+        return withUnitOfWork(null, mapper, consumer);
+    }
+
+    /**
+     * Transaction with a unit of work. Recorded writes are flushed as grouped batches just before commit.
+     *
+     * @param isolation isolation level
+     * @param mapper    mapper generating the entity statements
+     * @param consumer  your logic goes here
+     * @return transaction context, abstracts away connection handling. call execute.
+     */
+    public static VoidTransaction withUnitOfWork(Isolation isolation, BetterSqlMapper mapper, UnitOfWorkConsumer consumer) {
+        Objects.requireNonNull(mapper);
+        Objects.requireNonNull(consumer);
+        return new VoidTransaction(connection -> {
+            final BetterSqlMapper.UnitOfWork work = mapper.unitOfWork(connection);
+            consumer.consume(connection, work);
+            work.flush();
+        }, isolation);
+    }
+
+    /**
+     * Transaction with a unit of work that returns a value. Recorded writes are flushed as grouped batches just before commit.
+     *
+     * @param isolation   isolation level
+     * @param mapper      mapper generating the entity statements
+     * @param transformer your logic goes here
+     * @param <T>         return type
+     * @return transaction context, abstracts away connection handling. call execute.
+     */
+    public static <T> ReturningTransaction<T> returningUnitOfWork(Isolation isolation, BetterSqlMapper mapper, UnitOfWorkTransformer<T> transformer) {
+        Objects.requireNonNull(mapper);
+        Objects.requireNonNull(transformer);
+        return new ReturningTransaction<>(connection -> {
+            final BetterSqlMapper.UnitOfWork work = mapper.unitOfWork(connection);
+            final T returning = transformer.transform(connection, work);
+            work.flush();
+            return returning;
+        }, isolation);
+    }
+
+    /**
+     * @param nestable true if autocommit off means a transaction of the caller's is open, false for a connection fresh from a supplier
+     */
+    private static <T> T executeInternalChecked(Connection connection, TransactionTransformer<T> transformer, Isolation isolation, boolean readOnly,
+                                                String name, TransactionListener listener, long acquireNanos, boolean nestable) throws SQLException {
         Objects.requireNonNull(connection);
-        if (!connection.getAutoCommit()) {
-            throw new SQLException("transaction on connection already started!");
+        final boolean autoCommit = connection.getAutoCommit();
+        if (!autoCommit && nestable) {
+            return executeNestedChecked(connection, transformer, isolation);
+        }
+
+        boolean restoreReadOnly = false;
+        if (readOnly && !connection.isReadOnly()) {
+            connection.setReadOnly(true);//before the transaction starts, some drivers refuse it after
+            restoreReadOnly = true;
         }
 
         Integer previousIsolation = null;
@@ -88,11 +164,27 @@ public final class BetterSqlTransaction {
 
         T returning = null;
         SQLException caught = null;
+        Exception cause = null;
+        final long transformStart = listener != null ? System.nanoTime() : 0;
+        long commitStart = 0;
+        long end = 0;
         try {
-            connection.setAutoCommit(false);
+            if (autoCommit) {
+                connection.setAutoCommit(false);
+            }
             returning = transformer.transform(connection);
+            if (listener != null) {
+                commitStart = System.nanoTime();
+            }
             connection.commit();
+            if (listener != null) {
+                end = System.nanoTime();
+            }
         } catch (Exception e) {
+            if (listener != null) {
+                end = System.nanoTime();
+            }
+            cause = e;
             if (e instanceof SQLException) {
                 caught = (SQLException) e;
             } else {
@@ -104,10 +196,12 @@ public final class BetterSqlTransaction {
                 caught = chainException(caught, re);
             }
         } finally {
-            try {
-                connection.setAutoCommit(true);
-            } catch (SQLException e) {
-                caught = chainException(caught, e);
+            if (autoCommit) {
+                try {
+                    connection.setAutoCommit(true);
+                } catch (SQLException e) {
+                    caught = chainException(caught, e);
+                }
             }
             if (previousIsolation != null) {
                 try {
@@ -116,6 +210,24 @@ public final class BetterSqlTransaction {
                     caught = chainException(caught, e);
                 }
             }
+            if (restoreReadOnly) {
+                try {
+                    connection.setReadOnly(false);
+                } catch (SQLException e) {
+                    caught = chainException(caught, e);
+                }
+            }
+        }
+        if (listener != null) {//after cleanup, and a throwing listener is only logged, so it can't fail a committed transaction
+            try {
+                if (cause != null) {
+                    listener.onRollback(name, acquireNanos, end - transformStart, cause);
+                } else {
+                    listener.onCommit(name, acquireNanos, commitStart - transformStart, end - commitStart);
+                }
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "transaction listener failed on " + name, e);
+            }
         }
         if (caught != null) {
             throw caught;
@@ -123,23 +235,61 @@ public final class BetterSqlTransaction {
         return returning;
     }
 
-    private static <T> T executeInternal(Connection connection, TransactionTransformer<T> transformer, Isolation isolation) {
+    /**
+     * runs inside the transaction already open on the connection, as a savepoint. on failure only the savepoint is rolled back,
+     * and the exception goes on to the outer transaction. commit is left to the outer transaction.
+     */
+    private static <T> T executeNestedChecked(Connection connection, TransactionTransformer<T> transformer, Isolation isolation) throws SQLException {
+        if (isolation != null && isolation.isolationLevel > connection.getTransactionIsolation()) {
+            throw new SQLException("nested transaction can not raise the isolation level of the transaction on the connection");
+        }
+        final Savepoint savepoint = connection.setSavepoint();
+        T returning;
+        try {
+            returning = transformer.transform(connection);
+        } catch (Exception e) {
+            SQLException caught;
+            if (e instanceof SQLException) {
+                caught = (SQLException) e;
+            } else {
+                caught = new SQLException("uncaught exception in nested transaction", e);
+            }
+            try {
+                connection.rollback(savepoint);
+            } catch (SQLException re) {
+                caught = chainException(caught, re);
+            }
+            throw caught;
+        }
+        try {
+            connection.releaseSavepoint(savepoint);
+        } catch (SQLFeatureNotSupportedException ignored) {
+            //released with the transaction instead
+        }
+        return returning;
+    }
+
+    private static <T> T executeInternal(Connection connection, TransactionTransformer<T> transformer, Isolation isolation, boolean readOnly,
+                                         String name, TransactionListener listener) {
         try {
-            return executeInternalChecked(connection, transformer, isolation);
+            return executeInternalChecked(connection, transformer, isolation, readOnly, name, listener, 0, true);
         } catch (SQLException e) {
             throw new BetterSqlException(e);
         }
     }
 
-    private static <T> T executeInternal(ConnectionSupplier supplier, TransactionTransformer<T> transformer, Isolation isolation) {
+    private static <T> T executeInternal(ConnectionSupplier supplier, TransactionTransformer<T> transformer, Isolation isolation, boolean readOnly,
+                                         String name, TransactionListener listener) {
         Objects.requireNonNull(supplier);
 
         Connection connection = null;
         T returning = null;
         SQLException caught = null;
         try {
+            final long acquireStart = listener != null ? System.nanoTime() : 0;
             connection = supplier.get();
-            returning = executeInternalChecked(connection, transformer, isolation);
+            final long acquireNanos = listener != null ? System.nanoTime() - acquireStart : 0;
+            returning = executeInternalChecked(connection, transformer, isolation, readOnly, name, listener, acquireNanos, false);
         } catch (SQLException e) {
             caught = e;
         } finally {
@@ -157,6 +307,21 @@ public final class BetterSqlTransaction {
         return returning;
     }
 
+    private static <T> T executeWithRetry(Supplier<T> attempt, RetryPolicy retry) {
+        return retry == null ? attempt.get() : retry.execute(attempt);
+    }
+
+    /**
+     * a nested transaction is not retried. the failure goes to the outer transaction, which has to start over anyway
+     */
+    private static RetryPolicy retryFor(Connection connection, RetryPolicy retry) {
+        try {
+            return retry != null && connection.getAutoCommit() ? retry : null;
+        } catch (SQLException e) {
+            throw new BetterSqlException(e);
+        }
+    }
+
     private static SQLException chainException(SQLException last, SQLException next) {
         if (last != null) {
             last.setNextException(next);
@@ -172,18 +337,94 @@ public final class BetterSqlTransaction {
     public final static class VoidTransaction {
         private final TransactionConsumer consumer;
         private final Isolation isolation;
+        private final RetryPolicy retry;
+        private final boolean readOnly;
+        private final ConnectionSupplier replica;
+        private final String name;
+        private final TransactionListener listener;
 
         private VoidTransaction(TransactionConsumer consumer, Isolation isolation) {
+            this(consumer, isolation, null, false, null, UNNAMED, null);
+        }
+
+        private VoidTransaction(TransactionConsumer consumer, Isolation isolation, RetryPolicy retry, boolean readOnly, ConnectionSupplier replica,
+                        String name, TransactionListener listener) {
             this.consumer = consumer;
             this.isolation = isolation;
+            this.retry = retry;
+            this.readOnly = readOnly;
+            this.replica = replica;
+            this.name = name;
+            this.listener = listener;
+        }
+
+        /**
+         * Re-run the transaction when it fails on a serialization failure or deadlock. See {@link RetryPolicy}
+         *
+         * @param retry retry policy
+         * @return copy of this context that retries
+         */
+        public VoidTransaction withRetry(RetryPolicy retry) {
+            return new VoidTransaction(consumer, isolation, Objects.requireNonNull(retry), readOnly, replica, name, listener);
+        }
+
+        /**
+         * Run as a read only transaction. The connection is set read only for the transaction and restored after.
+         * Ignored when nested in another transaction.
+         *
+         * @return copy of this context that is read only
+         */
+        public VoidTransaction readOnly() {
+            return new VoidTransaction(consumer, isolation, retry, true, replica, name, listener);
         }
 
+        /**
+         * Run as a read only transaction on a replica. {@link #execute(ConnectionSupplier)} takes its connection from the replica
+         * instead of the given supplier. See {@link #readOnly()}
+         *
+         * @param replica connections to a read replica
+         * @return copy of this context that is read only
+         */
+        public VoidTransaction readOnly(ConnectionSupplier replica) {
+            return new VoidTransaction(consumer, isolation, retry, true, Objects.requireNonNull(replica), name, listener);
+        }
+
+        /**
+         * Name the transaction for its listener.
+         *
+         * @param name transaction name, like the use case it serves
+         * @return copy of this context with the name
+         */
+        public VoidTransaction named(String name) {
+            return new VoidTransaction(consumer, isolation, retry, readOnly, replica, Objects.requireNonNull(name), listener);
+        }
+
+        /**
+         * Report timings and outcome to a listener. Every attempt of a retried transaction is reported.
+         * Not reported when nested in another transaction.
+         *
+         * @param listener transaction listener, like {@link TransactionMetrics}
+         * @return copy of this context that reports to the listener
+         */
+        public VoidTransaction withListener(TransactionListener listener) {
+            return new VoidTransaction(consumer, isolation, retry, readOnly, replica, name, Objects.requireNonNull(listener));
+        }
+
+        /**
+         * when a transaction is already open on the connection, this runs nested in it as a savepoint. see {@link BetterSqlTransaction}.
+         * retries run on the same connection, after rollback
+         */
         public void execute(Connection connection) {
-            executeInternal(connection, consumer, isolation);
+            executeWithRetry(() -> executeInternal(connection, consumer, isolation, readOnly, name, listener), retryFor(connection, retry));
         }
 
+        /**
+         * never nested, the connection gets its own commit even if the supplier hands it out with autocommit off.
+         * retries run on a fresh connection from the supplier, or the replica if set
+         */
         public void execute(ConnectionSupplier supplier) {
-            executeInternal(supplier, consumer, isolation);
+            final ConnectionSupplier source = replica != null ? replica : supplier;
+            executeWithRetry(() -> executeInternal(source, consumer, isolation, readOnly, name, listener), retry);
         }
     }
 
@@ -194,21 +435,119 @@ public final class BetterSqlTransaction {
     public final static class ReturningTransaction<T> {
         private final TransactionTransformer<T> transformer;
         private final Isolation isolation;
+        private final RetryPolicy retry;
+        private final boolean readOnly;
+        private final ConnectionSupplier replica;
+        private final String name;
+        private final TransactionListener listener;
 
         public ReturningTransaction(TransactionTransformer<T> transformer, Isolation isolation) {
+            this(transformer, isolation, null, false, null, UNNAMED, null);
+        }
+
+        private ReturningTransaction(TransactionTransformer<T> transformer, Isolation isolation, RetryPolicy retry, boolean readOnly, ConnectionSupplier replica,
+                        String name, TransactionListener listener) {
             this.transformer = transformer;
             this.isolation = isolation;
+            this.retry = retry;
+            this.readOnly = readOnly;
+            this.replica = replica;
+            this.name = name;
+            this.listener = listener;
         }
 
+        /**
+         * Re-run the transaction when it fails on a serialization failure or deadlock. See {@link RetryPolicy}
+         *
+         * @param retry retry policy
+         * @return copy of this context that retries
+         */
+        public ReturningTransaction<T> withRetry(RetryPolicy retry) {
+            return new ReturningTransaction<>(transformer, isolation, Objects.requireNonNull(retry), readOnly, replica, name, listener);
+        }
+
+        /**
+         * Run as a read only transaction. The connection is set read only for the transaction and restored after.
+         * Ignored when nested in another transaction.
+         *
+         * @return copy of this context that is read only
+         */
+        public ReturningTransaction<T> readOnly() {
+            return new ReturningTransaction<>(transformer, isolation, retry, true, replica, name, listener);
+        }
+
+        /**
+         * Run as a read only transaction on a replica. {@link #execute(ConnectionSupplier)} takes its connection from the replica
+         * instead of the given supplier. See {@link #readOnly()}
+         *
+         * @param replica connections to a read replica
+         * @return copy of this context that is read only
+         */
+        public ReturningTransaction<T> readOnly(ConnectionSupplier replica) {
+            return new ReturningTransaction<>(transformer, isolation, retry, true, Objects.requireNonNull(replica), name, listener);
+        }
+
+        /**
+         * Name the transaction for its listener.
+         *
+         * @param name transaction name, like the use case it serves
+         * @return copy of this context with the name
+         */
+        public ReturningTransaction<T> named(String name) {
+            return new ReturningTransaction<>(transformer, isolation, retry, readOnly, replica, Objects.requireNonNull(name), listener);
+        }
+
+        /**
+         * Report timings and outcome to a listener. Every attempt of a retried transaction is reported.
+         * Not reported when nested in another transaction.
+         *
+         * @param listener transaction listener, like {@link TransactionMetrics}
+         * @return copy of this context that reports to the listener
+         */
+        public ReturningTransaction<T> withListener(TransactionListener listener) {
+            return new ReturningTransaction<>(transformer, isolation, retry, readOnly, replica, name, Objects.requireNonNull(listener));
+        }
+
+        /**
+         * when a transaction is already open on the connection, this runs nested in it as a savepoint. see {@link BetterSqlTransaction}.
+         * retries run on the same connection, after rollback
+         */
         public T execute(Connection connection) {
-            return executeInternal(connection, transformer, isolation);
+            return executeWithRetry(() -> executeInternal(connection, transformer, isolation, readOnly, name, listener), retryFor(connection, retry));
         }
 
+        /**
+         * never nested, the connection gets its own commit even if the supplier hands it out with autocommit off.
+         * retries run on a fresh connection from the supplier, or the replica if set
+         */
         public T execute(ConnectionSupplier supplier) {
-            return executeInternal(supplier, transformer, isolation);
+            final ConnectionSupplier source = replica != null ? replica : supplier;
+            return executeWithRetry(() -> executeInternal(source, transformer, isolation, readOnly, name, listener), retry);
         }
     }
 
+    /**
+     * Told how each transaction went. Nested transactions are part of the outer transaction and not reported on their own.
+     * Called after the commit or rollback. An exception thrown here is logged and does not change the outcome of the transaction.
+     */
+    public interface TransactionListener {
+        /**
+         * @param name           transaction name, "unnamed" if not set
+         * @param acquireNanos   time taken getting the connection from the supplier, 0 when executed on a connection
+         * @param transformNanos time spent in your logic, from the start of the transaction
+         * @param commitNanos    time the commit took. transform plus commit is about how long locks were held
+         */
+        void onCommit(String name, long acquireNanos, long transformNanos, long commitNanos);
+
+        /**
+         * @param name           transaction name, "unnamed" if not set
+         * @param acquireNanos   time taken getting the connection from the supplier, 0 when executed on a connection
+         * @param transformNanos time from the start of the transaction to the failure
+         * @param cause          what failed, in your logic or the commit
+         */
+        void onRollback(String name, long acquireNanos, long transformNanos, Throwable cause);
+    }
+
     @FunctionalInterface
     public interface TransactionConsumer extends TransactionTransformer<Void> {
         void consume(Connection connection) throws Exception;
@@ -224,4 +563,14 @@ public final class BetterSqlTransaction {
     public interface TransactionTransformer<T> {
         T transform(Connection connection) throws Exception;
     }
+
+    @FunctionalInterface
+    public interface UnitOfWorkConsumer {
+        void consume(Connection connection, BetterSqlMapper.UnitOfWork work) throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface UnitOfWorkTransformer<T> {
+        T transform(Connection connection, BetterSqlMapper.UnitOfWork work) throws Exception;
+    }
 }
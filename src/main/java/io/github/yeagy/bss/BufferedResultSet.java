@@ -0,0 +1,1743 @@
+package io.github.yeagy.bss;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Date;
+import java.sql.NClob;
+import java.sql.Ref;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.RowId;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLType;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * forward only, read only ResultSet over a chunk of buffered rows, for mapping rows away from the cursor.
+ * <p>
+ * the first row is mapped straight off the driver through a recording view, which notes the getter each column is read with.
+ * later rows are buffered by calling those same getters on the driver, so the mapping reads exactly what the driver returned,
+ * primitives unboxed. a column read differently than on the first row is converted from what was buffered.
+ * values that depend on the cursor, like LOB locators on some drivers, may not survive buffering.
+ */
+final class BufferedResultSet implements ResultSet {
+    private static final int STRING = 0;
+    private static final int NSTRING = 1;
+    private static final int BOOLEAN = 2;
+    private static final int BYTE = 3;
+    private static final int SHORT = 4;
+    private static final int INT = 5;
+    private static final int LONG = 6;
+    private static final int FLOAT = 7;
+    private static final int DOUBLE = 8;
+    private static final int BIG_DECIMAL = 9;
+    private static final int BYTES = 10;
+    private static final int DATE = 11;
+    private static final int TIME = 12;
+    private static final int TIMESTAMP = 13;
+    private static final int DATE_CALENDAR = 14;
+    private static final int TIME_CALENDAR = 15;
+    private static final int TIMESTAMP_CALENDAR = 16;
+    private static final int OBJECT = 17;
+    private static final int TYPED_OBJECT = 18;
+    private static final int ARRAY = 19;
+    private static final int BLOB = 20;
+    private static final int CLOB = 21;
+    private static final int NCLOB = 22;
+    private static final int REF = 23;
+    private static final int ROW_ID = 24;
+    private static final int XML = 25;
+    private static final int DATALINK = 26;
+    private static final int KINDS = 27;
+
+    private final Layout layout;
+    private final ResultSet live;//first row only, read through while recording
+    private final Recording recording;
+    private final Chunk chunk;
+    private final Plan plan;
+    private int row = -1;
+    private boolean wasNull;
+    private boolean closed;
+
+    private BufferedResultSet(Layout layout, ResultSet live, Recording recording, Chunk chunk) {
+        this.layout = layout;
+        this.live = live;
+        this.recording = recording;
+        this.chunk = chunk;
+        this.plan = chunk != null ? chunk.plan : null;
+    }
+
+    /**
+     * @param rs     result set on its first row
+     * @param layout its columns
+     * @return view reading the current row off the driver, recording the getters used. see {@link #plan()}
+     */
+    static BufferedResultSet recording(ResultSet rs, Layout layout) {
+        return new BufferedResultSet(layout, Objects.requireNonNull(rs), new Recording(layout.columns), null);
+    }
+
+    /**
+     * @param chunk filled rows
+     * @return view over them, before the first
+     */
+    static BufferedResultSet over(Chunk chunk) {
+        return new BufferedResultSet(chunk.plan.layout, null, null, chunk);
+    }
+
+    /**
+     * @return getters to buffer with, as recorded so far. columns not read are buffered with getObject
+     */
+    Plan plan() {
+        if (recording == null) {
+            throw new IllegalStateException("not a recording view");
+        }
+        return new Plan(layout, recording);
+    }
+
+    private void record(int column, int kind) {
+        recording.record(column, kind);
+    }
+
+    private long longValue(int column, int kind) throws SQLException {
+        final int slot = slot(column, kind);
+        if (slot < 0) {
+            final Object value = converted(column, kind);
+            return value == null ? 0 : value instanceof Boolean ? ((Boolean) value ? 1 : 0) : ((Number) value).longValue();
+        }
+        wasNull = chunk.nulls[slot][row];
+        return chunk.longs[slot][row];
+    }
+
+    private double doubleValue(int column, int kind) throws SQLException {
+        final int slot = slot(column, kind);
+        if (slot < 0) {
+            final Object value = converted(column, kind);
+            return value == null ? 0 : ((Number) value).doubleValue();
+        }
+        wasNull = chunk.nulls[slot][row];
+        return chunk.doubles[slot][row];
+    }
+
+    private Object objectValue(int column, int kind) throws SQLException {
+        final int slot = slot(column, kind);
+        if (slot < 0) {
+            return converted(column, kind);
+        }
+        final Object value = chunk.objects[slot][row];
+        wasNull = value == null;
+        return value;
+    }
+
+    private Object calendarValue(int column, int kind, Calendar cal) throws SQLException {
+        final int slot = slot(column, kind);
+        if (slot < 0 || !cal.equals(plan.calendars[column])) {
+            throw new SQLException("column " + column + " was not read with this calendar on the first row, its buffered value can't be reinterpreted");
+        }
+        final Object value = chunk.objects[slot][row];
+        wasNull = value == null;
+        return value;
+    }
+
+    private int slot(int column, int kind) throws SQLException {
+        if (closed) {
+            throw new SQLException("result set is closed");
+        }
+        if (row < 0 || row >= chunk.size) {
+            throw new SQLException("no current row");
+        }
+        if (column < 1 || column > layout.columns) {
+            throw new SQLException("column index out of range: " + column);
+        }
+        return plan.slots[column * KINDS + kind];
+    }
+
+    /**
+     * a getter the first row didn't use on this column. converts the buffered value the way the JDBC conversion table allows
+     */
+    private Object converted(int column, int kind) throws SQLException {
+        final Object value = chunk.boxed(plan.columnSlots[column], row);
+        wasNull = value == null;
+        if (value == null) {
+            return null;
+        }
+        switch (kind) {
+            case STRING:
+            case NSTRING:
+                if (!(value instanceof byte[])) {
+                    return value.toString();
+                }
+                break;
+            case BOOLEAN:
+                if (value instanceof Boolean) {
+                    return value;
+                } else if (value instanceof Number) {
+                    return ((Number) value).doubleValue() != 0;
+                } else if (value instanceof String) {
+                    final String s = ((String) value).trim();
+                    if (s.equalsIgnoreCase("true") || s.equals("1")) {
+                        return true;
+                    } else if (s.equalsIgnoreCase("false") || s.equals("0")) {
+                        return false;
+                    }
+                }
+                break;
+            case BYTE:
+                return integral(value, Byte.MIN_VALUE, Byte.MAX_VALUE);
+            case SHORT:
+                return integral(value, Short.MIN_VALUE, Short.MAX_VALUE);
+            case INT:
+                return integral(value, Integer.MIN_VALUE, Integer.MAX_VALUE);
+            case LONG:
+                return integral(value, Long.MIN_VALUE, Long.MAX_VALUE);
+            case FLOAT:
+            case DOUBLE:
+                if (value instanceof Number) {
+                    return ((Number) value).doubleValue();
+                } else if (value instanceof Boolean) {
+                    return (Boolean) value ? 1.0 : 0.0;
+                } else if (value instanceof String) {
+                    return decimal(value).doubleValue();
+                }
+                break;
+            case BIG_DECIMAL:
+                if (value instanceof Number || value instanceof String) {
+                    return decimal(value);
+                }
+                break;
+            case DATE:
+            case TIME:
+            case TIMESTAMP:
+                return temporal(value, kind);
+            case OBJECT:
+                return value;
+            default:
+                break;
+        }
+        throw new SQLException("column " + column + " holds " + value.getClass().getName() + ", which can't be read as " + KIND_NAMES[kind]);
+    }
+
+    private static final String[] KIND_NAMES = {"String", "NString", "boolean", "byte", "short", "int", "long", "float", "double", "BigDecimal",
+            "byte[]", "Date", "Time", "Timestamp", "Date", "Time", "Timestamp", "Object", "Object", "Array", "Blob", "Clob", "NClob", "Ref",
+            "RowId", "SQLXML", "URL"};
+
+    private static Long integral(Object value, long min, long max) throws SQLException {
+        if (value instanceof Boolean) {
+            return (Boolean) value ? 1L : 0L;
+        }
+        final long result;
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            result = ((Number) value).longValue();
+        } else if (value instanceof Number || value instanceof String) {
+            final BigDecimal decimal = decimal(value);
+            if (decimal.compareTo(BigDecimal.valueOf(min)) < 0 || decimal.compareTo(BigDecimal.valueOf(max)) > 0) {
+                throw new SQLException("value out of range: " + value);
+            }
+            result = decimal.longValue();
+        } else {
+            throw new SQLException("can't read " + value.getClass().getName() + " as a number");
+        }
+        if (result < min || result > max) {
+            throw new SQLException("value out of range: " + value);
+        }
+        return result;
+    }
+
+    private static BigDecimal decimal(Object value) throws SQLException {
+        if (value instanceof BigDecimal) {
+            return (BigDecimal) value;
+        }
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return BigDecimal.valueOf(((Number) value).longValue());
+        }
+        try {
+            return new BigDecimal(value.toString().trim());
+        } catch (NumberFormatException e) {
+            throw new SQLException("can't read " + value + " as a number", e);
+        }
+    }
+
+    private static Object temporal(Object value, int kind) throws SQLException {
+        if (value instanceof java.util.Date) {
+            final long millis = ((java.util.Date) value).getTime();
+            return kind == DATE ? new Date(millis) : kind == TIME ? new Time(millis) : new Timestamp(millis);
+        }
+        if (value instanceof String) {
+            try {
+                final String s = ((String) value).trim();
+                return kind == DATE ? Date.valueOf(s) : kind == TIME ? Time.valueOf(s) : Timestamp.valueOf(s);
+            } catch (IllegalArgumentException e) {
+                throw new SQLException("can't read " + value + " as " + KIND_NAMES[kind], e);
+            }
+        }
+        throw new SQLException("can't read " + value.getClass().getName() + " as " + KIND_NAMES[kind]);
+    }
+
+    @Override
+    public boolean next() throws SQLException {
+        if (closed) {
+            throw new SQLException("result set is closed");
+        }
+        if (live != null) {
+            throw new SQLException("the recording view covers the current row only");
+        }
+        if (row < chunk.size) {
+            row++;
+        }
+        return row < chunk.size;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public boolean wasNull() throws SQLException {
+        return live != null ? live.wasNull() : wasNull;
+    }
+
+    @Override
+    public int findColumn(String columnLabel) throws SQLException {
+        final Integer column = layout.labels.get(columnLabel.toLowerCase());
+        if (column == null) {
+            throw new SQLException("column not found: " + columnLabel);
+        }
+        return column;
+    }
+
+    @Override
+    public ResultSetMetaData getMetaData() {
+        return layout.metaData;
+    }
+
+    @Override
+    public String getString(int columnIndex) throws SQLException {
+        if (live != null) {
+            record(columnIndex, STRING);
+            return live.getString(columnIndex);
+        }
+        return (String) objectValue(columnIndex, STRING);
+    }
+
+    @Override
+    public String getNString(int columnIndex) throws SQLException {
+        if (live != null) {
+            record(columnIndex, NSTRING);
+            return live.getNString(columnIndex);
+        }
+        return (String) objectValue(columnIndex, NSTRING);
+    }
+
+    @Override
+    public boolean getBoolean(int columnIndex) throws SQLException {
+        if (live != null) {
+            record(columnIndex, BOOLEAN);
+            return live.getBoolean(columnIndex);
+        }
+        return longValue(columnIndex, BOOLEAN) != 0;
+    }
+
+    @Override
+    public byte getByte(int columnIndex) throws SQLException {
+        if (live != null) {
+            record(columnIndex, BYTE);
+            return live.getByte(columnIndex);
+        }
+        return (byte) longValue(columnIndex, BYTE);
+    }
+
+    @Override
+    public short getShort(int columnIndex) throws SQLException {
+        if (live != null) {
+            record(columnIndex, SHORT);
+            return live.getShort(columnIndex);
+        }
+        return (short) longValue(columnIndex, SHORT);
+    }
+
+    @Override
+    public int getInt(int columnIndex) throws SQLException {
+        if (live != null) {
+            record(columnIndex, INT);
+            return live.getInt(columnIndex);
+        }
+        return (int) longValue(columnIndex, INT);
+    }
+
+    @Override
+    public long getLong(int columnIndex) throws SQLException {
+        if (live != null) {
+            record(columnIndex, LONG);
+            return live.getLong(columnIndex);
+        }
+        return longValue(columnIndex, LONG);
+    }
+
+    @Override
+    public float getFloat(int columnIndex) throws SQLException {
+        if (live != null) {
+            record(columnIndex, FLOAT);
+            return live.getFloat(columnIndex);
+        }
+        return (float) doubleValue(columnIndex, FLOAT);
+    }
+
+    @Override
+    public double getDouble(int columnIndex) throws SQLException {
+        if (live != null) {
+            record(columnIndex, DOUBLE);
+            return live.getDouble(columnIndex);
+        }
+        return doubleValue(columnIndex, DOUBLE);
+    }
+
+    @Override
+    public BigDecimal getBigDecimal(int columnIndex) throws SQLException {
+        if (live != null) {
+            record(columnIndex, BIG_DECIMAL);
+            return live.getBigDecimal(columnIndex);
+        }
+        return (BigDecimal) objectValue(columnIndex, BIG_DECIMAL);
+    }
+
+    @Override
+    @Deprecated
+    public BigDecimal getBigDecimal(int columnIndex, int scale) throws SQLException {
+        if (live != null) {
+            record(columnIndex, BIG_DECIMAL);
+            return live.getBigDecimal(columnIndex, scale);
+        }
+        final BigDecimal value = (BigDecimal) objectValue(columnIndex, BIG_DECIMAL);
+        return value == null ? null : value.setScale(scale, RoundingMode.HALF_UP);
+    }
+
+    @Override
+    public byte[] getBytes(int columnIndex) throws SQLException {
+        if (live != null) {
+            record(columnIndex, BYTES);
+            return live.getBytes(columnIndex);
+        }
+        return (byte[]) objectValue(columnIndex, BYTES);
+    }
+
+    @Override
+    public Date getDate(int columnIndex) throws SQLException {
+        if (live != null) {
+            record(columnIndex, DATE);
+            return live.getDate(columnIndex);
+        }
+        return (Date) objectValue(columnIndex, DATE);
+    }
+
+    @Override
+    public Time getTime(int columnIndex) throws SQLException {
+        if (live != null) {
+            record(columnIndex, TIME);
+            return live.getTime(columnIndex);
+        }
+        return (Time) objectValue(columnIndex, TIME);
+    }
+
+    @Override
+    public Timestamp getTimestamp(int columnIndex) throws SQLException {
+        if (live != null) {
+            record(columnIndex, TIMESTAMP);
+            return live.getTimestamp(columnIndex);
+        }
+        return (Timestamp) objectValue(columnIndex, TIMESTAMP);
+    }
+
+    @Override
+    public Date getDate(int columnIndex, Calendar cal) throws SQLException {
+        if (live != null) {
+            recording.record(columnIndex, DATE_CALENDAR, cal);
+            return live.getDate(columnIndex, cal);
+        }
+        return (Date) calendarValue(columnIndex, DATE_CALENDAR, cal);
+    }
+
+    @Override
+    public Time getTime(int columnIndex, Calendar cal) throws SQLException {
+        if (live != null) {
+            recording.record(columnIndex, TIME_CALENDAR, cal);
+            return live.getTime(columnIndex, cal);
+        }
+        return (Time) calendarValue(columnIndex, TIME_CALENDAR, cal);
+    }
+
+    @Override
+    public Timestamp getTimestamp(int columnIndex, Calendar cal) throws SQLException {
+        if (live != null) {
+            recording.record(columnIndex, TIMESTAMP_CALENDAR, cal);
+            return live.getTimestamp(columnIndex, cal);
+        }
+        return (Timestamp) calendarValue(columnIndex, TIMESTAMP_CALENDAR, cal);
+    }
+
+    @Override
+    public InputStream getAsciiStream(int columnIndex) throws SQLException {
+        if (live != null) {
+            record(columnIndex, STRING);
+            return live.getAsciiStream(columnIndex);
+        }
+        final String value = (String) objectValue(columnIndex, STRING);
+        return value == null ? null : new ByteArrayInputStream(value.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Override
+    @Deprecated
+    public InputStream getUnicodeStream(int columnIndex) throws SQLException {
+        if (live != null) {
+            record(columnIndex, STRING);
+            return live.getUnicodeStream(columnIndex);
+        }
+        final String value = (String) objectValue(columnIndex, STRING);
+        return value == null ? null : new ByteArrayInputStream(value.getBytes(StandardCharsets.UTF_16BE));
+    }
+
+    @Override
+    public InputStream getBinaryStream(int columnIndex) throws SQLException {
+        if (live != null) {
+            record(columnIndex, BYTES);
+            return live.getBinaryStream(columnIndex);
+        }
+        final byte[] value = (byte[]) objectValue(columnIndex, BYTES);
+        return value == null ? null : new ByteArrayInputStream(value);
+    }
+
+    @Override
+    public Reader getCharacterStream(int columnIndex) throws SQLException {
+        if (live != null) {
+            record(columnIndex, STRING);
+            return live.getCharacterStream(columnIndex);
+        }
+        final String value = (String) objectValue(columnIndex, STRING);
+        return value == null ? null : new StringReader(value);
+    }
+
+    @Override
+    public Reader getNCharacterStream(int columnIndex) throws SQLException {
+        if (live != null) {
+            record(columnIndex, NSTRING);
+            return live.getNCharacterStream(columnIndex);
+        }
+        final String value = (String) objectValue(columnIndex, NSTRING);
+        return value == null ? null : new StringReader(value);
+    }
+
+    @Override
+    public Object getObject(int columnIndex) throws SQLException {
+        if (live != null) {
+            record(columnIndex, OBJECT);
+            return live.getObject(columnIndex);
+        }
+        return objectValue(columnIndex, OBJECT);
+    }
+
+    @Override
+    public Object getObject(int columnIndex, Map<String, Class<?>> map) throws SQLException {
+        if (map == null || map.isEmpty()) {
+            return getObject(columnIndex);
+        }
+        throw new SQLFeatureNotSupportedException("type maps are not supported on buffered rows");
+    }
+
+    @Override
+    public <T> T getObject(int columnIndex, Class<T> type) throws SQLException {
+        Objects.requireNonNull(type);
+        if (live != null) {
+            recording.record(columnIndex, type);
+            return live.getObject(columnIndex, type);
+        }
+        final int slot = slot(columnIndex, TYPED_OBJECT);
+        final Object value;
+        if (slot >= 0 && plan.types[columnIndex] == type) {
+            value = chunk.objects[slot][row];
+            wasNull = value == null;
+        } else {
+            value = converted(columnIndex, OBJECT);
+            if (value != null && !type.isInstance(value)) {
+                throw new SQLException("column " + columnIndex + " holds " + value.getClass().getName() + ", which can't be read as " + type.getName());
+            }
+        }
+        return type.cast(value);
+    }
+
+    @Override
+    public Array getArray(int columnIndex) throws SQLException {
+        if (live != null) {
+            record(columnIndex, ARRAY);
+            return live.getArray(columnIndex);
+        }
+        return (Array) objectValue(columnIndex, ARRAY);
+    }
+
+    @Override
+    public Blob getBlob(int columnIndex) throws SQLException {
+        if (live != null) {
+            record(columnIndex, BLOB);
+            return live.getBlob(columnIndex);
+        }
+        return (Blob) objectValue(columnIndex, BLOB);
+    }
+
+    @Override
+    public Clob getClob(int columnIndex) throws SQLException {
+        if (live != null) {
+            record(columnIndex, CLOB);
+            return live.getClob(columnIndex);
+        }
+        return (Clob) objectValue(columnIndex, CLOB);
+    }
+
+    @Override
+    public NClob getNClob(int columnIndex) throws SQLException {
+        if (live != null) {
+            record(columnIndex, NCLOB);
+            return live.getNClob(columnIndex);
+        }
+        return (NClob) objectValue(columnIndex, NCLOB);
+    }
+
+    @Override
+    public Ref getRef(int columnIndex) throws SQLException {
+        if (live != null) {
+            record(columnIndex, REF);
+            return live.getRef(columnIndex);
+        }
+        return (Ref) objectValue(columnIndex, REF);
+    }
+
+    @Override
+    public RowId getRowId(int columnIndex) throws SQLException {
+        if (live != null) {
+            record(columnIndex, ROW_ID);
+            return live.getRowId(columnIndex);
+        }
+        return (RowId) objectValue(columnIndex, ROW_ID);
+    }
+
+    @Override
+    public SQLXML getSQLXML(int columnIndex) throws SQLException {
+        if (live != null) {
+            record(columnIndex, XML);
+            return live.getSQLXML(columnIndex);
+        }
+        return (SQLXML) objectValue(columnIndex, XML);
+    }
+
+    @Override
+    public URL getURL(int columnIndex) throws SQLException {
+        if (live != null) {
+            record(columnIndex, DATALINK);
+            return live.getURL(columnIndex);
+        }
+        return (URL) objectValue(columnIndex, DATALINK);
+    }
+
+    @Override
+    public boolean isBeforeFirst() {
+        return live == null && row < 0 && chunk.size > 0;
+    }
+
+    @Override
+    public boolean isAfterLast() {
+        return live == null && row >= chunk.size && chunk.size > 0;
+    }
+
+    @Override
+    public boolean isFirst() {
+        return live != null || getRow() == 1;
+    }
+
+    @Override
+    public boolean isLast() throws SQLException {
+        throw new SQLFeatureNotSupportedException("isLast is not supported on forward only buffered rows");
+    }
+
+    @Override
+    public int getRow() {
+        return live != null ? 1 : row >= 0 && row < chunk.size ? (int) (chunk.first + row) : 0;
+    }
+
+    @Override
+    public void beforeFirst() throws SQLException {
+        throw forwardOnly();
+    }
+
+    @Override
+    public void afterLast() throws SQLException {
+        throw forwardOnly();
+    }
+
+    @Override
+    public boolean first() throws SQLException {
+        throw forwardOnly();
+    }
+
+    @Override
+    public boolean last() throws SQLException {
+        throw forwardOnly();
+    }
+
+    @Override
+    public boolean absolute(int row) throws SQLException {
+        throw forwardOnly();
+    }
+
+    @Override
+    public boolean relative(int rows) throws SQLException {
+        throw forwardOnly();
+    }
+
+    @Override
+    public boolean previous() throws SQLException {
+        throw forwardOnly();
+    }
+
+    private static SQLException forwardOnly() {
+        return new SQLException("buffered rows are forward only");
+    }
+
+    @Override
+    public void setFetchDirection(int direction) throws SQLException {
+        if (direction != FETCH_FORWARD) {
+            throw forwardOnly();
+        }
+    }
+
+    @Override
+    public int getFetchDirection() {
+        return FETCH_FORWARD;
+    }
+
+    @Override
+    public void setFetchSize(int rows) {
+        //already fetched
+    }
+
+    @Override
+    public int getFetchSize() {
+        return chunk != null ? chunk.size : 1;
+    }
+
+    @Override
+    public int getType() {
+        return TYPE_FORWARD_ONLY;
+    }
+
+    @Override
+    public int getConcurrency() {
+        return CONCUR_READ_ONLY;
+    }
+
+    @Override
+    public int getHoldability() {
+        return HOLD_CURSORS_OVER_COMMIT;//buffered, nothing left to close
+    }
+
+    @Override
+    public SQLWarning getWarnings() {
+        return null;
+    }
+
+    @Override
+    public void clearWarnings() {
+        //none kept
+    }
+
+    @Override
+    public String getCursorName() throws SQLException {
+        throw new SQLFeatureNotSupportedException("buffered rows have no cursor");
+    }
+
+    @Override
+    public Statement getStatement() {
+        return null;//not produced by a statement of its own
+    }
+
+    @Override
+    public boolean rowUpdated() {
+        return false;
+    }
+
+    @Override
+    public boolean rowInserted() {
+        return false;
+    }
+
+    @Override
+    public boolean rowDeleted() {
+        return false;
+    }
+
+    private static SQLException readOnly() {
+        return new SQLFeatureNotSupportedException("buffered rows are read only");
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+
+    //label forms read the column found by label
+
+    @Override
+    public String getString(String columnLabel) throws SQLException {
+        return getString(findColumn(columnLabel));
+    }
+
+    @Override
+    public boolean getBoolean(String columnLabel) throws SQLException {
+        return getBoolean(findColumn(columnLabel));
+    }
+
+    @Override
+    public byte getByte(String columnLabel) throws SQLException {
+        return getByte(findColumn(columnLabel));
+    }
+
+    @Override
+    public short getShort(String columnLabel) throws SQLException {
+        return getShort(findColumn(columnLabel));
+    }
+
+    @Override
+    public int getInt(String columnLabel) throws SQLException {
+        return getInt(findColumn(columnLabel));
+    }
+
+    @Override
+    public long getLong(String columnLabel) throws SQLException {
+        return getLong(findColumn(columnLabel));
+    }
+
+    @Override
+    public float getFloat(String columnLabel) throws SQLException {
+        return getFloat(findColumn(columnLabel));
+    }
+
+    @Override
+    public double getDouble(String columnLabel) throws SQLException {
+        return getDouble(findColumn(columnLabel));
+    }
+
+    @Override
+    @Deprecated
+    public BigDecimal getBigDecimal(String columnLabel, int scale) throws SQLException {
+        return getBigDecimal(findColumn(columnLabel), scale);
+    }
+
+    @Override
+    public byte[] getBytes(String columnLabel) throws SQLException {
+        return getBytes(findColumn(columnLabel));
+    }
+
+    @Override
+    public Date getDate(String columnLabel) throws SQLException {
+        return getDate(findColumn(columnLabel));
+    }
+
+    @Override
+    public Time getTime(String columnLabel) throws SQLException {
+        return getTime(findColumn(columnLabel));
+    }
+
+    @Override
+    public Timestamp getTimestamp(String columnLabel) throws SQLException {
+        return getTimestamp(findColumn(columnLabel));
+    }
+
+    @Override
+    public InputStream getAsciiStream(String columnLabel) throws SQLException {
+        return getAsciiStream(findColumn(columnLabel));
+    }
+
+    @Override
+    @Deprecated
+    public InputStream getUnicodeStream(String columnLabel) throws SQLException {
+        return getUnicodeStream(findColumn(columnLabel));
+    }
+
+    @Override
+    public InputStream getBinaryStream(String columnLabel) throws SQLException {
+        return getBinaryStream(findColumn(columnLabel));
+    }
+
+    @Override
+    public Object getObject(String columnLabel) throws SQLException {
+        return getObject(findColumn(columnLabel));
+    }
+
+    @Override
+    public Reader getCharacterStream(String columnLabel) throws SQLException {
+        return getCharacterStream(findColumn(columnLabel));
+    }
+
+    @Override
+    public BigDecimal getBigDecimal(String columnLabel) throws SQLException {
+        return getBigDecimal(findColumn(columnLabel));
+    }
+
+    @Override
+    public Object getObject(String columnLabel, Map<String, Class<?>> map) throws SQLException {
+        return getObject(findColumn(columnLabel), map);
+    }
+
+    @Override
+    public Ref getRef(String columnLabel) throws SQLException {
+        return getRef(findColumn(columnLabel));
+    }
+
+    @Override
+    public Blob getBlob(String columnLabel) throws SQLException {
+        return getBlob(findColumn(columnLabel));
+    }
+
+    @Override
+    public Clob getClob(String columnLabel) throws SQLException {
+        return getClob(findColumn(columnLabel));
+    }
+
+    @Override
+    public Array getArray(String columnLabel) throws SQLException {
+        return getArray(findColumn(columnLabel));
+    }
+
+    @Override
+    public Date getDate(String columnLabel, Calendar cal) throws SQLException {
+        return getDate(findColumn(columnLabel), cal);
+    }
+
+    @Override
+    public Time getTime(String columnLabel, Calendar cal) throws SQLException {
+        return getTime(findColumn(columnLabel), cal);
+    }
+
+    @Override
+    public Timestamp getTimestamp(String columnLabel, Calendar cal) throws SQLException {
+        return getTimestamp(findColumn(columnLabel), cal);
+    }
+
+    @Override
+    public URL getURL(String columnLabel) throws SQLException {
+        return getURL(findColumn(columnLabel));
+    }
+
+    @Override
+    public RowId getRowId(String columnLabel) throws SQLException {
+        return getRowId(findColumn(columnLabel));
+    }
+
+    @Override
+    public NClob getNClob(String columnLabel) throws SQLException {
+        return getNClob(findColumn(columnLabel));
+    }
+
+    @Override
+    public SQLXML getSQLXML(String columnLabel) throws SQLException {
+        return getSQLXML(findColumn(columnLabel));
+    }
+
+    @Override
+    public String getNString(String columnLabel) throws SQLException {
+        return getNString(findColumn(columnLabel));
+    }
+
+    @Override
+    public Reader getNCharacterStream(String columnLabel) throws SQLException {
+        return getNCharacterStream(findColumn(columnLabel));
+    }
+
+    @Override
+    public <T> T getObject(String columnLabel, Class<T> type) throws SQLException {
+        return getObject(findColumn(columnLabel), type);
+    }
+
+    //updates
+
+    @Override
+    public void updateNull(int columnIndex) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBoolean(int columnIndex, boolean x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateByte(int columnIndex, byte x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateShort(int columnIndex, short x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateInt(int columnIndex, int x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateLong(int columnIndex, long x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateFloat(int columnIndex, float x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateDouble(int columnIndex, double x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBigDecimal(int columnIndex, BigDecimal x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateString(int columnIndex, String x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBytes(int columnIndex, byte[] x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateDate(int columnIndex, Date x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateTime(int columnIndex, Time x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateTimestamp(int columnIndex, Timestamp x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateAsciiStream(int columnIndex, InputStream x, int length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBinaryStream(int columnIndex, InputStream x, int length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateCharacterStream(int columnIndex, Reader x, int length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateObject(int columnIndex, Object x, int scaleOrLength) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateObject(int columnIndex, Object x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateNull(String columnLabel) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBoolean(String columnLabel, boolean x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateByte(String columnLabel, byte x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateShort(String columnLabel, short x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateInt(String columnLabel, int x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateLong(String columnLabel, long x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateFloat(String columnLabel, float x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateDouble(String columnLabel, double x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBigDecimal(String columnLabel, BigDecimal x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateString(String columnLabel, String x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBytes(String columnLabel, byte[] x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateDate(String columnLabel, Date x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateTime(String columnLabel, Time x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateTimestamp(String columnLabel, Timestamp x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateAsciiStream(String columnLabel, InputStream x, int length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBinaryStream(String columnLabel, InputStream x, int length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateCharacterStream(String columnLabel, Reader reader, int length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateObject(String columnLabel, Object x, int scaleOrLength) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateObject(String columnLabel, Object x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void insertRow() throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateRow() throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void deleteRow() throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void refreshRow() throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void cancelRowUpdates() throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void moveToInsertRow() throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void moveToCurrentRow() throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateRef(int columnIndex, Ref x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateRef(String columnLabel, Ref x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBlob(int columnIndex, Blob x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBlob(String columnLabel, Blob x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateClob(int columnIndex, Clob x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateClob(String columnLabel, Clob x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateArray(int columnIndex, Array x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateArray(String columnLabel, Array x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateRowId(int columnIndex, RowId x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateRowId(String columnLabel, RowId x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateNString(int columnIndex, String nString) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateNString(String columnLabel, String nString) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateNClob(int columnIndex, NClob nClob) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateNClob(String columnLabel, NClob nClob) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateSQLXML(int columnIndex, SQLXML xmlObject) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateSQLXML(String columnLabel, SQLXML xmlObject) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateNCharacterStream(int columnIndex, Reader x, long length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateNCharacterStream(String columnLabel, Reader reader, long length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateAsciiStream(int columnIndex, InputStream x, long length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBinaryStream(int columnIndex, InputStream x, long length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateCharacterStream(int columnIndex, Reader x, long length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateAsciiStream(String columnLabel, InputStream x, long length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBinaryStream(String columnLabel, InputStream x, long length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateCharacterStream(String columnLabel, Reader reader, long length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBlob(int columnIndex, InputStream inputStream, long length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBlob(String columnLabel, InputStream inputStream, long length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateClob(int columnIndex, Reader reader, long length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateClob(String columnLabel, Reader reader, long length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateNClob(int columnIndex, Reader reader, long length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateNClob(String columnLabel, Reader reader, long length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateNCharacterStream(int columnIndex, Reader x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateNCharacterStream(String columnLabel, Reader reader) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateAsciiStream(int columnIndex, InputStream x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBinaryStream(int columnIndex, InputStream x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateCharacterStream(int columnIndex, Reader x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateAsciiStream(String columnLabel, InputStream x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBinaryStream(String columnLabel, InputStream x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateCharacterStream(String columnLabel, Reader reader) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBlob(int columnIndex, InputStream inputStream) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBlob(String columnLabel, InputStream inputStream) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateClob(int columnIndex, Reader reader) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateClob(String columnLabel, Reader reader) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateNClob(int columnIndex, Reader reader) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateNClob(String columnLabel, Reader reader) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateObject(int columnIndex, Object x, SQLType targetSqlType, int scaleOrLength) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateObject(String columnLabel, Object x, SQLType targetSqlType, int scaleOrLength) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateObject(int columnIndex, Object x, SQLType targetSqlType) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateObject(String columnLabel, Object x, SQLType targetSqlType) throws SQLException {
+        throw readOnly();
+    }
+
+    /**
+     * columns of the result set, shared by every view
+     */
+    static final class Layout {
+        private final ResultSetMetaData metaData;
+        private final int columns;
+        private final Map<String, Integer> labels = new HashMap<>();
+
+        Layout(ResultSetMetaData metaData) throws SQLException {
+            this.metaData = metaData;
+            this.columns = metaData.getColumnCount();
+            for (int i = columns; i > 0; i--) {//first of duplicate labels wins, like findColumn
+                labels.put(metaData.getColumnLabel(i).toLowerCase(), i);
+            }
+        }
+    }
+
+    /**
+     * getters seen per column while the first row was mapped
+     */
+    private static final class Recording {
+        private final boolean[] seen;
+        private final Class<?>[] types;
+        private final Calendar[] calendars;
+
+        private Recording(int columns) {
+            this.seen = new boolean[(columns + 1) * KINDS];
+            this.types = new Class<?>[columns + 1];
+            this.calendars = new Calendar[columns + 1];
+        }
+
+        private void record(int column, int kind) {
+            if (column > 0 && column < types.length) {
+                seen[column * KINDS + kind] = true;
+            }
+        }
+
+        private void record(int column, Class<?> type) {
+            if (column > 0 && column < types.length && types[column] == null) {
+                types[column] = type;
+                record(column, TYPED_OBJECT);
+            }
+        }
+
+        private void record(int column, int kind, Calendar cal) {
+            if (column > 0 && column < types.length && cal != null && calendars[column] == null) {
+                calendars[column] = (Calendar) cal.clone();
+                record(column, kind);
+            }
+        }
+    }
+
+    /**
+     * which driver getters to buffer each column with. a slot is one column read with one getter
+     */
+    static final class Plan {
+        private final Layout layout;
+        private final int[] slots;//column * KINDS + kind to slot, -1 if not buffered
+        private final int[] columnSlots;//first slot of each column
+        private final int[] slotColumns;
+        private final int[] slotKinds;
+        private final Class<?>[] types;
+        private final Calendar[] calendars;
+
+        private Plan(Layout layout, Recording recording) {
+            this.layout = layout;
+            this.types = recording.types.clone();
+            this.calendars = recording.calendars.clone();
+            this.slots = new int[(layout.columns + 1) * KINDS];
+            Arrays.fill(slots, -1);
+            this.columnSlots = new int[layout.columns + 1];
+            final List<Integer> columns = new ArrayList<>();
+            final List<Integer> kinds = new ArrayList<>();
+            for (int column = 1; column <= layout.columns; column++) {
+                columnSlots[column] = columns.size();
+                for (int kind = 0; kind < KINDS; kind++) {
+                    if (recording.seen[column * KINDS + kind]) {
+                        slots[column * KINDS + kind] = columns.size();
+                        columns.add(column);
+                        kinds.add(kind);
+                    }
+                }
+                if (columnSlots[column] == columns.size()) {
+                    slots[column * KINDS + OBJECT] = columns.size();
+                    columns.add(column);
+                    kinds.add(OBJECT);
+                }
+            }
+            this.slotColumns = columns.stream().mapToInt(Integer::intValue).toArray();
+            this.slotKinds = kinds.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        /**
+         * @param capacity rows per chunk
+         * @return empty chunk, reusable via {@link Chunk#fill(ResultSet, long)}
+         */
+        Chunk newChunk(int capacity) {
+            return new Chunk(this, capacity);
+        }
+    }
+
+    /**
+     * reusable buffer of rows. each slot keeps its values unboxed where the getter returns a primitive
+     */
+    static final class Chunk {
+        private final Plan plan;
+        private final long[][] longs;
+        private final double[][] doubles;
+        private final Object[][] objects;
+        private final boolean[][] nulls;
+        private final int capacity;
+        private int size;
+        private long first;//row number of the first buffered row
+
+        private Chunk(Plan plan, int capacity) {
+            this.plan = plan;
+            this.capacity = capacity;
+            final int slots = plan.slotKinds.length;
+            this.longs = new long[slots][];
+            this.doubles = new double[slots][];
+            this.objects = new Object[slots][];
+            this.nulls = new boolean[slots][];
+            for (int slot = 0; slot < slots; slot++) {
+                final int kind = plan.slotKinds[slot];
+                if (kind >= BOOLEAN && kind <= LONG) {
+                    longs[slot] = new long[capacity];
+                    nulls[slot] = new boolean[capacity];
+                } else if (kind == FLOAT || kind == DOUBLE) {
+                    doubles[slot] = new double[capacity];
+                    nulls[slot] = new boolean[capacity];
+                } else {
+                    objects[slot] = new Object[capacity];
+                }
+            }
+        }
+
+        int size() {
+            return size;
+        }
+
+        /**
+         * buffer rows until full or the result set runs out
+         *
+         * @param rs       result set, positioned before the next row to buffer
+         * @param firstRow row number the next row has
+         * @return false once the result set is exhausted
+         */
+        boolean fill(ResultSet rs, long firstRow) throws SQLException {
+            size = 0;
+            first = firstRow;
+            while (size < capacity) {
+                if (!rs.next()) {
+                    return false;
+                }
+                read(rs, size++);
+            }
+            return true;
+        }
+
+        private void read(ResultSet rs, int row) throws SQLException {
+            final int[] columns = plan.slotColumns;
+            final int[] kinds = plan.slotKinds;
+            for (int slot = 0; slot < kinds.length; slot++) {
+                final int column = columns[slot];
+                switch (kinds[slot]) {
+                    case STRING:
+                        objects[slot][row] = rs.getString(column);
+                        break;
+                    case NSTRING:
+                        objects[slot][row] = rs.getNString(column);
+                        break;
+                    case BOOLEAN:
+                        longs[slot][row] = rs.getBoolean(column) ? 1 : 0;
+                        nulls[slot][row] = rs.wasNull();
+                        break;
+                    case BYTE:
+                        longs[slot][row] = rs.getByte(column);
+                        nulls[slot][row] = rs.wasNull();
+                        break;
+                    case SHORT:
+                        longs[slot][row] = rs.getShort(column);
+                        nulls[slot][row] = rs.wasNull();
+                        break;
+                    case INT:
+                        longs[slot][row] = rs.getInt(column);
+                        nulls[slot][row] = rs.wasNull();
+                        break;
+                    case LONG:
+                        longs[slot][row] = rs.getLong(column);
+                        nulls[slot][row] = rs.wasNull();
+                        break;
+                    case FLOAT:
+                        doubles[slot][row] = rs.getFloat(column);
+                        nulls[slot][row] = rs.wasNull();
+                        break;
+                    case DOUBLE:
+                        doubles[slot][row] = rs.getDouble(column);
+                        nulls[slot][row] = rs.wasNull();
+                        break;
+                    case BIG_DECIMAL:
+                        objects[slot][row] = rs.getBigDecimal(column);
+                        break;
+                    case BYTES:
+                        objects[slot][row] = rs.getBytes(column);
+                        break;
+                    case DATE:
+                        objects[slot][row] = rs.getDate(column);
+                        break;
+                    case TIME:
+                        objects[slot][row] = rs.getTime(column);
+                        break;
+                    case TIMESTAMP:
+                        objects[slot][row] = rs.getTimestamp(column);
+                        break;
+                    case DATE_CALENDAR:
+                        objects[slot][row] = rs.getDate(column, plan.calendars[column]);
+                        break;
+                    case TIME_CALENDAR:
+                        objects[slot][row] = rs.getTime(column, plan.calendars[column]);
+                        break;
+                    case TIMESTAMP_CALENDAR:
+                        objects[slot][row] = rs.getTimestamp(column, plan.calendars[column]);
+                        break;
+                    case TYPED_OBJECT:
+                        objects[slot][row] = rs.getObject(column, plan.types[column]);
+                        break;
+                    case ARRAY:
+                        objects[slot][row] = rs.getArray(column);
+                        break;
+                    case BLOB:
+                        objects[slot][row] = rs.getBlob(column);
+                        break;
+                    case CLOB:
+                        objects[slot][row] = rs.getClob(column);
+                        break;
+                    case NCLOB:
+                        objects[slot][row] = rs.getNClob(column);
+                        break;
+                    case REF:
+                        objects[slot][row] = rs.getRef(column);
+                        break;
+                    case ROW_ID:
+                        objects[slot][row] = rs.getRowId(column);
+                        break;
+                    case XML:
+                        objects[slot][row] = rs.getSQLXML(column);
+                        break;
+                    case DATALINK:
+                        objects[slot][row] = rs.getURL(column);
+                        break;
+                    default:
+                        objects[slot][row] = rs.getObject(column);
+                        break;
+                }
+            }
+        }
+
+        /**
+         * @return slot value at the row, primitives boxed to the getter's type, null for SQL NULL
+         */
+        private Object boxed(int slot, int row) {
+            final int kind = plan.slotKinds[slot];
+            if (nulls[slot] != null && nulls[slot][row]) {
+                return null;
+            }
+            switch (kind) {
+                case BOOLEAN:
+                    return longs[slot][row] != 0;
+                case BYTE:
+                    return (byte) longs[slot][row];
+                case SHORT:
+                    return (short) longs[slot][row];
+                case INT:
+                    return (int) longs[slot][row];
+                case LONG:
+                    return longs[slot][row];
+                case FLOAT:
+                    return (float) doubles[slot][row];
+                case DOUBLE:
+                    return doubles[slot][row];
+                default:
+                    return objects[slot][row];
+            }
+        }
+    }
+}
@@ -11,4 +11,23 @@ public interface ConnectionSupplier {
     default ConnectionSupplier from(DataSource dataSource) throws SQLException {
         return dataSource::getConnection;
     }
+
+    /**
+     * each connection is wrapped fresh, with nothing known, so state is read from the driver at least once per get().
+     * this only pays off when the connections are long lived and reused across many transactions.
+     * over a pool, where every checkout is a new handle, it saves nothing on the first transaction of a checkout.
+     * {@link BetterConnectionPool} tracks state per physical connection instead.
+     *
+     * @return supplier of connections wrapped to skip redundant session state calls. see {@link StateTrackingConnection}
+     */
+    default ConnectionSupplier tracking() {
+        return () -> StateTrackingConnection.wrap(get());
+    }
+
+    /**
+     * @return pool over connections from this supplier. see {@link BetterConnectionPool}
+     */
+    default BetterConnectionPool pooled() {
+        return BetterConnectionPool.from(this);
+    }
 }
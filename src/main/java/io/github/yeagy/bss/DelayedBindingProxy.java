@@ -6,6 +6,7 @@ import java.io.Reader;
 import java.math.BigDecimal;
 import java.net.URL;
 import java.sql.Array;
+import java.sql.BatchUpdateException;
 import java.sql.Blob;
 import java.sql.Clob;
 import java.sql.Connection;
@@ -27,10 +28,11 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -39,15 +41,23 @@ import java.util.Map;
  * Parameter markers corresponding to a setArray calls will have their markers expanded by the size of the array/collection.
  * For better performance avoid this implementation and use a database that supports arrays, like Postgres.
  * <p>
+ * Batches may mix rows with differently sized arrays. Rows are grouped by expanded statement, one JDBC batch per group.
+ * <p>
+ * The proxy may be re-bound and executed again. The underlying statement is kept while the array sizes repeat,
+ * and only re-prepared when they change.
+ * <p>
  * PreparedStatement generally has a 2000 parameter limit
  */
 final class DelayedBindingProxy implements BetterPreparedStatement {
-    private Connection connection;//loathe having a reference to this
+    private final Connection connection;//loathe having a reference to this
     private final String statement;
     private final boolean returnGeneratedKeys;
     private final NamedParameters namedParameters;
-    private final Map<Integer, Binding> indexBindings = new HashMap<>();
+    private final ParameterBuffer params;
     private BetterPreparedStatement bps;
+    private Shape preparedShape;
+    private String preparedSql;
+    private boolean closed;
 
     private Integer maxFieldSize;
     private Integer maxRows;
@@ -58,13 +68,14 @@ final class DelayedBindingProxy implements BetterPreparedStatement {
     private Integer fetchSize;
     private Boolean poolable;
     private Boolean closeOnCompletion;
-    private Boolean batch;
+    private final List<ParameterBuffer> batchParams = new ArrayList<>();
 
     private DelayedBindingProxy(Connection connection, String statement, boolean returnGeneratedKeys, NamedParameters namedParameters) {
         this.connection = connection;
         this.statement = statement;
         this.returnGeneratedKeys = returnGeneratedKeys;
         this.namedParameters = namedParameters;
+        this.params = new ParameterBuffer(countMarkers(statement));
     }
 
     static DelayedBindingProxy from(Connection connection, String statement, boolean returnGeneratedKeys){
@@ -75,42 +86,94 @@ final class DelayedBindingProxy implements BetterPreparedStatement {
         return new DelayedBindingProxy(connection, statement, returnGeneratedKeys, named);
     }
 
-    @FunctionalInterface
-    private interface Binding {
-        void bind(BetterPreparedStatement ps) throws SQLException;
+    static DelayedBindingProxy from(Connection connection, SqlTemplate template, boolean returnGeneratedKeys){
+        return new DelayedBindingProxy(connection, template.getProcessedSql(), returnGeneratedKeys, template.getNamedParameters());
     }
 
-    private abstract static class ArrayBinding implements Binding {
-        private final int size;
-
-        ArrayBinding(int size) {
-            this.size = size;
+    private static int countMarkers(String statement) {
+        int count = 0;
+        for (int i = 0; i < statement.length(); i++) {
+            if (statement.charAt(i) == '?') {
+                count++;
+            }
         }
+        return count;
     }
 
     private BetterPreparedStatement expandPrepareBind() throws SQLException {
+        final BetterPreparedStatement ps = prepared(shape(params));
+        params.bind(ps);
+        return ps;
+    }
+
+    /**
+     * reuses the live statement when the shape matches the one it was prepared with, otherwise prepares anew.
+     */
+    private BetterPreparedStatement prepared(Shape shape) throws SQLException {
+        if (closed) {
+            throw new SQLException("statement is closed");
+        }
+        if (bps != null && !bps.isClosed() && shape.equals(preparedShape)) {
+            bps.clearParameters();
+            return bps;
+        }
+        if (bps != null && !bps.isClosed()) {
+            bps.close();
+        }
+        preparedSql = expand(shape);
+        bps = prepare(preparedSql);
+        preparedShape = shape;
+        return bps;
+    }
+
+    /**
+     * @return sql of the statement last prepared, with IN lists expanded. null before the first execute
+     */
+    String getExpandedSql() {
+        return preparedSql;
+    }
+
+    private Shape shape(ParameterBuffer parameters) {
+        final int[] widths = new int[parameters.size()];
+        for (int i = 0; i < widths.length; i++) {
+            if (!parameters.isSet(i + 1)) {
+                throw new IllegalArgumentException("problem matching parameter markers to number of parameters");
+            }
+            widths[i] = parameters.width(i + 1);
+        }
+        return new Shape(widths);
+    }
+
+    private String expand(Shape shape) {
         final StringBuilder processed = new StringBuilder();
         int qIndex = 0;
         //todo surely there are edge case bugs here
         for (int i = 0; i < statement.length(); i++) {
             final char c = statement.charAt(i);
             if (c == '?') {
-                Binding binding = indexBindings.get(++qIndex);
-                if (binding instanceof ArrayBinding) {
-                    processed.append(String.join(", ", Collections.nCopies(((ArrayBinding) binding).size, "?")));
-                } else {
-                    processed.append(c);
+                if (qIndex >= shape.widths.length) {
+                    throw new IllegalArgumentException("problem matching parameter markers to number of parameters");
+                }
+                final int width = shape.widths[qIndex++];
+                for (int w = 0; w < width; w++) {
+                    if (w > 0) {
+                        processed.append(", ");
+                    }
+                    processed.append('?');
                 }
             } else {
                 processed.append(c);
             }
         }
-        if(indexBindings.size() != qIndex){
+        if (shape.widths.length != qIndex) {
             throw new IllegalArgumentException("problem matching parameter markers to number of parameters");
         }
+        return processed.toString();
+    }
+
+    private BetterPreparedStatement prepare(String processed) throws SQLException {
         final int returnKeys = returnGeneratedKeys ? RETURN_GENERATED_KEYS : NO_GENERATED_KEYS;
-        final BetterPreparedStatement ps = new BetterPreparedStatementImpl(connection.prepareStatement(processed.toString(), returnKeys), null);
-        connection = null;//huzzah to getting rid of this reference
+        final BetterPreparedStatement ps = new BetterPreparedStatementImpl(connection.prepareStatement(processed, returnKeys), null);
         if (maxFieldSize != null) {
             ps.setMaxFieldSize(maxFieldSize);
         }
@@ -138,26 +201,65 @@ final class DelayedBindingProxy implements BetterPreparedStatement {
         if (closeOnCompletion != null && closeOnCompletion) {
             ps.closeOnCompletion();
         }
-        if (batch != null && batch) {
-            ps.addBatch();
-        }
-        for (Binding binding : indexBindings.values()) {
-            binding.bind(ps);
-        }
         return ps;
     }
 
-    private List<Integer> namedParameterIndices(String namedParameter) {
+    /**
+     * rows are grouped by their expanded statement, since IN lists of differing sizes produce different sql.
+     * each group is prepared once and run as a real JDBC batch. update counts are mapped back to the order rows were added.
+     * the statement of the last group is retained for getGeneratedKeys and friends, and reused by the next execute of the same shape.
+     */
+    private int[] expandPrepareExecuteBatch() throws SQLException {
+        final int[] counts = new int[batchParams.size()];
+        Arrays.fill(counts, EXECUTE_FAILED);
+        final Map<Shape, List<Integer>> shapes = new LinkedHashMap<>();
+        for (int row = 0; row < batchParams.size(); row++) {
+            shapes.computeIfAbsent(shape(batchParams.get(row)), k -> new ArrayList<>()).add(row);
+        }
+        try {
+            for (Map.Entry<Shape, List<Integer>> shape : shapes.entrySet()) {
+                final BetterPreparedStatement bps = prepared(shape.getKey());
+                final List<Integer> rows = shape.getValue();
+                for (Integer row : rows) {
+                    batchParams.get(row).bind(bps);
+                    bps.addBatch();
+                }
+                final int[] shapeCounts;
+                try {
+                    shapeCounts = bps.executeBatch();
+                } catch (BatchUpdateException e) {
+                    final int[] partial = e.getUpdateCounts();
+                    for (int i = 0; partial != null && i < partial.length; i++) {
+                        counts[rows.get(i)] = partial[i];
+                    }
+                    throw new BatchUpdateException(e.getMessage(), e.getSQLState(), e.getErrorCode(), counts, e);
+                }
+                for (int i = 0; i < shapeCounts.length; i++) {
+                    counts[rows.get(i)] = shapeCounts[i];
+                }
+            }
+        } finally {
+            batchParams.clear();
+        }
+        return counts;
+    }
+
+    private int[] namedParameterIndices(String namedParameter) {
         if (namedParameters == null) {
             throw new IllegalStateException("no named parameters found in statement");
         }
-        final List<Integer> indices = namedParameters.getIndices(namedParameter);
+        final int[] indices = namedParameters.getIndices(namedParameter);
         if (indices == null) {
             throw new IllegalStateException(String.format("no named parameter %s found in statement: %s", namedParameter, namedParameters.getUnprocessedSql()));
         }
         return indices;
     }
 
+    @Override
+    public ParamHandle param(String namedParameter) {
+        return new ParamHandle(this, namedParameterIndices(namedParameter));
+    }
+
     @Override
     public Blob createBlob() throws SQLException {
         return connection.createBlob();
@@ -193,6 +295,31 @@ final class DelayedBindingProxy implements BetterPreparedStatement {
         throw new IllegalStateException("Cannot use SQL Array with DelayedBindingProxy. Try BetterOptions.Option.ARRAY_SUPPORT.");
     }
 
+    @Override
+    public Array createArray(long[] elements) throws SQLException {
+        throw new IllegalStateException("Cannot use SQL Array with DelayedBindingProxy. Try BetterOptions.Option.ARRAY_SUPPORT.");
+    }
+
+    @Override
+    public Array createArray(int[] elements) throws SQLException {
+        throw new IllegalStateException("Cannot use SQL Array with DelayedBindingProxy. Try BetterOptions.Option.ARRAY_SUPPORT.");
+    }
+
+    @Override
+    public Array createArray(double[] elements) throws SQLException {
+        throw new IllegalStateException("Cannot use SQL Array with DelayedBindingProxy. Try BetterOptions.Option.ARRAY_SUPPORT.");
+    }
+
+    @Override
+    public Array createArray(short[] elements) throws SQLException {
+        throw new IllegalStateException("Cannot use SQL Array with DelayedBindingProxy. Try BetterOptions.Option.ARRAY_SUPPORT.");
+    }
+
+    @Override
+    public Array createArray(boolean[] elements) throws SQLException {
+        throw new IllegalStateException("Cannot use SQL Array with DelayedBindingProxy. Try BetterOptions.Option.ARRAY_SUPPORT.");
+    }
+
     @Override
     public void setArray(String namedParameter, Array x) throws SQLException {
         throw new IllegalStateException("Cannot use SQL Array with DelayedBindingProxy. Try BetterOptions.Option.ARRAY_SUPPORT.");
@@ -203,780 +330,835 @@ final class DelayedBindingProxy implements BetterPreparedStatement {
         throw new IllegalStateException("Cannot use SQL Array with DelayedBindingProxy. Try BetterOptions.Option.ARRAY_SUPPORT.");
     }
 
+    @Override
+    public void bindEntity(Object entity) throws SQLException {
+        ParameterBindingPlan.bindEntity(this, namedParameters, entity);
+    }
+
+    @Override
+    public void bindMap(Map<String, ?> values) throws SQLException {
+        ParameterBindingPlan.bindMap(this, namedParameters, values);
+    }
+
     @Override
     public void setArray(int parameterIndex, Collection<?> x) throws SQLException {
-        indexBindings.put(parameterIndex, new ArrayBinding(x.size()) {
-            @Override
-            public void bind(BetterPreparedStatement ps) throws SQLException {
-                int idx = parameterIndex;
-                for (Object o : x) {
-                    ps.setObject(idx++, o);
-                }
-            }
-        });
+        params.setArray(parameterIndex, x);
     }
 
     @Override
     public void setArray(String namedParameter, Collection<?> x) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
             setArray(parameterIndex, x);
         }
     }
 
     @Override
     public void setArray(int parameterIndex, Object[] x) throws SQLException {
-        indexBindings.put(parameterIndex, new ArrayBinding(x.length) {
-            @Override
-            public void bind(BetterPreparedStatement ps) throws SQLException {
-                for (int i = 0; i < x.length; i++) {
-                    ps.setObject(parameterIndex + i, x[i]);
-                }
-            }
-        });
+        params.setArray(parameterIndex, x);
     }
 
     @Override
     public void setArray(String namedParameter, Object[] x) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setArray(parameterIndex, x);
+        }
+    }
+
+    @Override
+    public void setArray(int parameterIndex, long[] x) throws SQLException {
+        params.setArray(parameterIndex, x);
+    }
+
+    @Override
+    public void setArray(String namedParameter, long[] x) throws SQLException {
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setArray(parameterIndex, x);
+        }
+    }
+
+    @Override
+    public void setArray(int parameterIndex, int[] x) throws SQLException {
+        params.setArray(parameterIndex, x);
+    }
+
+    @Override
+    public void setArray(String namedParameter, int[] x) throws SQLException {
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setArray(parameterIndex, x);
+        }
+    }
+
+    @Override
+    public void setArray(int parameterIndex, double[] x) throws SQLException {
+        params.setArray(parameterIndex, x);
+    }
+
+    @Override
+    public void setArray(String namedParameter, double[] x) throws SQLException {
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setArray(parameterIndex, x);
+        }
+    }
+
+    @Override
+    public void setArray(int parameterIndex, short[] x) throws SQLException {
+        params.setArray(parameterIndex, x);
+    }
+
+    @Override
+    public void setArray(String namedParameter, short[] x) throws SQLException {
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setArray(parameterIndex, x);
+        }
+    }
+
+    @Override
+    public void setArray(int parameterIndex, boolean[] x) throws SQLException {
+        params.setArray(parameterIndex, x);
+    }
+
+    @Override
+    public void setArray(String namedParameter, boolean[] x) throws SQLException {
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
             setArray(parameterIndex, x);
         }
     }
 
     @Override
     public void setTime(int parameterIndex, LocalTime x) throws SQLException {
-        indexBindings.put(parameterIndex, ps -> ps.setTime(parameterIndex, x));
+        params.setTime(parameterIndex, x);
     }
 
     @Override
     public void setTime(String namedParameter, LocalTime x) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
-            indexBindings.put(parameterIndex, ps -> ps.setTime(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setTime(parameterIndex, x);
         }
     }
 
     @Override
     public void setDate(int parameterIndex, LocalDate x) throws SQLException {
-        indexBindings.put(parameterIndex, ps -> ps.setDate(parameterIndex, x));
+        params.setDate(parameterIndex, x);
     }
 
     @Override
     public void setDate(String namedParameter, LocalDate x) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
-            indexBindings.put(parameterIndex, ps -> ps.setDate(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setDate(parameterIndex, x);
         }
     }
 
     @Override
     public void setTimestamp(int parameterIndex, LocalDateTime x) throws SQLException {
-        indexBindings.put(parameterIndex, ps -> ps.setTimestamp(parameterIndex, x));
+        params.setTimestamp(parameterIndex, x);
     }
 
     @Override
     public void setTimestamp(String namedParameter, LocalDateTime x) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
-            indexBindings.put(parameterIndex, ps -> ps.setTimestamp(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setTimestamp(parameterIndex, x);
         }
     }
 
     @Override
     public void setTimestamp(int parameterIndex, OffsetDateTime x) throws SQLException {
-        indexBindings.put(parameterIndex, ps -> ps.setTimestamp(parameterIndex, x));
+        params.setTimestamp(parameterIndex, x);
     }
 
     @Override
     public void setTimestamp(String namedParameter, OffsetDateTime x) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
-            indexBindings.put(parameterIndex, ps -> ps.setTimestamp(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setTimestamp(parameterIndex, x);
         }
     }
 
     @Override
     public void setTimestamp(int parameterIndex, Instant x) throws SQLException {
-        indexBindings.put(parameterIndex, ps -> ps.setTimestamp(parameterIndex, x));
+        params.setTimestamp(parameterIndex, x);
     }
 
     @Override
     public void setTimestamp(String namedParameter, Instant x) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
-            indexBindings.put(parameterIndex, ps -> ps.setTimestamp(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setTimestamp(parameterIndex, x);
         }
     }
 
     @Override
     public void setNull(String namedParameter, int sqlType) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
-            indexBindings.put(parameterIndex, ps -> ps.setNull(parameterIndex, sqlType));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setNull(parameterIndex, sqlType);
         }
     }
 
     @Override
     public void setBoolean(String namedParameter, boolean x) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
-            indexBindings.put(parameterIndex, ps -> ps.setBoolean(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setBoolean(parameterIndex, x);
         }
     }
 
     @Override
     public void setByte(String namedParameter, byte x) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
-            indexBindings.put(parameterIndex, ps -> ps.setByte(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setByte(parameterIndex, x);
         }
     }
 
     @Override
     public void setShort(String namedParameter, short x) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
-            indexBindings.put(parameterIndex, ps -> ps.setShort(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setShort(parameterIndex, x);
         }
     }
 
     @Override
     public void setInt(String namedParameter, int x) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
-            indexBindings.put(parameterIndex, ps -> ps.setInt(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setInt(parameterIndex, x);
         }
     }
 
     @Override
     public void setLong(String namedParameter, long x) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
-            indexBindings.put(parameterIndex, ps -> ps.setLong(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setLong(parameterIndex, x);
         }
     }
 
     @Override
     public void setFloat(String namedParameter, float x) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
-            indexBindings.put(parameterIndex, ps -> ps.setFloat(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setFloat(parameterIndex, x);
         }
     }
 
     @Override
     public void setDouble(String namedParameter, double x) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
-            indexBindings.put(parameterIndex, ps -> ps.setDouble(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setDouble(parameterIndex, x);
         }
     }
 
     @Override
     public void setBigDecimal(String namedParameter, BigDecimal x) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
-            indexBindings.put(parameterIndex, ps -> ps.setBigDecimal(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setBigDecimal(parameterIndex, x);
         }
     }
 
     @Override
     public void setString(String namedParameter, String x) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
-            indexBindings.put(parameterIndex, ps -> ps.setString(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setString(parameterIndex, x);
         }
     }
 
     @Override
     public void setBytes(String namedParameter, byte[] x) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
-            indexBindings.put(parameterIndex, ps -> ps.setBytes(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setBytes(parameterIndex, x);
         }
     }
 
     @Override
     public void setDate(String namedParameter, Date x) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
-            indexBindings.put(parameterIndex, ps -> ps.setDate(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setDate(parameterIndex, x);
         }
     }
 
     @Override
     public void setTime(String namedParameter, Time x) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
-            indexBindings.put(parameterIndex, ps -> ps.setTime(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setTime(parameterIndex, x);
         }
     }
 
     @Override
     public void setTimestamp(String namedParameter, Timestamp x) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
-            indexBindings.put(parameterIndex, ps -> ps.setTimestamp(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setTimestamp(parameterIndex, x);
         }
     }
 
     @Override
     public void setAsciiStream(String namedParameter, InputStream x, int length) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
-            indexBindings.put(parameterIndex, ps -> ps.setAsciiStream(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setAsciiStream(parameterIndex, x, length);
         }
     }
 
     @Override
     public void setBinaryStream(String namedParameter, InputStream x, int length) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
-            indexBindings.put(parameterIndex, ps -> ps.setBinaryStream(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setBinaryStream(parameterIndex, x, length);
         }
     }
 
     @Override
     public void setObject(String namedParameter, Object x, int targetSqlType) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
-            indexBindings.put(parameterIndex, ps -> ps.setObject(parameterIndex, x, targetSqlType));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setObject(parameterIndex, x, targetSqlType);
         }
     }
 
     @Override
     public void setObject(String namedParameter, Object x) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
-            indexBindings.put(parameterIndex, ps -> ps.setObject(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setObject(parameterIndex, x);
         }
     }
 
     @Override
     public void setCharacterStream(String namedParameter, Reader reader, int length) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
-            indexBindings.put(parameterIndex, ps -> ps.setCharacterStream(parameterIndex, reader, length));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setCharacterStream(parameterIndex, reader, length);
         }
     }
 
     @Override
     public void setRef(String namedParameter, Ref x) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
-            indexBindings.put(parameterIndex, ps -> ps.setRef(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setRef(parameterIndex, x);
         }
     }
 
     @Override
     public void setBlob(String namedParameter, Blob x) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
-            indexBindings.put(parameterIndex, ps -> ps.setBlob(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setBlob(parameterIndex, x);
         }
     }
 
     @Override
     public void setClob(String namedParameter, Clob x) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
-            indexBindings.put(parameterIndex, ps -> ps.setClob(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setClob(parameterIndex, x);
         }
     }
 
     @Override
     public void setDate(String namedParameter, Date x, Calendar cal) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
-            indexBindings.put(parameterIndex, ps -> ps.setDate(parameterIndex, x, cal));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setDate(parameterIndex, x, cal);
         }
     }
 
     @Override
     public void setTime(String namedParameter, Time x, Calendar cal) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
-            indexBindings.put(parameterIndex, ps -> ps.setTime(parameterIndex, x, cal));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setTime(parameterIndex, x, cal);
         }
     }
 
     @Override
     public void setTimestamp(String namedParameter, Timestamp x, Calendar cal) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
-            indexBindings.put(parameterIndex, ps -> ps.setTimestamp(parameterIndex, x, cal));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setTimestamp(parameterIndex, x, cal);
         }
     }
 
     @Override
     public void setNull(String namedParameter, int sqlType, String typeName) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
-            indexBindings.put(parameterIndex, ps -> ps.setNull(parameterIndex, sqlType, typeName));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setNull(parameterIndex, sqlType, typeName);
         }
     }
 
     @Override
     public void setURL(String namedParameter, URL x) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
-            indexBindings.put(parameterIndex, ps -> ps.setURL(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setURL(parameterIndex, x);
         }
     }
 
     @Override
     public void setRowId(String namedParameter, RowId x) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
-            indexBindings.put(parameterIndex, ps -> ps.setRowId(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setRowId(parameterIndex, x);
         }
     }
 
     @Override
     public void setNString(String namedParameter, String value) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
-            indexBindings.put(parameterIndex, ps -> ps.setNString(parameterIndex, value));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setNString(parameterIndex, value);
         }
     }
 
     @Override
     public void setNCharacterStream(String namedParameter, Reader value, long length) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
-            indexBindings.put(parameterIndex, ps -> ps.setNCharacterStream(parameterIndex, value, length));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setNCharacterStream(parameterIndex, value, length);
         }
     }
 
     @Override
     public void setNClob(String namedParameter, NClob value) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
-            indexBindings.put(parameterIndex, ps -> ps.setNClob(parameterIndex, value));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setNClob(parameterIndex, value);
         }
     }
 
     @Override
     public void setClob(String namedParameter, Reader reader, long length) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
-            indexBindings.put(parameterIndex, ps -> ps.setClob(parameterIndex, reader, length));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setClob(parameterIndex, reader, length);
         }
     }
 
     @Override
     public void setBlob(String namedParameter, InputStream inputStream, long length) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
-            indexBindings.put(parameterIndex, ps -> ps.setBlob(parameterIndex, inputStream, length));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setBlob(parameterIndex, inputStream, length);
         }
     }
 
     @Override
     public void setNClob(String namedParameter, Reader reader, long length) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
-            indexBindings.put(parameterIndex, ps -> ps.setNClob(parameterIndex, reader, length));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setNClob(parameterIndex, reader, length);
         }
     }
 
     @Override
     public void setSQLXML(String namedParameter, SQLXML xmlObject) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
-            indexBindings.put(parameterIndex, ps -> ps.setSQLXML(parameterIndex, xmlObject));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setSQLXML(parameterIndex, xmlObject);
         }
     }
 
     @Override
     public void setObject(String namedParameter, Object x, int targetSqlType, int scaleOrLength) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
-            indexBindings.put(parameterIndex, ps -> ps.setObject(parameterIndex, x, targetSqlType, scaleOrLength));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setObject(parameterIndex, x, targetSqlType, scaleOrLength);
         }
     }
 
     @Override
     public void setAsciiStream(String namedParameter, InputStream x, long length) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
-            indexBindings.put(parameterIndex, ps -> ps.setAsciiStream(parameterIndex, x, length));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setAsciiStream(parameterIndex, x, length);
         }
     }
 
     @Override
     public void setBinaryStream(String namedParameter, InputStream x, long length) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
-            indexBindings.put(parameterIndex, ps -> ps.setBinaryStream(parameterIndex, x, length));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setBinaryStream(parameterIndex, x, length);
         }
     }
 
     @Override
     public void setCharacterStream(String namedParameter, Reader reader, long length) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
-            indexBindings.put(parameterIndex, ps -> ps.setCharacterStream(parameterIndex, reader, length));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setCharacterStream(parameterIndex, reader, length);
         }
     }
 
     @Override
     public void setAsciiStream(String namedParameter, InputStream x) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
-            indexBindings.put(parameterIndex, ps -> ps.setAsciiStream(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setAsciiStream(parameterIndex, x);
         }
     }
 
     @Override
     public void setBinaryStream(String namedParameter, InputStream x) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
-            indexBindings.put(parameterIndex, ps -> ps.setBinaryStream(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setBinaryStream(parameterIndex, x);
         }
     }
 
     @Override
     public void setCharacterStream(String namedParameter, Reader reader) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
-            indexBindings.put(parameterIndex, ps -> ps.setCharacterStream(parameterIndex, reader));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setCharacterStream(parameterIndex, reader);
         }
     }
 
     @Override
     public void setNCharacterStream(String namedParameter, Reader value) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
-            indexBindings.put(parameterIndex, ps -> ps.setNCharacterStream(parameterIndex, value));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setNCharacterStream(parameterIndex, value);
         }
     }
 
     @Override
     public void setClob(String namedParameter, Reader reader) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
-            indexBindings.put(parameterIndex, ps -> ps.setClob(parameterIndex, reader));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setClob(parameterIndex, reader);
         }
     }
 
     @Override
     public void setBlob(String namedParameter, InputStream inputStream) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
-            indexBindings.put(parameterIndex, ps -> ps.setBlob(parameterIndex, inputStream));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setBlob(parameterIndex, inputStream);
         }
     }
 
     @Override
     public void setNClob(String namedParameter, Reader reader) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
-            indexBindings.put(parameterIndex, ps -> ps.setNClob(parameterIndex, reader));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setNClob(parameterIndex, reader);
         }
     }
 
     @Override
     public void setObject(String namedParameter, Object x, SQLType targetSqlType, int scaleOrLength) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
-            indexBindings.put(parameterIndex, ps -> ps.setObject(parameterIndex, x, targetSqlType, scaleOrLength));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setObject(parameterIndex, x, targetSqlType, scaleOrLength);
         }
     }
 
     @Override
     public void setObject(String namedParameter, Object x, SQLType targetSqlType) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
-            indexBindings.put(parameterIndex, ps -> ps.setObject(parameterIndex, x, targetSqlType));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setObject(parameterIndex, x, targetSqlType);
         }
     }
 
     @Override
     public void setBooleanNullable(String namedParameter, Boolean x) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
-            indexBindings.put(parameterIndex, ps -> ps.setBooleanNullable(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setBooleanNullable(parameterIndex, x);
         }
     }
 
     @Override
     public void setByteNullable(String namedParameter, Byte x) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
-            indexBindings.put(parameterIndex, ps -> ps.setByteNullable(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setByteNullable(parameterIndex, x);
         }
     }
 
     @Override
     public void setShortNullable(String namedParameter, Short x) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
-            indexBindings.put(parameterIndex, ps -> ps.setShortNullable(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setShortNullable(parameterIndex, x);
         }
     }
 
     @Override
     public void setIntNullable(String namedParameter, Integer x) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
-            indexBindings.put(parameterIndex, ps -> ps.setIntNullable(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setIntNullable(parameterIndex, x);
         }
     }
 
     @Override
     public void setLongNullable(String namedParameter, Long x) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
-            indexBindings.put(parameterIndex, ps -> ps.setLongNullable(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setLongNullable(parameterIndex, x);
         }
     }
 
     @Override
     public void setFloatNullable(String namedParameter, Float x) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
-            indexBindings.put(parameterIndex, ps -> ps.setFloatNullable(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setFloatNullable(parameterIndex, x);
         }
     }
 
     @Override
     public void setDoubleNullable(String namedParameter, Double x) throws SQLException {
-        for (Integer parameterIndex : namedParameterIndices(namedParameter)) {
-            indexBindings.put(parameterIndex, ps -> ps.setDoubleNullable(parameterIndex, x));
+        for (int parameterIndex : namedParameterIndices(namedParameter)) {
+            setDoubleNullable(parameterIndex, x);
         }
     }
 
     @Override
     public void setBooleanNullable(int parameterIndex, Boolean x) throws SQLException {
-        indexBindings.put(parameterIndex, ps -> ps.setBooleanNullable(parameterIndex, x));
+        params.setBooleanNullable(parameterIndex, x);
     }
 
     @Override
     public void setByteNullable(int parameterIndex, Byte x) throws SQLException {
-        indexBindings.put(parameterIndex, ps -> ps.setByteNullable(parameterIndex, x));
+        params.setByteNullable(parameterIndex, x);
     }
 
     @Override
     public void setShortNullable(int parameterIndex, Short x) throws SQLException {
-        indexBindings.put(parameterIndex, ps -> ps.setShortNullable(parameterIndex, x));
+        params.setShortNullable(parameterIndex, x);
     }
 
     @Override
     public void setIntNullable(int parameterIndex, Integer x) throws SQLException {
-        indexBindings.put(parameterIndex, ps -> ps.setIntNullable(parameterIndex, x));
+        params.setIntNullable(parameterIndex, x);
     }
 
     @Override
     public void setLongNullable(int parameterIndex, Long x) throws SQLException {
-        indexBindings.put(parameterIndex, ps -> ps.setLongNullable(parameterIndex, x));
+        params.setLongNullable(parameterIndex, x);
     }
 
     @Override
     public void setFloatNullable(int parameterIndex, Float x) throws SQLException {
-        indexBindings.put(parameterIndex, ps -> ps.setFloatNullable(parameterIndex, x));
+        params.setFloatNullable(parameterIndex, x);
     }
 
     @Override
     public void setDoubleNullable(int parameterIndex, Double x) throws SQLException {
-        indexBindings.put(parameterIndex, ps -> ps.setDoubleNullable(parameterIndex, x));
+        params.setDoubleNullable(parameterIndex, x);
     }
 
     @Override
     public void setNull(int parameterIndex, int sqlType) throws SQLException {
-        indexBindings.put(parameterIndex, ps -> ps.setNull(parameterIndex, sqlType));
+        params.setNull(parameterIndex, sqlType);
     }
 
     @Override
     public void setBoolean(int parameterIndex, boolean x) throws SQLException {
-        indexBindings.put(parameterIndex, ps -> ps.setBoolean(parameterIndex, x));
+        params.setBoolean(parameterIndex, x);
     }
 
     @Override
     public void setByte(int parameterIndex, byte x) throws SQLException {
-        indexBindings.put(parameterIndex, ps -> ps.setByte(parameterIndex, x));
+        params.setByte(parameterIndex, x);
     }
 
     @Override
     public void setShort(int parameterIndex, short x) throws SQLException {
-        indexBindings.put(parameterIndex, ps -> ps.setShort(parameterIndex, x));
+        params.setShort(parameterIndex, x);
     }
 
     @Override
     public void setInt(int parameterIndex, int x) throws SQLException {
-        indexBindings.put(parameterIndex, ps -> ps.setInt(parameterIndex, x));
+        params.setInt(parameterIndex, x);
     }
 
     @Override
     public void setLong(int parameterIndex, long x) throws SQLException {
-        indexBindings.put(parameterIndex, ps -> ps.setLong(parameterIndex, x));
+        params.setLong(parameterIndex, x);
     }
 
     @Override
     public void setFloat(int parameterIndex, float x) throws SQLException {
-        indexBindings.put(parameterIndex, ps -> ps.setFloat(parameterIndex, x));
+        params.setFloat(parameterIndex, x);
     }
 
     @Override
     public void setDouble(int parameterIndex, double x) throws SQLException {
-        indexBindings.put(parameterIndex, ps -> ps.setDouble(parameterIndex, x));
+        params.setDouble(parameterIndex, x);
     }
 
     @Override
     public void setBigDecimal(int parameterIndex, BigDecimal x) throws SQLException {
-        indexBindings.put(parameterIndex, ps -> ps.setBigDecimal(parameterIndex, x));
+        params.setBigDecimal(parameterIndex, x);
     }
 
     @Override
     public void setString(int parameterIndex, String x) throws SQLException {
-        indexBindings.put(parameterIndex, ps -> ps.setString(parameterIndex, x));
+        params.setString(parameterIndex, x);
     }
 
     @Override
     public void setBytes(int parameterIndex, byte[] x) throws SQLException {
-        indexBindings.put(parameterIndex, ps -> ps.setBytes(parameterIndex, x));
+        params.setBytes(parameterIndex, x);
     }
 
     @Override
     public void setDate(int parameterIndex, Date x) throws SQLException {
-        indexBindings.put(parameterIndex, ps -> ps.setDate(parameterIndex, x));
+        params.setDate(parameterIndex, x);
     }
 
     @Override
     public void setTime(int parameterIndex, Time x) throws SQLException {
-        indexBindings.put(parameterIndex, ps -> ps.setTime(parameterIndex, x));
+        params.setTime(parameterIndex, x);
     }
 
     @Override
     public void setTimestamp(int parameterIndex, Timestamp x) throws SQLException {
-        indexBindings.put(parameterIndex, ps -> ps.setTimestamp(parameterIndex, x));
+        params.setTimestamp(parameterIndex, x);
     }
 
     @Override
     public void setAsciiStream(int parameterIndex, InputStream x, int length) throws SQLException {
-        indexBindings.put(parameterIndex, ps -> ps.setAsciiStream(parameterIndex, x, length));
+        params.setAsciiStream(parameterIndex, x, length);
     }
 
     @Override
     @Deprecated
     @SuppressWarnings("deprecation")
     public void setUnicodeStream(int parameterIndex, InputStream x, int length) throws SQLException {
-        indexBindings.put(parameterIndex, ps -> ps.setUnicodeStream(parameterIndex, x, length));
+        params.setUnicodeStream(parameterIndex, x, length);
     }
 
     @Override
     public void setBinaryStream(int parameterIndex, InputStream x, int length) throws SQLException {
-        indexBindings.put(parameterIndex, ps -> ps.setBinaryStream(parameterIndex, x, length));
+        params.setBinaryStream(parameterIndex, x, length);
     }
 
     @Override
     public void clearParameters() throws SQLException {
-        indexBindings.clear();
+        params.clear();
     }
 
     @Override
     public void setObject(int parameterIndex, Object x, int targetSqlType) throws SQLException {
-        indexBindings.put(parameterIndex, ps -> ps.setObject(parameterIndex, x, targetSqlType));
+        params.setObject(parameterIndex, x, targetSqlType);
     }
 
     @Override
     public void setObject(int parameterIndex, Object x) throws SQLException {
-        indexBindings.put(parameterIndex, ps -> ps.setObject(parameterIndex, x));
+        params.setObject(parameterIndex, x);
     }
 
     @Override
     public void setCharacterStream(int parameterIndex, Reader reader, int length) throws SQLException {
-        indexBindings.put(parameterIndex, ps -> ps.setCharacterStream(parameterIndex, reader, length));
+        params.setCharacterStream(parameterIndex, reader, length);
     }
 
     @Override
     public void setRef(int parameterIndex, Ref x) throws SQLException {
-        indexBindings.put(parameterIndex, ps -> ps.setRef(parameterIndex, x));
+        params.setRef(parameterIndex, x);
     }
 
     @Override
     public void setBlob(int parameterIndex, Blob x) throws SQLException {
-        indexBindings.put(parameterIndex, ps -> ps.setBlob(parameterIndex, x));
+        params.setBlob(parameterIndex, x);
     }
 
     @Override
     public void setClob(int parameterIndex, Clob x) throws SQLException {
-        indexBindings.put(parameterIndex, ps -> ps.setClob(parameterIndex, x));
+        params.setClob(parameterIndex, x);
     }
 
     @Override
     public void setDate(int parameterIndex, Date x, Calendar cal) throws SQLException {
-        indexBindings.put(parameterIndex, ps -> ps.setDate(parameterIndex, x, cal));
+        params.setDate(parameterIndex, x, cal);
     }
 
     @Override
     public void setTime(int parameterIndex, Time x, Calendar cal) throws SQLException {
-        indexBindings.put(parameterIndex, ps -> ps.setTime(parameterIndex, x, cal));
+        params.setTime(parameterIndex, x, cal);
     }
 
     @Override
     public void setTimestamp(int parameterIndex, Timestamp x, Calendar cal) throws SQLException {
-        indexBindings.put(parameterIndex, ps -> ps.setTimestamp(parameterIndex, x, cal));
+        params.setTimestamp(parameterIndex, x, cal);
     }
 
     @Override
     public void setNull(int parameterIndex, int sqlType, String typeName) throws SQLException {
-        indexBindings.put(parameterIndex, ps -> ps.setNull(parameterIndex, sqlType, typeName));
+        params.setNull(parameterIndex, sqlType, typeName);
     }
 
     @Override
     public void setURL(int parameterIndex, URL x) throws SQLException {
-        indexBindings.put(parameterIndex, ps -> ps.setURL(parameterIndex, x));
+        params.setURL(parameterIndex, x);
     }
 
     @Override
     public void setRowId(int parameterIndex, RowId x) throws SQLException {
-        indexBindings.put(parameterIndex, ps -> ps.setRowId(parameterIndex, x));
+        params.setRowId(parameterIndex, x);
     }
 
     @Override
     public void setNString(int parameterIndex, String value) throws SQLException {
-        indexBindings.put(parameterIndex, ps -> ps.setNString(parameterIndex, value));
+        params.setNString(parameterIndex, value);
     }
 
     @Override
     public void setNCharacterStream(int parameterIndex, Reader value, long length) throws SQLException {
-        indexBindings.put(parameterIndex, ps -> ps.setNCharacterStream(parameterIndex, value, length));
+        params.setNCharacterStream(parameterIndex, value, length);
     }
 
     @Override
     public void setNClob(int parameterIndex, NClob value) throws SQLException {
-        indexBindings.put(parameterIndex, ps -> ps.setNClob(parameterIndex, value));
+        params.setNClob(parameterIndex, value);
     }
 
     @Override
     public void setClob(int parameterIndex, Reader reader, long length) throws SQLException {
-        indexBindings.put(parameterIndex, ps -> ps.setClob(parameterIndex, reader, length));
+        params.setClob(parameterIndex, reader, length);
     }
 
     @Override
     public void setBlob(int parameterIndex, InputStream inputStream, long length) throws SQLException {
-        indexBindings.put(parameterIndex, ps -> ps.setBlob(parameterIndex, inputStream, length));
+        params.setBlob(parameterIndex, inputStream, length);
     }
 
     @Override
     public void setNClob(int parameterIndex, Reader reader, long length) throws SQLException {
-        indexBindings.put(parameterIndex, ps -> ps.setNClob(parameterIndex, reader, length));
+        params.setNClob(parameterIndex, reader, length);
     }
 
     @Override
     public void setSQLXML(int parameterIndex, SQLXML xmlObject) throws SQLException {
-        indexBindings.put(parameterIndex, ps -> ps.setSQLXML(parameterIndex, xmlObject));
+        params.setSQLXML(parameterIndex, xmlObject);
     }
 
     @Override
     public void setObject(int parameterIndex, Object x, int targetSqlType, int scaleOrLength) throws SQLException {
-        indexBindings.put(parameterIndex, ps -> ps.setObject(parameterIndex, x, targetSqlType, scaleOrLength));
+        params.setObject(parameterIndex, x, targetSqlType, scaleOrLength);
     }
 
     @Override
     public void setAsciiStream(int parameterIndex, InputStream x, long length) throws SQLException {
-        indexBindings.put(parameterIndex, ps -> ps.setAsciiStream(parameterIndex, x, length));
+        params.setAsciiStream(parameterIndex, x, length);
     }
 
     @Override
     public void setBinaryStream(int parameterIndex, InputStream x, long length) throws SQLException {
-        indexBindings.put(parameterIndex, ps -> ps.setBinaryStream(parameterIndex, x, length));
+        params.setBinaryStream(parameterIndex, x, length);
     }
 
     @Override
     public void setCharacterStream(int parameterIndex, Reader reader, long length) throws SQLException {
-        indexBindings.put(parameterIndex, ps -> ps.setCharacterStream(parameterIndex, reader, length));
+        params.setCharacterStream(parameterIndex, reader, length);
     }
 
     @Override
     public void setAsciiStream(int parameterIndex, InputStream x) throws SQLException {
-        indexBindings.put(parameterIndex, ps -> ps.setAsciiStream(parameterIndex, x));
+        params.setAsciiStream(parameterIndex, x);
     }
 
     @Override
     public void setBinaryStream(int parameterIndex, InputStream x) throws SQLException {
-        indexBindings.put(parameterIndex, ps -> ps.setBinaryStream(parameterIndex, x));
+        params.setBinaryStream(parameterIndex, x);
     }
 
     @Override
     public void setCharacterStream(int parameterIndex, Reader reader) throws SQLException {
-        indexBindings.put(parameterIndex, ps -> ps.setCharacterStream(parameterIndex, reader));
+        params.setCharacterStream(parameterIndex, reader);
     }
 
     @Override
     public void setNCharacterStream(int parameterIndex, Reader value) throws SQLException {
-        indexBindings.put(parameterIndex, ps -> ps.setNCharacterStream(parameterIndex, value));
+        params.setNCharacterStream(parameterIndex, value);
     }
 
     @Override
     public void setClob(int parameterIndex, Reader reader) throws SQLException {
-        indexBindings.put(parameterIndex, ps -> ps.setClob(parameterIndex, reader));
+        params.setClob(parameterIndex, reader);
     }
 
     @Override
     public void setBlob(int parameterIndex, InputStream inputStream) throws SQLException {
-        indexBindings.put(parameterIndex, ps -> ps.setBlob(parameterIndex, inputStream));
+        params.setBlob(parameterIndex, inputStream);
     }
 
     @Override
     public void setNClob(int parameterIndex, Reader reader) throws SQLException {
-        indexBindings.put(parameterIndex, ps -> ps.setNClob(parameterIndex, reader));
+        params.setNClob(parameterIndex, reader);
     }
 
     @Override
     public void setObject(int parameterIndex, Object x, SQLType targetSqlType, int scaleOrLength) throws SQLException {
-        indexBindings.put(parameterIndex, ps -> ps.setObject(parameterIndex, x, targetSqlType, scaleOrLength));
+        params.setObject(parameterIndex, x, targetSqlType, scaleOrLength);
     }
 
     @Override
     public void setObject(int parameterIndex, Object x, SQLType targetSqlType) throws SQLException {
-        indexBindings.put(parameterIndex, ps -> ps.setObject(parameterIndex, x, targetSqlType));
+        params.setObject(parameterIndex, x, targetSqlType);
     }
 
     @Override
     public void addBatch() throws SQLException {
-        batch = true;
+        batchParams.add(params.copy());
     }
 
     @Override
@@ -986,37 +1168,35 @@ final class DelayedBindingProxy implements BetterPreparedStatement {
 
     @Override
     public void clearBatch() throws SQLException {
-        batch = false;
+        batchParams.clear();
     }
 
     @Override
     public int[] executeBatch() throws SQLException {
-        bps = expandPrepareBind();
-        return bps.executeBatch();
+        if (batchParams.isEmpty()) {
+            return new int[0];
+        }
+        return expandPrepareExecuteBatch();
     }
 
     @Override
     public ResultSet executeQuery() throws SQLException {
-        bps = expandPrepareBind();
-        return bps.executeQuery();
+        return expandPrepareBind().executeQuery();
     }
 
     @Override
     public int executeUpdate() throws SQLException {
-        bps = expandPrepareBind();
-        return bps.executeUpdate();
+        return expandPrepareBind().executeUpdate();
     }
 
     @Override
     public boolean execute() throws SQLException {
-        bps = expandPrepareBind();
-        return bps.execute();
+        return expandPrepareBind().execute();
     }
 
     @Override
     public long executeLargeUpdate() throws SQLException {
-        bps = expandPrepareBind();
-        return bps.executeLargeUpdate();
+        return expandPrepareBind().executeLargeUpdate();
     }
 
     @Override
@@ -1082,6 +1262,8 @@ final class DelayedBindingProxy implements BetterPreparedStatement {
 
     @Override
     public void close() throws SQLException {
+        closed = true;
+        batchParams.clear();
         if (bps != null && !bps.isClosed()) {
             bps.close();
         }
@@ -1098,6 +1280,9 @@ final class DelayedBindingProxy implements BetterPreparedStatement {
     @Override
     public void setMaxFieldSize(int max) throws SQLException {
         maxFieldSize = max;
+        if (bps != null && !bps.isClosed()) {
+            bps.setMaxFieldSize(max);
+        }
     }
 
     @Override
@@ -1111,11 +1296,17 @@ final class DelayedBindingProxy implements BetterPreparedStatement {
     @Override
     public void setMaxRows(int max) throws SQLException {
         maxRows = max;
+        if (bps != null && !bps.isClosed()) {
+            bps.setMaxRows(max);
+        }
     }
 
     @Override
     public void setEscapeProcessing(boolean enable) throws SQLException {
         escapeProcessing = enable;
+        if (bps != null && !bps.isClosed()) {
+            bps.setEscapeProcessing(enable);
+        }
     }
 
     @Override
@@ -1129,6 +1320,9 @@ final class DelayedBindingProxy implements BetterPreparedStatement {
     @Override
     public void setQueryTimeout(int seconds) throws SQLException {
         queryTimeout = seconds;
+        if (bps != null && !bps.isClosed()) {
+            bps.setQueryTimeout(seconds);
+        }
     }
 
     @Override
@@ -1156,6 +1350,9 @@ final class DelayedBindingProxy implements BetterPreparedStatement {
     @Override
     public void setCursorName(String name) throws SQLException {
         cursorName = name;
+        if (bps != null && !bps.isClosed()) {
+            bps.setCursorName(name);
+        }
     }
 
     @Override
@@ -1185,6 +1382,9 @@ final class DelayedBindingProxy implements BetterPreparedStatement {
     @Override
     public void setFetchDirection(int direction) throws SQLException {
         fetchDirection = direction;
+        if (bps != null && !bps.isClosed()) {
+            bps.setFetchDirection(direction);
+        }
     }
 
     @Override
@@ -1198,6 +1398,9 @@ final class DelayedBindingProxy implements BetterPreparedStatement {
     @Override
     public void setFetchSize(int rows) throws SQLException {
         fetchSize = rows;
+        if (bps != null && !bps.isClosed()) {
+            bps.setFetchSize(rows);
+        }
     }
 
     @Override
@@ -1255,12 +1458,15 @@ final class DelayedBindingProxy implements BetterPreparedStatement {
 
     @Override
     public boolean isClosed() throws SQLException {
-        return bps == null || bps.isClosed();
+        return closed;
     }
 
     @Override
     public void setPoolable(boolean poolable) throws SQLException {
         this.poolable = poolable;
+        if (bps != null && !bps.isClosed()) {
+            bps.setPoolable(poolable);
+        }
     }
 
     @Override
@@ -1274,6 +1480,9 @@ final class DelayedBindingProxy implements BetterPreparedStatement {
     @Override
     public void closeOnCompletion() throws SQLException {
         closeOnCompletion = true;
+        if (bps != null && !bps.isClosed()) {
+            bps.closeOnCompletion();
+        }
     }
 
     @Override
@@ -1299,4 +1508,24 @@ final class DelayedBindingProxy implements BetterPreparedStatement {
         }
         return bps.isWrapperFor(iface);
     }
+
+    private static final class Shape {
+        private final int[] widths;
+        private final int hash;
+
+        private Shape(int[] widths) {
+            this.widths = widths;
+            this.hash = Arrays.hashCode(widths);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || o instanceof Shape && Arrays.equals(widths, ((Shape) o).widths);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
 }
@@ -0,0 +1,1262 @@
+package io.github.yeagy.bss;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.NClob;
+import java.sql.ParameterMetaData;
+import java.sql.Ref;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.RowId;
+import java.sql.SQLException;
+import java.sql.SQLType;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * better prepared statement forwarding every call to another one.
+ * subclasses intercept what they need: {@link #delegate()} is asked for the target on each call,
+ * and {@link #bound(int, Object)}/{@link #bound(String, Object)} see each parameter value once it is set.
+ */
+class DelegatingBetterPreparedStatement implements BetterPreparedStatement {
+    final BetterPreparedStatement statement;
+
+    DelegatingBetterPreparedStatement(BetterPreparedStatement statement) {
+        this.statement = Objects.requireNonNull(statement);
+    }
+
+    /**
+     * @return statement the call goes to
+     */
+    BetterPreparedStatement delegate() throws SQLException {
+        return statement;
+    }
+
+    /**
+     * a parameter was set by index. setNull reports a null value
+     */
+    void bound(int parameterIndex, Object value) {
+    }
+
+    /**
+     * a parameter was set by name. setNull reports a null value
+     */
+    void bound(String namedParameter, Object value) {
+    }
+
+    @Override
+    public Blob createBlob() throws SQLException {
+        return delegate().createBlob();
+    }
+
+    @Override
+    public Clob createClob() throws SQLException {
+        return delegate().createClob();
+    }
+
+    @Override
+    public NClob createNClob() throws SQLException {
+        return delegate().createNClob();
+    }
+
+    @Override
+    public SQLXML createSQLXML() throws SQLException {
+        return delegate().createSQLXML();
+    }
+
+    @Override
+    public Array createArrayOf(String typeName, Object[] elements) throws SQLException {
+        return delegate().createArrayOf(typeName, elements);
+    }
+
+    @Override
+    public Array createArray(Object[] elements) throws SQLException {
+        return delegate().createArray(elements);
+    }
+
+    @Override
+    public Array createArray(Collection<?> elements) throws SQLException {
+        return delegate().createArray(elements);
+    }
+
+    @Override
+    public Array createArray(long[] elements) throws SQLException {
+        return delegate().createArray(elements);
+    }
+
+    @Override
+    public Array createArray(int[] elements) throws SQLException {
+        return delegate().createArray(elements);
+    }
+
+    @Override
+    public Array createArray(double[] elements) throws SQLException {
+        return delegate().createArray(elements);
+    }
+
+    @Override
+    public Array createArray(short[] elements) throws SQLException {
+        return delegate().createArray(elements);
+    }
+
+    @Override
+    public Array createArray(boolean[] elements) throws SQLException {
+        return delegate().createArray(elements);
+    }
+
+    @Override
+    public ParamHandle param(String namedParameter) {
+        return statement.param(namedParameter);
+    }
+
+    @Override
+    public void bindEntity(Object entity) throws SQLException {
+        delegate().bindEntity(entity);
+    }
+
+    @Override
+    public void bindMap(Map<String, ?> values) throws SQLException {
+        delegate().bindMap(values);
+    }
+
+    @Override
+    public void setArray(int parameterIndex, Collection<?> x) throws SQLException {
+        delegate().setArray(parameterIndex, x);
+        bound(parameterIndex, x);
+    }
+
+    @Override
+    public void setArray(String namedParameter, Collection<?> x) throws SQLException {
+        delegate().setArray(namedParameter, x);
+        bound(namedParameter, x);
+    }
+
+    @Override
+    public void setArray(int parameterIndex, Object[] x) throws SQLException {
+        delegate().setArray(parameterIndex, x);
+        bound(parameterIndex, x);
+    }
+
+    @Override
+    public void setArray(String namedParameter, Object[] x) throws SQLException {
+        delegate().setArray(namedParameter, x);
+        bound(namedParameter, x);
+    }
+
+    @Override
+    public void setArray(int parameterIndex, long[] x) throws SQLException {
+        delegate().setArray(parameterIndex, x);
+        bound(parameterIndex, x);
+    }
+
+    @Override
+    public void setArray(String namedParameter, long[] x) throws SQLException {
+        delegate().setArray(namedParameter, x);
+        bound(namedParameter, x);
+    }
+
+    @Override
+    public void setArray(int parameterIndex, int[] x) throws SQLException {
+        delegate().setArray(parameterIndex, x);
+        bound(parameterIndex, x);
+    }
+
+    @Override
+    public void setArray(String namedParameter, int[] x) throws SQLException {
+        delegate().setArray(namedParameter, x);
+        bound(namedParameter, x);
+    }
+
+    @Override
+    public void setArray(int parameterIndex, double[] x) throws SQLException {
+        delegate().setArray(parameterIndex, x);
+        bound(parameterIndex, x);
+    }
+
+    @Override
+    public void setArray(String namedParameter, double[] x) throws SQLException {
+        delegate().setArray(namedParameter, x);
+        bound(namedParameter, x);
+    }
+
+    @Override
+    public void setArray(int parameterIndex, short[] x) throws SQLException {
+        delegate().setArray(parameterIndex, x);
+        bound(parameterIndex, x);
+    }
+
+    @Override
+    public void setArray(String namedParameter, short[] x) throws SQLException {
+        delegate().setArray(namedParameter, x);
+        bound(namedParameter, x);
+    }
+
+    @Override
+    public void setArray(int parameterIndex, boolean[] x) throws SQLException {
+        delegate().setArray(parameterIndex, x);
+        bound(parameterIndex, x);
+    }
+
+    @Override
+    public void setArray(String namedParameter, boolean[] x) throws SQLException {
+        delegate().setArray(namedParameter, x);
+        bound(namedParameter, x);
+    }
+
+    @Override
+    public void setTime(int parameterIndex, LocalTime x) throws SQLException {
+        delegate().setTime(parameterIndex, x);
+        bound(parameterIndex, x);
+    }
+
+    @Override
+    public void setTime(String namedParameter, LocalTime x) throws SQLException {
+        delegate().setTime(namedParameter, x);
+        bound(namedParameter, x);
+    }
+
+    @Override
+    public void setDate(int parameterIndex, LocalDate x) throws SQLException {
+        delegate().setDate(parameterIndex, x);
+        bound(parameterIndex, x);
+    }
+
+    @Override
+    public void setDate(String namedParameter, LocalDate x) throws SQLException {
+        delegate().setDate(namedParameter, x);
+        bound(namedParameter, x);
+    }
+
+    @Override
+    public void setTimestamp(int parameterIndex, LocalDateTime x) throws SQLException {
+        delegate().setTimestamp(parameterIndex, x);
+        bound(parameterIndex, x);
+    }
+
+    @Override
+    public void setTimestamp(String namedParameter, LocalDateTime x) throws SQLException {
+        delegate().setTimestamp(namedParameter, x);
+        bound(namedParameter, x);
+    }
+
+    @Override
+    public void setTimestamp(int parameterIndex, OffsetDateTime x) throws SQLException {
+        delegate().setTimestamp(parameterIndex, x);
+        bound(parameterIndex, x);
+    }
+
+    @Override
+    public void setTimestamp(String namedParameter, OffsetDateTime x) throws SQLException {
+        delegate().setTimestamp(namedParameter, x);
+        bound(namedParameter, x);
+    }
+
+    @Override
+    public void setTimestamp(int parameterIndex, Instant x) throws SQLException {
+        delegate().setTimestamp(parameterIndex, x);
+        bound(parameterIndex, x);
+    }
+
+    @Override
+    public void setTimestamp(String namedParameter, Instant x) throws SQLException {
+        delegate().setTimestamp(namedParameter, x);
+        bound(namedParameter, x);
+    }
+
+    @Override
+    public void setNull(String namedParameter, int sqlType) throws SQLException {
+        delegate().setNull(namedParameter, sqlType);
+        bound(namedParameter, null);
+    }
+
+    @Override
+    public void setBoolean(String namedParameter, boolean x) throws SQLException {
+        delegate().setBoolean(namedParameter, x);
+        bound(namedParameter, x);
+    }
+
+    @Override
+    public void setByte(String namedParameter, byte x) throws SQLException {
+        delegate().setByte(namedParameter, x);
+        bound(namedParameter, x);
+    }
+
+    @Override
+    public void setShort(String namedParameter, short x) throws SQLException {
+        delegate().setShort(namedParameter, x);
+        bound(namedParameter, x);
+    }
+
+    @Override
+    public void setInt(String namedParameter, int x) throws SQLException {
+        delegate().setInt(namedParameter, x);
+        bound(namedParameter, x);
+    }
+
+    @Override
+    public void setLong(String namedParameter, long x) throws SQLException {
+        delegate().setLong(namedParameter, x);
+        bound(namedParameter, x);
+    }
+
+    @Override
+    public void setFloat(String namedParameter, float x) throws SQLException {
+        delegate().setFloat(namedParameter, x);
+        bound(namedParameter, x);
+    }
+
+    @Override
+    public void setDouble(String namedParameter, double x) throws SQLException {
+        delegate().setDouble(namedParameter, x);
+        bound(namedParameter, x);
+    }
+
+    @Override
+    public void setBigDecimal(String namedParameter, BigDecimal x) throws SQLException {
+        delegate().setBigDecimal(namedParameter, x);
+        bound(namedParameter, x);
+    }
+
+    @Override
+    public void setString(String namedParameter, String x) throws SQLException {
+        delegate().setString(namedParameter, x);
+        bound(namedParameter, x);
+    }
+
+    @Override
+    public void setBytes(String namedParameter, byte[] x) throws SQLException {
+        delegate().setBytes(namedParameter, x);
+        bound(namedParameter, x);
+    }
+
+    @Override
+    public void setDate(String namedParameter, Date x) throws SQLException {
+        delegate().setDate(namedParameter, x);
+        bound(namedParameter, x);
+    }
+
+    @Override
+    public void setTime(String namedParameter, Time x) throws SQLException {
+        delegate().setTime(namedParameter, x);
+        bound(namedParameter, x);
+    }
+
+    @Override
+    public void setTimestamp(String namedParameter, Timestamp x) throws SQLException {
+        delegate().setTimestamp(namedParameter, x);
+        bound(namedParameter, x);
+    }
+
+    @Override
+    public void setAsciiStream(String namedParameter, InputStream x, int length) throws SQLException {
+        delegate().setAsciiStream(namedParameter, x, length);
+        bound(namedParameter, x);
+    }
+
+    @Override
+    public void setBinaryStream(String namedParameter, InputStream x, int length) throws SQLException {
+        delegate().setBinaryStream(namedParameter, x, length);
+        bound(namedParameter, x);
+    }
+
+    @Override
+    public void setObject(String namedParameter, Object x, int targetSqlType) throws SQLException {
+        delegate().setObject(namedParameter, x, targetSqlType);
+        bound(namedParameter, x);
+    }
+
+    @Override
+    public void setObject(String namedParameter, Object x) throws SQLException {
+        delegate().setObject(namedParameter, x);
+        bound(namedParameter, x);
+    }
+
+    @Override
+    public void setCharacterStream(String namedParameter, Reader reader, int length) throws SQLException {
+        delegate().setCharacterStream(namedParameter, reader, length);
+        bound(namedParameter, reader);
+    }
+
+    @Override
+    public void setRef(String namedParameter, Ref x) throws SQLException {
+        delegate().setRef(namedParameter, x);
+        bound(namedParameter, x);
+    }
+
+    @Override
+    public void setBlob(String namedParameter, Blob x) throws SQLException {
+        delegate().setBlob(namedParameter, x);
+        bound(namedParameter, x);
+    }
+
+    @Override
+    public void setClob(String namedParameter, Clob x) throws SQLException {
+        delegate().setClob(namedParameter, x);
+        bound(namedParameter, x);
+    }
+
+    @Override
+    public void setArray(String namedParameter, Array x) throws SQLException {
+        delegate().setArray(namedParameter, x);
+        bound(namedParameter, x);
+    }
+
+    @Override
+    public void setDate(String namedParameter, Date x, Calendar cal) throws SQLException {
+        delegate().setDate(namedParameter, x, cal);
+        bound(namedParameter, x);
+    }
+
+    @Override
+    public void setTime(String namedParameter, Time x, Calendar cal) throws SQLException {
+        delegate().setTime(namedParameter, x, cal);
+        bound(namedParameter, x);
+    }
+
+    @Override
+    public void setTimestamp(String namedParameter, Timestamp x, Calendar cal) throws SQLException {
+        delegate().setTimestamp(namedParameter, x, cal);
+        bound(namedParameter, x);
+    }
+
+    @Override
+    public void setNull(String namedParameter, int sqlType, String typeName) throws SQLException {
+        delegate().setNull(namedParameter, sqlType, typeName);
+        bound(namedParameter, null);
+    }
+
+    @Override
+    public void setURL(String namedParameter, URL x) throws SQLException {
+        delegate().setURL(namedParameter, x);
+        bound(namedParameter, x);
+    }
+
+    @Override
+    public void setRowId(String namedParameter, RowId x) throws SQLException {
+        delegate().setRowId(namedParameter, x);
+        bound(namedParameter, x);
+    }
+
+    @Override
+    public void setNString(String namedParameter, String value) throws SQLException {
+        delegate().setNString(namedParameter, value);
+        bound(namedParameter, value);
+    }
+
+    @Override
+    public void setNCharacterStream(String namedParameter, Reader value, long length) throws SQLException {
+        delegate().setNCharacterStream(namedParameter, value, length);
+        bound(namedParameter, value);
+    }
+
+    @Override
+    public void setNClob(String namedParameter, NClob value) throws SQLException {
+        delegate().setNClob(namedParameter, value);
+        bound(namedParameter, value);
+    }
+
+    @Override
+    public void setClob(String namedParameter, Reader reader, long length) throws SQLException {
+        delegate().setClob(namedParameter, reader, length);
+        bound(namedParameter, reader);
+    }
+
+    @Override
+    public void setBlob(String namedParameter, InputStream inputStream, long length) throws SQLException {
+        delegate().setBlob(namedParameter, inputStream, length);
+        bound(namedParameter, inputStream);
+    }
+
+    @Override
+    public void setNClob(String namedParameter, Reader reader, long length) throws SQLException {
+        delegate().setNClob(namedParameter, reader, length);
+        bound(namedParameter, reader);
+    }
+
+    @Override
+    public void setSQLXML(String namedParameter, SQLXML xmlObject) throws SQLException {
+        delegate().setSQLXML(namedParameter, xmlObject);
+        bound(namedParameter, xmlObject);
+    }
+
+    @Override
+    public void setObject(String namedParameter, Object x, int targetSqlType, int scaleOrLength) throws SQLException {
+        delegate().setObject(namedParameter, x, targetSqlType, scaleOrLength);
+        bound(namedParameter, x);
+    }
+
+    @Override
+    public void setAsciiStream(String namedParameter, InputStream x, long length) throws SQLException {
+        delegate().setAsciiStream(namedParameter, x, length);
+        bound(namedParameter, x);
+    }
+
+    @Override
+    public void setBinaryStream(String namedParameter, InputStream x, long length) throws SQLException {
+        delegate().setBinaryStream(namedParameter, x, length);
+        bound(namedParameter, x);
+    }
+
+    @Override
+    public void setCharacterStream(String namedParameter, Reader reader, long length) throws SQLException {
+        delegate().setCharacterStream(namedParameter, reader, length);
+        bound(namedParameter, reader);
+    }
+
+    @Override
+    public void setAsciiStream(String namedParameter, InputStream x) throws SQLException {
+        delegate().setAsciiStream(namedParameter, x);
+        bound(namedParameter, x);
+    }
+
+    @Override
+    public void setBinaryStream(String namedParameter, InputStream x) throws SQLException {
+        delegate().setBinaryStream(namedParameter, x);
+        bound(namedParameter, x);
+    }
+
+    @Override
+    public void setCharacterStream(String namedParameter, Reader reader) throws SQLException {
+        delegate().setCharacterStream(namedParameter, reader);
+        bound(namedParameter, reader);
+    }
+
+    @Override
+    public void setNCharacterStream(String namedParameter, Reader value) throws SQLException {
+        delegate().setNCharacterStream(namedParameter, value);
+        bound(namedParameter, value);
+    }
+
+    @Override
+    public void setClob(String namedParameter, Reader reader) throws SQLException {
+        delegate().setClob(namedParameter, reader);
+        bound(namedParameter, reader);
+    }
+
+    @Override
+    public void setBlob(String namedParameter, InputStream inputStream) throws SQLException {
+        delegate().setBlob(namedParameter, inputStream);
+        bound(namedParameter, inputStream);
+    }
+
+    @Override
+    public void setNClob(String namedParameter, Reader reader) throws SQLException {
+        delegate().setNClob(namedParameter, reader);
+        bound(namedParameter, reader);
+    }
+
+    @Override
+    public void setObject(String namedParameter, Object x, SQLType targetSqlType, int scaleOrLength) throws SQLException {
+        delegate().setObject(namedParameter, x, targetSqlType, scaleOrLength);
+        bound(namedParameter, x);
+    }
+
+    @Override
+    public void setObject(String namedParameter, Object x, SQLType targetSqlType) throws SQLException {
+        delegate().setObject(namedParameter, x, targetSqlType);
+        bound(namedParameter, x);
+    }
+
+    @Override
+    public void setBooleanNullable(String namedParameter, Boolean x) throws SQLException {
+        delegate().setBooleanNullable(namedParameter, x);
+        bound(namedParameter, x);
+    }
+
+    @Override
+    public void setByteNullable(String namedParameter, Byte x) throws SQLException {
+        delegate().setByteNullable(namedParameter, x);
+        bound(namedParameter, x);
+    }
+
+    @Override
+    public void setShortNullable(String namedParameter, Short x) throws SQLException {
+        delegate().setShortNullable(namedParameter, x);
+        bound(namedParameter, x);
+    }
+
+    @Override
+    public void setIntNullable(String namedParameter, Integer x) throws SQLException {
+        delegate().setIntNullable(namedParameter, x);
+        bound(namedParameter, x);
+    }
+
+    @Override
+    public void setLongNullable(String namedParameter, Long x) throws SQLException {
+        delegate().setLongNullable(namedParameter, x);
+        bound(namedParameter, x);
+    }
+
+    @Override
+    public void setFloatNullable(String namedParameter, Float x) throws SQLException {
+        delegate().setFloatNullable(namedParameter, x);
+        bound(namedParameter, x);
+    }
+
+    @Override
+    public void setDoubleNullable(String namedParameter, Double x) throws SQLException {
+        delegate().setDoubleNullable(namedParameter, x);
+        bound(namedParameter, x);
+    }
+
+    @Override
+    public void setBooleanNullable(int parameterIndex, Boolean x) throws SQLException {
+        delegate().setBooleanNullable(parameterIndex, x);
+        bound(parameterIndex, x);
+    }
+
+    @Override
+    public void setByteNullable(int parameterIndex, Byte x) throws SQLException {
+        delegate().setByteNullable(parameterIndex, x);
+        bound(parameterIndex, x);
+    }
+
+    @Override
+    public void setShortNullable(int parameterIndex, Short x) throws SQLException {
+        delegate().setShortNullable(parameterIndex, x);
+        bound(parameterIndex, x);
+    }
+
+    @Override
+    public void setIntNullable(int parameterIndex, Integer x) throws SQLException {
+        delegate().setIntNullable(parameterIndex, x);
+        bound(parameterIndex, x);
+    }
+
+    @Override
+    public void setLongNullable(int parameterIndex, Long x) throws SQLException {
+        delegate().setLongNullable(parameterIndex, x);
+        bound(parameterIndex, x);
+    }
+
+    @Override
+    public void setFloatNullable(int parameterIndex, Float x) throws SQLException {
+        delegate().setFloatNullable(parameterIndex, x);
+        bound(parameterIndex, x);
+    }
+
+    @Override
+    public void setDoubleNullable(int parameterIndex, Double x) throws SQLException {
+        delegate().setDoubleNullable(parameterIndex, x);
+        bound(parameterIndex, x);
+    }
+
+    @Override
+    public ResultSet executeQuery() throws SQLException {
+        return delegate().executeQuery();
+    }
+
+    @Override
+    public int executeUpdate() throws SQLException {
+        return delegate().executeUpdate();
+    }
+
+    @Override
+    public void setNull(int parameterIndex, int sqlType) throws SQLException {
+        delegate().setNull(parameterIndex, sqlType);
+        bound(parameterIndex, null);
+    }
+
+    @Override
+    public void setBoolean(int parameterIndex, boolean x) throws SQLException {
+        delegate().setBoolean(parameterIndex, x);
+        bound(parameterIndex, x);
+    }
+
+    @Override
+    public void setByte(int parameterIndex, byte x) throws SQLException {
+        delegate().setByte(parameterIndex, x);
+        bound(parameterIndex, x);
+    }
+
+    @Override
+    public void setShort(int parameterIndex, short x) throws SQLException {
+        delegate().setShort(parameterIndex, x);
+        bound(parameterIndex, x);
+    }
+
+    @Override
+    public void setInt(int parameterIndex, int x) throws SQLException {
+        delegate().setInt(parameterIndex, x);
+        bound(parameterIndex, x);
+    }
+
+    @Override
+    public void setLong(int parameterIndex, long x) throws SQLException {
+        delegate().setLong(parameterIndex, x);
+        bound(parameterIndex, x);
+    }
+
+    @Override
+    public void setFloat(int parameterIndex, float x) throws SQLException {
+        delegate().setFloat(parameterIndex, x);
+        bound(parameterIndex, x);
+    }
+
+    @Override
+    public void setDouble(int parameterIndex, double x) throws SQLException {
+        delegate().setDouble(parameterIndex, x);
+        bound(parameterIndex, x);
+    }
+
+    @Override
+    public void setBigDecimal(int parameterIndex, BigDecimal x) throws SQLException {
+        delegate().setBigDecimal(parameterIndex, x);
+        bound(parameterIndex, x);
+    }
+
+    @Override
+    public void setString(int parameterIndex, String x) throws SQLException {
+        delegate().setString(parameterIndex, x);
+        bound(parameterIndex, x);
+    }
+
+    @Override
+    public void setBytes(int parameterIndex, byte[] x) throws SQLException {
+        delegate().setBytes(parameterIndex, x);
+        bound(parameterIndex, x);
+    }
+
+    @Override
+    public void setDate(int parameterIndex, Date x) throws SQLException {
+        delegate().setDate(parameterIndex, x);
+        bound(parameterIndex, x);
+    }
+
+    @Override
+    public void setTime(int parameterIndex, Time x) throws SQLException {
+        delegate().setTime(parameterIndex, x);
+        bound(parameterIndex, x);
+    }
+
+    @Override
+    public void setTimestamp(int parameterIndex, Timestamp x) throws SQLException {
+        delegate().setTimestamp(parameterIndex, x);
+        bound(parameterIndex, x);
+    }
+
+    @Override
+    public void setAsciiStream(int parameterIndex, InputStream x, int length) throws SQLException {
+        delegate().setAsciiStream(parameterIndex, x, length);
+        bound(parameterIndex, x);
+    }
+
+    @Override
+    @Deprecated
+    public void setUnicodeStream(int parameterIndex, InputStream x, int length) throws SQLException {
+        delegate().setUnicodeStream(parameterIndex, x, length);
+        bound(parameterIndex, x);
+    }
+
+    @Override
+    public void setBinaryStream(int parameterIndex, InputStream x, int length) throws SQLException {
+        delegate().setBinaryStream(parameterIndex, x, length);
+        bound(parameterIndex, x);
+    }
+
+    @Override
+    public void clearParameters() throws SQLException {
+        delegate().clearParameters();
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x, int targetSqlType) throws SQLException {
+        delegate().setObject(parameterIndex, x, targetSqlType);
+        bound(parameterIndex, x);
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x) throws SQLException {
+        delegate().setObject(parameterIndex, x);
+        bound(parameterIndex, x);
+    }
+
+    @Override
+    public boolean execute() throws SQLException {
+        return delegate().execute();
+    }
+
+    @Override
+    public void addBatch() throws SQLException {
+        delegate().addBatch();
+    }
+
+    @Override
+    public void setCharacterStream(int parameterIndex, Reader reader, int length) throws SQLException {
+        delegate().setCharacterStream(parameterIndex, reader, length);
+        bound(parameterIndex, reader);
+    }
+
+    @Override
+    public void setRef(int parameterIndex, Ref x) throws SQLException {
+        delegate().setRef(parameterIndex, x);
+        bound(parameterIndex, x);
+    }
+
+    @Override
+    public void setBlob(int parameterIndex, Blob x) throws SQLException {
+        delegate().setBlob(parameterIndex, x);
+        bound(parameterIndex, x);
+    }
+
+    @Override
+    public void setClob(int parameterIndex, Clob x) throws SQLException {
+        delegate().setClob(parameterIndex, x);
+        bound(parameterIndex, x);
+    }
+
+    @Override
+    public void setArray(int parameterIndex, Array x) throws SQLException {
+        delegate().setArray(parameterIndex, x);
+        bound(parameterIndex, x);
+    }
+
+    @Override
+    public ResultSetMetaData getMetaData() throws SQLException {
+        return delegate().getMetaData();
+    }
+
+    @Override
+    public void setDate(int parameterIndex, Date x, Calendar cal) throws SQLException {
+        delegate().setDate(parameterIndex, x, cal);
+        bound(parameterIndex, x);
+    }
+
+    @Override
+    public void setTime(int parameterIndex, Time x, Calendar cal) throws SQLException {
+        delegate().setTime(parameterIndex, x, cal);
+        bound(parameterIndex, x);
+    }
+
+    @Override
+    public void setTimestamp(int parameterIndex, Timestamp x, Calendar cal) throws SQLException {
+        delegate().setTimestamp(parameterIndex, x, cal);
+        bound(parameterIndex, x);
+    }
+
+    @Override
+    public void setNull(int parameterIndex, int sqlType, String typeName) throws SQLException {
+        delegate().setNull(parameterIndex, sqlType, typeName);
+        bound(parameterIndex, null);
+    }
+
+    @Override
+    public void setURL(int parameterIndex, URL x) throws SQLException {
+        delegate().setURL(parameterIndex, x);
+        bound(parameterIndex, x);
+    }
+
+    @Override
+    public ParameterMetaData getParameterMetaData() throws SQLException {
+        return delegate().getParameterMetaData();
+    }
+
+    @Override
+    public void setRowId(int parameterIndex, RowId x) throws SQLException {
+        delegate().setRowId(parameterIndex, x);
+        bound(parameterIndex, x);
+    }
+
+    @Override
+    public void setNString(int parameterIndex, String value) throws SQLException {
+        delegate().setNString(parameterIndex, value);
+        bound(parameterIndex, value);
+    }
+
+    @Override
+    public void setNCharacterStream(int parameterIndex, Reader value, long length) throws SQLException {
+        delegate().setNCharacterStream(parameterIndex, value, length);
+        bound(parameterIndex, value);
+    }
+
+    @Override
+    public void setNClob(int parameterIndex, NClob value) throws SQLException {
+        delegate().setNClob(parameterIndex, value);
+        bound(parameterIndex, value);
+    }
+
+    @Override
+    public void setClob(int parameterIndex, Reader reader, long length) throws SQLException {
+        delegate().setClob(parameterIndex, reader, length);
+        bound(parameterIndex, reader);
+    }
+
+    @Override
+    public void setBlob(int parameterIndex, InputStream inputStream, long length) throws SQLException {
+        delegate().setBlob(parameterIndex, inputStream, length);
+        bound(parameterIndex, inputStream);
+    }
+
+    @Override
+    public void setNClob(int parameterIndex, Reader reader, long length) throws SQLException {
+        delegate().setNClob(parameterIndex, reader, length);
+        bound(parameterIndex, reader);
+    }
+
+    @Override
+    public void setSQLXML(int parameterIndex, SQLXML xmlObject) throws SQLException {
+        delegate().setSQLXML(parameterIndex, xmlObject);
+        bound(parameterIndex, xmlObject);
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x, int targetSqlType, int scaleOrLength) throws SQLException {
+        delegate().setObject(parameterIndex, x, targetSqlType, scaleOrLength);
+        bound(parameterIndex, x);
+    }
+
+    @Override
+    public void setAsciiStream(int parameterIndex, InputStream x, long length) throws SQLException {
+        delegate().setAsciiStream(parameterIndex, x, length);
+        bound(parameterIndex, x);
+    }
+
+    @Override
+    public void setBinaryStream(int parameterIndex, InputStream x, long length) throws SQLException {
+        delegate().setBinaryStream(parameterIndex, x, length);
+        bound(parameterIndex, x);
+    }
+
+    @Override
+    public void setCharacterStream(int parameterIndex, Reader reader, long length) throws SQLException {
+        delegate().setCharacterStream(parameterIndex, reader, length);
+        bound(parameterIndex, reader);
+    }
+
+    @Override
+    public void setAsciiStream(int parameterIndex, InputStream x) throws SQLException {
+        delegate().setAsciiStream(parameterIndex, x);
+        bound(parameterIndex, x);
+    }
+
+    @Override
+    public void setBinaryStream(int parameterIndex, InputStream x) throws SQLException {
+        delegate().setBinaryStream(parameterIndex, x);
+        bound(parameterIndex, x);
+    }
+
+    @Override
+    public void setCharacterStream(int parameterIndex, Reader reader) throws SQLException {
+        delegate().setCharacterStream(parameterIndex, reader);
+        bound(parameterIndex, reader);
+    }
+
+    @Override
+    public void setNCharacterStream(int parameterIndex, Reader value) throws SQLException {
+        delegate().setNCharacterStream(parameterIndex, value);
+        bound(parameterIndex, value);
+    }
+
+    @Override
+    public void setClob(int parameterIndex, Reader reader) throws SQLException {
+        delegate().setClob(parameterIndex, reader);
+        bound(parameterIndex, reader);
+    }
+
+    @Override
+    public void setBlob(int parameterIndex, InputStream inputStream) throws SQLException {
+        delegate().setBlob(parameterIndex, inputStream);
+        bound(parameterIndex, inputStream);
+    }
+
+    @Override
+    public void setNClob(int parameterIndex, Reader reader) throws SQLException {
+        delegate().setNClob(parameterIndex, reader);
+        bound(parameterIndex, reader);
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x, SQLType targetSqlType, int scaleOrLength) throws SQLException {
+        delegate().setObject(parameterIndex, x, targetSqlType, scaleOrLength);
+        bound(parameterIndex, x);
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x, SQLType targetSqlType) throws SQLException {
+        delegate().setObject(parameterIndex, x, targetSqlType);
+        bound(parameterIndex, x);
+    }
+
+    @Override
+    public long executeLargeUpdate() throws SQLException {
+        return delegate().executeLargeUpdate();
+    }
+
+    @Override
+    public ResultSet executeQuery(String sql) throws SQLException {
+        return delegate().executeQuery(sql);
+    }
+
+    @Override
+    public int executeUpdate(String sql) throws SQLException {
+        return delegate().executeUpdate(sql);
+    }
+
+    @Override
+    public void close() throws SQLException {
+        delegate().close();
+    }
+
+    @Override
+    public int getMaxFieldSize() throws SQLException {
+        return delegate().getMaxFieldSize();
+    }
+
+    @Override
+    public void setMaxFieldSize(int max) throws SQLException {
+        delegate().setMaxFieldSize(max);
+    }
+
+    @Override
+    public int getMaxRows() throws SQLException {
+        return delegate().getMaxRows();
+    }
+
+    @Override
+    public void setMaxRows(int max) throws SQLException {
+        delegate().setMaxRows(max);
+    }
+
+    @Override
+    public void setEscapeProcessing(boolean enable) throws SQLException {
+        delegate().setEscapeProcessing(enable);
+    }
+
+    @Override
+    public int getQueryTimeout() throws SQLException {
+        return delegate().getQueryTimeout();
+    }
+
+    @Override
+    public void setQueryTimeout(int seconds) throws SQLException {
+        delegate().setQueryTimeout(seconds);
+    }
+
+    @Override
+    public void cancel() throws SQLException {
+        delegate().cancel();
+    }
+
+    @Override
+    public SQLWarning getWarnings() throws SQLException {
+        return delegate().getWarnings();
+    }
+
+    @Override
+    public void clearWarnings() throws SQLException {
+        delegate().clearWarnings();
+    }
+
+    @Override
+    public void setCursorName(String name) throws SQLException {
+        delegate().setCursorName(name);
+    }
+
+    @Override
+    public boolean execute(String sql) throws SQLException {
+        return delegate().execute(sql);
+    }
+
+    @Override
+    public ResultSet getResultSet() throws SQLException {
+        return delegate().getResultSet();
+    }
+
+    @Override
+    public int getUpdateCount() throws SQLException {
+        return delegate().getUpdateCount();
+    }
+
+    @Override
+    public boolean getMoreResults() throws SQLException {
+        return delegate().getMoreResults();
+    }
+
+    @Override
+    public void setFetchDirection(int direction) throws SQLException {
+        delegate().setFetchDirection(direction);
+    }
+
+    @Override
+    public int getFetchDirection() throws SQLException {
+        return delegate().getFetchDirection();
+    }
+
+    @Override
+    public void setFetchSize(int rows) throws SQLException {
+        delegate().setFetchSize(rows);
+    }
+
+    @Override
+    public int getFetchSize() throws SQLException {
+        return delegate().getFetchSize();
+    }
+
+    @Override
+    public int getResultSetConcurrency() throws SQLException {
+        return delegate().getResultSetConcurrency();
+    }
+
+    @Override
+    public int getResultSetType() throws SQLException {
+        return delegate().getResultSetType();
+    }
+
+    @Override
+    public void addBatch(String sql) throws SQLException {
+        delegate().addBatch(sql);
+    }
+
+    @Override
+    public void clearBatch() throws SQLException {
+        delegate().clearBatch();
+    }
+
+    @Override
+    public int[] executeBatch() throws SQLException {
+        return delegate().executeBatch();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return delegate().getConnection();
+    }
+
+    @Override
+    public boolean getMoreResults(int current) throws SQLException {
+        return delegate().getMoreResults(current);
+    }
+
+    @Override
+    public ResultSet getGeneratedKeys() throws SQLException {
+        return delegate().getGeneratedKeys();
+    }
+
+    @Override
+    public int executeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+        return delegate().executeUpdate(sql, autoGeneratedKeys);
+    }
+
+    @Override
+    public int executeUpdate(String sql, int[] columnIndexes) throws SQLException {
+        return delegate().executeUpdate(sql, columnIndexes);
+    }
+
+    @Override
+    public int executeUpdate(String sql, String[] columnNames) throws SQLException {
+        return delegate().executeUpdate(sql, columnNames);
+    }
+
+    @Override
+    public boolean execute(String sql, int autoGeneratedKeys) throws SQLException {
+        return delegate().execute(sql, autoGeneratedKeys);
+    }
+
+    @Override
+    public boolean execute(String sql, int[] columnIndexes) throws SQLException {
+        return delegate().execute(sql, columnIndexes);
+    }
+
+    @Override
+    public boolean execute(String sql, String[] columnNames) throws SQLException {
+        return delegate().execute(sql, columnNames);
+    }
+
+    @Override
+    public int getResultSetHoldability() throws SQLException {
+        return delegate().getResultSetHoldability();
+    }
+
+    @Override
+    public boolean isClosed() throws SQLException {
+        return delegate().isClosed();
+    }
+
+    @Override
+    public void setPoolable(boolean poolable) throws SQLException {
+        delegate().setPoolable(poolable);
+    }
+
+    @Override
+    public boolean isPoolable() throws SQLException {
+        return delegate().isPoolable();
+    }
+
+    @Override
+    public void closeOnCompletion() throws SQLException {
+        delegate().closeOnCompletion();
+    }
+
+    @Override
+    public boolean isCloseOnCompletion() throws SQLException {
+        return delegate().isCloseOnCompletion();
+    }
+
+    @Override
+    public long getLargeUpdateCount() throws SQLException {
+        return delegate().getLargeUpdateCount();
+    }
+
+    @Override
+    public void setLargeMaxRows(long max) throws SQLException {
+        delegate().setLargeMaxRows(max);
+    }
+
+    @Override
+    public long getLargeMaxRows() throws SQLException {
+        return delegate().getLargeMaxRows();
+    }
+
+    @Override
+    public long[] executeLargeBatch() throws SQLException {
+        return delegate().executeLargeBatch();
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql) throws SQLException {
+        return delegate().executeLargeUpdate(sql);
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+        return delegate().executeLargeUpdate(sql, autoGeneratedKeys);
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql, int[] columnIndexes) throws SQLException {
+        return delegate().executeLargeUpdate(sql, columnIndexes);
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql, String[] columnNames) throws SQLException {
+        return delegate().executeLargeUpdate(sql, columnNames);
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        return delegate().unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return delegate().isWrapperFor(iface);
+    }
+}
@@ -0,0 +1,604 @@
+package io.github.yeagy.bss;
+
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.CallableStatement;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.NClob;
+import java.sql.PreparedStatement;
+import java.sql.SQLClientInfoException;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.sql.Struct;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executor;
+
+/**
+ * connection forwarding every call to another one.
+ * subclasses intercept what they need: {@link #delegate()} is asked for the target on each call,
+ * {@link #failed(SQLException)} sees each exception on its way out, and the wrap methods see each statement created.
+ * statements wrapped as {@link DelegatingStatement} call {@link #beforeStatement()} before each of their calls.
+ */
+abstract class DelegatingConnection implements Connection {
+
+    /**
+     * @return connection the call goes to
+     */
+    abstract Connection delegate() throws SQLException;
+
+    /**
+     * a forwarded call threw. the exception is rethrown after
+     */
+    void failed(SQLException e) {
+    }
+
+    /**
+     * a statement of this connection is about to forward a call
+     */
+    void beforeStatement() throws SQLException {
+    }
+
+    Statement wrap(Statement statement) throws SQLException {
+        return statement;
+    }
+
+    PreparedStatement wrap(PreparedStatement statement) throws SQLException {
+        return statement;
+    }
+
+    CallableStatement wrap(CallableStatement statement) throws SQLException {
+        return statement;
+    }
+
+    @Override
+    public Statement createStatement() throws SQLException {
+        try {
+            return wrap(delegate().createStatement());
+        } catch (SQLException e) {
+            failed(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql) throws SQLException {
+        try {
+            return wrap(delegate().prepareStatement(sql));
+        } catch (SQLException e) {
+            failed(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public CallableStatement prepareCall(String sql) throws SQLException {
+        try {
+            return wrap(delegate().prepareCall(sql));
+        } catch (SQLException e) {
+            failed(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public String nativeSQL(String sql) throws SQLException {
+        try {
+            return delegate().nativeSQL(sql);
+        } catch (SQLException e) {
+            failed(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public void setAutoCommit(boolean autoCommit) throws SQLException {
+        try {
+            delegate().setAutoCommit(autoCommit);
+        } catch (SQLException e) {
+            failed(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean getAutoCommit() throws SQLException {
+        try {
+            return delegate().getAutoCommit();
+        } catch (SQLException e) {
+            failed(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public void commit() throws SQLException {
+        try {
+            delegate().commit();
+        } catch (SQLException e) {
+            failed(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public void rollback() throws SQLException {
+        try {
+            delegate().rollback();
+        } catch (SQLException e) {
+            failed(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        try {
+            delegate().close();
+        } catch (SQLException e) {
+            failed(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean isClosed() throws SQLException {
+        try {
+            return delegate().isClosed();
+        } catch (SQLException e) {
+            failed(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public DatabaseMetaData getMetaData() throws SQLException {
+        try {
+            return delegate().getMetaData();
+        } catch (SQLException e) {
+            failed(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public void setReadOnly(boolean readOnly) throws SQLException {
+        try {
+            delegate().setReadOnly(readOnly);
+        } catch (SQLException e) {
+            failed(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean isReadOnly() throws SQLException {
+        try {
+            return delegate().isReadOnly();
+        } catch (SQLException e) {
+            failed(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public void setCatalog(String catalog) throws SQLException {
+        try {
+            delegate().setCatalog(catalog);
+        } catch (SQLException e) {
+            failed(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public String getCatalog() throws SQLException {
+        try {
+            return delegate().getCatalog();
+        } catch (SQLException e) {
+            failed(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public void setTransactionIsolation(int level) throws SQLException {
+        try {
+            delegate().setTransactionIsolation(level);
+        } catch (SQLException e) {
+            failed(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public int getTransactionIsolation() throws SQLException {
+        try {
+            return delegate().getTransactionIsolation();
+        } catch (SQLException e) {
+            failed(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public SQLWarning getWarnings() throws SQLException {
+        try {
+            return delegate().getWarnings();
+        } catch (SQLException e) {
+            failed(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public void clearWarnings() throws SQLException {
+        try {
+            delegate().clearWarnings();
+        } catch (SQLException e) {
+            failed(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public Statement createStatement(int resultSetType, int resultSetConcurrency) throws SQLException {
+        try {
+            return wrap(delegate().createStatement(resultSetType, resultSetConcurrency));
+        } catch (SQLException e) {
+            failed(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+        try {
+            return wrap(delegate().prepareStatement(sql, resultSetType, resultSetConcurrency));
+        } catch (SQLException e) {
+            failed(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+        try {
+            return wrap(delegate().prepareCall(sql, resultSetType, resultSetConcurrency));
+        } catch (SQLException e) {
+            failed(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public Map<String, Class<?>> getTypeMap() throws SQLException {
+        try {
+            return delegate().getTypeMap();
+        } catch (SQLException e) {
+            failed(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public void setTypeMap(Map<String, Class<?>> map) throws SQLException {
+        try {
+            delegate().setTypeMap(map);
+        } catch (SQLException e) {
+            failed(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public void setHoldability(int holdability) throws SQLException {
+        try {
+            delegate().setHoldability(holdability);
+        } catch (SQLException e) {
+            failed(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public int getHoldability() throws SQLException {
+        try {
+            return delegate().getHoldability();
+        } catch (SQLException e) {
+            failed(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public Savepoint setSavepoint() throws SQLException {
+        try {
+            return delegate().setSavepoint();
+        } catch (SQLException e) {
+            failed(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public Savepoint setSavepoint(String name) throws SQLException {
+        try {
+            return delegate().setSavepoint(name);
+        } catch (SQLException e) {
+            failed(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public void rollback(Savepoint savepoint) throws SQLException {
+        try {
+            delegate().rollback(savepoint);
+        } catch (SQLException e) {
+            failed(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public void releaseSavepoint(Savepoint savepoint) throws SQLException {
+        try {
+            delegate().releaseSavepoint(savepoint);
+        } catch (SQLException e) {
+            failed(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public Statement createStatement(int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+        try {
+            return wrap(delegate().createStatement(resultSetType, resultSetConcurrency, resultSetHoldability));
+        } catch (SQLException e) {
+            failed(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+        try {
+            return wrap(delegate().prepareStatement(sql, resultSetType, resultSetConcurrency, resultSetHoldability));
+        } catch (SQLException e) {
+            failed(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+        try {
+            return wrap(delegate().prepareCall(sql, resultSetType, resultSetConcurrency, resultSetHoldability));
+        } catch (SQLException e) {
+            failed(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
+        try {
+            return wrap(delegate().prepareStatement(sql, autoGeneratedKeys));
+        } catch (SQLException e) {
+            failed(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int[] columnIndexes) throws SQLException {
+        try {
+            return wrap(delegate().prepareStatement(sql, columnIndexes));
+        } catch (SQLException e) {
+            failed(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, String[] columnNames) throws SQLException {
+        try {
+            return wrap(delegate().prepareStatement(sql, columnNames));
+        } catch (SQLException e) {
+            failed(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public Clob createClob() throws SQLException {
+        try {
+            return delegate().createClob();
+        } catch (SQLException e) {
+            failed(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public Blob createBlob() throws SQLException {
+        try {
+            return delegate().createBlob();
+        } catch (SQLException e) {
+            failed(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public NClob createNClob() throws SQLException {
+        try {
+            return delegate().createNClob();
+        } catch (SQLException e) {
+            failed(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public SQLXML createSQLXML() throws SQLException {
+        try {
+            return delegate().createSQLXML();
+        } catch (SQLException e) {
+            failed(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean isValid(int timeout) throws SQLException {
+        try {
+            return delegate().isValid(timeout);
+        } catch (SQLException e) {
+            failed(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public void setClientInfo(String name, String value) throws SQLClientInfoException {
+        try {
+            delegate().setClientInfo(name, value);
+        } catch (SQLClientInfoException e) {
+            failed(e);
+            throw e;
+        } catch (SQLException e) {
+            failed(e);
+            throw new SQLClientInfoException(e.getMessage(), e.getSQLState(), e.getErrorCode(), null, e);
+        }
+    }
+
+    @Override
+    public void setClientInfo(Properties properties) throws SQLClientInfoException {
+        try {
+            delegate().setClientInfo(properties);
+        } catch (SQLClientInfoException e) {
+            failed(e);
+            throw e;
+        } catch (SQLException e) {
+            failed(e);
+            throw new SQLClientInfoException(e.getMessage(), e.getSQLState(), e.getErrorCode(), null, e);
+        }
+    }
+
+    @Override
+    public String getClientInfo(String name) throws SQLException {
+        try {
+            return delegate().getClientInfo(name);
+        } catch (SQLException e) {
+            failed(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public Properties getClientInfo() throws SQLException {
+        try {
+            return delegate().getClientInfo();
+        } catch (SQLException e) {
+            failed(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public Array createArrayOf(String typeName, Object[] elements) throws SQLException {
+        try {
+            return delegate().createArrayOf(typeName, elements);
+        } catch (SQLException e) {
+            failed(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public Struct createStruct(String typeName, Object[] attributes) throws SQLException {
+        try {
+            return delegate().createStruct(typeName, attributes);
+        } catch (SQLException e) {
+            failed(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public void setSchema(String schema) throws SQLException {
+        try {
+            delegate().setSchema(schema);
+        } catch (SQLException e) {
+            failed(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public String getSchema() throws SQLException {
+        try {
+            return delegate().getSchema();
+        } catch (SQLException e) {
+            failed(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public void abort(Executor executor) throws SQLException {
+        try {
+            delegate().abort(executor);
+        } catch (SQLException e) {
+            failed(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public void setNetworkTimeout(Executor executor, int milliseconds) throws SQLException {
+        try {
+            delegate().setNetworkTimeout(executor, milliseconds);
+        } catch (SQLException e) {
+            failed(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public int getNetworkTimeout() throws SQLException {
+        try {
+            return delegate().getNetworkTimeout();
+        } catch (SQLException e) {
+            failed(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        try {
+            return delegate().unwrap(iface);
+        } catch (SQLException e) {
+            failed(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        try {
+            return delegate().isWrapperFor(iface);
+        } catch (SQLException e) {
+            failed(e);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package io.github.yeagy.bss;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * how to build an entity from a result set row, worked out once per entity class.
+ * column names, field writers and the constructor are resolved up front. column indices are resolved on the first row of each result set.
+ * immutable, safe to share between threads.
+ */
+final class EntityRowPlan<T> {
+    private static final ConcurrentMap<Class<?>, EntityRowPlan<?>> PLANS = new ConcurrentHashMap<>();
+
+    private final Constructor<T> constructor;
+    private final Field[] fields;
+    private final String[] columnNames;
+    private final TypeMappers.FieldResultWriter[] writers;
+
+    private EntityRowPlan(Constructor<T> constructor, Field[] fields, String[] columnNames, TypeMappers.FieldResultWriter[] writers) {
+        this.constructor = constructor;
+        this.fields = fields;
+        this.columnNames = columnNames;
+        this.writers = writers;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> EntityRowPlan<T> from(Class<T> clazz) {
+        return (EntityRowPlan<T>) PLANS.computeIfAbsent(clazz, EntityRowPlan::create);
+    }
+
+    private static <T> EntityRowPlan<T> create(Class<T> clazz) {
+        final TableData tableData = TableData.from(clazz);
+        final List<Field> fields = new ArrayList<>(tableData.getPrimaryKeys());
+        fields.addAll(tableData.getColumns());
+        final String[] columnNames = new String[fields.size()];
+        final TypeMappers.FieldResultWriter[] writers = new TypeMappers.FieldResultWriter[fields.size()];
+        for (int i = 0; i < fields.size(); i++) {
+            final Field field = fields.get(i);
+            columnNames[i] = TableData.getColumnName(field);
+            writers[i] = writer(field.getType());
+        }
+        final Constructor<T> constructor;
+        try {
+            constructor = clazz.getDeclaredConstructor();
+        } catch (NoSuchMethodException e) {
+            throw new BetterSqlException("zero argument constructor not found on class " + clazz.getSimpleName(), e);
+        }
+        if (!constructor.isAccessible()) {
+            constructor.setAccessible(true);
+        }
+        return new EntityRowPlan<>(constructor, fields.toArray(new Field[fields.size()]), columnNames, writers);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static TypeMappers.FieldResultWriter writer(Class<?> type) {
+        final TypeMappers.FieldResultWriter writer = TypeMappers.getFieldResultWriter(type);
+        if (writer != null) {
+            return writer;
+        }
+        if (type.isEnum()) {
+            return (rs, field, target, idx) -> {
+                final String s = rs.getString(idx);
+                field.set(target, s == null ? null : Enum.valueOf((Class<Enum>) type, s));
+            };
+        }
+        return (rs, field, target, idx) -> field.set(target, rs.getObject(idx));
+    }
+
+    /**
+     * @return a mapping for a single result set. it resolves column indices on first use, so do not share it between result sets.
+     */
+    ResultMapping<T> newMapping() {
+        final int[][] indices = new int[1][];
+        return rs -> {
+            if (indices[0] == null) {
+                indices[0] = resolve(rs);
+            }
+            return map(rs, indices[0]);
+        };
+    }
+
+    private int[] resolve(BetterResultSet rs) throws SQLException {
+        final int[] indices = new int[columnNames.length];
+        for (int i = 0; i < columnNames.length; i++) {
+            indices[i] = rs.findColumn(columnNames[i]);
+        }
+        return indices;
+    }
+
+    private T map(BetterResultSet rs, int[] indices) throws Exception {
+        final T entity = constructor.newInstance();
+        for (int i = 0; i < fields.length; i++) {
+            writers[i].write(rs, fields[i], entity, indices[i]);
+        }
+        return entity;
+    }
+}
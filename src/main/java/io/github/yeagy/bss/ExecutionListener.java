@@ -0,0 +1,130 @@
+package io.github.yeagy.bss;
+
+import java.util.Map;
+
+/**
+ * told about every statement BSS executes, from BetterSqlSupport, BetterSqlMapper and everything built on them.
+ * register with {@link BetterOptions#withExecutionListener(ExecutionListener)}. without one, statements are not wrapped at all.
+ * <p>
+ * a query is finished when its result set is closed, so its fetch time covers reading and mapping the rows.
+ * callbacks run on the executing thread, in the middle of the statement's work. keep them quick.
+ * a callback that throws is logged, the statement goes on as if it hadn't.
+ */
+public interface ExecutionListener {
+    /**
+     * @param execution the statement about to run. rows and timings are not known yet
+     */
+    default void beforeExecution(Execution execution) {
+    }
+
+    /**
+     * @param execution the finished statement
+     */
+    void afterExecution(Execution execution);
+
+    /**
+     * @return true to have bound parameter values recorded and passed in {@link Execution#getParameters()}.
+     * recording costs a map put per bound parameter, so it is off by default
+     */
+    default boolean capturesParameters() {
+        return false;
+    }
+
+    /**
+     * one execution of a statement
+     */
+    final class Execution {
+        private final String template;
+        private final String sql;
+        private final int parameterCount;
+        private final boolean batch;
+        private final long rows;
+        private final long executeNanos;
+        private final long fetchNanos;
+        private final Throwable exception;
+        private final Map<String, Object> parameters;
+
+        Execution(String template, String sql, int parameterCount, boolean batch, long rows, long executeNanos, long fetchNanos, Throwable exception,
+                  Map<String, Object> parameters) {
+            this.template = template;
+            this.sql = sql;
+            this.parameterCount = parameterCount;
+            this.batch = batch;
+            this.rows = rows;
+            this.executeNanos = executeNanos;
+            this.fetchNanos = fetchNanos;
+            this.exception = exception;
+            this.parameters = parameters;
+        }
+
+        /**
+         * @return sql as given to BSS, with :named parameters
+         */
+        public String getTemplate() {
+            return template;
+        }
+
+        /**
+         * @return sql as sent to the driver, with IN lists expanded. before execution of an IN list statement, the unexpanded sql
+         */
+        public String getSql() {
+            return sql;
+        }
+
+        /**
+         * @return parameter markers in the sql sent to the driver
+         */
+        public int getParameterCount() {
+            return parameterCount;
+        }
+
+        /**
+         * @return true for executeBatch
+         */
+        public boolean isBatch() {
+            return batch;
+        }
+
+        /**
+         * @return rows read from a query, or rows affected by an update or batch. -1 if unknown or not finished
+         */
+        public long getRows() {
+            return rows;
+        }
+
+        /**
+         * @return time in the driver's execute call
+         */
+        public long getExecuteNanos() {
+            return executeNanos;
+        }
+
+        /**
+         * @return time from execute returning to the result set closing, 0 for updates
+         */
+        public long getFetchNanos() {
+            return fetchNanos;
+        }
+
+        /**
+         * @return why the execution failed, null if it didn't
+         */
+        public Throwable getException() {
+            return exception;
+        }
+
+        /**
+         * @return bound values by parameter name, or index for ? markers, in binding order. for a batch, the last row bound.
+         * null unless the listener {@link ExecutionListener#capturesParameters() captures parameters}. a live view, copy it to keep it past the callback
+         */
+        public Map<String, Object> getParameters() {
+            return parameters;
+        }
+
+        @Override
+        public String toString() {
+            return "Execution{sql='" + sql + "', parameters=" + parameterCount + ", rows=" + rows + ", executeNanos=" + executeNanos
+                    + ", fetchNanos=" + fetchNanos + (exception != null ? ", exception=" + exception : "") + "}";
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package io.github.yeagy.bss;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * group commit for small write transactions. transactions submitted close together are gathered into a group,
+ * run one after another in a single physical transaction on one connection, and committed once, sharing the cost of the commit.
+ * <p>
+ * a group is closed when its window has passed since the first transaction joined, or when it reaches the max size.
+ * each transaction runs as a savepoint, so a failing one is rolled back alone and only its own future fails.
+ * if the commit fails, or rolling back to a savepoint fails, the group is rolled back and every transaction in it fails.
+ * futures complete after the commit, so a completed future means the write is durable.
+ * <p>
+ * transactions in a group run serially and share locks until the commit, so keep them short and touching few rows.
+ * a transaction must not commit, roll back or change autocommit on the connection it is given.
+ * cancelling a future before its group runs skips it.
+ * <p>
+ * each group holds an executor thread for its window and its run. thread-safe. the with methods return copies that gather their own groups.
+ */
+public final class GroupCommitExecutor {
+    private static final long DEFAULT_WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+    private static final int DEFAULT_MAX_GROUP_SIZE = 64;
+
+    private final ConnectionSupplier supplier;
+    private final Executor executor;
+    private final long windowNanos;
+    private final int maxGroupSize;
+    private final Object lock = new Object();
+    private Group open;//guarded by lock, group taking new transactions
+
+    private GroupCommitExecutor(ConnectionSupplier supplier, Executor executor, long windowNanos, int maxGroupSize) {
+        this.supplier = supplier;
+        this.executor = executor;
+        this.windowNanos = windowNanos;
+        this.maxGroupSize = maxGroupSize;
+    }
+
+    /**
+     * @param supplier connections for the group transactions
+     * @param executor runs the groups
+     * @return group commit executor with a 2ms window and groups of up to 64
+     */
+    public static GroupCommitExecutor from(ConnectionSupplier supplier, Executor executor) {
+        Objects.requireNonNull(supplier);
+        Objects.requireNonNull(executor);
+        return new GroupCommitExecutor(supplier, executor, DEFAULT_WINDOW_NANOS, DEFAULT_MAX_GROUP_SIZE);
+    }
+
+    /**
+     * @param window how long a group gathers transactions after the first joins. 0 runs what has gathered at once
+     * @param unit   time unit
+     * @return copy with the window set
+     */
+    public GroupCommitExecutor withWindow(long window, TimeUnit unit) {
+        if (window < 0) {
+            throw new IllegalArgumentException("window must not be negative");
+        }
+        return new GroupCommitExecutor(supplier, executor, unit.toNanos(window), maxGroupSize);
+    }
+
+    /**
+     * @param maxGroupSize group size that closes the group before its window ends
+     * @return copy with the max group size set
+     */
+    public GroupCommitExecutor withMaxGroupSize(int maxGroupSize) {
+        if (maxGroupSize < 1) {
+            throw new IllegalArgumentException("max group size must be positive");
+        }
+        return new GroupCommitExecutor(supplier, executor, windowNanos, maxGroupSize);
+    }
+
+    /**
+     * @param consumer your logic goes here. runs in a transaction shared with the rest of its group
+     * @return future completed once the group commits, or failed with a BetterSqlException
+     */
+    public CompletableFuture<Void> submit(BetterSqlTransaction.TransactionConsumer consumer) {
+        Objects.requireNonNull(consumer);
+        final Unit unit = new Unit(consumer);
+        Group started = null;
+        synchronized (lock) {
+            if (open == null) {
+                open = new Group();
+                started = open;
+            }
+            open.units.add(unit);
+            if (open.units.size() >= maxGroupSize) {
+                open.closed = true;
+                open = null;
+                lock.notifyAll();
+            }
+        }
+        if (started != null) {
+            try {
+                executor.execute(started);
+            } catch (RejectedExecutionException e) {
+                close(started);
+                for (Unit rejected : started.units) {
+                    rejected.future.completeExceptionally(e);
+                }
+            }
+        }
+        return unit.future;
+    }
+
+    private void close(Group group) {
+        synchronized (lock) {
+            group.closed = true;
+            if (open == group) {
+                open = null;
+            }
+        }
+    }
+
+    private static final class Unit {
+        private final BetterSqlTransaction.TransactionConsumer consumer;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+        private BetterSqlException failure;
+
+        private Unit(BetterSqlTransaction.TransactionConsumer consumer) {
+            this.consumer = consumer;
+        }
+    }
+
+    private final class Group implements Runnable {
+        private final List<Unit> units = new ArrayList<>();//guarded by lock until closed
+        private boolean closed;//guarded by lock
+
+        @Override
+        public void run() {
+            try {
+                awaitClose();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                close(this);//run what has gathered
+            }
+            final List<Unit> pending = new ArrayList<>(units.size());
+            for (Unit unit : units) {
+                if (!unit.future.isDone()) {
+                    pending.add(unit);
+                }
+            }
+            if (pending.isEmpty()) {
+                return;
+            }
+            try {
+                BetterSqlTransaction.with(shared -> {
+                    for (Unit unit : pending) {
+                        if (!unit.future.isDone()) {
+                            runUnit(shared, unit);
+                        }
+                    }
+                }).execute(supplier);
+            } catch (BetterSqlException e) {
+                fail(pending, e);
+                return;
+            } catch (RuntimeException e) {
+                fail(pending, new BetterSqlException(e));
+                return;
+            }
+            for (Unit unit : pending) {
+                if (unit.failure != null) {
+                    unit.future.completeExceptionally(unit.failure);
+                } else {
+                    unit.future.complete(null);
+                }
+            }
+        }
+
+        /**
+         * runs the unit as a savepoint. if rolling back to the savepoint fails, the database may already have rolled back
+         * the whole transaction (an InnoDB deadlock does), taking the earlier units with it, so the group is aborted
+         */
+        private void runUnit(Connection shared, Unit unit) throws SQLException {
+            final Savepoint savepoint = shared.setSavepoint();
+            try {
+                unit.consumer.consume(shared);
+            } catch (Exception e) {
+                unit.failure = e instanceof BetterSqlException ? (BetterSqlException) e : new BetterSqlException(e);
+                try {
+                    shared.rollback(savepoint);
+                } catch (SQLException re) {
+                    re.addSuppressed(e);
+                    throw new SQLException("rollback to savepoint failed, group aborted", re);
+                }
+                return;
+            }
+            try {
+                shared.releaseSavepoint(savepoint);
+            } catch (SQLFeatureNotSupportedException ignored) {
+                //released with the transaction instead
+            }
+        }
+
+        private void awaitClose() throws InterruptedException {
+            synchronized (lock) {
+                final long deadline = System.nanoTime() + windowNanos;
+                long remaining = windowNanos;
+                while (!closed && remaining > 0) {
+                    TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+                    remaining = deadline - System.nanoTime();
+                }
+                closed = true;
+                if (open == this) {
+                    open = null;
+                }
+            }
+        }
+
+        private void fail(List<Unit> pending, BetterSqlException e) {
+            for (Unit unit : pending) {
+                unit.future.completeExceptionally(unit.failure != null ? unit.failure : e);
+            }
+        }
+    }
+}
@@ -4,13 +4,14 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 final class NamedParameters {
     private final String unprocessedSql;
     private final String processedSql;
-    private final Map<String, List<Integer>> indices;
+    private final Map<String, int[]> indices;
 
-    private NamedParameters(String unprocessedSql, String processedSql, Map<String, List<Integer>> indices) {
+    private NamedParameters(String unprocessedSql, String processedSql, Map<String, int[]> indices) {
         this.unprocessedSql = unprocessedSql;
         this.processedSql = processedSql;
         this.indices = indices;
@@ -24,10 +25,17 @@ final class NamedParameters {
         return processedSql;
     }
 
-    List<Integer> getIndices(String namedParameter) {
+    /**
+     * @return 1 based parameter positions, or null if not in the statement. shared, do not modify.
+     */
+    int[] getIndices(String namedParameter) {
         return indices.get(namedParameter);
     }
 
+    Set<String> getNames() {
+        return indices.keySet();
+    }
+
     /**
      * function copied from http://www.javaworld.com/article/2077706/core-java/named-parameters-for-preparedstatement.html
      * credit to @author adam_crume
@@ -72,7 +80,11 @@ final class NamedParameters {
                 processedSql.append(c);
             }
             if (!indices.isEmpty()) {
-                return new NamedParameters(sql, processedSql.toString(), indices);
+                final Map<String, int[]> positions = new HashMap<>(indices.size() * 2);
+                for (Map.Entry<String, List<Integer>> entry : indices.entrySet()) {
+                    positions.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+                }
+                return new NamedParameters(sql, processedSql.toString(), positions);
             }
         }
         return null;
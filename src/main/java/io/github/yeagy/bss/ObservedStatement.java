@@ -0,0 +1,257 @@
+package io.github.yeagy.bss;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * statement wrapper reporting each execution to an {@link ExecutionListener}.
+ * only the no argument execute methods of the prepared statement are observed, the Statement ones taking sql pass through.
+ * a query is reported when its result set closes, or when the statement closes if the result set was left open.
+ * when the listener captures parameters, the parameter setters taking an index or name and a value are recorded.
+ * listener exceptions are logged and swallowed.
+ */
+final class ObservedStatement extends DelegatingBetterPreparedStatement {
+    private static final Logger LOGGER = Logger.getLogger(ObservedStatement.class.getName());
+
+    private final String template;
+    private final String processedSql;
+    private final ExecutionListener listener;
+    private final Map<String, Object> parameters;//null unless captured
+    private final Map<String, Object> parametersView;
+    private Query open;//query result set not yet reported
+
+    /**
+     * @param ps           statement to observe
+     * @param template     sql as given
+     * @param processedSql sql with named parameters replaced by markers
+     * @param listener     told about executions
+     */
+    ObservedStatement(BetterPreparedStatement ps, String template, String processedSql, ExecutionListener listener) {
+        super(ps);
+        this.template = template;
+        this.processedSql = processedSql;
+        this.listener = listener;
+        this.parameters = listener.capturesParameters() ? new LinkedHashMap<>() : null;
+        this.parametersView = parameters != null ? Collections.unmodifiableMap(parameters) : null;
+    }
+
+    @Override
+    void bound(int parameterIndex, Object value) {
+        if (parameters != null) {
+            parameters.put(String.valueOf(parameterIndex), value);
+        }
+    }
+
+    @Override
+    void bound(String namedParameter, Object value) {
+        if (parameters != null) {
+            parameters.put(namedParameter, value);
+        }
+    }
+
+    @Override
+    public void clearParameters() throws SQLException {
+        if (parameters != null) {
+            parameters.clear();
+        }
+        super.clearParameters();
+    }
+
+    @Override
+    public void close() throws SQLException {
+        finishOpen();
+        super.close();
+    }
+
+    @Override
+    public ResultSet executeQuery() throws SQLException {
+        finishOpen();
+        before(false);
+        final long start = System.nanoTime();
+        final ResultSet rs;
+        try {
+            rs = super.executeQuery();
+        } catch (SQLException | RuntimeException e) {
+            report(-1, System.nanoTime() - start, 0, e, false);
+            throw e;
+        }
+        final long executed = System.nanoTime();
+        open = new Query(rs, executed - start, executed);
+        return open;
+    }
+
+    @Override
+    public boolean execute() throws SQLException {
+        return execute(false, super::execute);
+    }
+
+    @Override
+    public int executeUpdate() throws SQLException {
+        return execute(false, super::executeUpdate);
+    }
+
+    @Override
+    public long executeLargeUpdate() throws SQLException {
+        return execute(false, super::executeLargeUpdate);
+    }
+
+    @Override
+    public int[] executeBatch() throws SQLException {
+        return execute(true, super::executeBatch);
+    }
+
+    @Override
+    public long[] executeLargeBatch() throws SQLException {
+        return execute(true, super::executeLargeBatch);
+    }
+
+    private interface Execute<T> {
+        T run() throws SQLException;
+    }
+
+    private <T> T execute(boolean batch, Execute<T> execute) throws SQLException {
+        finishOpen();
+        before(batch);
+        final long start = System.nanoTime();
+        final T result;
+        try {
+            result = execute.run();
+        } catch (SQLException | RuntimeException e) {
+            report(-1, System.nanoTime() - start, 0, e, batch);
+            throw e;
+        }
+        report(rows(result), System.nanoTime() - start, 0, null, batch);
+        return result;
+    }
+
+    private long rows(Object result) {
+        if (result instanceof Number) {
+            return ((Number) result).longValue();
+        }
+        long rows = 0;
+        if (result instanceof int[]) {
+            for (int count : (int[]) result) {
+                if (count < 0) {
+                    return -1;//SUCCESS_NO_INFO or EXECUTE_FAILED
+                }
+                rows += count;
+            }
+            return rows;
+        }
+        if (result instanceof long[]) {
+            for (long count : (long[]) result) {
+                if (count < 0) {
+                    return -1;
+                }
+                rows += count;
+            }
+            return rows;
+        }
+        return -1;//execute(), results not looked at
+    }
+
+    private void finishOpen() {
+        if (open != null) {
+            open.finish(null);
+        }
+    }
+
+    /**
+     * @return sql sent to the driver. IN list statements only know it once executed
+     */
+    private String sql() {
+        if (statement instanceof DelayedBindingProxy) {
+            final String expanded = ((DelayedBindingProxy) statement).getExpandedSql();
+            if (expanded != null) {
+                return expanded;
+            }
+        }
+        return processedSql;
+    }
+
+    //a throwing listener is logged, it must not fail a statement that worked or hide why one failed
+
+    private void before(boolean batch) {
+        try {
+            listener.beforeExecution(event(-1, 0, 0, null, batch));
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "execution listener failed before " + template, e);
+        }
+    }
+
+    private void report(long rows, long executeNanos, long fetchNanos, Throwable exception, boolean batch) {
+        try {
+            listener.afterExecution(event(rows, executeNanos, fetchNanos, exception, batch));
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "execution listener failed after " + template, e);
+        }
+    }
+
+    private ExecutionListener.Execution event(long rows, long executeNanos, long fetchNanos, Throwable exception, boolean batch) {
+        final String sql = sql();
+        return new ExecutionListener.Execution(template, sql, countMarkers(sql), batch, rows, executeNanos, fetchNanos, exception, parametersView);
+    }
+
+    private static int countMarkers(String sql) {
+        int count = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            if (sql.charAt(i) == '?') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * result set counting rows until closed
+     */
+    private final class Query extends DelegatingResultSet {
+        private final long executeNanos;
+        private final long fetchStart;
+        private long rows;
+        private boolean finished;
+
+        private Query(ResultSet rs, long executeNanos, long fetchStart) {
+            super(rs, ObservedStatement.this);
+            this.executeNanos = executeNanos;
+            this.fetchStart = fetchStart;
+        }
+
+        @Override
+        public boolean next() throws SQLException {
+            final boolean next;
+            try {
+                next = super.next();
+            } catch (SQLException | RuntimeException e) {
+                finish(e);
+                throw e;
+            }
+            if (next) {
+                rows++;
+            }
+            return next;
+        }
+
+        @Override
+        public void close() throws SQLException {
+            super.close();
+            finish(null);
+        }
+
+        private void finish(Throwable exception) {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            if (open == this) {
+                open = null;
+            }
+            report(rows, executeNanos, System.nanoTime() - fetchStart, exception, false);
+        }
+    }
+}
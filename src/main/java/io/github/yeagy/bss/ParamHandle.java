@@ -0,0 +1,229 @@
+package io.github.yeagy.bss;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+
+/**
+ * a :named parameter resolved to its positions in the statement.
+ * look it up once with {@link BetterPreparedStatement#param(String)}, then set it per row without any name lookups.
+ * only valid for the statement that created it.
+ */
+public final class ParamHandle {
+    private final BetterPreparedStatement ps;
+    private final int[] positions;
+
+    ParamHandle(BetterPreparedStatement ps, int[] positions) {
+        this.ps = ps;
+        this.positions = positions;
+    }
+
+    /**
+     * @return number of markers for this parameter in the statement
+     */
+    public int getPositionCount() {
+        return positions.length;
+    }
+
+    /**
+     * @param i which occurrence, 0 based
+     * @return 1 based parameter index in the statement
+     */
+    public int getPosition(int i) {
+        return positions[i];
+    }
+
+    public void setNull(int sqlType) throws SQLException {
+        for (int idx : positions) {
+            ps.setNull(idx, sqlType);
+        }
+    }
+
+    public void setBoolean(boolean x) throws SQLException {
+        for (int idx : positions) {
+            ps.setBoolean(idx, x);
+        }
+    }
+
+    public void setByte(byte x) throws SQLException {
+        for (int idx : positions) {
+            ps.setByte(idx, x);
+        }
+    }
+
+    public void setShort(short x) throws SQLException {
+        for (int idx : positions) {
+            ps.setShort(idx, x);
+        }
+    }
+
+    public void setInt(int x) throws SQLException {
+        for (int idx : positions) {
+            ps.setInt(idx, x);
+        }
+    }
+
+    public void setLong(long x) throws SQLException {
+        for (int idx : positions) {
+            ps.setLong(idx, x);
+        }
+    }
+
+    public void setFloat(float x) throws SQLException {
+        for (int idx : positions) {
+            ps.setFloat(idx, x);
+        }
+    }
+
+    public void setDouble(double x) throws SQLException {
+        for (int idx : positions) {
+            ps.setDouble(idx, x);
+        }
+    }
+
+    public void setBigDecimal(BigDecimal x) throws SQLException {
+        for (int idx : positions) {
+            ps.setBigDecimal(idx, x);
+        }
+    }
+
+    public void setString(String x) throws SQLException {
+        for (int idx : positions) {
+            ps.setString(idx, x);
+        }
+    }
+
+    public void setBytes(byte[] x) throws SQLException {
+        for (int idx : positions) {
+            ps.setBytes(idx, x);
+        }
+    }
+
+    public void setDate(Date x) throws SQLException {
+        for (int idx : positions) {
+            ps.setDate(idx, x);
+        }
+    }
+
+    public void setTime(Time x) throws SQLException {
+        for (int idx : positions) {
+            ps.setTime(idx, x);
+        }
+    }
+
+    public void setTimestamp(Timestamp x) throws SQLException {
+        for (int idx : positions) {
+            ps.setTimestamp(idx, x);
+        }
+    }
+
+    public void setObject(Object x) throws SQLException {
+        for (int idx : positions) {
+            ps.setObject(idx, x);
+        }
+    }
+
+    public void setObject(Object x, int targetSqlType) throws SQLException {
+        for (int idx : positions) {
+            ps.setObject(idx, x, targetSqlType);
+        }
+    }
+
+    //nullable primitives
+
+    public void setBooleanNullable(Boolean x) throws SQLException {
+        for (int idx : positions) {
+            ps.setBooleanNullable(idx, x);
+        }
+    }
+
+    public void setShortNullable(Short x) throws SQLException {
+        for (int idx : positions) {
+            ps.setShortNullable(idx, x);
+        }
+    }
+
+    public void setIntNullable(Integer x) throws SQLException {
+        for (int idx : positions) {
+            ps.setIntNullable(idx, x);
+        }
+    }
+
+    public void setLongNullable(Long x) throws SQLException {
+        for (int idx : positions) {
+            ps.setLongNullable(idx, x);
+        }
+    }
+
+    public void setDoubleNullable(Double x) throws SQLException {
+        for (int idx : positions) {
+            ps.setDoubleNullable(idx, x);
+        }
+    }
+
+    //java 8 time
+
+    public void setDate(LocalDate x) throws SQLException {
+        for (int idx : positions) {
+            ps.setDate(idx, x);
+        }
+    }
+
+    public void setTime(LocalTime x) throws SQLException {
+        for (int idx : positions) {
+            ps.setTime(idx, x);
+        }
+    }
+
+    public void setTimestamp(LocalDateTime x) throws SQLException {
+        for (int idx : positions) {
+            ps.setTimestamp(idx, x);
+        }
+    }
+
+    public void setTimestamp(OffsetDateTime x) throws SQLException {
+        for (int idx : positions) {
+            ps.setTimestamp(idx, x);
+        }
+    }
+
+    public void setTimestamp(Instant x) throws SQLException {
+        for (int idx : positions) {
+            ps.setTimestamp(idx, x);
+        }
+    }
+
+    //arrays
+
+    public void setArray(Collection<?> x) throws SQLException {
+        for (int idx : positions) {
+            ps.setArray(idx, x);
+        }
+    }
+
+    public void setArray(Object[] x) throws SQLException {
+        for (int idx : positions) {
+            ps.setArray(idx, x);
+        }
+    }
+
+    public void setArray(long[] x) throws SQLException {
+        for (int idx : positions) {
+            ps.setArray(idx, x);
+        }
+    }
+
+    public void setArray(int[] x) throws SQLException {
+        for (int idx : positions) {
+            ps.setArray(idx, x);
+        }
+    }
+}
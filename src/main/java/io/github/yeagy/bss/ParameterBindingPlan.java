@@ -0,0 +1,123 @@
+package io.github.yeagy.bss;
+
+import java.lang.reflect.Field;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * binds :named parameters straight from an entity or a map.
+ * for entities, parameter names are matched to TableData columns (by column name, or field name) once per template and class,
+ * leaving only indexed sets with precompiled field accessors per bind.
+ * parameters with no matching column or key are left for you to set.
+ */
+final class ParameterBindingPlan {
+    private static final ConcurrentMap<Class<?>, ConcurrentMap<String, ParameterBindingPlan>> PLANS = new ConcurrentHashMap<>();
+
+    private final Field[] fields;
+    private final TypeMappers.FieldParamSetter[] setters;
+    private final int[][] positions;
+
+    private ParameterBindingPlan(Field[] fields, TypeMappers.FieldParamSetter[] setters, int[][] positions) {
+        this.fields = fields;
+        this.setters = setters;
+        this.positions = positions;
+    }
+
+    static void bindEntity(BetterPreparedStatement ps, NamedParameters namedParameters, Object entity) throws SQLException {
+        if (namedParameters == null) {
+            throw new IllegalStateException("no named parameters found in statement");
+        }
+        if (entity == null) {
+            throw new IllegalArgumentException("entity cannot be null");
+        }
+        final ParameterBindingPlan plan = PLANS.computeIfAbsent(entity.getClass(), k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(namedParameters.getUnprocessedSql(), k -> create(namedParameters, entity.getClass()));
+        plan.bind(ps, entity);
+    }
+
+    static void bindMap(BetterPreparedStatement ps, NamedParameters namedParameters, Map<String, ?> values) throws SQLException {
+        if (namedParameters == null) {
+            throw new IllegalStateException("no named parameters found in statement");
+        }
+        if (values == null) {
+            throw new IllegalArgumentException("map cannot be null");
+        }
+        for (String name : namedParameters.getNames()) {
+            final Object value = values.get(name);
+            if (value != null || values.containsKey(name)) {
+                for (int idx : namedParameters.getIndices(name)) {
+                    setValue(ps, value, idx);
+                }
+            }
+        }
+    }
+
+    private static ParameterBindingPlan create(NamedParameters namedParameters, Class<?> clazz) {
+        final TableData tableData = TableData.from(clazz);
+        final List<Field> candidates = new ArrayList<>(tableData.getPrimaryKeys());
+        candidates.addAll(tableData.getColumns());
+        final List<Field> fields = new ArrayList<>();
+        final List<TypeMappers.FieldParamSetter> setters = new ArrayList<>();
+        final List<int[]> positions = new ArrayList<>();
+        for (Field field : candidates) {
+            int[] indices = namedParameters.getIndices(TableData.getColumnName(field));
+            if (indices == null) {
+                indices = namedParameters.getIndices(field.getName());
+            }
+            if (indices != null) {
+                fields.add(field);
+                setters.add(setter(field.getType()));
+                positions.add(indices);
+            }
+        }
+        return new ParameterBindingPlan(fields.toArray(new Field[fields.size()]),
+                setters.toArray(new TypeMappers.FieldParamSetter[setters.size()]),
+                positions.toArray(new int[positions.size()][]));
+    }
+
+    private static TypeMappers.FieldParamSetter setter(Class<?> type) {
+        final TypeMappers.FieldParamSetter setter = TypeMappers.getFieldParamSetter(type);
+        if (setter != null) {
+            return setter;
+        }
+        if (type.isEnum()) {
+            return (ps, field, target, idx) -> {
+                final Object value = field.get(target);
+                ps.setString(idx, value == null ? null : value.toString());
+            };
+        }
+        return (ps, field, target, idx) -> ps.setObject(idx, field.get(target));
+    }
+
+    private static void setValue(BetterPreparedStatement ps, Object value, int idx) throws SQLException {
+        if (value == null) {
+            ps.setNull(idx, Types.NULL);
+            return;
+        }
+        final TypeMappers.ObjectParamSetter setter = TypeMappers.getObjectParamSetter(value.getClass());
+        if (setter != null) {
+            setter.set(ps, value, idx);
+        } else if (value.getClass().isEnum()) {
+            ps.setString(idx, value.toString());
+        } else {
+            ps.setObject(idx, value);
+        }
+    }
+
+    private void bind(BetterPreparedStatement ps, Object entity) throws SQLException {
+        try {
+            for (int i = 0; i < fields.length; i++) {
+                for (int idx : positions[i]) {
+                    setters[i].set(ps, fields[i], entity, idx);
+                }
+            }
+        } catch (IllegalAccessException e) {
+            throw new BetterSqlException(e);
+        }
+    }
+}
@@ -0,0 +1,761 @@
+package io.github.yeagy.bss;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Date;
+import java.sql.NClob;
+import java.sql.PreparedStatement;
+import java.sql.Ref;
+import java.sql.RowId;
+import java.sql.SQLException;
+import java.sql.SQLType;
+import java.sql.SQLXML;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collection;
+
+/**
+ * Typed record of statement parameters, indexed by parameter position.
+ * Parallel arrays hold a type tag, a primitive slot and object slots per parameter, so setting a primitive does not box or allocate.
+ * Replay calls the type specific setter on the target statement.
+ * <p>
+ * Array parameters occupy a single position here and are expanded into consecutive markers on replay.
+ */
+final class ParameterBuffer {
+    private static final byte UNSET = 0;
+    private static final byte NULL = 1;
+    private static final byte NULL_TYPE_NAME = 2;
+    private static final byte BOOLEAN = 3;
+    private static final byte BYTE = 4;
+    private static final byte SHORT = 5;
+    private static final byte INT = 6;
+    private static final byte LONG = 7;
+    private static final byte FLOAT = 8;
+    private static final byte DOUBLE = 9;
+    private static final byte BIG_DECIMAL = 10;
+    private static final byte STRING = 11;
+    private static final byte NSTRING = 12;
+    private static final byte BYTES = 13;
+    private static final byte DATE = 14;
+    private static final byte DATE_CALENDAR = 15;
+    private static final byte TIME = 16;
+    private static final byte TIME_CALENDAR = 17;
+    private static final byte TIMESTAMP = 18;
+    private static final byte TIMESTAMP_CALENDAR = 19;
+    private static final byte ASCII_STREAM = 20;
+    private static final byte ASCII_STREAM_INT = 21;
+    private static final byte ASCII_STREAM_LONG = 22;
+    private static final byte BINARY_STREAM = 23;
+    private static final byte BINARY_STREAM_INT = 24;
+    private static final byte BINARY_STREAM_LONG = 25;
+    private static final byte UNICODE_STREAM_INT = 26;
+    private static final byte CHARACTER_STREAM = 27;
+    private static final byte CHARACTER_STREAM_INT = 28;
+    private static final byte CHARACTER_STREAM_LONG = 29;
+    private static final byte NCHARACTER_STREAM = 30;
+    private static final byte NCHARACTER_STREAM_LONG = 31;
+    private static final byte OBJECT = 32;
+    private static final byte OBJECT_TYPE = 33;
+    private static final byte OBJECT_TYPE_SCALE = 34;
+    private static final byte OBJECT_SQL_TYPE = 35;
+    private static final byte OBJECT_SQL_TYPE_SCALE = 36;
+    private static final byte REF = 37;
+    private static final byte BLOB = 38;
+    private static final byte BLOB_STREAM = 39;
+    private static final byte BLOB_STREAM_LONG = 40;
+    private static final byte CLOB = 41;
+    private static final byte CLOB_READER = 42;
+    private static final byte CLOB_READER_LONG = 43;
+    private static final byte NCLOB = 44;
+    private static final byte NCLOB_READER = 45;
+    private static final byte NCLOB_READER_LONG = 46;
+    private static final byte URL_VALUE = 47;
+    private static final byte ROW_ID = 48;
+    private static final byte XML = 49;
+    private static final byte ARRAY_OBJECTS = 50;
+    private static final byte ARRAY_COLLECTION = 51;
+    private static final byte ARRAY_LONG = 52;
+    private static final byte ARRAY_INT = 53;
+    private static final byte ARRAY_DOUBLE = 54;
+    private static final byte ARRAY_SHORT = 55;
+    private static final byte ARRAY_BOOLEAN = 56;
+    private static final byte ARRAY_STRING = 57;
+
+    private byte[] tags;
+    private long[] primitives;//primitive values, stream lengths
+    private int[] ints;//sql types, scales
+    private Object[] objects;//reference values
+    private Object[] extras;//calendars, type names, SQLTypes
+    private int size;//highest parameter index set
+
+    ParameterBuffer(int capacity) {
+        final int length = capacity + 1;//1 based
+        tags = new byte[length];
+        primitives = new long[length];
+        ints = new int[length];
+        objects = new Object[length];
+        extras = new Object[length];
+    }
+
+    private ParameterBuffer(ParameterBuffer other) {
+        tags = other.tags.clone();
+        primitives = other.primitives.clone();
+        ints = other.ints.clone();
+        objects = other.objects.clone();
+        extras = other.extras.clone();
+        size = other.size;
+    }
+
+    ParameterBuffer copy() {
+        return new ParameterBuffer(this);
+    }
+
+    void clear() {
+        Arrays.fill(tags, 0, size + 1, UNSET);
+        Arrays.fill(objects, 0, size + 1, null);
+        Arrays.fill(extras, 0, size + 1, null);
+        size = 0;
+    }
+
+    /**
+     * @return highest parameter index set
+     */
+    int size() {
+        return size;
+    }
+
+    boolean isSet(int index) {
+        return index < tags.length && tags[index] != UNSET;
+    }
+
+    /**
+     * @param index parameter index
+     * @return number of parameter markers this parameter occupies once expanded
+     */
+    int width(int index) {
+        switch (tags[index]) {
+            case ARRAY_OBJECTS:
+                return ((Object[]) objects[index]).length;
+            case ARRAY_COLLECTION:
+                return ((Collection<?>) objects[index]).size();
+            case ARRAY_LONG:
+                return ((long[]) objects[index]).length;
+            case ARRAY_INT:
+                return ((int[]) objects[index]).length;
+            case ARRAY_DOUBLE:
+                return ((double[]) objects[index]).length;
+            case ARRAY_SHORT:
+                return ((short[]) objects[index]).length;
+            case ARRAY_BOOLEAN:
+                return ((boolean[]) objects[index]).length;
+            case ARRAY_STRING:
+                return ((String[]) objects[index]).length;
+            default:
+                return 1;
+        }
+    }
+
+    /**
+     * replay every parameter onto the statement, shifting positions past any expanded arrays.
+     *
+     * @param ps target statement
+     * @throws SQLException from JDBC
+     */
+    void bind(PreparedStatement ps) throws SQLException {
+        int position = 1;
+        for (int index = 1; index <= size; index++) {
+            position += bind(ps, index, position);
+        }
+    }
+
+    private int bind(PreparedStatement ps, int index, int position) throws SQLException {
+        final Object o = objects[index];
+        final long p = primitives[index];
+        switch (tags[index]) {
+            case NULL:
+                ps.setNull(position, ints[index]);
+                break;
+            case NULL_TYPE_NAME:
+                ps.setNull(position, ints[index], (String) extras[index]);
+                break;
+            case BOOLEAN:
+                ps.setBoolean(position, p != 0);
+                break;
+            case BYTE:
+                ps.setByte(position, (byte) p);
+                break;
+            case SHORT:
+                ps.setShort(position, (short) p);
+                break;
+            case INT:
+                ps.setInt(position, (int) p);
+                break;
+            case LONG:
+                ps.setLong(position, p);
+                break;
+            case FLOAT:
+                ps.setFloat(position, Float.intBitsToFloat((int) p));
+                break;
+            case DOUBLE:
+                ps.setDouble(position, Double.longBitsToDouble(p));
+                break;
+            case BIG_DECIMAL:
+                ps.setBigDecimal(position, (BigDecimal) o);
+                break;
+            case STRING:
+                ps.setString(position, (String) o);
+                break;
+            case NSTRING:
+                ps.setNString(position, (String) o);
+                break;
+            case BYTES:
+                ps.setBytes(position, (byte[]) o);
+                break;
+            case DATE:
+                ps.setDate(position, (Date) o);
+                break;
+            case DATE_CALENDAR:
+                ps.setDate(position, (Date) o, (Calendar) extras[index]);
+                break;
+            case TIME:
+                ps.setTime(position, (Time) o);
+                break;
+            case TIME_CALENDAR:
+                ps.setTime(position, (Time) o, (Calendar) extras[index]);
+                break;
+            case TIMESTAMP:
+                ps.setTimestamp(position, (Timestamp) o);
+                break;
+            case TIMESTAMP_CALENDAR:
+                ps.setTimestamp(position, (Timestamp) o, (Calendar) extras[index]);
+                break;
+            case ASCII_STREAM:
+                ps.setAsciiStream(position, (InputStream) o);
+                break;
+            case ASCII_STREAM_INT:
+                ps.setAsciiStream(position, (InputStream) o, (int) p);
+                break;
+            case ASCII_STREAM_LONG:
+                ps.setAsciiStream(position, (InputStream) o, p);
+                break;
+            case BINARY_STREAM:
+                ps.setBinaryStream(position, (InputStream) o);
+                break;
+            case BINARY_STREAM_INT:
+                ps.setBinaryStream(position, (InputStream) o, (int) p);
+                break;
+            case BINARY_STREAM_LONG:
+                ps.setBinaryStream(position, (InputStream) o, p);
+                break;
+            case UNICODE_STREAM_INT:
+                setUnicodeStream(ps, position, (InputStream) o, (int) p);
+                break;
+            case CHARACTER_STREAM:
+                ps.setCharacterStream(position, (Reader) o);
+                break;
+            case CHARACTER_STREAM_INT:
+                ps.setCharacterStream(position, (Reader) o, (int) p);
+                break;
+            case CHARACTER_STREAM_LONG:
+                ps.setCharacterStream(position, (Reader) o, p);
+                break;
+            case NCHARACTER_STREAM:
+                ps.setNCharacterStream(position, (Reader) o);
+                break;
+            case NCHARACTER_STREAM_LONG:
+                ps.setNCharacterStream(position, (Reader) o, p);
+                break;
+            case OBJECT:
+                ps.setObject(position, o);
+                break;
+            case OBJECT_TYPE:
+                ps.setObject(position, o, ints[index]);
+                break;
+            case OBJECT_TYPE_SCALE:
+                ps.setObject(position, o, ints[index], (int) p);
+                break;
+            case OBJECT_SQL_TYPE:
+                ps.setObject(position, o, (SQLType) extras[index]);
+                break;
+            case OBJECT_SQL_TYPE_SCALE:
+                ps.setObject(position, o, (SQLType) extras[index], (int) p);
+                break;
+            case REF:
+                ps.setRef(position, (Ref) o);
+                break;
+            case BLOB:
+                ps.setBlob(position, (Blob) o);
+                break;
+            case BLOB_STREAM:
+                ps.setBlob(position, (InputStream) o);
+                break;
+            case BLOB_STREAM_LONG:
+                ps.setBlob(position, (InputStream) o, p);
+                break;
+            case CLOB:
+                ps.setClob(position, (Clob) o);
+                break;
+            case CLOB_READER:
+                ps.setClob(position, (Reader) o);
+                break;
+            case CLOB_READER_LONG:
+                ps.setClob(position, (Reader) o, p);
+                break;
+            case NCLOB:
+                ps.setNClob(position, (NClob) o);
+                break;
+            case NCLOB_READER:
+                ps.setNClob(position, (Reader) o);
+                break;
+            case NCLOB_READER_LONG:
+                ps.setNClob(position, (Reader) o, p);
+                break;
+            case URL_VALUE:
+                ps.setURL(position, (URL) o);
+                break;
+            case ROW_ID:
+                ps.setRowId(position, (RowId) o);
+                break;
+            case XML:
+                ps.setSQLXML(position, (SQLXML) o);
+                break;
+            case ARRAY_OBJECTS: {
+                final Object[] array = (Object[]) o;
+                for (int i = 0; i < array.length; i++) {
+                    ps.setObject(position + i, array[i]);
+                }
+                return array.length;
+            }
+            case ARRAY_COLLECTION: {
+                final Collection<?> collection = (Collection<?>) o;
+                int i = position;
+                for (Object element : collection) {
+                    ps.setObject(i++, element);
+                }
+                return collection.size();
+            }
+            case ARRAY_LONG: {
+                final long[] array = (long[]) o;
+                for (int i = 0; i < array.length; i++) {
+                    ps.setLong(position + i, array[i]);
+                }
+                return array.length;
+            }
+            case ARRAY_INT: {
+                final int[] array = (int[]) o;
+                for (int i = 0; i < array.length; i++) {
+                    ps.setInt(position + i, array[i]);
+                }
+                return array.length;
+            }
+            case ARRAY_DOUBLE: {
+                final double[] array = (double[]) o;
+                for (int i = 0; i < array.length; i++) {
+                    ps.setDouble(position + i, array[i]);
+                }
+                return array.length;
+            }
+            case ARRAY_SHORT: {
+                final short[] array = (short[]) o;
+                for (int i = 0; i < array.length; i++) {
+                    ps.setShort(position + i, array[i]);
+                }
+                return array.length;
+            }
+            case ARRAY_BOOLEAN: {
+                final boolean[] array = (boolean[]) o;
+                for (int i = 0; i < array.length; i++) {
+                    ps.setBoolean(position + i, array[i]);
+                }
+                return array.length;
+            }
+            case ARRAY_STRING: {
+                final String[] array = (String[]) o;
+                for (int i = 0; i < array.length; i++) {
+                    ps.setString(position + i, array[i]);
+                }
+                return array.length;
+            }
+            default:
+                throw new IllegalStateException("no value set for parameter " + index);
+        }
+        return 1;
+    }
+
+    @SuppressWarnings("deprecation")
+    private static void setUnicodeStream(PreparedStatement ps, int position, InputStream x, int length) throws SQLException {
+        ps.setUnicodeStream(position, x, length);
+    }
+
+    private void ensureCapacity(int index) {
+        if (index < 1) {
+            throw new IllegalArgumentException("parameter index must be positive: " + index);
+        }
+        if (index >= tags.length) {
+            final int length = Math.max(index + 1, tags.length * 2);
+            tags = Arrays.copyOf(tags, length);
+            primitives = Arrays.copyOf(primitives, length);
+            ints = Arrays.copyOf(ints, length);
+            objects = Arrays.copyOf(objects, length);
+            extras = Arrays.copyOf(extras, length);
+        }
+        if (index > size) {
+            size = index;
+        }
+    }
+
+    private void put(int index, byte tag, long primitive) {
+        ensureCapacity(index);
+        tags[index] = tag;
+        primitives[index] = primitive;
+        objects[index] = null;
+        extras[index] = null;
+    }
+
+    private void put(int index, byte tag, Object object) {
+        ensureCapacity(index);
+        tags[index] = tag;
+        objects[index] = object;
+        extras[index] = null;
+    }
+
+    private void put(int index, byte tag, Object object, Object extra) {
+        ensureCapacity(index);
+        tags[index] = tag;
+        objects[index] = object;
+        extras[index] = extra;
+    }
+
+    private void put(int index, byte tag, Object object, long primitive) {
+        ensureCapacity(index);
+        tags[index] = tag;
+        objects[index] = object;
+        primitives[index] = primitive;
+        extras[index] = null;
+    }
+
+    //arrays
+
+    void setArray(int index, Collection<?> x) {
+        put(index, ARRAY_COLLECTION, x);
+    }
+
+    void setArray(int index, Object[] x) {
+        put(index, x instanceof String[] ? ARRAY_STRING : ARRAY_OBJECTS, x);
+    }
+
+    void setArray(int index, long[] x) {
+        put(index, ARRAY_LONG, x);
+    }
+
+    void setArray(int index, int[] x) {
+        put(index, ARRAY_INT, x);
+    }
+
+    void setArray(int index, double[] x) {
+        put(index, ARRAY_DOUBLE, x);
+    }
+
+    void setArray(int index, short[] x) {
+        put(index, ARRAY_SHORT, x);
+    }
+
+    void setArray(int index, boolean[] x) {
+        put(index, ARRAY_BOOLEAN, x);
+    }
+
+    //java 8 time
+
+    void setTime(int index, LocalTime x) {
+        setTime(index, x == null ? null : Time.valueOf(x));
+    }
+
+    void setDate(int index, LocalDate x) {
+        setDate(index, x == null ? null : Date.valueOf(x));
+    }
+
+    void setTimestamp(int index, LocalDateTime x) {
+        setTimestamp(index, x == null ? null : Timestamp.valueOf(x));
+    }
+
+    void setTimestamp(int index, OffsetDateTime x) {
+        setTimestamp(index, x == null ? null : x.toInstant());
+    }
+
+    void setTimestamp(int index, Instant x) {
+        setTimestamp(index, x == null ? null : Timestamp.from(x));
+    }
+
+    //nullable primitives
+
+    void setBooleanNullable(int index, Boolean x) {
+        if (x == null) {
+            setNull(index, Types.BOOLEAN);
+        } else {
+            setBoolean(index, x);
+        }
+    }
+
+    void setByteNullable(int index, Byte x) {
+        if (x == null) {
+            setNull(index, Types.TINYINT);
+        } else {
+            setByte(index, x);
+        }
+    }
+
+    void setShortNullable(int index, Short x) {
+        if (x == null) {
+            setNull(index, Types.SMALLINT);
+        } else {
+            setShort(index, x);
+        }
+    }
+
+    void setIntNullable(int index, Integer x) {
+        if (x == null) {
+            setNull(index, Types.INTEGER);
+        } else {
+            setInt(index, x);
+        }
+    }
+
+    void setLongNullable(int index, Long x) {
+        if (x == null) {
+            setNull(index, Types.BIGINT);
+        } else {
+            setLong(index, x);
+        }
+    }
+
+    void setFloatNullable(int index, Float x) {
+        if (x == null) {
+            setNull(index, Types.REAL);
+        } else {
+            setFloat(index, x);
+        }
+    }
+
+    void setDoubleNullable(int index, Double x) {
+        if (x == null) {
+            setNull(index, Types.DOUBLE);
+        } else {
+            setDouble(index, x);
+        }
+    }
+
+    //jdbc setters
+
+    void setNull(int index, int sqlType) {
+        put(index, NULL, null);
+        ints[index] = sqlType;
+    }
+
+    void setNull(int index, int sqlType, String typeName) {
+        put(index, NULL_TYPE_NAME, null, typeName);
+        ints[index] = sqlType;
+    }
+
+    void setBoolean(int index, boolean x) {
+        put(index, BOOLEAN, x ? 1L : 0L);
+    }
+
+    void setByte(int index, byte x) {
+        put(index, BYTE, x);
+    }
+
+    void setShort(int index, short x) {
+        put(index, SHORT, x);
+    }
+
+    void setInt(int index, int x) {
+        put(index, INT, x);
+    }
+
+    void setLong(int index, long x) {
+        put(index, LONG, x);
+    }
+
+    void setFloat(int index, float x) {
+        put(index, FLOAT, Float.floatToRawIntBits(x));
+    }
+
+    void setDouble(int index, double x) {
+        put(index, DOUBLE, Double.doubleToRawLongBits(x));
+    }
+
+    void setBigDecimal(int index, BigDecimal x) {
+        put(index, BIG_DECIMAL, x);
+    }
+
+    void setString(int index, String x) {
+        put(index, STRING, x);
+    }
+
+    void setNString(int index, String x) {
+        put(index, NSTRING, x);
+    }
+
+    void setBytes(int index, byte[] x) {
+        put(index, BYTES, x);
+    }
+
+    void setDate(int index, Date x) {
+        put(index, DATE, x);
+    }
+
+    void setDate(int index, Date x, Calendar cal) {
+        put(index, DATE_CALENDAR, x, cal);
+    }
+
+    void setTime(int index, Time x) {
+        put(index, TIME, x);
+    }
+
+    void setTime(int index, Time x, Calendar cal) {
+        put(index, TIME_CALENDAR, x, cal);
+    }
+
+    void setTimestamp(int index, Timestamp x) {
+        put(index, TIMESTAMP, x);
+    }
+
+    void setTimestamp(int index, Timestamp x, Calendar cal) {
+        put(index, TIMESTAMP_CALENDAR, x, cal);
+    }
+
+    void setAsciiStream(int index, InputStream x) {
+        put(index, ASCII_STREAM, x);
+    }
+
+    void setAsciiStream(int index, InputStream x, int length) {
+        put(index, ASCII_STREAM_INT, x, length);
+    }
+
+    void setAsciiStream(int index, InputStream x, long length) {
+        put(index, ASCII_STREAM_LONG, x, length);
+    }
+
+    void setBinaryStream(int index, InputStream x) {
+        put(index, BINARY_STREAM, x);
+    }
+
+    void setBinaryStream(int index, InputStream x, int length) {
+        put(index, BINARY_STREAM_INT, x, length);
+    }
+
+    void setBinaryStream(int index, InputStream x, long length) {
+        put(index, BINARY_STREAM_LONG, x, length);
+    }
+
+    void setUnicodeStream(int index, InputStream x, int length) {
+        put(index, UNICODE_STREAM_INT, x, length);
+    }
+
+    void setCharacterStream(int index, Reader reader) {
+        put(index, CHARACTER_STREAM, reader);
+    }
+
+    void setCharacterStream(int index, Reader reader, int length) {
+        put(index, CHARACTER_STREAM_INT, reader, length);
+    }
+
+    void setCharacterStream(int index, Reader reader, long length) {
+        put(index, CHARACTER_STREAM_LONG, reader, length);
+    }
+
+    void setNCharacterStream(int index, Reader value) {
+        put(index, NCHARACTER_STREAM, value);
+    }
+
+    void setNCharacterStream(int index, Reader value, long length) {
+        put(index, NCHARACTER_STREAM_LONG, value, length);
+    }
+
+    void setObject(int index, Object x) {
+        put(index, OBJECT, x);
+    }
+
+    void setObject(int index, Object x, int targetSqlType) {
+        put(index, OBJECT_TYPE, x);
+        ints[index] = targetSqlType;
+    }
+
+    void setObject(int index, Object x, int targetSqlType, int scaleOrLength) {
+        put(index, OBJECT_TYPE_SCALE, x, scaleOrLength);
+        ints[index] = targetSqlType;
+    }
+
+    void setObject(int index, Object x, SQLType targetSqlType) {
+        put(index, OBJECT_SQL_TYPE, x, targetSqlType);
+    }
+
+    void setObject(int index, Object x, SQLType targetSqlType, int scaleOrLength) {
+        put(index, OBJECT_SQL_TYPE_SCALE, x, targetSqlType);
+        primitives[index] = scaleOrLength;
+    }
+
+    void setRef(int index, Ref x) {
+        put(index, REF, x);
+    }
+
+    void setBlob(int index, Blob x) {
+        put(index, BLOB, x);
+    }
+
+    void setBlob(int index, InputStream inputStream) {
+        put(index, BLOB_STREAM, inputStream);
+    }
+
+    void setBlob(int index, InputStream inputStream, long length) {
+        put(index, BLOB_STREAM_LONG, inputStream, length);
+    }
+
+    void setClob(int index, Clob x) {
+        put(index, CLOB, x);
+    }
+
+    void setClob(int index, Reader reader) {
+        put(index, CLOB_READER, reader);
+    }
+
+    void setClob(int index, Reader reader, long length) {
+        put(index, CLOB_READER_LONG, reader, length);
+    }
+
+    void setNClob(int index, NClob value) {
+        put(index, NCLOB, value);
+    }
+
+    void setNClob(int index, Reader reader) {
+        put(index, NCLOB_READER, reader);
+    }
+
+    void setNClob(int index, Reader reader, long length) {
+        put(index, NCLOB_READER_LONG, reader, length);
+    }
+
+    void setURL(int index, URL x) {
+        put(index, URL_VALUE, x);
+    }
+
+    void setRowId(int index, RowId x) {
+        put(index, ROW_ID, x);
+    }
+
+    void setSQLXML(int index, SQLXML xmlObject) {
+        put(index, XML, xmlObject);
+    }
+}
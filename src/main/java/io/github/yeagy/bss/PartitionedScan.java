@@ -0,0 +1,174 @@
+package io.github.yeagy.bss;
+
+import java.lang.reflect.Field;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * full table read split into primary key ranges, each read on its own connection.
+ * the key range is looked up with MIN/MAX when the scan starts and split into evenly sized slices.
+ * gaps in the keys make for uneven slices, so ask for a few more partitions than you have threads.
+ * <p>
+ * needs a single integral primary key. rows written during the scan may or may not be seen.
+ * create with {@link BetterSqlMapper#scan(ConnectionSupplier, Class, int)}. immutable, safe to share between threads.
+ */
+public final class PartitionedScan<T> {
+    private final BetterSqlSupport support;
+    private final ConnectionSupplier supplier;
+    private final Class<T> clazz;
+    private final int partitions;
+    private final SqlTemplate rangeTemplate;
+    private final SqlTemplate sliceTemplate;
+
+    PartitionedScan(BetterSqlSupport support, BetterSqlGenerator generator, ConnectionSupplier supplier, Class<T> clazz, int partitions) {
+        Objects.requireNonNull(supplier);
+        if (partitions < 1) {
+            throw new IllegalArgumentException("partitions must be positive");
+        }
+        final TableData tableData = TableData.from(clazz);
+        if (tableData.hasCompositeKey() || !isIntegral(tableData.getPrimaryKey())) {
+            throw new UnsupportedOperationException("partitioned scan requires a single integral primary key");
+        }
+        this.support = support;
+        this.supplier = supplier;
+        this.clazz = clazz;
+        this.partitions = partitions;
+        this.rangeTemplate = support.template(generator.generateKeyRangeSqlTemplate(tableData));
+        this.sliceTemplate = support.template(generator.generateRangeSelectSqlTemplateNamed(tableData));
+    }
+
+    private static boolean isIntegral(Field field) {
+        final Class<?> type = field.getType();
+        return type == long.class || type == Long.class || type == int.class || type == Integer.class
+                || type == short.class || type == Short.class || type == byte.class || type == Byte.class;
+    }
+
+    /**
+     * parallel stream over the slices. slices are read on the stream's fork join pool (the common pool, unless you run the
+     * terminal operation inside your own), and each slice is loaded whole before its rows are passed on.
+     * the key range is looked up on the calling thread.
+     *
+     * @return parallel stream of every row, in no particular order
+     */
+    public Stream<T> stream() {
+        return slices().parallelStream().flatMap(slice -> {
+            final List<T> rows = new ArrayList<>();
+            read(slice, rows::add);
+            return rows.stream();
+        });
+    }
+
+    /**
+     * read every slice on the executor, rows streamed to the consumer as they are read.
+     * the consumer is called by one thread at a time, so it need not be thread-safe. blocks until the scan is done.
+     * the first failure cancels the other slices.
+     *
+     * @param executor runs the slices. needs a thread per partition to read them all at once
+     * @param consumer receives every row, in no particular order
+     */
+    public void forEach(Executor executor, Consumer<? super T> consumer) {
+        Objects.requireNonNull(consumer);
+        final BetterSqlAsync async = BetterSqlAsync.fromDefaults(supplier, executor);
+        final Object lock = new Object();
+        final Consumer<T> serial = row -> {
+            synchronized (lock) {
+                consumer.accept(row);
+            }
+        };
+        final List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (long[] slice : slices()) {
+            futures.add(async.withConnection(connection -> {
+                read(connection, slice, serial);
+                return null;
+            }));
+        }
+        final CompletableFuture<Void> all = CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()]));
+        for (CompletableFuture<Void> future : futures) {
+            future.whenComplete((result, e) -> {
+                if (e != null) {
+                    all.completeExceptionally(e);//fail fast
+                }
+            });
+        }
+        try {
+            all.join();
+        } catch (CompletionException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw e.getCause() instanceof BetterSqlException ? (BetterSqlException) e.getCause() : new BetterSqlException(e.getCause());
+        }
+    }
+
+    /**
+     * @return inclusive [start, end] key ranges, empty if the table is
+     */
+    private List<long[]> slices() {
+        try (Connection connection = supplier.get();
+             BetterPreparedStatement ps = support.prepare(connection, rangeTemplate, false);
+             BetterResultSet rs = BetterResultSet.from(ps.executeQuery())) {
+            if (!rs.next()) {
+                return Collections.emptyList();
+            }
+            final long min = rs.getLong(1);
+            if (rs.wasNull()) {
+                return Collections.emptyList();
+            }
+            return split(min, rs.getLong(2), partitions);
+        } catch (SQLException e) {
+            throw new BetterSqlException(e);
+        }
+    }
+
+    /**
+     * split [min, max] into at most the given number of contiguous, inclusive ranges, differing in size by at most one.
+     * the arithmetic is on offsets from min, unsigned, so the full long range splits without overflow.
+     */
+    static List<long[]> split(long min, long max, int partitions) {
+        final long span = max - min;//unsigned, max >= min
+        final long quotient = Long.divideUnsigned(span, partitions);
+        final long remainder = Long.remainderUnsigned(span, partitions);
+        final List<long[]> slices = new ArrayList<>(partitions);
+        long start = 0;
+        for (int i = 1; i <= partitions; i++) {
+            final long end = i == partitions ? span + 1 : quotient * i + Math.min(i, remainder);//exclusive, wraps only for the full range
+            if (end != start) {
+                slices.add(new long[]{min + start, min + end - 1});
+                start = end;
+            }
+        }
+        return slices;
+    }
+
+    private void read(long[] slice, Consumer<T> consumer) {
+        try (Connection connection = supplier.get()) {
+            read(connection, slice, consumer);
+        } catch (SQLException e) {
+            throw new BetterSqlException(e);
+        }
+    }
+
+    private void read(Connection connection, long[] slice, Consumer<T> consumer) {
+        final ResultMapping<T> mapping = EntityRowPlan.from(clazz).newMapping();
+        try (BetterPreparedStatement ps = support.prepare(connection, sliceTemplate, false)) {
+            ps.setLong("range_start", slice[0]);
+            ps.setLong("range_end", slice[1]);
+            try (BetterResultSet rs = BetterResultSet.from(ps.executeQuery())) {
+                while (rs.next()) {
+                    consumer.accept(mapping.map(rs));
+                }
+            }
+        } catch (BetterSqlException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new BetterSqlException(e);
+        }
+    }
+}
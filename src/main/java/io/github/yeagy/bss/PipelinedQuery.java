@@ -0,0 +1,107 @@
+package io.github.yeagy.bss;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * list query with fetching and mapping pipelined. the calling thread drains column values from the result set into
+ * reusable chunks of row buffers, and the executor maps full chunks to entities in parallel.
+ * chunks are mapped in any order and put back in sequence, so the list keeps the result set order.
+ * <p>
+ * there are a fixed number of chunk buffers. once all are waiting on the mappers the reader blocks, bounding memory.
+ * <p>
+ * the first row is mapped on the calling thread, straight off the driver, to learn which getter reads each column.
+ * later rows are buffered with those getters and mapped through a {@link BufferedResultSet}, so the mapping sees what the driver returned.
+ * getMetaData returns the real result set's metadata.
+ */
+final class PipelinedQuery {
+    static final int CHUNK_ROWS = 256;
+    static final int CHUNK_BUFFERS = 8;
+
+    private PipelinedQuery() {
+    }
+
+    static <T> List<T> queryList(BetterPreparedStatement ps, StatementBinding binding, Supplier<ResultMapping<T>> mappings, Executor executor) throws Exception {
+        if (binding != null) {
+            binding.bind(ps);
+        }
+        final BlockingQueue<BufferedResultSet.Chunk> buffers = new ArrayBlockingQueue<>(CHUNK_BUFFERS);
+        final List<List<T>> chunks = Collections.synchronizedList(new ArrayList<>());
+        final List<CompletableFuture<Void>> futures = new ArrayList<>();
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final T first;
+        try (final ResultSet rs = ps.executeQuery()) {
+            if (!rs.next()) {
+                return Collections.emptyList();
+            }
+            final BufferedResultSet recording = BufferedResultSet.recording(rs, new BufferedResultSet.Layout(rs.getMetaData()));
+            first = mappings.get().map(BetterResultSet.from(recording));
+            final BufferedResultSet.Plan plan = recording.plan();
+            for (int i = 0; i < CHUNK_BUFFERS; i++) {
+                buffers.add(plan.newChunk(CHUNK_ROWS));
+            }
+            long rowNumber = 2;
+            boolean more = true;
+            while (more && failure.get() == null) {
+                final BufferedResultSet.Chunk rows = buffers.take();
+                more = rows.fill(rs, rowNumber);
+                if (rows.size() == 0) {
+                    buffers.add(rows);
+                    break;
+                }
+                rowNumber += rows.size();
+                final int sequence = chunks.size();
+                chunks.add(null);
+                futures.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        if (failure.get() == null) {
+                            chunks.set(sequence, map(rows, mappings.get()));
+                        }
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        buffers.add(rows);
+                    }
+                }, executor));
+            }
+        } finally {
+            try {
+                CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()])).join();
+            } catch (CompletionException e) {
+                failure.compareAndSet(null, e.getCause());
+            }
+        }
+        final Throwable e = failure.get();
+        if (e instanceof Exception) {
+            throw (Exception) e;
+        } else if (e != null) {
+            throw new BetterSqlException(e);
+        }
+        int total = 1;
+        for (List<T> chunk : chunks) {
+            total += chunk.size();
+        }
+        final List<T> entities = new ArrayList<>(total);
+        entities.add(first);
+        chunks.forEach(entities::addAll);
+        return Collections.unmodifiableList(entities);
+    }
+
+    private static <T> List<T> map(BufferedResultSet.Chunk rows, ResultMapping<T> mapping) throws Exception {
+        final BetterResultSet rs = BetterResultSet.from(BufferedResultSet.over(rows));
+        final List<T> entities = new ArrayList<>(rows.size());
+        while (rs.next()) {
+            entities.add(mapping.map(rs));
+        }
+        return entities;
+    }
+}
@@ -0,0 +1,89 @@
+package io.github.yeagy.bss;
+
+import java.sql.Connection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * a query compiled once: sql parsed, named parameter indices resolved and, for mapper entities, the row plan worked out.
+ * immutable and thread-safe. keep it in a static final field and execute it concurrently against different connections.
+ * <p>
+ * create with {@link BetterSqlSupport#compile(String, ResultMapping)} or {@link BetterSqlMapper#compile(String, Class)}.
+ *
+ * @param <T> entity type
+ */
+public final class PreparedQuery<T> {
+    private final BetterSqlSupport support;
+    private final SqlTemplate template;
+    private final Supplier<ResultMapping<T>> mappings;//one mapping per execution
+
+    PreparedQuery(BetterSqlSupport support, SqlTemplate template, Supplier<ResultMapping<T>> mappings) {
+        this.support = support;
+        this.template = template;
+        this.mappings = mappings;
+    }
+
+    public String getSql() {
+        return template.getSql();
+    }
+
+    /**
+     * @param connection db connection. close it yourself
+     * @param binding    bind parameter values to the PreparedStatement (optional)
+     * @return entity or null
+     */
+    public T one(Connection connection, StatementBinding binding) {
+        try (final BetterPreparedStatement ps = support.prepare(connection, template, false)) {
+            return BetterSqlSupport.query(ps, binding, mappings.get());
+        } catch (Exception e) {
+            throw new BetterSqlException(e);
+        }
+    }
+
+    /**
+     * @param connection db connection. close it yourself
+     * @param binding    bind parameter values to the PreparedStatement (optional)
+     * @return entities or empty list
+     */
+    public List<T> list(Connection connection, StatementBinding binding) {
+        try (final BetterPreparedStatement ps = support.prepare(connection, template, false)) {
+            return BetterSqlSupport.queryList(ps, binding, mappings.get());
+        } catch (Exception e) {
+            throw new BetterSqlException(e);
+        }
+    }
+
+    /**
+     * @param connection db connection. close it yourself
+     * @param binding    bind parameter values to the PreparedStatement (optional)
+     * @param keyMapping map the ResultSet to a key
+     * @param <K>        key type
+     * @return entities by key or empty map
+     */
+    public <K> Map<K, T> map(Connection connection, StatementBinding binding, ResultMapping<K> keyMapping) {
+        Objects.requireNonNull(keyMapping);
+        try (final BetterPreparedStatement ps = support.prepare(connection, template, false)) {
+            return BetterSqlSupport.queryMap(ps, binding, mappings.get(), keyMapping);
+        } catch (Exception e) {
+            throw new BetterSqlException(e);
+        }
+    }
+
+    /**
+     * @param connection db connection. close it yourself
+     * @param binding    bind parameter values to the PreparedStatement (optional)
+     * @param keyMapping map the ResultSet to a key
+     * @param <K>        key type
+     * @return entities by key or empty map
+     */
+    public <K> Map<K, List<T>> multiMap(Connection connection, StatementBinding binding, ResultMapping<K> keyMapping) {
+        Objects.requireNonNull(keyMapping);
+        try (final BetterPreparedStatement ps = support.prepare(connection, template, false)) {
+            return BetterSqlSupport.queryMultiMap(ps, binding, mappings.get(), keyMapping);
+        } catch (Exception e) {
+            throw new BetterSqlException(e);
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package io.github.yeagy.bss;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * query results as a Reactive Streams style publisher, with backpressure.
+ * the nested Subscriber and Subscription mirror the Reactive Streams interfaces, so adapting to a library is a few lines.
+ * <p>
+ * each subscription runs the query on its own connection from the supplier, read on the executor.
+ * the query runs on the first request. a row is only read and mapped when the subscriber has demand for it,
+ * so nothing is buffered past the driver's fetch, and the fetch size follows outstanding demand up to a maximum.
+ * cancel stops the reader and cancels a running statement. the connection is closed when the subscription ends.
+ * <p>
+ * the reader thread is held for the life of the subscription, waiting on demand, so use an executor sized for it.
+ * postgres only fetches in batches with autocommit off, set that up in the supplier.
+ * <p>
+ * create with {@link BetterSqlSupport#publish} or {@link BetterSqlMapper.SelectBuilder#publish}. immutable, each subscribe runs the query again.
+ *
+ * @param <T> entity type
+ */
+public final class ResultPublisher<T> {
+    static final int DEFAULT_MAX_FETCH_SIZE = 256;
+
+    public interface Subscriber<T> {
+        void onSubscribe(Subscription subscription);
+
+        void onNext(T item);
+
+        void onError(Throwable throwable);
+
+        void onComplete();
+    }
+
+    public interface Subscription {
+        void request(long n);
+
+        void cancel();
+    }
+
+    private final BetterSqlSupport support;
+    private final ConnectionSupplier supplier;
+    private final Executor executor;
+    private final SqlTemplate template;
+    private final StatementBinding binding;
+    private final Supplier<ResultMapping<T>> mappings;//one mapping per subscription
+    private final int maxFetchSize;
+
+    ResultPublisher(BetterSqlSupport support, ConnectionSupplier supplier, Executor executor, SqlTemplate template,
+                    StatementBinding binding, Supplier<ResultMapping<T>> mappings, int maxFetchSize) {
+        this.support = support;
+        this.supplier = Objects.requireNonNull(supplier);
+        this.executor = Objects.requireNonNull(executor);
+        this.template = template;
+        this.binding = binding;
+        this.mappings = mappings;
+        this.maxFetchSize = maxFetchSize;
+    }
+
+    /**
+     * @param maxFetchSize largest fetch size hint given to the driver, however much is requested. default 256
+     * @return copy with the max fetch size set
+     */
+    public ResultPublisher<T> withMaxFetchSize(int maxFetchSize) {
+        if (maxFetchSize < 1) {
+            throw new IllegalArgumentException("max fetch size must be positive");
+        }
+        return new ResultPublisher<>(support, supplier, executor, template, binding, mappings, maxFetchSize);
+    }
+
+    public void subscribe(Subscriber<? super T> subscriber) {
+        Objects.requireNonNull(subscriber);
+        final Reader reader = new Reader(subscriber);
+        subscriber.onSubscribe(reader);
+        try {
+            executor.execute(reader);
+        } catch (RejectedExecutionException e) {
+            if (reader.finish()) {
+                subscriber.onError(e);
+            }
+        }
+    }
+
+    private final class Reader implements Runnable, Subscription {
+        private final Subscriber<? super T> subscriber;
+        private long demand;//Long.MAX_VALUE is unbounded
+        private boolean done;//cancelled or terminated
+        private boolean invalidRequest;
+        private Statement statement;//running, for cancel
+
+        private Reader(Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public synchronized void request(long n) {
+            if (done) {
+                return;
+            }
+            if (n <= 0) {
+                invalidRequest = true;
+            } else {
+                demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+            }
+            notifyAll();
+        }
+
+        @Override
+        public synchronized void cancel() {
+            if (done) {
+                return;
+            }
+            done = true;
+            notifyAll();
+            if (statement != null) {
+                try {
+                    statement.cancel();//under the lock, so it can't hit the statement after it goes back to a cache
+                } catch (SQLException ignored) {
+                    //finished already
+                }
+            }
+        }
+
+        /**
+         * @return true if this call ended the subscription, false if it was already over
+         */
+        private synchronized boolean finish() {
+            final boolean wasDone = done;
+            done = true;
+            return !wasDone;
+        }
+
+        /**
+         * @return outstanding demand, 0 if cancelled
+         */
+        private synchronized long awaitDemand() throws InterruptedException {
+            while (demand == 0 && !done && !invalidRequest) {
+                wait();
+            }
+            if (invalidRequest) {
+                throw new IllegalArgumentException("request must be positive");
+            }
+            return done ? 0 : demand;
+        }
+
+        /**
+         * take one row from the demand
+         *
+         * @return false if cancelled
+         */
+        private synchronized boolean take() {
+            if (done) {
+                return false;
+            }
+            if (demand != Long.MAX_VALUE) {
+                demand--;
+            }
+            return true;
+        }
+
+        private synchronized boolean track(Statement running) {
+            statement = running;
+            return !done;
+        }
+
+        private int fetchSize(long demand) {
+            return (int) Math.min(demand, maxFetchSize);
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (awaitDemand() == 0) {
+                    return;
+                }
+                try (Connection connection = supplier.get();
+                     BetterPreparedStatement ps = support.prepare(connection, template, false)) {
+                    try {
+                        if (!track(ps)) {
+                            return;
+                        }
+                        if (binding != null) {
+                            binding.bind(ps);
+                        }
+                        ps.setFetchSize(fetchSize(awaitDemand()));
+                        try (BetterResultSet rs = BetterResultSet.from(ps.executeQuery())) {
+                            final ResultMapping<T> mapping = mappings.get();
+                            long allowed = awaitDemand();
+                            while (allowed > 0 && rs.next()) {
+                                final T row = mapping.map(rs);
+                                if (!take()) {
+                                    return;
+                                }
+                                subscriber.onNext(row);
+                                final boolean exhausted = allowed == 1;
+                                allowed = awaitDemand();
+                                if (exhausted && allowed > 0) {
+                                    rs.setFetchSize(fetchSize(allowed));//size the next fetch to the new demand
+                                }
+                            }
+                            if (allowed == 0) {
+                                return;//cancelled
+                            }
+                        }
+                    } finally {
+                        track(null);
+                    }
+                }
+                if (finish()) {
+                    subscriber.onComplete();
+                }
+            } catch (Throwable e) {
+                if (e instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+                if (finish()) {
+                    subscriber.onError(e instanceof RuntimeException ? e : new BetterSqlException(e));
+                }
+            }
+        }
+    }
+}
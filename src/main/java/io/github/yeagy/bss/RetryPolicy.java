@@ -0,0 +1,196 @@
+package io.github.yeagy.bss;
+
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * re-run a transaction that failed on a serialization failure or deadlock. the transaction is rolled back before each retry,
+ * so the whole transaction body runs again from the start. keep side effects outside the database out of it.
+ * <p>
+ * retryable by default: SQLState 40001 (serialization failure), 40P01 (postgres deadlock) and vendor code 1213 (mysql deadlock).
+ * the exception, its causes and chained next exceptions are all checked.
+ * backoff is exponential with full jitter: a random delay up to initial * 2^(retry - 1), capped at the max.
+ * <p>
+ * nested transactions are not retried, the failure goes on to the outer transaction.
+ * <p>
+ * immutable. use with {@link BetterSqlTransaction.VoidTransaction#withRetry(RetryPolicy)} and the like.
+ */
+public final class RetryPolicy {
+    private static final Logger LOGGER = Logger.getLogger(RetryPolicy.class.getName());
+
+    private static final Set<String> DEFAULT_SQL_STATES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList("40001", "40P01")));
+    private static final Set<Integer> DEFAULT_VENDOR_CODES = Collections.singleton(1213);
+    private static final RetryListener IGNORE = (attempt, nanos, failure, retrying) -> {
+    };
+    private static final RetryPolicy DEFAULTS = new RetryPolicy(3, TimeUnit.MILLISECONDS.toNanos(10), TimeUnit.SECONDS.toNanos(1),
+            DEFAULT_SQL_STATES, DEFAULT_VENDOR_CODES, IGNORE);
+
+    /**
+     * told about every attempt
+     */
+    @FunctionalInterface
+    public interface RetryListener {
+        /**
+         * @param attempt  1 for the first run
+         * @param nanos    time the attempt took
+         * @param failure  why the attempt failed, null if it succeeded
+         * @param retrying true if another attempt follows
+         */
+        void onAttempt(int attempt, long nanos, Throwable failure, boolean retrying);
+    }
+
+    private final int maxAttempts;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+    private final Set<String> sqlStates;
+    private final Set<Integer> vendorCodes;
+    private final RetryListener listener;
+
+    private RetryPolicy(int maxAttempts, long initialBackoffNanos, long maxBackoffNanos, Set<String> sqlStates, Set<Integer> vendorCodes, RetryListener listener) {
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffNanos = initialBackoffNanos;
+        this.maxBackoffNanos = maxBackoffNanos;
+        this.sqlStates = sqlStates;
+        this.vendorCodes = vendorCodes;
+        this.listener = listener;
+    }
+
+    /**
+     * @return 3 attempts, backoff from 10ms up to 1s
+     */
+    public static RetryPolicy fromDefaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * @param maxAttempts total runs, including the first
+     * @return copy with max attempts set
+     */
+    public RetryPolicy withMaxAttempts(int maxAttempts) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("max attempts must be positive");
+        }
+        return new RetryPolicy(maxAttempts, initialBackoffNanos, maxBackoffNanos, sqlStates, vendorCodes, listener);
+    }
+
+    /**
+     * @param initial backoff cap before the first retry, doubled for each retry after
+     * @param max     backoff cap
+     * @param unit    time unit
+     * @return copy with backoff set
+     */
+    public RetryPolicy withBackoff(long initial, long max, TimeUnit unit) {
+        if (initial < 0 || max < initial) {
+            throw new IllegalArgumentException("backoff must satisfy 0 <= initial <= max");
+        }
+        return new RetryPolicy(maxAttempts, unit.toNanos(initial), unit.toNanos(max), sqlStates, vendorCodes, listener);
+    }
+
+    /**
+     * @param sqlStates replaces the retryable SQLStates
+     * @return copy with SQLStates set
+     */
+    public RetryPolicy withSqlStates(String... sqlStates) {
+        return new RetryPolicy(maxAttempts, initialBackoffNanos, maxBackoffNanos, Collections.unmodifiableSet(new HashSet<>(Arrays.asList(sqlStates))), vendorCodes, listener);
+    }
+
+    /**
+     * @param vendorCodes replaces the retryable vendor error codes
+     * @return copy with vendor codes set
+     */
+    public RetryPolicy withVendorCodes(Integer... vendorCodes) {
+        return new RetryPolicy(maxAttempts, initialBackoffNanos, maxBackoffNanos, sqlStates, Collections.unmodifiableSet(new HashSet<>(Arrays.asList(vendorCodes))), listener);
+    }
+
+    public RetryPolicy withListener(RetryListener listener) {
+        return new RetryPolicy(maxAttempts, initialBackoffNanos, maxBackoffNanos, sqlStates, vendorCodes, Objects.requireNonNull(listener));
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * @param e failure
+     * @return true if the failure, or anything it wraps or chains, is a retryable SQLException
+     */
+    public boolean isRetryable(Throwable e) {
+        final Set<Throwable> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        final Deque<Throwable> pending = new ArrayDeque<>();
+        pending.add(e);
+        while (!pending.isEmpty()) {
+            final Throwable t = pending.poll();
+            if (!seen.add(t)) {
+                continue;
+            }
+            if (t instanceof SQLException) {
+                final SQLException sql = (SQLException) t;
+                if (sqlStates.contains(sql.getSQLState()) || vendorCodes.contains(sql.getErrorCode())) {
+                    return true;
+                }
+                if (sql.getNextException() != null) {
+                    pending.add(sql.getNextException());
+                }
+            }
+            if (t.getCause() != null) {
+                pending.add(t.getCause());
+            }
+        }
+        return false;
+    }
+
+    <T> T execute(Supplier<T> attempt) {
+        for (int i = 1; ; i++) {
+            final long start = System.nanoTime();
+            try {
+                final T result = attempt.get();
+                notify(i, System.nanoTime() - start, null, false);
+                return result;
+            } catch (BetterSqlException e) {
+                final boolean retrying = i < maxAttempts && isRetryable(e);
+                notify(i, System.nanoTime() - start, e, retrying);
+                if (!retrying) {
+                    throw e;
+                }
+                try {
+                    TimeUnit.NANOSECONDS.sleep(backoff(i));
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    e.addSuppressed(ie);
+                    throw e;
+                }
+            }
+        }
+    }
+
+    //a throwing listener is logged, it must not fail work that committed or replace the error that ended it
+
+    private void notify(int attempt, long nanos, Throwable failure, boolean retrying) {
+        try {
+            listener.onAttempt(attempt, nanos, failure, retrying);
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "retry listener failed on attempt " + attempt, e);
+        }
+    }
+
+    private long backoff(int retry) {
+        long cap = initialBackoffNanos;
+        for (int i = 1; i < retry && cap < maxBackoffNanos; i++) {
+            cap = cap > maxBackoffNanos / 2 ? maxBackoffNanos : cap << 1;
+        }
+        cap = Math.min(cap, maxBackoffNanos);
+        return cap == 0 ? 0 : ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+}
@@ -0,0 +1,551 @@
+package io.github.yeagy.bss;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLClientInfoException;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+/**
+ * read/write splitting over one primary and any number of replicas.
+ * <p>
+ * {@link #get()} hands out a routing connection. physical connections are only taken when a statement is prepared:
+ * reads (SELECT or WITH, without FOR UPDATE/SHARE or a data modifying clause) go to a replica, everything else to the primary.
+ * only autocommit mode is routed. turning autocommit off pins the routing connection to the primary, so a transaction's reads
+ * see its own writes and its isolation. a write in autocommit mode pins it for the life of the connection, so you read your own writes.
+ * createStatement and savepoints can't be classified, so they go to the primary too, as do getters called before any statement.
+ * session settings like autocommit, isolation, read only and client info are applied to every physical connection taken, in the order set,
+ * and commit and rollback to each.
+ * <p>
+ * replicas are picked by the power of two choices: of two random replicas, the better scored one.
+ * the score is outstanding connections, or with {@link Strategy#EWMA} the moving average of prepared statement execute latency on the replica
+ * weighted by outstanding connections. a replica that fails to connect is logged and penalized, and the read goes to the primary.
+ * <p>
+ * the statement cache keys on the routing connection, so don't combine it with routing: a cached read statement stays on its replica after pinning.
+ * {@link #read()} and {@link #write()} route explicitly, e.g. for {@link BetterSqlTransaction.ReturningTransaction#readOnly(ConnectionSupplier)}.
+ * a read connection sends everything to its replica, transactions included.
+ */
+public final class RoutingConnectionSupplier implements ConnectionSupplier {
+    public enum Strategy {LEAST_OUTSTANDING, EWMA}
+
+    private static final Logger LOGGER = Logger.getLogger(RoutingConnectionSupplier.class.getName());
+
+    private static final Pattern READ = Pattern.compile("^\\s*\\(*\\s*(select|with)\\b.*", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern NOT_READ = Pattern.compile("\\b(insert|update|delete|merge|into|for\\s+update|for\\s+share|for\\s+no\\s+key\\s+update|for\\s+key\\s+share)\\b",
+            Pattern.CASE_INSENSITIVE);
+    private static final double EWMA_WEIGHT = 0.2;
+    private static final long FAILURE_PENALTY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final ConnectionSupplier primary;
+    private final List<Replica> replicas;
+    private final Strategy strategy;
+
+    private RoutingConnectionSupplier(ConnectionSupplier primary, List<Replica> replicas, Strategy strategy) {
+        this.primary = primary;
+        this.replicas = replicas;
+        this.strategy = strategy;
+    }
+
+    /**
+     * @param strategy replica selection
+     * @param primary  read/write connections
+     * @param replicas read only connections. with none, everything goes to the primary
+     * @return routing supplier
+     */
+    public static RoutingConnectionSupplier from(Strategy strategy, ConnectionSupplier primary, List<ConnectionSupplier> replicas) {
+        Objects.requireNonNull(strategy);
+        Objects.requireNonNull(primary);
+        final List<Replica> list = new ArrayList<>(replicas.size());
+        for (ConnectionSupplier replica : replicas) {
+            list.add(new Replica(Objects.requireNonNull(replica)));
+        }
+        return new RoutingConnectionSupplier(primary, Collections.unmodifiableList(list), strategy);
+    }
+
+    /**
+     * @return routing connection. closing it closes the physical connections it took
+     */
+    @Override
+    public Connection get() {
+        return new RoutedConnection(false);
+    }
+
+    /**
+     * @return supplier of replica connections, or primary connections if there are no replicas
+     */
+    public ConnectionSupplier read() {
+        return () -> {
+            final RoutedConnection routed = new RoutedConnection(true);
+            routed.connection(true);
+            return routed;
+        };
+    }
+
+    /**
+     * @return supplier of primary connections
+     */
+    public ConnectionSupplier write() {
+        return primary;
+    }
+
+    /**
+     * @param sql statement
+     * @return true if the statement only reads
+     */
+    static boolean isRead(String sql) {
+        return READ.matcher(sql).matches() && !NOT_READ.matcher(sql).find();
+    }
+
+    private Replica pick() {
+        final int size = replicas.size();
+        if (size == 1) {
+            return replicas.get(0);
+        }
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final int first = random.nextInt(size);
+        final int second = (first + 1 + random.nextInt(size - 1)) % size;
+        final Replica a = replicas.get(first);
+        final Replica b = replicas.get(second);
+        return a.score(strategy) <= b.score(strategy) ? a : b;
+    }
+
+    private static final class Replica {
+        private final ConnectionSupplier supplier;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private double ewmaNanos;//guarded by this
+
+        private Replica(ConnectionSupplier supplier) {
+            this.supplier = supplier;
+        }
+
+        private double score(Strategy strategy) {
+            final int out = outstanding.get();
+            if (strategy == Strategy.LEAST_OUTSTANDING) {
+                return out;
+            }
+            synchronized (this) {
+                return ewmaNanos * (out + 1);
+            }
+        }
+
+        /**
+         * @param nanos statement execute latency, or a penalty for a failed connect
+         */
+        private synchronized void record(long nanos) {
+            ewmaNanos = ewmaNanos == 0 ? nanos : ewmaNanos + EWMA_WEIGHT * (nanos - ewmaNanos);
+        }
+    }
+
+    /**
+     * a session setter, replayed on physical connections taken later
+     */
+    private interface Setting {
+        void apply(Connection connection) throws SQLException;
+    }
+
+    /**
+     * prepared statement on a replica, its executes timed for the replica's score
+     */
+    private static final class TimedStatement extends DelegatingPreparedStatement {
+        private final Replica replica;
+
+        private TimedStatement(PreparedStatement statement, DelegatingConnection connection, Replica replica) {
+            super(statement, connection);
+            this.replica = replica;
+        }
+
+        @Override
+        public ResultSet executeQuery() throws SQLException {
+            final long start = System.nanoTime();
+            try {
+                return super.executeQuery();
+            } finally {
+                replica.record(System.nanoTime() - start);
+            }
+        }
+
+        @Override
+        public boolean execute() throws SQLException {
+            final long start = System.nanoTime();
+            try {
+                return super.execute();
+            } finally {
+                replica.record(System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * logical connection over a lazily taken replica and primary connection
+     */
+    private final class RoutedConnection extends DelegatingConnection {
+        private static final String CLIENT_INFO = "clientInfo";
+
+        private final boolean readOnly;//from read(), everything goes to the replica
+        //setters to replay on connections taken later, in the order last set. keyed by setter, and by name for client info
+        private final Map<String, Setting> session = new LinkedHashMap<>();
+        private Connection primaryConnection;
+        private Connection replicaConnection;
+        private Replica replica;
+        private boolean autoCommit = true;
+        private boolean wrote;//pins for the life of the connection
+        private boolean pinned;
+        private boolean closed;
+
+        private RoutedConnection(boolean readOnly) {
+            this.readOnly = readOnly;
+        }
+
+        /**
+         * getters and everything else not routed go to the connection already taken
+         */
+        @Override
+        Connection delegate() throws SQLException {
+            if (closed) {
+                throw new SQLException("connection is closed");
+            }
+            return current();
+        }
+
+        @Override
+        public Statement createStatement() throws SQLException {
+            return connection(false).createStatement();
+        }
+
+        @Override
+        public Statement createStatement(int resultSetType, int resultSetConcurrency) throws SQLException {
+            return connection(false).createStatement(resultSetType, resultSetConcurrency);
+        }
+
+        @Override
+        public Statement createStatement(int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+            return connection(false).createStatement(resultSetType, resultSetConcurrency, resultSetHoldability);
+        }
+
+        @Override
+        public PreparedStatement prepareStatement(String sql) throws SQLException {
+            final Connection connection = connection(isRead(sql));
+            return timed(connection, connection.prepareStatement(sql));
+        }
+
+        @Override
+        public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+            final Connection connection = connection(isRead(sql));
+            return timed(connection, connection.prepareStatement(sql, resultSetType, resultSetConcurrency));
+        }
+
+        @Override
+        public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+            final Connection connection = connection(isRead(sql));
+            return timed(connection, connection.prepareStatement(sql, resultSetType, resultSetConcurrency, resultSetHoldability));
+        }
+
+        @Override
+        public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
+            final Connection connection = connection(isRead(sql));
+            return timed(connection, connection.prepareStatement(sql, autoGeneratedKeys));
+        }
+
+        @Override
+        public PreparedStatement prepareStatement(String sql, int[] columnIndexes) throws SQLException {
+            final Connection connection = connection(isRead(sql));
+            return timed(connection, connection.prepareStatement(sql, columnIndexes));
+        }
+
+        @Override
+        public PreparedStatement prepareStatement(String sql, String[] columnNames) throws SQLException {
+            final Connection connection = connection(isRead(sql));
+            return timed(connection, connection.prepareStatement(sql, columnNames));
+        }
+
+        @Override
+        public CallableStatement prepareCall(String sql) throws SQLException {
+            return connection(false).prepareCall(sql);
+        }
+
+        @Override
+        public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+            return connection(false).prepareCall(sql, resultSetType, resultSetConcurrency);
+        }
+
+        @Override
+        public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+            return connection(false).prepareCall(sql, resultSetType, resultSetConcurrency, resultSetHoldability);
+        }
+
+        @Override
+        public Savepoint setSavepoint() throws SQLException {
+            return connection(false).setSavepoint();
+        }
+
+        @Override
+        public Savepoint setSavepoint(String name) throws SQLException {
+            return connection(false).setSavepoint(name);
+        }
+
+        @Override
+        public void releaseSavepoint(Savepoint savepoint) throws SQLException {
+            connection(false).releaseSavepoint(savepoint);
+        }
+
+        @Override
+        public void rollback(Savepoint savepoint) throws SQLException {
+            connection(false).rollback(savepoint);
+        }
+
+        @Override
+        public void commit() throws SQLException {
+            if (replicaConnection != null) {
+                replicaConnection.commit();
+            }
+            if (primaryConnection != null) {
+                primaryConnection.commit();
+            }
+        }
+
+        @Override
+        public void rollback() throws SQLException {
+            if (replicaConnection != null) {
+                replicaConnection.rollback();
+            }
+            if (primaryConnection != null) {
+                primaryConnection.rollback();
+            }
+        }
+
+        @Override
+        public boolean getAutoCommit() {
+            return autoCommit;
+        }
+
+        @Override
+        public void setAutoCommit(boolean autoCommit) throws SQLException {
+            checkOpen();
+            this.autoCommit = autoCommit;
+            pinned = !readOnly && (!autoCommit || wrote);//a transaction stays on the primary from start to end
+            set("autoCommit", connection -> connection.setAutoCommit(autoCommit));
+        }
+
+        @Override
+        public void setReadOnly(boolean readOnly) throws SQLException {
+            set("readOnly", connection -> connection.setReadOnly(readOnly));
+        }
+
+        @Override
+        public void setCatalog(String catalog) throws SQLException {
+            set("catalog", connection -> connection.setCatalog(catalog));
+        }
+
+        @Override
+        public void setTransactionIsolation(int level) throws SQLException {
+            set("transactionIsolation", connection -> connection.setTransactionIsolation(level));
+        }
+
+        @Override
+        public void setTypeMap(Map<String, Class<?>> map) throws SQLException {
+            final Map<String, Class<?>> copy = new HashMap<>(map);
+            set("typeMap", connection -> connection.setTypeMap(copy));
+        }
+
+        @Override
+        public void setHoldability(int holdability) throws SQLException {
+            set("holdability", connection -> connection.setHoldability(holdability));
+        }
+
+        @Override
+        public void setSchema(String schema) throws SQLException {
+            set("schema", connection -> connection.setSchema(schema));
+        }
+
+        @Override
+        public void setNetworkTimeout(Executor executor, int milliseconds) throws SQLException {
+            set("networkTimeout", connection -> connection.setNetworkTimeout(executor, milliseconds));
+        }
+
+        @Override
+        public void setClientInfo(String name, String value) throws SQLClientInfoException {
+            try {
+                set(CLIENT_INFO + " " + name, connection -> connection.setClientInfo(name, value));
+            } catch (SQLClientInfoException e) {
+                throw e;
+            } catch (SQLException e) {
+                throw new SQLClientInfoException(e.getMessage(), e.getSQLState(), e.getErrorCode(), null, e);
+            }
+        }
+
+        @Override
+        public void setClientInfo(Properties properties) throws SQLClientInfoException {
+            final Properties copy = new Properties();
+            copy.putAll(properties);
+            try {
+                checkOpen();
+                session.keySet().removeIf(key -> key.startsWith(CLIENT_INFO));//replaces all client info set before
+                set(CLIENT_INFO, connection -> connection.setClientInfo(copy));
+            } catch (SQLClientInfoException e) {
+                throw e;
+            } catch (SQLException e) {
+                throw new SQLClientInfoException(e.getMessage(), e.getSQLState(), e.getErrorCode(), null, e);
+            }
+        }
+
+        @Override
+        public boolean isClosed() {
+            return closed;
+        }
+
+        @Override
+        public String toString() {
+            return "RoutedConnection[primary=" + primaryConnection + ", replica=" + replicaConnection + "]";
+        }
+
+        private void checkOpen() throws SQLException {
+            if (closed) {
+                throw new SQLException("connection is closed");
+            }
+        }
+
+        /**
+         * remember a setter for connections taken later, and apply it to those already taken
+         */
+        private void set(String key, Setting setting) throws SQLException {
+            checkOpen();
+            session.remove(key);//moved to the end, so replay keeps the order of the latest calls
+            session.put(key, setting);
+            if (replicaConnection != null) {
+                setting.apply(replicaConnection);
+            }
+            if (primaryConnection != null) {
+                setting.apply(primaryConnection);
+            }
+        }
+
+        /**
+         * prepared statements on the replica are timed for its score
+         */
+        private PreparedStatement timed(Connection connection, PreparedStatement statement) {
+            if (connection != replicaConnection || strategy != Strategy.EWMA) {
+                return statement;
+            }
+            return new TimedStatement(statement, this, replica);
+        }
+
+        private Connection current() throws SQLException {
+            if (primaryConnection != null) {
+                return primaryConnection;
+            }
+            if (replicaConnection != null) {
+                return replicaConnection;
+            }
+            return readOnly ? connection(true) : primary();//a getter, no reason to take a replica or pin
+        }
+
+        private Connection connection(boolean read) throws SQLException {
+            checkOpen();
+            if (readOnly) {
+                read = true;
+            }
+            if (read && !pinned && !replicas.isEmpty()) {
+                if (replicaConnection == null) {
+                    replicaConnection = takeReplica();
+                }
+                if (replicaConnection != null) {
+                    return replicaConnection;
+                }
+            } else if (!read) {
+                wrote = true;
+                pinned = true;
+            }
+            return primary();
+        }
+
+        private Connection primary() throws SQLException {
+            if (primaryConnection == null) {
+                primaryConnection = replay(primary.get());
+            }
+            return primaryConnection;
+        }
+
+        private Connection takeReplica() throws SQLException {
+            final Replica picked = pick();
+            picked.outstanding.incrementAndGet();
+            final Connection connection;
+            try {
+                connection = picked.supplier.get();
+            } catch (SQLException e) {
+                picked.outstanding.decrementAndGet();
+                picked.record(FAILURE_PENALTY_NANOS);
+                LOGGER.log(Level.WARNING, "replica connect failed, reading from the primary", e);
+                return null;
+            }
+            replica = picked;
+            try {
+                return replay(connection);
+            } catch (SQLException | RuntimeException e) {
+                releaseReplica();
+                connection.close();
+                throw e;
+            }
+        }
+
+        private Connection replay(Connection connection) throws SQLException {
+            for (Setting setting : session.values()) {
+                setting.apply(connection);
+            }
+            return connection;
+        }
+
+        private void releaseReplica() {
+            replica.outstanding.decrementAndGet();
+            replica = null;
+        }
+
+        @Override
+        public void close() throws SQLException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            SQLException caught = null;
+            if (replicaConnection != null) {
+                releaseReplica();
+                try {
+                    replicaConnection.close();
+                } catch (SQLException e) {
+                    caught = e;
+                }
+            }
+            if (primaryConnection != null) {
+                try {
+                    primaryConnection.close();
+                } catch (SQLException e) {
+                    if (caught == null) {
+                        caught = e;
+                    } else {
+                        caught.setNextException(e);
+                    }
+                }
+            }
+            if (caught != null) {
+                throw caught;
+            }
+        }
+    }
+}
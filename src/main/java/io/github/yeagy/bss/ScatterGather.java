@@ -0,0 +1,267 @@
+package io.github.yeagy.bss;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * run the same work against several identical databases (shards) in parallel and merge the results.
+ * shards run on the executor through {@link BetterSqlAsync}, each on its own connection.
+ * <p>
+ * by default every shard must succeed, and the first failure cancels the rest.
+ * with {@link PartialResults#ALLOW} failed or timed out shards are left out of the result and reported to the failure listener.
+ * <p>
+ * immutable, safe to share between threads.
+ */
+public final class ScatterGather {
+    public enum PartialResults {DENY, ALLOW}
+
+    /**
+     * told about each shard that failed or timed out
+     */
+    @FunctionalInterface
+    public interface ShardFailureListener {
+        void onFailure(int shard, Throwable cause);
+    }
+
+    private static final ShardFailureListener IGNORE = (shard, cause) -> {
+    };
+
+    private final List<BetterSqlAsync> shards;
+    private final long timeoutNanos;
+    private final PartialResults partialResults;
+    private final ShardFailureListener listener;
+
+    private ScatterGather(List<BetterSqlAsync> shards, long timeoutNanos, PartialResults partialResults, ShardFailureListener listener) {
+        this.shards = shards;
+        this.timeoutNanos = timeoutNanos;
+        this.partialResults = partialResults;
+        this.listener = listener;
+    }
+
+    /**
+     * @param executor runs the shard work. needs a thread per shard to run them all at once
+     * @param shards   one supplier per shard. results are merged in this order
+     * @return instance with no timeout that requires every shard to succeed
+     */
+    public static ScatterGather from(Executor executor, List<ConnectionSupplier> shards) {
+        Objects.requireNonNull(executor);
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("at least one shard is required");
+        }
+        final List<BetterSqlAsync> asyncs = new ArrayList<>(shards.size());
+        for (ConnectionSupplier shard : shards) {
+            asyncs.add(BetterSqlAsync.fromDefaults(shard, executor));
+        }
+        return new ScatterGather(Collections.unmodifiableList(asyncs), 0, PartialResults.DENY, IGNORE);
+    }
+
+    /**
+     * @param timeout time each shard has to finish, from submission. timed out shards have their statements cancelled. 0 waits forever
+     * @param unit    timeout unit
+     * @return copy with the timeout set
+     */
+    public ScatterGather withTimeout(long timeout, TimeUnit unit) {
+        if (timeout < 0) {
+            throw new IllegalArgumentException("timeout must not be negative");
+        }
+        return new ScatterGather(shards, unit.toNanos(timeout), partialResults, listener);
+    }
+
+    public ScatterGather withPartialResults(PartialResults partialResults) {
+        return new ScatterGather(shards, timeoutNanos, Objects.requireNonNull(partialResults), listener);
+    }
+
+    public ScatterGather withFailureListener(ShardFailureListener listener) {
+        return new ScatterGather(shards, timeoutNanos, partialResults, Objects.requireNonNull(listener));
+    }
+
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    /**
+     * @param work runs once per shard
+     * @param <T>  result type
+     * @return one result per successful shard, in shard order
+     */
+    public <T> List<T> gather(BetterSqlAsync.ConnectionWork<T> work) {
+        Objects.requireNonNull(work);
+        final long deadline = System.nanoTime() + timeoutNanos;
+        final List<CompletableFuture<T>> futures = new ArrayList<>(shards.size());
+        for (BetterSqlAsync shard : shards) {
+            futures.add(shard.withConnection(work));
+        }
+        final CompletableFuture<Void> all = CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()]));
+        if (partialResults == PartialResults.DENY) {
+            for (CompletableFuture<T> future : futures) {
+                future.whenComplete((result, e) -> {
+                    if (e != null) {
+                        all.completeExceptionally(e);//fail fast
+                    }
+                });
+            }
+        }
+        try {
+            if (timeoutNanos == 0) {
+                all.get();
+            } else {
+                all.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new BetterSqlException(e);
+        } catch (ExecutionException | TimeoutException ignored) {
+            //sorted out per shard below
+        }
+        final boolean failedFast = partialResults == PartialResults.DENY && all.isCompletedExceptionally();
+        final List<T> results = new ArrayList<>(futures.size());
+        BetterSqlException failure = null;
+        for (int i = 0; i < futures.size(); i++) {
+            final CompletableFuture<T> future = futures.get(i);
+            final Throwable cause;
+            if (!future.isDone()) {
+                future.cancel(true);
+                if (failedFast) {
+                    continue;//cancelled because another shard failed
+                }
+                cause = new TimeoutException("shard " + i + " timed out");
+            } else if (future.isCompletedExceptionally()) {
+                cause = exception(future);
+            } else {
+                results.add(future.join());
+                continue;
+            }
+            listener.onFailure(i, cause);
+            if (partialResults == PartialResults.DENY) {
+                if (failure == null) {
+                    failure = new BetterSqlException("shard " + i + " failed", cause);
+                } else {
+                    failure.addSuppressed(cause);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return results;
+    }
+
+    /**
+     * @return every shard's rows, concatenated in shard order
+     */
+    public <T> List<T> list(BetterSqlAsync.ConnectionWork<List<T>> work) {
+        final List<List<T>> results = gather(work);
+        int size = 0;
+        for (List<T> result : results) {
+            size += result.size();
+        }
+        final List<T> merged = new ArrayList<>(size);
+        results.forEach(merged::addAll);
+        return merged;
+    }
+
+    public <T> List<T> list(BetterSqlMapper.SelectBuilder<T> select) {
+        Objects.requireNonNull(select);
+        return list(select::list);
+    }
+
+    /**
+     * k-way merge of rows each shard returns already sorted, say with an ORDER BY matching the comparator.
+     *
+     * @param work       returns sorted rows
+     * @param comparator the order each shard sorted by
+     * @return every shard's rows, in order
+     */
+    public <T> List<T> sorted(BetterSqlAsync.ConnectionWork<List<T>> work, Comparator<? super T> comparator) {
+        Objects.requireNonNull(comparator);
+        final List<List<T>> results = gather(work);
+        int size = 0;
+        final PriorityQueue<Cursor<T>> heads = new PriorityQueue<>(Math.max(1, results.size()), (a, b) -> comparator.compare(a.head(), b.head()));
+        for (List<T> result : results) {
+            size += result.size();
+            if (!result.isEmpty()) {
+                heads.add(new Cursor<>(result));
+            }
+        }
+        final List<T> merged = new ArrayList<>(size);
+        while (!heads.isEmpty()) {
+            final Cursor<T> cursor = heads.poll();
+            merged.add(cursor.head());
+            if (++cursor.index < cursor.rows.size()) {
+                heads.add(cursor);
+            }
+        }
+        return merged;
+    }
+
+    public <T> List<T> sorted(BetterSqlMapper.SelectBuilder<T> select, Comparator<? super T> comparator) {
+        Objects.requireNonNull(select);
+        return sorted(select::list, comparator);
+    }
+
+    /**
+     * @return every shard's entries. a key found on more than one shard throws BetterSqlException
+     */
+    public <K, T> Map<K, T> map(BetterSqlAsync.ConnectionWork<Map<K, T>> work) {
+        final Map<K, T> merged = new HashMap<>();
+        for (Map<K, T> result : gather(work)) {
+            for (Map.Entry<K, T> entry : result.entrySet()) {
+                if (merged.putIfAbsent(entry.getKey(), entry.getValue()) != null) {
+                    throw new BetterSqlException("key found on more than one shard: " + entry.getKey());
+                }
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * @return every shard's entries. lists under the same key are concatenated in shard order
+     */
+    public <K, T> Map<K, List<T>> multiMap(BetterSqlAsync.ConnectionWork<Map<K, List<T>>> work) {
+        final Map<K, List<T>> merged = new HashMap<>();
+        for (Map<K, List<T>> result : gather(work)) {
+            for (Map.Entry<K, List<T>> entry : result.entrySet()) {
+                merged.computeIfAbsent(entry.getKey(), k -> new ArrayList<>()).addAll(entry.getValue());
+            }
+        }
+        return merged;
+    }
+
+    private static Throwable exception(CompletableFuture<?> future) {
+        try {
+            future.join();
+            return null;
+        } catch (CancellationException e) {
+            return e;
+        } catch (CompletionException e) {
+            return e.getCause();
+        }
+    }
+
+    private static final class Cursor<T> {
+        private final List<T> rows;
+        private int index;
+
+        private Cursor(List<T> rows) {
+            this.rows = rows;
+        }
+
+        private T head() {
+            return rows.get(index);
+        }
+    }
+}
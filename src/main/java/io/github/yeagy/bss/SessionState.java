@@ -0,0 +1,133 @@
+package io.github.yeagy.bss;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * session state of one physical connection: autocommit, transaction isolation and read only.
+ * reads of known state are answered without asking the driver, and sets to the value already in place are skipped.
+ * <p>
+ * with autocommit on, isolation and read only sets are only noted, and reach the driver when {@link #settle()} is called,
+ * before a statement runs or a transaction starts. so a transaction that sets them and restores them after, followed by another
+ * setting them again, changes the driver once instead of four times. with autocommit off a transaction may be open,
+ * and sets go through at once.
+ * <p>
+ * a failed set forgets that piece of state. not thread-safe, like the connection.
+ */
+final class SessionState {
+    private final Connection connection;
+    //as the driver has it, null if unknown
+    private Boolean autoCommit;
+    private Integer isolation;
+    private Boolean readOnly;
+    //asked for and not yet applied, null if nothing pending
+    private Integer pendingIsolation;
+    private Boolean pendingReadOnly;
+
+    SessionState(Connection connection) {
+        this.connection = connection;
+    }
+
+    boolean getAutoCommit() throws SQLException {
+        if (autoCommit == null) {
+            autoCommit = connection.getAutoCommit();
+        }
+        return autoCommit;
+    }
+
+    void setAutoCommit(boolean value) throws SQLException {
+        if (!value) {
+            settle();//before the transaction starts, some drivers refuse changes after
+        }
+        if (autoCommit == null || autoCommit != value) {
+            autoCommit = null;
+            connection.setAutoCommit(value);
+            autoCommit = value;
+        }
+    }
+
+    int getTransactionIsolation() throws SQLException {
+        if (pendingIsolation != null) {
+            return pendingIsolation;
+        }
+        if (isolation == null) {
+            isolation = connection.getTransactionIsolation();
+        }
+        return isolation;
+    }
+
+    void setTransactionIsolation(int level) throws SQLException {
+        if (isolation != null && isolation == level) {
+            pendingIsolation = null;
+        } else if (deferring()) {
+            pendingIsolation = level;
+        } else {
+            applyIsolation(level);
+        }
+    }
+
+    boolean isReadOnly() throws SQLException {
+        if (pendingReadOnly != null) {
+            return pendingReadOnly;
+        }
+        if (readOnly == null) {
+            readOnly = connection.isReadOnly();
+        }
+        return readOnly;
+    }
+
+    void setReadOnly(boolean value) throws SQLException {
+        if (readOnly != null && readOnly == value) {
+            pendingReadOnly = null;
+        } else if (deferring()) {
+            pendingReadOnly = value;
+        } else {
+            applyReadOnly(value);
+        }
+    }
+
+    /**
+     * apply any pending isolation and read only, before something runs on the connection
+     */
+    void settle() throws SQLException {
+        if (pendingReadOnly != null) {
+            applyReadOnly(pendingReadOnly);
+        }
+        if (pendingIsolation != null) {
+            applyIsolation(pendingIsolation);
+        }
+    }
+
+    /**
+     * drop all remembered state, so it is read from the driver next time. pending sets are applied first
+     */
+    void forget() throws SQLException {
+        try {
+            settle();
+        } finally {
+            autoCommit = null;
+            isolation = null;
+            readOnly = null;
+            pendingIsolation = null;
+            pendingReadOnly = null;
+        }
+    }
+
+    private boolean deferring() {
+        return autoCommit != null && autoCommit;
+    }
+
+    private void applyIsolation(int level) throws SQLException {
+        pendingIsolation = null;
+        isolation = null;
+        connection.setTransactionIsolation(level);
+        isolation = level;
+    }
+
+    private void applyReadOnly(boolean value) throws SQLException {
+        pendingReadOnly = null;
+        readOnly = null;
+        connection.setReadOnly(value);
+        readOnly = value;
+    }
+}
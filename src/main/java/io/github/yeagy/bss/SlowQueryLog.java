@@ -0,0 +1,312 @@
+package io.github.yeagy.bss;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * execution listener logging statements that ran longer than a threshold, execute plus fetch time.
+ * register with {@link BetterOptions#withExecutionListener(ExecutionListener)}.
+ * <p>
+ * thresholds are global, or set per sql template. bound parameter values can be captured, with long values truncated and
+ * named parameters redacted. of the slow statements, a sample can be taken, and the rest are rate limited to a number per second.
+ * the count of statements dropped by the rate limit is reported with the next one logged.
+ * <p>
+ * a statement under its threshold costs a comparison, and with per template thresholds a map lookup.
+ * capturing parameters costs a map put per bound parameter on every statement, so it is off by default.
+ * <p>
+ * logs to java.util.logging at WARNING unless given a sink. immutable, though each copy has its own rate limit.
+ */
+public final class SlowQueryLog implements ExecutionListener {
+    private static final Logger LOGGER = Logger.getLogger(SlowQueryLog.class.getName());
+    private static final Sink DEFAULT_SINK = query -> LOGGER.warning(query.toString());
+
+    /**
+     * where slow statements go
+     */
+    @FunctionalInterface
+    public interface Sink {
+        void log(SlowQuery query);
+    }
+
+    private final long thresholdNanos;
+    private final Map<String, Long> templateThresholds;
+    private final boolean captureParameters;
+    private final int maxValueLength;
+    private final Set<String> redacted;
+    private final double sampleRate;
+    private final int ratePerSecond;
+    private final Sink sink;
+    private final RateLimit rateLimit = new RateLimit();
+
+    private SlowQueryLog(long thresholdNanos, Map<String, Long> templateThresholds, boolean captureParameters, int maxValueLength,
+                         Set<String> redacted, double sampleRate, int ratePerSecond, Sink sink) {
+        this.thresholdNanos = thresholdNanos;
+        this.templateThresholds = templateThresholds;
+        this.captureParameters = captureParameters;
+        this.maxValueLength = maxValueLength;
+        this.redacted = redacted;
+        this.sampleRate = sampleRate;
+        this.ratePerSecond = ratePerSecond;
+        this.sink = sink;
+    }
+
+    /**
+     * @param threshold statements at least this long are logged
+     * @param unit      time unit
+     * @return slow query log without parameters, values truncated at 100 chars once captured, 10 logged per second at most
+     */
+    public static SlowQueryLog from(long threshold, TimeUnit unit) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("threshold must not be negative");
+        }
+        return new SlowQueryLog(unit.toNanos(threshold), Collections.emptyMap(), false, 100, Collections.emptySet(), 1.0, 10, DEFAULT_SINK);
+    }
+
+    /**
+     * @param template  sql as given to BSS
+     * @param threshold statements from the template at least this long are logged, instead of the global threshold
+     * @param unit      time unit
+     * @return copy with the template threshold added
+     */
+    public SlowQueryLog withThreshold(String template, long threshold, TimeUnit unit) {
+        Objects.requireNonNull(template);
+        if (threshold < 0) {
+            throw new IllegalArgumentException("threshold must not be negative");
+        }
+        final Map<String, Long> thresholds = new HashMap<>(templateThresholds);
+        thresholds.put(template, unit.toNanos(threshold));
+        return new SlowQueryLog(thresholdNanos, Collections.unmodifiableMap(thresholds), captureParameters, maxValueLength, redacted, sampleRate, ratePerSecond, sink);
+    }
+
+    /**
+     * @param captureParameters true to log bound parameter values
+     * @return copy with parameter capture set
+     */
+    public SlowQueryLog withParameters(boolean captureParameters) {
+        return new SlowQueryLog(thresholdNanos, templateThresholds, captureParameters, maxValueLength, redacted, sampleRate, ratePerSecond, sink);
+    }
+
+    /**
+     * @param maxValueLength longest parameter value logged, longer ones are cut short
+     * @return copy with the max value length set
+     */
+    public SlowQueryLog withMaxValueLength(int maxValueLength) {
+        if (maxValueLength < 1) {
+            throw new IllegalArgumentException("max value length must be positive");
+        }
+        return new SlowQueryLog(thresholdNanos, templateThresholds, captureParameters, maxValueLength, redacted, sampleRate, ratePerSecond, sink);
+    }
+
+    /**
+     * @param names parameter names whose values are never logged, case insensitive. use the index for ? markers
+     * @return copy with the names added to the redacted
+     */
+    public SlowQueryLog withRedacted(String... names) {
+        final Set<String> set = new HashSet<>(redacted);
+        for (String name : names) {
+            set.add(name.toLowerCase(Locale.ROOT));
+        }
+        return new SlowQueryLog(thresholdNanos, templateThresholds, captureParameters, maxValueLength, Collections.unmodifiableSet(set), sampleRate, ratePerSecond, sink);
+    }
+
+    /**
+     * @param sampleRate share of slow statements logged, from 0 to 1. default 1
+     * @return copy with the sample rate set
+     */
+    public SlowQueryLog withSampleRate(double sampleRate) {
+        if (!(sampleRate >= 0 && sampleRate <= 1)) {
+            throw new IllegalArgumentException("sample rate must be between 0 and 1");
+        }
+        return new SlowQueryLog(thresholdNanos, templateThresholds, captureParameters, maxValueLength, redacted, sampleRate, ratePerSecond, sink);
+    }
+
+    /**
+     * @param ratePerSecond most slow statements logged per second. 0 for no limit
+     * @return copy with the rate limit set
+     */
+    public SlowQueryLog withRateLimit(int ratePerSecond) {
+        if (ratePerSecond < 0) {
+            throw new IllegalArgumentException("rate limit must not be negative");
+        }
+        return new SlowQueryLog(thresholdNanos, templateThresholds, captureParameters, maxValueLength, redacted, sampleRate, ratePerSecond, sink);
+    }
+
+    /**
+     * @param sink where slow statements go
+     * @return copy logging to the sink
+     */
+    public SlowQueryLog withSink(Sink sink) {
+        return new SlowQueryLog(thresholdNanos, templateThresholds, captureParameters, maxValueLength, redacted, sampleRate, ratePerSecond, Objects.requireNonNull(sink));
+    }
+
+    @Override
+    public boolean capturesParameters() {
+        return captureParameters;
+    }
+
+    @Override
+    public void afterExecution(Execution execution) {
+        final long elapsed = execution.getExecuteNanos() + execution.getFetchNanos();
+        if (elapsed < thresholdNanos && templateThresholds.isEmpty()) {
+            return;
+        }
+        final Long templateThreshold = templateThresholds.isEmpty() ? null : templateThresholds.get(execution.getTemplate());
+        if (elapsed < (templateThreshold != null ? templateThreshold : thresholdNanos)) {
+            return;
+        }
+        if (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+        final long suppressed = rateLimit.acquire();
+        if (suppressed < 0) {
+            return;
+        }
+        final Map<String, String> parameters = captureParameters && execution.getParameters() != null ? format(execution.getParameters()) : null;
+        sink.log(new SlowQuery(execution, parameters, suppressed));
+    }
+
+    private Map<String, String> format(Map<String, Object> parameters) {
+        final Map<String, String> formatted = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> parameter : parameters.entrySet()) {
+            final String name = parameter.getKey();
+            formatted.put(name, redacted.contains(name.toLowerCase(Locale.ROOT)) ? "<redacted>" : truncate(toString(parameter.getValue())));
+        }
+        return Collections.unmodifiableMap(formatted);
+    }
+
+    private String truncate(String value) {
+        if (value.length() <= maxValueLength) {
+            return value;
+        }
+        return value.substring(0, maxValueLength) + "...(" + value.length() + " chars)";
+    }
+
+    private static String toString(Object value) {
+        if (value == null) {
+            return "null";
+        }
+        if (value instanceof Object[]) {
+            return Arrays.deepToString((Object[]) value);
+        }
+        if (value.getClass().isArray()) {
+            final StringBuilder sb = new StringBuilder("[");
+            for (int i = 0; i < Array.getLength(value); i++) {
+                if (i > 0) {
+                    sb.append(", ");
+                }
+                sb.append(Array.get(value, i));
+            }
+            return sb.append(']').toString();
+        }
+        if (value instanceof String) {
+            return "'" + value + "'";
+        }
+        return value.toString();
+    }
+
+    /**
+     * slow statements per second, counted in whole seconds
+     */
+    private final class RateLimit {
+        private long second;
+        private int used;
+        private long suppressed;
+
+        /**
+         * @return statements suppressed since the last one logged, or -1 if this one is suppressed too
+         */
+        private synchronized long acquire() {
+            if (ratePerSecond == 0) {
+                final long dropped = suppressed;
+                suppressed = 0;
+                return dropped;
+            }
+            final long now = Math.floorDiv(System.nanoTime(), TimeUnit.SECONDS.toNanos(1));
+            if (now != second) {
+                second = now;
+                used = 0;
+            }
+            if (used >= ratePerSecond) {
+                suppressed++;
+                return -1;
+            }
+            used++;
+            final long dropped = suppressed;
+            suppressed = 0;
+            return dropped;
+        }
+    }
+
+    /**
+     * one slow statement
+     */
+    public static final class SlowQuery {
+        private final Execution execution;
+        private final Map<String, String> parameters;
+        private final long suppressed;
+
+        private SlowQuery(Execution execution, Map<String, String> parameters, long suppressed) {
+            this.execution = execution;
+            this.parameters = parameters;
+            this.suppressed = suppressed;
+        }
+
+        /**
+         * @return the execution. its live parameters are only good during the sink call, use {@link #getParameters()}
+         */
+        public Execution getExecution() {
+            return execution;
+        }
+
+        public long getElapsedNanos() {
+            return execution.getExecuteNanos() + execution.getFetchNanos();
+        }
+
+        /**
+         * @return formatted values by parameter name or index, truncated and redacted. null if not captured
+         */
+        public Map<String, String> getParameters() {
+            return parameters;
+        }
+
+        /**
+         * @return slow statements dropped by the rate limit since the last one logged
+         */
+        public long getSuppressed() {
+            return suppressed;
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder sb = new StringBuilder("slow query ")
+                    .append(TimeUnit.NANOSECONDS.toMillis(getElapsedNanos())).append("ms (execute ")
+                    .append(TimeUnit.NANOSECONDS.toMillis(execution.getExecuteNanos())).append("ms, fetch ")
+                    .append(TimeUnit.NANOSECONDS.toMillis(execution.getFetchNanos())).append("ms), ");
+            if (execution.getRows() >= 0) {
+                sb.append(execution.getRows()).append(" rows, ");
+            }
+            sb.append(execution.getSql());
+            if (parameters != null) {
+                sb.append(" parameters ").append(parameters);
+            }
+            if (execution.getException() != null) {
+                sb.append(" failed: ").append(execution.getException());
+            }
+            if (suppressed > 0) {
+                sb.append(" (").append(suppressed).append(" more suppressed)");
+            }
+            return sb.toString();
+        }
+    }
+}
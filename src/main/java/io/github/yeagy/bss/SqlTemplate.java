@@ -0,0 +1,46 @@
+package io.github.yeagy.bss;
+
+import java.util.Objects;
+
+/**
+ * sql parsed once: named parameters resolved to their indices, and whether it needs IN clause simulation.
+ * immutable, safe to share between threads.
+ */
+final class SqlTemplate {
+    private final String sql;
+    private final NamedParameters namedParameters;
+    private final boolean simulatedIn;
+
+    private SqlTemplate(String sql, NamedParameters namedParameters, boolean simulatedIn) {
+        this.sql = sql;
+        this.namedParameters = namedParameters;
+        this.simulatedIn = simulatedIn;
+    }
+
+    static SqlTemplate from(String sql, boolean simulatedIn) {
+        Objects.requireNonNull(sql);
+        return new SqlTemplate(sql, NamedParameters.from(sql), simulatedIn && BetterPreparedStatementImpl.detectInClause(sql));
+    }
+
+    String getSql() {
+        return sql;
+    }
+
+    String getProcessedSql() {
+        return namedParameters == null ? sql : namedParameters.getProcessedSql();
+    }
+
+    /**
+     * @return named parameters, or null if the sql has none
+     */
+    NamedParameters getNamedParameters() {
+        return namedParameters;
+    }
+
+    /**
+     * @return true if statements from this template go through the DelayedBindingProxy
+     */
+    boolean isSimulatedIn() {
+        return simulatedIn;
+    }
+}
@@ -0,0 +1,152 @@
+package io.github.yeagy.bss;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Objects;
+
+/**
+ * connection wrapper that remembers the session state it has read or set: autocommit, transaction isolation, read only and schema.
+ * reads of known state are answered without asking the driver, and sets to the value already in place are skipped.
+ * with autocommit on, isolation and read only sets wait for the next statement call or transaction start, see {@link SessionState},
+ * so transactions that set and restore the same isolation reach the driver once between them, not twice each.
+ * with drivers that make each of these a round trip, this saves several per transaction, from the second transaction on the same wrapper.
+ * a wrapper starts out knowing nothing, so the savings come from keeping it around, not from wrapping short lived handles.
+ * <p>
+ * state changed behind the wrapper's back, say with a SET statement or through the unwrapped connection, is not seen.
+ * call {@link #forget(Connection)} after doing that. a failed set forgets that piece of state.
+ * statements are wrapped too, so pending state is applied before they run. statements of the unwrapped connection don't see it.
+ * <p>
+ * wrap a long lived connection once. {@link ConnectionSupplier#tracking()} wraps each connection it returns, which only helps
+ * if the supplier hands out long lived connections. {@link BetterConnectionPool} tracks state the same way, per pooled connection.
+ * not thread-safe, like most connections.
+ */
+public final class StateTrackingConnection {
+    private StateTrackingConnection() {
+    }
+
+    /**
+     * @param connection connection to wrap. closing the wrapper closes it
+     * @return tracking wrapper, or the connection itself if it already is one
+     */
+    public static Connection wrap(Connection connection) {
+        Objects.requireNonNull(connection);
+        if (connection instanceof Tracker) {
+            return connection;
+        }
+        return new Tracker(connection);
+    }
+
+    /**
+     * apply any pending state, then drop all remembered state, so it is read from the driver next time.
+     * no-op for connections not from {@link #wrap(Connection)}
+     *
+     * @param connection tracking connection
+     * @throws SQLException applying pending state failed
+     */
+    public static void forget(Connection connection) throws SQLException {
+        if (connection instanceof Tracker) {
+            ((Tracker) connection).forget();
+        }
+    }
+
+    private static final class Tracker extends DelegatingConnection {
+        private final Connection connection;
+        private final SessionState state;
+        private String schema;
+        private boolean schemaKnown;
+
+        private Tracker(Connection connection) {
+            this.connection = connection;
+            this.state = new SessionState(connection);
+        }
+
+        private void forget() throws SQLException {
+            schema = null;
+            schemaKnown = false;
+            state.forget();
+        }
+
+        @Override
+        Connection delegate() {
+            return connection;
+        }
+
+        @Override
+        void beforeStatement() throws SQLException {
+            state.settle();
+        }
+
+        @Override
+        Statement wrap(Statement statement) {
+            return new DelegatingStatement(statement, this);
+        }
+
+        @Override
+        PreparedStatement wrap(PreparedStatement statement) {
+            return new DelegatingPreparedStatement(statement, this);
+        }
+
+        @Override
+        CallableStatement wrap(CallableStatement statement) {
+            return new DelegatingCallableStatement(statement, this);
+        }
+
+        @Override
+        public boolean getAutoCommit() throws SQLException {
+            return state.getAutoCommit();
+        }
+
+        @Override
+        public void setAutoCommit(boolean autoCommit) throws SQLException {
+            state.setAutoCommit(autoCommit);
+        }
+
+        @Override
+        public int getTransactionIsolation() throws SQLException {
+            return state.getTransactionIsolation();
+        }
+
+        @Override
+        public void setTransactionIsolation(int level) throws SQLException {
+            state.setTransactionIsolation(level);
+        }
+
+        @Override
+        public boolean isReadOnly() throws SQLException {
+            return state.isReadOnly();
+        }
+
+        @Override
+        public void setReadOnly(boolean readOnly) throws SQLException {
+            state.setReadOnly(readOnly);
+        }
+
+        @Override
+        public String getSchema() throws SQLException {
+            if (!schemaKnown) {
+                schema = connection.getSchema();
+                schemaKnown = true;
+            }
+            return schema;
+        }
+
+        @Override
+        public void setSchema(String schema) throws SQLException {
+            if (!schemaKnown || !Objects.equals(schema, this.schema)) {
+                schemaKnown = false;
+                connection.setSchema(schema);
+                this.schema = schema;
+                schemaKnown = true;
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            schemaKnown = false;
+            connection.close();
+        }
+    }
+}
@@ -0,0 +1,329 @@
+package io.github.yeagy.bss;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LRU cache of prepared statements per connection, keyed by sql and generated keys flag.
+ * each checkout hands out its own handle to the cached statement. closing the handle returns the statement to the cache,
+ * with its parameters cleared, and the closed handle rejects further use, so a stale holder can't reach a statement leased to someone else.
+ * <p>
+ * connections each have their own LRU and lock, so threads on different connections don't contend.
+ * statements closed out from under the cache (usually by closing the connection) are dropped on next lookup,
+ * and closed connections are swept out on a miss at most once a second. {@link #invalidate(Connection)} releases them eagerly.
+ * the cache holds each connection strongly until one of those happens, so a connection dropped without being closed stays reachable,
+ * along with its statements, until it is invalidated. invalidate connections you abandon unclosed.
+ * statements needing IN clause simulation are not cached.
+ * <p>
+ * statement settings like max rows or fetch size persist across reuse. reset them yourself if you change them.
+ */
+public final class StatementCache {
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final int maxSize;
+    private final ConcurrentMap<Connection, Statements> cache = new ConcurrentHashMap<>();
+    private final AtomicLong lastSweep = new AtomicLong(System.nanoTime());
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    StatementCache(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("statement cache size must be positive");
+        }
+        this.maxSize = maxSize;
+    }
+
+    BetterPreparedStatement prepare(Connection connection, String sql, boolean returnGeneratedKeys, boolean simulatedIn) throws SQLException {
+        Objects.requireNonNull(connection);
+        Objects.requireNonNull(sql);
+        if (simulatedIn && BetterPreparedStatementImpl.detectInClause(sql)) {
+            return BetterPreparedStatementImpl.from(connection, sql, returnGeneratedKeys, true);
+        }
+        return prepare(connection, sql, null, returnGeneratedKeys);
+    }
+
+    BetterPreparedStatement prepare(Connection connection, SqlTemplate template, boolean returnGeneratedKeys) throws SQLException {
+        Objects.requireNonNull(connection);
+        if (template.isSimulatedIn()) {
+            return BetterPreparedStatementImpl.from(connection, template, returnGeneratedKeys);
+        }
+        return prepare(connection, template.getSql(), template, returnGeneratedKeys);
+    }
+
+    /**
+     * @param template pre-parsed sql, or null to parse on a miss
+     */
+    private BetterPreparedStatement prepare(Connection connection, String sql, SqlTemplate template, boolean returnGeneratedKeys) throws SQLException {
+        final Key key = new Key(sql, returnGeneratedKeys);
+        final Statements existing = cache.get(connection);
+        if (existing != null) {
+            final Entry hit = existing.checkout(key);
+            if (hit != null) {
+                hits.increment();
+                return new Lease(hit);
+            }
+        }
+        misses.increment();
+        maybeSweep();
+        final NamedParameters named = template != null ? template.getNamedParameters() : NamedParameters.from(sql);
+        final String processed = named == null ? sql : named.getProcessedSql();
+        final int returnKeys = returnGeneratedKeys ? PreparedStatement.RETURN_GENERATED_KEYS : PreparedStatement.NO_GENERATED_KEYS;
+        final Statements statements = existing != null ? existing : cache.computeIfAbsent(connection, Statements::new);
+        final Entry entry = new Entry(new BetterPreparedStatementImpl(connection.prepareStatement(processed, returnKeys), named), statements, key);
+        final Entry evicted = statements.add(entry);
+        if (evicted != null) {
+            closeQuietly(evicted);
+        }
+        return new Lease(entry);
+    }
+
+    /**
+     * close and forget every statement cached for the connection. call before closing a long lived connection to release them promptly,
+     * and always for a connection abandoned without closing, which the cache would otherwise keep reachable.
+     *
+     * @param connection cached connection
+     */
+    public void invalidate(Connection connection) {
+        final Statements statements = cache.remove(connection);
+        if (statements != null) {
+            statements.clear();
+        }
+    }
+
+    private void maybeSweep() {
+        final long last = lastSweep.get();
+        final long now = System.nanoTime();
+        if (now - last < SWEEP_INTERVAL_NANOS || !lastSweep.compareAndSet(last, now)) {
+            return;
+        }
+        for (Map.Entry<Connection, Statements> entry : cache.entrySet()) {
+            boolean closed;
+            try {
+                closed = entry.getKey().isClosed();
+            } catch (SQLException e) {
+                closed = true;
+            }
+            if (closed && cache.remove(entry.getKey(), entry.getValue())) {
+                entry.getValue().clear();
+            }
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    private static void closeQuietly(Entry entry) {
+        try {
+            entry.statement.close();
+        } catch (SQLException ignored) {
+            //closing a dead statement
+        }
+    }
+
+    /**
+     * statements cached for one connection, guarded by its own monitor
+     */
+    private final class Statements {
+        private final Connection connection;
+        private final LinkedHashMap<Key, Entry> lru = new LinkedHashMap<>(16, 0.75f, true);
+        private boolean removed;//swept or invalidated, new statements are single use
+
+        private Statements(Connection connection) {
+            this.connection = connection;
+        }
+
+        /**
+         * @return the idle cached statement, now in use, or null
+         */
+        private Entry checkout(Key key) throws SQLException {
+            final Entry entry;
+            synchronized (this) {
+                entry = lru.get(key);
+                if (entry == null || entry.inUse) {
+                    return null;
+                }
+                if (!entry.statement.isClosed()) {
+                    entry.inUse = true;
+                    return entry;
+                }
+            }
+            cache.remove(connection, this);
+            clear();
+            return null;
+        }
+
+        /**
+         * @return the idle statement evicted to make room, to be closed, or null
+         */
+        private synchronized Entry add(Entry entry) {
+            entry.inUse = true;
+            if (removed || lru.containsKey(entry.key)) {//otherwise the cached one is busy, this one is single use
+                return null;
+            }
+            entry.cached = true;
+            lru.put(entry.key, entry);
+            if (lru.size() <= maxSize) {
+                return null;
+            }
+            final Iterator<Entry> eldest = lru.values().iterator();
+            final Entry evicted = eldest.next();
+            eldest.remove();
+            evicted.cached = false;
+            evictions.increment();
+            return evicted.inUse ? null : evicted;
+        }
+
+        private void release(Entry entry) throws SQLException {
+            final boolean keep;
+            synchronized (this) {
+                if (!entry.inUse) {
+                    return;//already released
+                }
+                entry.inUse = false;
+                keep = entry.cached;
+            }
+            if (!keep) {
+                entry.statement.close();
+                return;
+            }
+            try {
+                entry.statement.clearParameters();
+                entry.statement.clearBatch();
+            } catch (SQLException e) {
+                synchronized (this) {
+                    entry.cached = false;
+                    lru.remove(entry.key, entry);
+                }
+                entry.statement.close();
+                throw e;
+            }
+        }
+
+        private void clear() {
+            final List<Entry> idle = new ArrayList<>();
+            synchronized (this) {
+                removed = true;
+                for (Entry entry : lru.values()) {
+                    entry.cached = false;
+                    if (!entry.inUse) {
+                        idle.add(entry);
+                    }
+                }
+                lru.clear();
+            }
+            idle.forEach(StatementCache::closeQuietly);
+        }
+    }
+
+    private static final class Key {
+        private final String sql;
+        private final boolean returnGeneratedKeys;
+
+        private Key(String sql, boolean returnGeneratedKeys) {
+            this.sql = sql;
+            this.returnGeneratedKeys = returnGeneratedKeys;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final Key key = (Key) o;
+            return returnGeneratedKeys == key.returnGeneratedKeys && sql.equals(key.sql);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * sql.hashCode() + (returnGeneratedKeys ? 1 : 0);
+        }
+    }
+
+    /**
+     * a prepared statement and its place in the cache. fields other than statement are guarded by the owner's monitor
+     */
+    private static final class Entry {
+        private final BetterPreparedStatementImpl statement;
+        private final Statements owner;
+        private final Key key;
+        private boolean cached;
+        private boolean inUse;
+
+        private Entry(BetterPreparedStatementImpl statement, Statements owner, Key key) {
+            this.statement = statement;
+            this.owner = owner;
+            this.key = key;
+        }
+    }
+
+    /**
+     * one checkout of a cached statement. closing releases it to the cache, after which the handle reports closed and rejects calls
+     */
+    private static final class Lease extends DelegatingBetterPreparedStatement {
+        private final Entry entry;
+        private boolean closed;
+
+        private Lease(Entry entry) {
+            super(entry.statement);
+            this.entry = entry;
+        }
+
+        @Override
+        BetterPreparedStatement delegate() throws SQLException {
+            if (closed) {
+                throw new SQLException("statement is closed");
+            }
+            return statement;
+        }
+
+        @Override
+        public ParamHandle param(String namedParameter) {
+            if (closed) {
+                throw new IllegalStateException("statement is closed");
+            }
+            return statement.param(namedParameter);
+        }
+
+        @Override
+        public void close() throws SQLException {
+            if (!closed) {
+                closed = true;
+                entry.owner.release(entry);
+            }
+        }
+
+        @Override
+        public boolean isClosed() throws SQLException {
+            return closed || statement.isClosed();
+        }
+    }
+}
@@ -4,10 +4,10 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * This class analyzes a POJO via reflection to identify table data
@@ -61,7 +61,7 @@ public final class TableData {
         return Objects.hash(tableName, primaryKeys, columns);
     }
 
-    private static final Map<Class<?>, TableData> METADATA_CACHE = new HashMap<>();
+    private static final Map<Class<?>, TableData> METADATA_CACHE = new ConcurrentHashMap<>();
 
     public static TableData from(Class<?> clazz) {
         return from(clazz, true);
@@ -0,0 +1,243 @@
+package io.github.yeagy.bss;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * transaction listener that keeps running totals per transaction name: commits, rollbacks by cause,
+ * and total and max nanos for connection acquisition, transaction body and commit.
+ * <p>
+ * with {@link #from(String)} each name also gets an MXBean, registered with the platform MBean server on its first transaction
+ * as {@code <domain>:type=Transaction,name=<name>}. {@link #unregister()} takes them down.
+ * a failed registration, say a name already registered by another instance on the same domain, is logged and counting goes on.
+ * <p>
+ * a rollback cause is the first SQLState in the cause chain, or else the class of the root cause.
+ * thread-safe, share one across transaction contexts.
+ */
+public final class TransactionMetrics implements BetterSqlTransaction.TransactionListener {
+    private static final Logger LOGGER = Logger.getLogger(TransactionMetrics.class.getName());
+    private static final int MAX_CAUSE_DEPTH = 32;
+
+    /**
+     * totals for one transaction name
+     */
+    public interface TransactionStatsMXBean {
+        long getCommits();
+
+        long getRollbacks();
+
+        /**
+         * @return rollback count by cause
+         */
+        Map<String, Long> getRollbacksByCause();
+
+        long getAcquireNanosTotal();
+
+        long getAcquireNanosMax();
+
+        long getTransformNanosTotal();
+
+        long getTransformNanosMax();
+
+        long getCommitNanosTotal();
+
+        long getCommitNanosMax();
+    }
+
+    private final String domain;
+    private final ConcurrentMap<String, Stats> stats = new ConcurrentHashMap<>();
+
+    private TransactionMetrics(String domain) {
+        this.domain = domain;
+    }
+
+    /**
+     * @return metrics without JMX
+     */
+    public static TransactionMetrics fromDefaults() {
+        return new TransactionMetrics(null);
+    }
+
+    /**
+     * @param domain JMX domain for the MXBeans, like "io.github.yeagy.bss"
+     * @return metrics registering an MXBean per transaction name
+     */
+    public static TransactionMetrics from(String domain) {
+        Objects.requireNonNull(domain);
+        return new TransactionMetrics(domain);
+    }
+
+    /**
+     * @param name transaction name
+     * @return live totals for the name, null if no such transaction has run
+     */
+    public TransactionStatsMXBean get(String name) {
+        return stats.get(name);
+    }
+
+    /**
+     * @return live totals by transaction name
+     */
+    public Map<String, TransactionStatsMXBean> getAll() {
+        return Collections.unmodifiableMap(new TreeMap<>(stats));
+    }
+
+    /**
+     * unregister the MXBeans registered so far. no-op without JMX
+     */
+    public void unregister() {
+        if (domain == null) {
+            return;
+        }
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (String name : stats.keySet()) {
+            try {
+                final ObjectName objectName = objectName(name);
+                if (server.isRegistered(objectName)) {
+                    server.unregisterMBean(objectName);
+                }
+            } catch (JMException e) {
+                throw new BetterSqlException(e);
+            }
+        }
+    }
+
+    @Override
+    public void onCommit(String name, long acquireNanos, long transformNanos, long commitNanos) {
+        final Stats s = stats(name);
+        s.commits.increment();
+        s.acquire.add(acquireNanos);
+        s.transform.add(transformNanos);
+        s.commit.add(commitNanos);
+    }
+
+    @Override
+    public void onRollback(String name, long acquireNanos, long transformNanos, Throwable cause) {
+        final Stats s = stats(name);
+        s.rollbacks.computeIfAbsent(cause(cause), k -> new LongAdder()).increment();
+        s.acquire.add(acquireNanos);
+        s.transform.add(transformNanos);
+    }
+
+    private Stats stats(String name) {
+        final Stats existing = stats.get(name);
+        if (existing != null) {
+            return existing;
+        }
+        final Stats created = new Stats();
+        final Stats raced = stats.putIfAbsent(name, created);
+        if (raced != null) {
+            return raced;
+        }
+        if (domain != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(created, objectName(name));
+            } catch (JMException e) {//e.g. already registered by another instance on the domain. counting goes on without JMX
+                LOGGER.log(Level.WARNING, "could not register transaction MXBean for " + name, e);
+            }
+        }
+        return created;
+    }
+
+    private ObjectName objectName(String name) throws JMException {
+        return new ObjectName(domain + ":type=Transaction,name=" + ObjectName.quote(name));
+    }
+
+    static String cause(Throwable cause) {
+        Throwable root = cause;
+        for (int i = 0; root != null && i < MAX_CAUSE_DEPTH; i++) {
+            if (root instanceof SQLException && ((SQLException) root).getSQLState() != null) {
+                return "SQLState " + ((SQLException) root).getSQLState();
+            }
+            if (root.getCause() == null || root.getCause() == root) {
+                break;
+            }
+            root = root.getCause();
+        }
+        return root == null ? "unknown" : root.getClass().getName();
+    }
+
+    private static final class Timer {
+        private final LongAdder total = new LongAdder();
+        private final AtomicLong max = new AtomicLong();
+
+        private void add(long nanos) {
+            total.add(nanos);
+            if (nanos > max.get()) {
+                max.accumulateAndGet(nanos, Math::max);
+            }
+        }
+    }
+
+    private static final class Stats implements TransactionStatsMXBean {
+        private final LongAdder commits = new LongAdder();
+        private final ConcurrentMap<String, LongAdder> rollbacks = new ConcurrentHashMap<>();
+        private final Timer acquire = new Timer();
+        private final Timer transform = new Timer();
+        private final Timer commit = new Timer();
+
+        @Override
+        public long getCommits() {
+            return commits.sum();
+        }
+
+        @Override
+        public long getRollbacks() {
+            long sum = 0;
+            for (LongAdder count : rollbacks.values()) {
+                sum += count.sum();
+            }
+            return sum;
+        }
+
+        @Override
+        public Map<String, Long> getRollbacksByCause() {
+            final Map<String, Long> byCause = new TreeMap<>();
+            rollbacks.forEach((cause, count) -> byCause.put(cause, count.sum()));
+            return byCause;
+        }
+
+        @Override
+        public long getAcquireNanosTotal() {
+            return acquire.total.sum();
+        }
+
+        @Override
+        public long getAcquireNanosMax() {
+            return acquire.max.get();
+        }
+
+        @Override
+        public long getTransformNanosTotal() {
+            return transform.total.sum();
+        }
+
+        @Override
+        public long getTransformNanosMax() {
+            return transform.max.get();
+        }
+
+        @Override
+        public long getCommitNanosTotal() {
+            return commit.total.sum();
+        }
+
+        @Override
+        public long getCommitNanosMax() {
+            return commit.max.get();
+        }
+    }
+}
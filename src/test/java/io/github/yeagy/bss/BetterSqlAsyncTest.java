@@ -0,0 +1,450 @@
+package io.github.yeagy.bss;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+public class BetterSqlAsyncTest {
+    private static final BetterSqlMapper BSM = BetterSqlMapper.fromDefaults();
+    private static JdbcDataSource dataSource;
+    private static Connection keepAlive;
+    private static ExecutorService executor;
+    private static BetterSqlAsync async;
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        Class.forName("org.h2.Driver");
+        dataSource = new JdbcDataSource();
+        dataSource.setUrl("jdbc:h2:mem:async;DB_CLOSE_DELAY=-1");
+        keepAlive = dataSource.getConnection();
+        String create = new Scanner(BetterSqlAsyncTest.class.getResourceAsStream("/sql/test_create.sql"), "UTF-8").useDelimiter("\\A").next();
+        String insert = new Scanner(BetterSqlAsyncTest.class.getResourceAsStream("/sql/test_insert.sql"), "UTF-8").useDelimiter("\\A").next();
+        try (Statement statement = keepAlive.createStatement()) {
+            statement.execute(create);
+            statement.execute(insert);
+        }
+        executor = Executors.newFixedThreadPool(4);
+        async = BetterSqlAsync.fromDefaults(dataSource::getConnection, executor);
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        executor.shutdown();
+        keepAlive.close();
+    }
+
+    @Test
+    public void testAsyncOperations() throws Exception {
+        final CompletableFuture<TestBean> one = async.find(1L, TestBean.class);
+        final CompletableFuture<List<TestBean>> some = async.find(Arrays.asList(2L, 3L), TestBean.class);
+        final CompletableFuture<List<TestBean>> listed = async.list(BSM.select("SELECT * FROM test_bean WHERE test_key > :test_key", TestBean.class).bind(ps -> ps.setLong("test_key", 3)));
+        assertThat(one.get().getSomeString(), equalTo("first"));
+        assertThat(some.get().size(), equalTo(2));
+        assertThat(listed.get().size(), greaterThanOrEqualTo(2));
+
+        final TestBean inserted = async.insert(new TestBean(null, 1L, 1, "async", Timestamp.from(Instant.now()), 0.0, TestBean.Status.ON)).get();
+        assertNotNull(inserted.getTestKey());
+        final int updated = async.update("UPDATE test_bean SET some_string = 'async updated' WHERE test_key = :test_key", ps -> ps.setLong("test_key", inserted.getTestKey())).get();
+        assertThat(updated, equalTo(1));
+        final String string = async.query("SELECT some_string FROM test_bean WHERE test_key = :test_key", ps -> ps.setLong("test_key", inserted.getTestKey()), rs -> rs.getString(1)).get();
+        assertThat(string, equalTo("async updated"));
+    }
+
+    @Test
+    public void testFailureCompletesExceptionally() throws Exception {
+        final CompletableFuture<Integer> future = async.update("UPDATE no_such_table SET x = 1", null);
+        try {
+            future.get();
+            fail();
+        } catch (Exception e) {
+            assertThat(e.getCause(), instanceOf(BetterSqlException.class));
+        }
+    }
+
+    @Test
+    public void testCancelBeforeStart() throws Exception {
+        final List<Runnable> queued = new ArrayList<>();
+        final AtomicInteger acquired = new AtomicInteger();
+        final BetterSqlAsync held = BetterSqlAsync.fromDefaults(() -> {
+            acquired.incrementAndGet();
+            return dataSource.getConnection();
+        }, queued::add);
+        final CompletableFuture<TestBean> future = held.find(1L, TestBean.class);
+        assertTrue(future.cancel(true));
+        queued.forEach(Runnable::run);
+        assertTrue(future.isCancelled());
+        assertThat(acquired.get(), equalTo(0));
+    }
+
+    @Test
+    public void testScatterGather() throws Exception {
+        final ConnectionSupplier shard = dataSource::getConnection;
+        final ScatterGather sg = ScatterGather.from(executor, Arrays.asList(shard, shard));
+        final BetterSqlMapper.SelectBuilder<TestBean> select = BSM.select("SELECT * FROM test_bean WHERE test_key <= 5 ORDER BY some_string", TestBean.class);
+        assertThat(sg.list(select).size(), equalTo(10));
+
+        final List<TestBean> sorted = sg.sorted(select, Comparator.comparing(TestBean::getSomeString));
+        assertThat(sorted.size(), equalTo(10));
+        for (int i = 1; i < sorted.size(); i++) {
+            assertThat(sorted.get(i - 1).getSomeString(), lessThanOrEqualTo(sorted.get(i).getSomeString()));
+        }
+
+        final Map<Long, List<TestBean>> multiMap = sg.multiMap(conn -> select.multiMap(conn, rs -> rs.getLong("test_key")));
+        assertThat(multiMap.get(1L).size(), equalTo(2));
+        try {
+            sg.map(conn -> select.map(conn, rs -> rs.getLong("test_key")));
+            fail();
+        } catch (BetterSqlException e) {
+            assertThat(e.getMessage(), containsString("more than one shard"));
+        }
+
+        final ConnectionSupplier broken = () -> {
+            throw new SQLException("shard down");
+        };
+        final ScatterGather partial = ScatterGather.from(executor, Arrays.asList(shard, broken));
+        try {
+            partial.list(select);
+            fail();
+        } catch (BetterSqlException e) {
+            assertThat(e.getMessage(), containsString("shard 1"));
+        }
+        final List<Integer> failed = new ArrayList<>();
+        final List<TestBean> survivors = partial.withPartialResults(ScatterGather.PartialResults.ALLOW)
+                .withTimeout(10, TimeUnit.SECONDS)
+                .withFailureListener((index, cause) -> failed.add(index))
+                .list(select);
+        assertThat(survivors.size(), equalTo(5));
+        assertThat(failed, contains(1));
+    }
+
+    @Test
+    public void testPartitionedScan() throws Exception {
+        final List<long[]> slices = PartitionedScan.split(1, 10, 3);
+        assertThat(slices.size(), equalTo(3));
+        assertThat(slices.get(0)[0], equalTo(1L));
+        assertThat(slices.get(2)[1], equalTo(10L));
+        assertThat(PartitionedScan.split(1, 2, 4).size(), equalTo(2));
+        final List<long[]> full = PartitionedScan.split(Long.MIN_VALUE, Long.MAX_VALUE, 2);
+        assertThat(full.get(0)[1] + 1, equalTo(full.get(1)[0]));
+        assertThat(full.get(1)[1], equalTo(Long.MAX_VALUE));
+
+        final PartitionedScan<TestBean> scan = BSM.scan(dataSource::getConnection, TestBean.class, 3);
+        final long total = async.query("SELECT COUNT(*) FROM test_bean", null, rs -> rs.getLong(1)).get();
+        assertThat(scan.stream().count(), equalTo(total));
+        final List<TestBean> rows = new ArrayList<>();
+        scan.forEach(executor, rows::add);
+        assertThat((long) rows.size(), equalTo(total));
+        assertThat(rows.stream().map(TestBean::getTestKey).distinct().count(), equalTo(total));
+    }
+
+    @Test
+    public void testResultPublisher() throws Exception {
+        final ResultPublisher<TestBean> publisher = BSM.select("SELECT * FROM test_bean WHERE test_key <= 5 ORDER BY test_key", TestBean.class)
+                .publish(dataSource::getConnection, executor)
+                .withMaxFetchSize(2);
+        final List<TestBean> received = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch firstTwo = new CountDownLatch(2);
+        final CountDownLatch complete = new CountDownLatch(1);
+        final ResultPublisher.Subscription[] subscription = new ResultPublisher.Subscription[1];
+        publisher.subscribe(new ResultPublisher.Subscriber<TestBean>() {
+            @Override
+            public void onSubscribe(ResultPublisher.Subscription s) {
+                subscription[0] = s;
+                s.request(2);
+            }
+
+            @Override
+            public void onNext(TestBean item) {
+                received.add(item);
+                firstTwo.countDown();
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+            }
+
+            @Override
+            public void onComplete() {
+                complete.countDown();
+            }
+        });
+        assertTrue(firstTwo.await(5, TimeUnit.SECONDS));
+        assertFalse(complete.await(100, TimeUnit.MILLISECONDS));
+        assertThat(received.size(), equalTo(2));
+        subscription[0].request(Long.MAX_VALUE);
+        assertTrue(complete.await(5, TimeUnit.SECONDS));
+        assertThat(received.stream().map(TestBean::getTestKey).collect(Collectors.toList()), contains(1L, 2L, 3L, 4L, 5L));
+
+        final List<Object> signals = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch first = new CountDownLatch(1);
+        BSM.select("SELECT * FROM test_bean", TestBean.class).publish(dataSource::getConnection, executor).subscribe(new ResultPublisher.Subscriber<TestBean>() {
+            private ResultPublisher.Subscription s;
+
+            @Override
+            public void onSubscribe(ResultPublisher.Subscription s) {
+                this.s = s;
+                s.request(10);
+            }
+
+            @Override
+            public void onNext(TestBean item) {
+                signals.add(item);
+                s.cancel();
+                first.countDown();
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                signals.add(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                signals.add("complete");
+            }
+        });
+        assertTrue(first.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        assertThat(signals.size(), equalTo(1));
+    }
+
+    @Test
+    public void testGroupCommit() throws Exception {
+        final AtomicInteger connections = new AtomicInteger();
+        final GroupCommitExecutor group = GroupCommitExecutor.from(() -> {
+            connections.incrementAndGet();
+            return dataSource.getConnection();
+        }, executor).withWindow(200, TimeUnit.MILLISECONDS);
+
+        final List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            final int n = i;
+            futures.add(group.submit(connection -> {
+                if (n == 5) {
+                    BSM.insert(connection, new TestBean(null, n, n, "group commit failed", null, 0.0, TestBean.Status.ON));
+                    throw new IllegalStateException("unit failure");
+                }
+                BSM.insert(connection, new TestBean(null, n, n, "group commit", null, 0.0, TestBean.Status.ON));
+            }));
+        }
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                futures.get(i).get(5, TimeUnit.SECONDS);
+                assertTrue(i != 5);
+            } catch (ExecutionException e) {
+                assertEquals(5, i);
+                assertThat(e.getCause(), instanceOf(BetterSqlException.class));
+            }
+        }
+        assertThat(connections.get(), equalTo(1));
+        try (Connection connection = dataSource.getConnection()) {
+            assertThat(BSM.select("SELECT * FROM test_bean WHERE some_string = 'group commit'", TestBean.class).list(connection).size(), equalTo(9));
+            assertThat(BSM.select("SELECT * FROM test_bean WHERE some_string = 'group commit failed'", TestBean.class).list(connection).size(), equalTo(0));
+        }
+
+        final GroupCommitExecutor small = group.withMaxGroupSize(2).withWindow(10, TimeUnit.SECONDS);
+        final CompletableFuture<Void> first = small.submit(connection -> BSM.insert(connection, new TestBean(null, 1, 1, "group full", null, 0.0, TestBean.Status.ON)));
+        final CompletableFuture<Void> second = small.submit(connection -> BSM.insert(connection, new TestBean(null, 2, 2, "group full", null, 0.0, TestBean.Status.ON)));
+        CompletableFuture.allOf(first, second).get(5, TimeUnit.SECONDS);//full group runs before the window ends
+    }
+
+    @Test
+    public void testGroupCommitAborted() throws Exception {
+        final GroupCommitExecutor group = GroupCommitExecutor.from(dataSource::getConnection, executor).withMaxGroupSize(2).withWindow(10, TimeUnit.SECONDS);
+        final CompletableFuture<Void> first = group.submit(connection -> BSM.insert(connection, new TestBean(null, 1, 1, "group aborted", null, 0.0, TestBean.Status.ON)));
+        final CompletableFuture<Void> second = group.submit(connection -> {
+            connection.rollback();//like a deadlock rolling back the whole transaction, the savepoint is gone
+            throw new IllegalStateException("deadlock");
+        });
+        for (CompletableFuture<Void> future : Arrays.asList(first, second)) {
+            try {
+                future.get(5, TimeUnit.SECONDS);
+                fail("no unit of an aborted group may report success");
+            } catch (ExecutionException e) {
+                assertThat(e.getCause(), instanceOf(BetterSqlException.class));
+            }
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            assertThat(BSM.select("SELECT * FROM test_bean WHERE some_string = 'group aborted'", TestBean.class).list(connection).size(), equalTo(0));
+        }
+    }
+
+    @Test
+    public void testConnectionPoolStatementFailure() throws Exception {
+        final AtomicBoolean valid = new AtomicBoolean(true);
+        final ConnectionSupplier factory = () -> {
+            final Connection real = dataSource.getConnection();
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                if (method.getName().equals("isValid")) {
+                    return valid.get();
+                }
+                if (method.getName().equals("prepareStatement") && args[0].equals("LINK FAILURE")) {
+                    return Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(), new Class<?>[]{PreparedStatement.class}, (p, m, a) -> {
+                        if (m.getName().startsWith("execute")) {
+                            throw new SQLException("communications link failure", "08S01");
+                        }
+                        return null;
+                    });
+                }
+                try {
+                    return method.invoke(real, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            });
+        };
+        try (BetterConnectionPool pool = factory.pooled()) {
+            try (Connection connection = pool.get(); PreparedStatement ps = connection.prepareStatement("LINK FAILURE")) {
+                assertSame(connection, ps.getConnection());
+                ps.executeQuery();
+                fail();
+            } catch (SQLException expected) {
+                assertThat(expected.getSQLState(), equalTo("08S01"));
+            }
+            assertThat(pool.getSize(), equalTo(0));//connection error from a statement, not pooled again
+
+            valid.set(false);
+            try (Connection connection = pool.get(); Statement statement = connection.createStatement()) {
+                statement.executeQuery("NOT SQL");
+                fail();
+            } catch (SQLException expected) {
+            }
+            assertThat(pool.getSize(), equalTo(0));//validated on return after the error, within the skip window
+
+            valid.set(true);
+            try (Connection connection = pool.get(); Statement statement = connection.createStatement()) {
+                statement.executeQuery("NOT SQL");
+                fail();
+            } catch (SQLException expected) {
+            }
+            assertThat(pool.getSize(), equalTo(1));
+        }
+    }
+
+    @Test
+    public void testConnectionPool() throws Exception {
+        final AtomicInteger opened = new AtomicInteger();
+        final ConnectionSupplier factory = () -> {
+            opened.incrementAndGet();
+            return dataSource.getConnection();
+        };
+        try (BetterConnectionPool pool = factory.pooled().withMaxSize(2).withConnectionTimeout(1, TimeUnit.SECONDS)) {
+            final Connection first = pool.get();
+            final Connection second = pool.get();
+            assertThat(pool.getSize(), equalTo(2));
+            try {
+                pool.get();
+                fail();
+            } catch (SQLTransientConnectionException expected) {
+                assertThat(pool.getTimeouts(), equalTo(1L));
+            }
+
+            final int isolation = first.getTransactionIsolation();
+            first.setAutoCommit(false);
+            first.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+            BSM.insert(first, new TestBean(null, 1, 1, "pool uncommitted", null, 0.0, TestBean.Status.ON));
+            first.close();
+            assertTrue(first.isClosed());
+            assertThat(pool.getIdle(), equalTo(1));
+
+            final Connection reused = pool.get();
+            assertTrue(reused.getAutoCommit());
+            assertThat(reused.getTransactionIsolation(), equalTo(isolation));
+            assertThat(BSM.select("SELECT * FROM test_bean WHERE some_string = 'pool uncommitted'", TestBean.class).list(reused).size(), equalTo(0));
+
+            final CompletableFuture<Connection> waiting = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return pool.get();
+                } catch (SQLException e) {
+                    throw new BetterSqlException(e);
+                }
+            }, executor);
+            while (pool.getWaiters() == 0) {
+                Thread.yield();
+            }
+            second.close();//handed off to the waiter
+            final Connection handed = waiting.get(5, TimeUnit.SECONDS);
+            assertThat(opened.get(), equalTo(2));
+            reused.close();
+            handed.close();
+            assertThat(pool.getWaitHistogram().getCount(), equalTo(4L));
+            assertTrue(pool.getWaitHistogram().getPercentileNanos(100) > 0);
+        }
+
+        try (BetterConnectionPool pool = factory.pooled().withIdleTimeout(1, TimeUnit.MILLISECONDS)) {
+            opened.set(0);
+            pool.get().close();
+            TimeUnit.MILLISECONDS.sleep(20);
+            pool.get().close();//idle connection evicted, a new one opened
+            assertThat(opened.get(), equalTo(2));
+            assertThat(pool.getSize(), equalTo(1));
+        }
+    }
+
+    @Test
+    public void testConnectionPoolSessionState() throws Exception {
+        final AtomicInteger isolationSets = new AtomicInteger();
+        final AtomicInteger isolationReads = new AtomicInteger();
+        final ConnectionSupplier factory = () -> {
+            final Connection real = dataSource.getConnection();
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                if (method.getName().equals("setTransactionIsolation")) {
+                    isolationSets.incrementAndGet();
+                } else if (method.getName().equals("getTransactionIsolation")) {
+                    isolationReads.incrementAndGet();
+                }
+                try {
+                    return method.invoke(real, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            });
+        };
+        try (BetterConnectionPool pool = factory.pooled().withMaxSize(1)) {
+            for (int i = 0; i < 3; i++) {
+                try (Connection connection = pool.get()) {
+                    BetterSqlTransaction.returning(BetterSqlTransaction.Isolation.SERIALIZABLE,
+                            tx -> BSM.select("SELECT * FROM test_bean", TestBean.class).list(tx)).execute(connection);
+                }
+            }
+            assertThat(isolationSets.get(), equalTo(1));//set once, the restores between borrows never reached the driver
+            assertThat(isolationReads.get(), equalTo(1));
+
+            try (Connection connection = pool.get(); Statement statement = connection.createStatement()) {
+                assertThat(connection.getTransactionIsolation(), equalTo(Connection.TRANSACTION_READ_COMMITTED));
+                statement.executeQuery("SELECT 1").close();//plain use puts the default back first
+            }
+            assertThat(isolationSets.get(), equalTo(2));
+        }
+    }
+}
@@ -52,6 +52,16 @@ public class BetterSqlGeneratorTest {
         assertThat(select, equalTo(control));
     }
 
+    @Test
+    public void testGenerateRangeSqlTemplates() {
+        TableData tableData = TableData.from(TestBean.class);
+        assertThat(GENERATOR.generateKeyRangeSqlTemplate(tableData), equalTo("SELECT MIN(test_key), MAX(test_key) FROM test_bean"));
+        String control = "SELECT test_key, some_long, some_int, some_string, some_dtm, some_enum FROM test_bean WHERE test_key BETWEEN ? AND ?";
+        assertThat(GENERATOR.generateRangeSelectSqlTemplate(tableData), equalTo(control));
+        control = "SELECT test_key, some_long, some_int, some_string, some_dtm, some_enum FROM test_bean WHERE test_key BETWEEN :range_start AND :range_end";
+        assertThat(GENERATOR.generateRangeSelectSqlTemplateNamed(tableData), equalTo(control));
+    }
+
     @Test
     public void testGenerateInsertSqlTemplate() {
         String control = "INSERT INTO test_bean (some_long, some_int, some_string, some_dtm, some_enum) VALUES (?, ?, ?, ?, ?)";
@@ -18,6 +18,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 
 import static org.hamcrest.Matchers.*;
@@ -255,4 +257,47 @@ public class BetterSqlMapperTest {
         assertNotNull(all);
         assertThat(all, not(empty()));
     }
+
+    @Test
+    public void testCompiledSelect() {
+        final PreparedQuery<TestBean> query = BSM.compile("SELECT * FROM test_bean WHERE test_key > :test_key", TestBean.class);
+        List<TestBean> beanList = query.list(connection, ps -> ps.setLong("test_key", 3));
+        assertThat(beanList.size(), equalTo(2));
+        beanList.forEach(elem -> assertThat(elem.getTestKey(), greaterThan(3L)));
+
+        TestBean bean = query.one(connection, ps -> ps.setLong("test_key", 4));
+        assertThat(bean.getTestKey(), equalTo(5L));
+        assertThat(bean.getSomeString(), equalTo("fifth"));
+        assertThat(bean.getSomeEnum(), equalTo(TestBean.Status.ON));
+
+        Map<Long, TestBean> beanMap = query.map(connection, ps -> ps.setLong("test_key", 0), rs -> rs.getLong("test_key"));
+        assertThat(beanMap.size(), equalTo(5));
+    }
+
+    @Test
+    public void testListPipelined() throws Exception {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO test_bean (test_key, some_long, some_int, some_string, some_dtm, some_enum) " +
+                    "SELECT X + 5, X, X, 'bulk', current_timestamp(), 'OFF' FROM SYSTEM_RANGE(1, 600)");
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            BetterSqlMapper.SelectBuilder<TestBean> select = BSM.select("SELECT * FROM test_bean ORDER BY test_key", TestBean.class);
+            List<TestBean> sequential = select.list(connection);
+            List<TestBean> pipelined = select.listPipelined(connection, executor);
+            assertThat(pipelined.size(), equalTo(605));
+            for (int i = 0; i < sequential.size(); i++) {
+                TestBean expected = sequential.get(i);
+                TestBean actual = pipelined.get(i);
+                assertThat(actual.getTestKey(), equalTo(expected.getTestKey()));
+                assertThat(actual.getSomeLong(), equalTo(expected.getSomeLong()));
+                assertThat(actual.getSomeInt(), equalTo(expected.getSomeInt()));
+                assertThat(actual.getSomeString(), equalTo(expected.getSomeString()));
+                assertThat(actual.getSomeDtm(), equalTo(expected.getSomeDtm()));
+                assertThat(actual.getSomeEnum(), equalTo(expected.getSomeEnum()));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
 }
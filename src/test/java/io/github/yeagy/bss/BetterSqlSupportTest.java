@@ -6,15 +6,26 @@ import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Array;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Timestamp;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.*;
@@ -72,6 +83,368 @@ public class BetterSqlSupportTest {
         testBeans.forEach(bean -> assertThat(bean.getTestKey(), greaterThan(1L)));
     }
 
+    @Test
+    public void testSelectListInPrimitive() throws Exception {
+        truncateAndInsert();
+        String select = "SELECT test_key, some_long, some_int, some_string, some_dtm, some_enum FROM test_bean WHERE test_key IN (:test_keys) AND some_string IN (:some_strings)";
+        final List<TestBean> testBeans = SQL_SUPPORT.queryList(connection, select, ps -> {
+            ps.setArray("test_keys", new long[]{2L, 3L, 4L});
+            ps.setArray("some_strings", new String[]{"second", "third"});
+        }, TEST_BEAN_RESULT_MAPPING);
+        assertThat(testBeans.size(), equalTo(2));
+        testBeans.forEach(bean -> assertThat(bean.getTestKey(), lessThan(4L)));
+    }
+
+    @Test
+    public void testPrimitiveArrayNative() throws Exception {
+        //h2 has no createArrayOf, so record what reaches the driver
+        final Map<String, Object[]> created = new HashMap<>();
+        final Map<Integer, Array> bound = new HashMap<>();
+        final Array array = (Array) Proxy.newProxyInstance(Array.class.getClassLoader(), new Class<?>[]{Array.class}, (proxy, method, args) -> null);
+        final Connection[] recording = new Connection[1];
+        final PreparedStatement ps = (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(), new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+            if (method.getName().equals("getConnection")) {
+                return recording[0];
+            }
+            if (method.getName().equals("setArray")) {
+                bound.put((Integer) args[0], (Array) args[1]);
+            }
+            return null;
+        });
+        recording[0] = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+            if (method.getName().equals("createArrayOf")) {
+                created.put((String) args[0], (Object[]) args[1]);
+                return array;
+            }
+            if (method.getName().equals("prepareStatement")) {
+                return ps;
+            }
+            return null;
+        });
+        final BetterPreparedStatement better = BetterPreparedStatementImpl.from(recording[0], "SELECT test_key FROM test_bean WHERE ARRAY_CONTAINS(:test_keys, test_key)", false, false);
+        better.setArray("test_keys", new long[]{1L, 2L, 3L});
+        assertThat(created.get("bigint"), equalTo(new Object[]{1L, 2L, 3L}));
+        assertThat(created.get("bigint"), instanceOf(Long[].class));
+        assertThat(bound.get(1), sameInstance(array));
+    }
+
+    @Test
+    public void testSelectListInFollowedByParameter() throws Exception {
+        truncateAndInsert();
+        String select = "SELECT test_key, some_long, some_int, some_string, some_dtm, some_enum FROM test_bean WHERE test_key IN (:test_keys) AND some_int > :some_int";
+        final List<TestBean> testBeans = SQL_SUPPORT.queryList(connection, select, ps -> {
+            ps.setArray("test_keys", Arrays.asList(1L, 2L, 3L, 4L));
+            ps.setInt("some_int", 150);
+        }, TEST_BEAN_RESULT_MAPPING);
+        assertThat(testBeans.size(), equalTo(2));
+        testBeans.forEach(bean -> assertThat(bean.getSomeInt(), greaterThan(150)));
+    }
+
+    @Test
+    public void testSimulatedInBatch() throws Exception {
+        truncateAndInsert();
+        String update = "UPDATE test_bean SET some_string = :some_string WHERE test_key IN (:test_keys)";
+        try (BetterPreparedStatement ps = BetterPreparedStatement.create(connection, update, false, true)) {
+            ps.setString("some_string", "batch one");
+            ps.setArray("test_keys", Arrays.asList(1L, 2L));
+            ps.addBatch();
+            ps.setString("some_string", "batch two");
+            ps.setArray("test_keys", Collections.singletonList(3L));
+            ps.addBatch();
+            ps.setString("some_string", "batch three");
+            ps.setArray("test_keys", Arrays.asList(4L, 5L));
+            ps.addBatch();
+            final int[] counts = ps.executeBatch();
+            assertThat(counts.length, equalTo(3));
+            assertThat(counts[0], equalTo(2));
+            assertThat(counts[1], equalTo(1));
+            assertThat(counts[2], equalTo(2));
+        }
+        String select = "SELECT test_key, some_long, some_int, some_string, some_dtm, some_enum FROM test_bean WHERE test_key = :test_key";
+        assertThat(SQL_SUPPORT.query(connection, select, ps -> ps.setLong("test_key", 2), TEST_BEAN_RESULT_MAPPING).getSomeString(), equalTo("batch one"));
+        assertThat(SQL_SUPPORT.query(connection, select, ps -> ps.setLong("test_key", 3), TEST_BEAN_RESULT_MAPPING).getSomeString(), equalTo("batch two"));
+        assertThat(SQL_SUPPORT.query(connection, select, ps -> ps.setLong("test_key", 5), TEST_BEAN_RESULT_MAPPING).getSomeString(), equalTo("batch three"));
+    }
+
+    @Test
+    public void testSimulatedInReExecute() throws Exception {
+        truncateAndInsert();
+        String select = "SELECT COUNT(*) FROM test_bean WHERE test_key IN (:test_keys)";
+        final int[] prepares = {0};
+        final Connection counting = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+            if (method.getName().equals("prepareStatement")) {
+                prepares[0]++;
+            }
+            try {
+                return method.invoke(connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        });
+        try (BetterPreparedStatement ps = BetterPreparedStatement.create(counting, select, false, true)) {
+            final List<List<Long>> lookups = Arrays.asList(Arrays.asList(1L, 2L), Arrays.asList(3L, 9L), Arrays.asList(1L, 2L, 3L));
+            final int[] expected = {2, 1, 3};
+            final int[] expectedPrepares = {1, 1, 2};
+            for (int i = 0; i < lookups.size(); i++) {
+                ps.setArray("test_keys", lookups.get(i));
+                try (ResultSet rs = ps.executeQuery()) {
+                    assertTrue(rs.next());
+                    assertThat(rs.getInt(1), equalTo(expected[i]));
+                }
+                assertThat(prepares[0], equalTo(expectedPrepares[i]));
+            }
+        }
+    }
+
+    @Test
+    public void testPrimitiveArrayExtraction() throws Exception {
+        try (Statement statement = connection.createStatement();
+             BetterResultSet rs = BetterResultSet.from(statement.executeQuery("SELECT (1, 2, 3), (1.5, 2.5), ('a', 'b'), CAST(NULL AS ARRAY)"))) {
+            assertTrue(rs.next());
+            assertThat(rs.getLongArray(1), equalTo(new long[]{1L, 2L, 3L}));
+            assertThat(rs.getIntArray(1), equalTo(new int[]{1, 2, 3}));
+            assertThat(rs.getDoubleArray(2), equalTo(new double[]{1.5, 2.5}));
+            assertThat(rs.getStringArray(3), equalTo(new String[]{"a", "b"}));
+            assertNull(rs.getLongArray(4));
+            final List<Long> streamed = new ArrayList<>();
+            rs.forEachArrayElement(1, element -> streamed.add(element.getLong(2)));
+            assertThat(streamed, contains(1L, 2L, 3L));
+        }
+    }
+
+    @Test
+    public void testPrimitiveArrayExtractionChecked() throws Exception {
+        try (Statement statement = connection.createStatement();
+             BetterResultSet rs = BetterResultSet.from(statement.executeQuery("SELECT (1, CAST(3000000000 AS BIGINT)), (1, NULL)"))) {
+            assertTrue(rs.next());
+            assertThat(rs.getLongArray(1), equalTo(new long[]{1L, 3000000000L}));
+            try {
+                rs.getIntArray(1);
+                fail("bigint out of int range must not be truncated");
+            } catch (SQLException e) {
+                assertThat(e.getMessage(), containsString("out of int range"));
+            }
+            try {
+                rs.getLongArray(2);
+                fail("null element must not be unboxed");
+            } catch (SQLException e) {
+                assertThat(e.getMessage(), containsString("null element"));
+            }
+        }
+    }
+
+    @Test
+    public void testStatementCache() throws Exception {
+        truncateAndInsert();
+        final BetterSqlSupport cachingSupport = BetterSqlSupport.from(BetterOptions.from().withStatementCacheSize(2));
+        final StatementCache cache = cachingSupport.getStatementCache();
+        String select = "SELECT test_key, some_long, some_int, some_string, some_dtm, some_enum FROM test_bean WHERE test_key = :test_key";
+        for (long key = 1; key <= 3; key++) {
+            final long expected = key;
+            assertThat(cachingSupport.query(connection, select, ps -> ps.setLong("test_key", expected), TEST_BEAN_RESULT_MAPPING).getTestKey(), equalTo(expected));
+        }
+        assertThat(cache.getMisses(), equalTo(1L));
+        assertThat(cache.getHits(), equalTo(2L));
+        cachingSupport.update(connection, "UPDATE test_bean SET some_int = 1 WHERE test_key = :test_key", ps -> ps.setLong("test_key", 1));
+        cachingSupport.update(connection, "UPDATE test_bean SET some_int = 2 WHERE test_key = :test_key", ps -> ps.setLong("test_key", 2));
+        assertThat(cache.getEvictions(), equalTo(1L));
+        cachingSupport.query(connection, select, ps -> ps.setLong("test_key", 1), TEST_BEAN_RESULT_MAPPING);
+        assertThat(cache.getMisses(), equalTo(4L));
+        final BetterPreparedStatement stale = cache.prepare(connection, select, false, false);
+        stale.close();
+        assertTrue(stale.isClosed());
+        try (BetterPreparedStatement reused = cache.prepare(connection, select, false, false)) {
+            assertThat(cache.getHits(), equalTo(4L));
+            assertFalse(reused.isClosed());
+            try {
+                stale.setLong("test_key", 2);
+                fail("released handle must not reach the statement leased again");
+            } catch (SQLException e) {
+                assertThat(e.getMessage(), containsString("closed"));
+            }
+        }
+        cache.invalidate(connection);
+        assertNull(SQL_SUPPORT.getStatementCache());
+    }
+
+    @Test
+    public void testExecutionListener() throws Exception {
+        truncateAndInsert();
+        final List<ExecutionListener.Execution> before = new ArrayList<>();
+        final List<ExecutionListener.Execution> after = new ArrayList<>();
+        final BetterSqlSupport observed = BetterSqlSupport.from(BetterOptions.from().withExecutionListener(new ExecutionListener() {
+            @Override
+            public void beforeExecution(Execution execution) {
+                before.add(execution);
+            }
+
+            @Override
+            public void afterExecution(Execution execution) {
+                after.add(execution);
+            }
+        }));
+        String select = "SELECT test_key, some_long, some_int, some_string, some_dtm, some_enum FROM test_bean WHERE test_key IN (:test_keys)";
+        final List<TestBean> testBeans = observed.queryList(connection, select, ps -> ps.setArray("test_keys", Arrays.asList(2L, 3L, 4L)), TEST_BEAN_RESULT_MAPPING);
+        assertThat(testBeans.size(), equalTo(3));
+        assertThat(before.size(), equalTo(1));
+        assertThat(after.size(), equalTo(1));
+        final ExecutionListener.Execution query = after.get(0);
+        assertThat(query.getTemplate(), equalTo(select));
+        assertThat(query.getSql(), containsString("IN (?, ?, ?)"));
+        assertThat(query.getParameterCount(), equalTo(3));
+        assertThat(query.getRows(), equalTo(3L));
+        assertTrue(query.getExecuteNanos() > 0);
+        assertTrue(query.getFetchNanos() > 0);
+        assertNull(query.getException());
+
+        final int updated = observed.update(connection, "UPDATE test_bean SET some_int = 7 WHERE test_key > :test_key", ps -> ps.setLong("test_key", 3));
+        assertThat(after.get(1).getRows(), equalTo((long) updated));
+        assertThat(after.get(1).getFetchNanos(), equalTo(0L));
+
+        try {
+            observed.update(connection, "UPDATE test_bean SET some_int = 1 / (test_key - test_key)", null);//fails executing, not preparing
+            fail();
+        } catch (BetterSqlException expected) {
+        }
+        assertThat(after.size(), equalTo(3));
+        assertNotNull(after.get(2).getException());
+
+        BetterSqlMapper.from(BetterOptions.from().withExecutionListener(after::add)).find(connection, 1L, TestBean.class);
+        assertThat(after.size(), equalTo(4));
+        assertThat(after.get(3).getRows(), equalTo(1L));
+    }
+
+    @Test
+    public void testExecutionListenerFailure() throws Exception {
+        truncateAndInsert();
+        final BetterSqlSupport observed = BetterSqlSupport.from(BetterOptions.from().withExecutionListener(new ExecutionListener() {
+            @Override
+            public void beforeExecution(Execution execution) {
+                throw new IllegalStateException("listener failure");
+            }
+
+            @Override
+            public void afterExecution(Execution execution) {
+                throw new IllegalStateException("listener failure");
+            }
+        }));
+        assertThat(observed.update(connection, "UPDATE test_bean SET some_int = 7 WHERE test_key = :test_key", ps -> ps.setLong("test_key", 1)), equalTo(1));
+        assertThat(observed.queryList(connection, "SELECT test_key, some_long, some_int, some_string, some_dtm, some_enum FROM test_bean", null, TEST_BEAN_RESULT_MAPPING),
+                not(empty()));
+        try {
+            observed.update(connection, "UPDATE test_bean SET some_int = 1 / (test_key - test_key)", null);
+            fail();
+        } catch (BetterSqlException expected) {
+            assertThat(expected.getCause(), instanceOf(SQLException.class));//the real failure, not the listener's
+        }
+    }
+
+    @Test
+    public void testSlowQueryLog() throws Exception {
+        truncateAndInsert();
+        final List<SlowQueryLog.SlowQuery> logged = new ArrayList<>();
+        final String select = "SELECT * FROM test_bean WHERE some_string = :some_string AND test_key > :secret";
+        final SlowQueryLog log = SlowQueryLog.from(1, TimeUnit.HOURS)
+                .withThreshold(select, 0, TimeUnit.NANOSECONDS)
+                .withParameters(true)
+                .withMaxValueLength(5)
+                .withRedacted("SECRET")
+                .withRateLimit(0)
+                .withSink(logged::add);
+        final BetterSqlSupport observed = BetterSqlSupport.from(BetterOptions.from().withExecutionListener(log));
+        observed.queryList(connection, select, ps -> {
+            ps.setString("some_string", "second");
+            ps.setLong("secret", 0);
+        }, TEST_BEAN_RESULT_MAPPING);
+        observed.queryList(connection, "SELECT * FROM test_bean", null, TEST_BEAN_RESULT_MAPPING);//under the global threshold
+        assertThat(logged.size(), equalTo(1));
+        final SlowQueryLog.SlowQuery slow = logged.get(0);
+        assertThat(slow.getExecution().getTemplate(), equalTo(select));
+        assertThat(slow.getExecution().getRows(), equalTo(1L));
+        assertThat(slow.getParameters().get("some_string"), startsWith("'seco..."));
+        assertThat(slow.getParameters().get("secret"), equalTo("<redacted>"));
+        assertThat(slow.toString(), containsString("slow query"));
+
+        logged.clear();
+        final BetterSqlSupport limited = BetterSqlSupport.from(BetterOptions.from().withExecutionListener(
+                SlowQueryLog.from(0, TimeUnit.NANOSECONDS).withRateLimit(1).withSink(logged::add)));
+        awaitNextSecond();//the limit counts whole seconds, start at the top of one so all three land in it
+        for (int i = 0; i < 3; i++) {
+            limited.queryList(connection, "SELECT * FROM test_bean", null, TEST_BEAN_RESULT_MAPPING);
+        }
+        assertThat(logged.size(), equalTo(1));
+        assertThat(logged.get(0).getSuppressed(), equalTo(0L));
+        assertNull(logged.get(0).getParameters());
+        awaitNextSecond();
+        limited.queryList(connection, "SELECT * FROM test_bean", null, TEST_BEAN_RESULT_MAPPING);
+        assertThat(logged.size(), equalTo(2));
+        assertThat(logged.get(1).getSuppressed(), equalTo(2L));
+        assertThat(logged.get(1).toString(), containsString("2 more suppressed"));
+
+        logged.clear();
+        final BetterSqlSupport sampled = BetterSqlSupport.from(BetterOptions.from().withExecutionListener(
+                SlowQueryLog.from(0, TimeUnit.NANOSECONDS).withSampleRate(0).withSink(logged::add)));
+        sampled.queryList(connection, "SELECT * FROM test_bean", null, TEST_BEAN_RESULT_MAPPING);
+        assertThat(logged.size(), equalTo(0));
+    }
+
+    private static void awaitNextSecond() throws InterruptedException {
+        final long second = Math.floorDiv(System.nanoTime(), TimeUnit.SECONDS.toNanos(1));//same buckets as the rate limit
+        while (Math.floorDiv(System.nanoTime(), TimeUnit.SECONDS.toNanos(1)) == second) {
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    public void testCompiledQuery() throws Exception {
+        truncateAndInsert();
+        final PreparedQuery<TestBean> query = SQL_SUPPORT.compile("SELECT test_key, some_long, some_int, some_string, some_dtm, some_enum FROM test_bean WHERE test_key IN (:test_keys)", TEST_BEAN_RESULT_MAPPING);
+        assertThat(query.list(connection, ps -> ps.setArray("test_keys", new long[]{1L, 2L})).size(), equalTo(2));
+        assertThat(query.list(connection, ps -> ps.setArray("test_keys", new long[]{3L, 4L, 5L})).size(), equalTo(3));
+        assertThat(query.one(connection, ps -> ps.setArray("test_keys", new long[]{2L})).getSomeString(), equalTo("second"));
+    }
+
+    @Test
+    public void testBindEntityAndMap() throws Exception {
+        truncateAndInsert();
+        final TableData tableData = TableData.from(TestBean.class);
+        final String insert = BetterSqlGenerator.fromDefaults().generateInsertSqlTemplateNamed(tableData);
+        final TestBean bean = new TestBean(null, 42L, 7, "bound", Timestamp.from(Instant.now()), 0.0, TestBean.Status.OFF);
+        final Long key = SQL_SUPPORT.builder(insert).bindEntity(bean).insert(connection);
+        assertNotNull(key);
+
+        final Map<String, Object> values = new HashMap<>();
+        values.put("test_key", key);
+        values.put("some_string", "bound");
+        String select = "SELECT test_key, some_long, some_int, some_string, some_dtm, some_enum FROM test_bean WHERE test_key = :test_key AND some_string = :some_string";
+        final TestBean result = SQL_SUPPORT.builder(select).bindMap(values).mapResult(TEST_BEAN_RESULT_MAPPING).query(connection);
+        assertThat(result.getSomeLong(), equalTo(42L));
+        assertThat(result.getSomeEnum(), equalTo(TestBean.Status.OFF));
+    }
+
+    @Test
+    public void testParamHandleBatch() throws Exception {
+        truncateAndInsert();
+        String update = "UPDATE test_bean SET some_string = :some_string, some_int = :some_int WHERE test_key = :test_key OR some_int = :some_int";
+        try (BetterPreparedStatement ps = BetterPreparedStatement.create(connection, update)) {
+            final ParamHandle someString = ps.param("some_string");
+            final ParamHandle someInt = ps.param("some_int");
+            final ParamHandle testKey = ps.param("test_key");
+            assertThat(someInt.getPositionCount(), equalTo(2));
+            for (long key = 1; key <= 3; key++) {
+                someString.setString("handle " + key);
+                someInt.setInt(1000 + (int) key);
+                testKey.setLong(key);
+                ps.addBatch();
+            }
+            assertThat(ps.executeBatch().length, equalTo(3));
+        }
+        String select = "SELECT test_key, some_long, some_int, some_string, some_dtm, some_enum FROM test_bean WHERE test_key = :test_key";
+        final TestBean bean = SQL_SUPPORT.query(connection, select, ps -> ps.param("test_key").setLong(2), TEST_BEAN_RESULT_MAPPING);
+        assertThat(bean.getSomeString(), equalTo("handle 2"));
+        assertThat(bean.getSomeInt(), equalTo(1002));
+    }
+
     @Test
     public void testSelectMap() throws Exception {
         truncateAndInsert();
@@ -199,4 +572,57 @@ public class BetterSqlSupportTest {
                 .query(connection);
         assertNull(deleteBean);
     }
+
+    @Test
+    public void testQueryListPipelinedMatchesList() throws Exception {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE typed_row (id BIGINT PRIMARY KEY, small SMALLINT, num INTEGER, big BIGINT, flag BOOLEAN, real_num DOUBLE, " +
+                    "price DECIMAL(10, 2), label VARCHAR, raw VARBINARY, day DATE, clock TIME, moment TIMESTAMP)");
+            statement.execute("INSERT INTO typed_row SELECT X, CASE WHEN MOD(X, 3) = 0 THEN NULL ELSE MOD(X, 100) END, " +
+                    "CASE WHEN MOD(X, 5) = 0 THEN NULL ELSE X * 7 END, X * 3, CASE WHEN MOD(X, 4) = 0 THEN NULL ELSE MOD(X, 2) = 0 END, " +
+                    "CASE WHEN MOD(X, 6) = 0 THEN NULL ELSE X / 4.0 END, CASE WHEN MOD(X, 7) = 0 THEN NULL ELSE X * 1.25 END, " +
+                    "CASE WHEN MOD(X, 8) = 0 THEN NULL ELSE 'row ' || X END, CASE WHEN MOD(X, 9) = 0 THEN NULL ELSE STRINGTOUTF8('r' || X) END, " +
+                    "CASE WHEN MOD(X, 10) = 0 THEN NULL ELSE DATEADD('DAY', X, DATE '2020-01-01') END, " +
+                    "CASE WHEN MOD(X, 11) = 0 THEN NULL ELSE CAST(DATEADD('SECOND', X * 37, TIMESTAMP '2020-01-01 00:00:00') AS TIME) END, " +
+                    "CASE WHEN MOD(X, 12) = 0 THEN NULL ELSE DATEADD('MILLISECOND', X * 1001, TIMESTAMP '2020-01-01 00:00:00') END " +
+                    "FROM SYSTEM_RANGE(1, 700)");
+        }
+        final ResultMapping<List<Object>> mapping = rs -> {
+            final List<Object> row = new ArrayList<>();
+            final long id = rs.getLong("id");
+            row.add(id);
+            row.add(rs.getShort("small"));
+            row.add(rs.wasNull());
+            row.add(rs.getInt("num"));
+            row.add(rs.wasNull());
+            row.add(rs.getString("num"));
+            row.add(id % 2 == 0 ? rs.getInt("big") : rs.getLong("big"));//read differently than the first row on even rows
+            row.add(rs.getBoolean("flag"));
+            row.add(rs.wasNull());
+            row.add(rs.getDouble("real_num"));
+            row.add(rs.wasNull());
+            row.add(rs.getBigDecimal("price"));
+            row.add(rs.getString("label"));
+            row.add(Arrays.toString(rs.getBytes("raw")));
+            row.add(rs.getDate("day"));
+            row.add(rs.getTime("clock"));
+            row.add(rs.getTimestamp("moment"));
+            row.add(rs.getObject("small"));
+            row.add(rs.getObject("moment"));
+            return row;
+        };
+        final String select = "SELECT * FROM typed_row ORDER BY id";
+        final ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            final List<List<Object>> expected = SQL_SUPPORT.queryList(connection, select, null, mapping);
+            final List<List<Object>> pipelined = SQL_SUPPORT.queryListPipelined(connection, select, null, mapping, executor);
+            assertThat(expected.size(), equalTo(700));
+            assertThat(pipelined, equalTo(expected));
+        } finally {
+            executor.shutdown();
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("DROP TABLE typed_row");
+            }
+        }
+    }
 }
@@ -6,12 +6,27 @@ import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Timestamp;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
 import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
 
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
 import static org.junit.Assert.*;
 
@@ -63,4 +78,349 @@ public class BetterSqlTransactionTest {
         assertNotNull(result);
         assertNotNull(result.getTestKey());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testUnitOfWork() {
+        final List<TestBean> beans = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            beans.add(new TestBean(null, i, i, "unit of work " + i, Timestamp.from(Instant.now()), 0.0, TestBean.Status.ON));
+        }
+        BetterSqlTransaction.withUnitOfWork(BDSM, (connection, work) -> {
+            beans.forEach(work::insert);
+            assertThat(work.getPending(), equalTo(3));
+            assertNull(BDSM.select("SELECT * FROM test_bean WHERE some_string = 'unit of work 0'", TestBean.class).one(connection));
+        }).execute(connectionH2);
+        final List<TestBean> inserted = BDSM.select("SELECT * FROM test_bean WHERE some_string LIKE 'unit of work%'", TestBean.class).list(connectionH2);
+        assertThat(inserted.size(), equalTo(3));
+
+        try {
+            BetterSqlTransaction.withUnitOfWork(BDSM, (connection, work) -> {
+                inserted.forEach(work::delete);
+                work.flush();
+                assertThat(work.getPending(), equalTo(0));
+                assertThat(BDSM.select("SELECT * FROM test_bean WHERE some_string LIKE 'unit of work%'", TestBean.class).list(connection).size(), equalTo(0));
+                throw new IllegalStateException("roll it back");
+            }).execute(connectionH2);
+            fail();
+        } catch (BetterSqlException expected) {
+            assertThat(BDSM.select("SELECT * FROM test_bean WHERE some_string LIKE 'unit of work%'", TestBean.class).list(connectionH2).size(), equalTo(3));
+        }
+    }
+
+    @Test
+    public void testRetry() {
+        final List<Boolean> attempts = new ArrayList<>();
+        final RetryPolicy retry = RetryPolicy.fromDefaults()
+                .withMaxAttempts(3)
+                .withBackoff(1, 5, TimeUnit.MILLISECONDS)
+                .withListener((attempt, nanos, failure, retrying) -> attempts.add(retrying));
+        final int[] runs = new int[1];
+        final String result = BetterSqlTransaction.returning(connection -> {
+            if (++runs[0] < 3) {
+                throw new SQLException("could not serialize access", "40001");
+            }
+            return "done";
+        }).withRetry(retry).execute(connectionH2);
+        assertThat(result, equalTo("done"));
+        assertThat(runs[0], equalTo(3));
+        assertThat(attempts, contains(true, true, false));
+
+        runs[0] = 0;
+        try {
+            BetterSqlTransaction.with(connection -> {
+                runs[0]++;
+                throw new SQLException("deadlock", "HY000", 1213);
+            }).withRetry(retry.withMaxAttempts(2)).execute(connectionH2);
+            fail();
+        } catch (BetterSqlException e) {
+            assertThat(runs[0], equalTo(2));
+        }
+
+        runs[0] = 0;
+        try {
+            BetterSqlTransaction.with(connection -> {
+                runs[0]++;
+                throw new SQLException("constraint violation", "23505");
+            }).withRetry(retry).execute(connectionH2);
+            fail();
+        } catch (BetterSqlException e) {
+            assertThat(runs[0], equalTo(1));
+        }
+
+        final RetryPolicy throwing = retry.withListener((attempt, nanos, failure, retrying) -> {
+            throw new IllegalStateException("listener failure");
+        });
+        runs[0] = 0;
+        final String retried = BetterSqlTransaction.returning(connection -> {
+            if (++runs[0] < 2) {
+                throw new SQLException("could not serialize access", "40001");
+            }
+            return "done";
+        }).withRetry(throwing).execute(connectionH2);
+        assertThat(retried, equalTo("done"));
+        assertThat(runs[0], equalTo(2));
+        try {
+            BetterSqlTransaction.with(connection -> {
+                throw new SQLException("constraint violation", "23505");
+            }).withRetry(throwing).execute(connectionH2);
+            fail();
+        } catch (BetterSqlException e) {
+            assertThat(((SQLException) e.getCause()).getSQLState(), equalTo("23505"));
+        }
+    }
+
+    @Test
+    public void testStateTracking() throws Exception {
+        final Map<String, Integer> calls = new HashMap<>();
+        final Connection counting = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+            calls.merge(method.getName(), 1, Integer::sum);
+            try {
+                return method.invoke(connectionH2, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        });
+        final Connection tracked = StateTrackingConnection.wrap(counting);
+        assertSame(tracked, StateTrackingConnection.wrap(tracked));
+        for (int i = 0; i < 3; i++) {
+            BetterSqlTransaction.returning(BetterSqlTransaction.Isolation.SERIALIZABLE, connection -> BDSM.find(connection, 1L, TestBean.class)).execute(tracked);
+        }
+        assertThat(calls.get("getAutoCommit"), equalTo(1));
+        assertThat(calls.get("getTransactionIsolation"), equalTo(1));
+        assertThat(calls.get("setAutoCommit"), equalTo(6));
+        assertThat(calls.get("setTransactionIsolation"), equalTo(1));//restores wait for the next use, which sets it back
+        assertThat(calls.get("commit"), equalTo(3));
+        assertThat(tracked.getTransactionIsolation(), equalTo(Connection.TRANSACTION_READ_COMMITTED));
+
+        StateTrackingConnection.forget(tracked);//applies the pending restore
+        assertThat(calls.get("setTransactionIsolation"), equalTo(2));
+        assertThat(connectionH2.getTransactionIsolation(), equalTo(Connection.TRANSACTION_READ_COMMITTED));
+        BetterSqlTransaction.with(connection -> BDSM.find(connection, 1L, TestBean.class)).execute(tracked);
+        assertThat(calls.get("getAutoCommit"), equalTo(2));
+    }
+
+    @Test
+    public void testNestedTransaction() {
+        final TestBean outer = new TestBean(null, 1, 1, "nested outer", Timestamp.from(Instant.now()), 0.0, TestBean.Status.ON);
+        final TestBean kept = new TestBean(null, 2, 2, "nested kept", Timestamp.from(Instant.now()), 0.0, TestBean.Status.ON);
+        final TestBean discarded = new TestBean(null, 3, 3, "nested discarded", Timestamp.from(Instant.now()), 0.0, TestBean.Status.ON);
+        BetterSqlTransaction.with(connection -> {
+            BDSM.insert(connection, outer);
+            BetterSqlTransaction.with(inner -> BDSM.insert(inner, kept)).execute(connection);
+            try {
+                BetterSqlTransaction.with(inner -> {
+                    BDSM.insert(inner, discarded);
+                    throw new IllegalStateException("inner failure");
+                }).execute(connection);
+                fail();
+            } catch (BetterSqlException expected) {
+                assertFalse(connection.getAutoCommit());
+            }
+        }).execute(connectionH2);
+        final List<TestBean> found = BDSM.select("SELECT * FROM test_bean WHERE some_string LIKE 'nested%' ORDER BY some_long", TestBean.class).list(connectionH2);
+        assertThat(found.size(), equalTo(2));
+        assertThat(found.get(0).getSomeString(), equalTo("nested outer"));
+        assertThat(found.get(1).getSomeString(), equalTo("nested kept"));
+
+        try {
+            BetterSqlTransaction.with(connection -> {
+                BetterSqlTransaction.with(inner -> BDSM.delete(inner, found.get(0))).execute(connection);
+                throw new IllegalStateException("outer failure");
+            }).execute(connectionH2);
+            fail();
+        } catch (BetterSqlException expected) {
+            assertThat(BDSM.select("SELECT * FROM test_bean WHERE some_string LIKE 'nested%'", TestBean.class).list(connectionH2).size(), equalTo(2));
+        }
+    }
+
+    @Test
+    public void testSupplierAutoCommitOff() throws Exception {
+        final Connection unclosed = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+            if (method.getName().equals("close")) {
+                return null;
+            }
+            try {
+                return method.invoke(connectionH2, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        });
+        final TestBean bean = new TestBean(null, 1, 1, "autocommit off", Timestamp.from(Instant.now()), 0.0, TestBean.Status.ON);
+        connectionH2.setAutoCommit(false);
+        try {
+            BetterSqlTransaction.with(connection -> BDSM.insert(connection, bean)).execute(() -> unclosed);
+            assertFalse(connectionH2.getAutoCommit());
+            connectionH2.rollback();//undoes nothing if the transaction really committed
+            assertThat(BDSM.select("SELECT * FROM test_bean WHERE some_string = 'autocommit off'", TestBean.class).list(connectionH2).size(), equalTo(1));
+        } finally {
+            connectionH2.setAutoCommit(true);
+        }
+    }
+
+    @Test
+    public void testReadOnly() throws Exception {
+        final Connection tracked = StateTrackingConnection.wrap(connectionH2);
+        assertFalse(tracked.isReadOnly());
+        final Boolean readOnlyInside = BetterSqlTransaction.returning(Connection::isReadOnly).readOnly().execute(tracked);
+        assertTrue(readOnlyInside);
+        assertFalse(tracked.isReadOnly());
+
+        final int[] replicaConnections = new int[1];
+        final ConnectionSupplier primary = () -> {
+            throw new SQLException("primary used for a read only transaction");
+        };
+        final ConnectionSupplier replica = () -> {
+            replicaConnections[0]++;
+            return DriverManager.getConnection("jdbc:h2:mem:");
+        };
+        final Integer one = BetterSqlTransaction.returning(connection -> {
+            try (Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery("SELECT 1")) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }).readOnly(replica).execute(primary);
+        assertThat(one, equalTo(1));
+        assertThat(replicaConnections[0], equalTo(1));
+    }
+
+    @Test
+    public void testRouting() throws Exception {
+        assertTrue(RoutingConnectionSupplier.isRead("SELECT * FROM test_bean"));
+        assertTrue(RoutingConnectionSupplier.isRead(" with t AS (SELECT 1) SELECT * FROM t"));
+        assertFalse(RoutingConnectionSupplier.isRead("SELECT * FROM test_bean FOR UPDATE"));
+        assertFalse(RoutingConnectionSupplier.isRead("INSERT INTO test_bean (some_long) VALUES (1)"));
+        assertFalse(RoutingConnectionSupplier.isRead("UPDATE test_bean SET some_long = 1"));
+
+        final String create = new Scanner(BetterSqlMapperTest.class.getResourceAsStream("/sql/test_create.sql"), "UTF-8").useDelimiter("\\A").next();
+        final String primaryUrl = "jdbc:h2:mem:routing_primary;DB_CLOSE_DELAY=-1";
+        final String replicaUrl = "jdbc:h2:mem:routing_replica;DB_CLOSE_DELAY=-1";
+        try (Connection primary = DriverManager.getConnection(primaryUrl); Connection replica = DriverManager.getConnection(replicaUrl);
+             Statement primaryStatement = primary.createStatement(); Statement replicaStatement = replica.createStatement()) {
+            primaryStatement.execute(create);
+            replicaStatement.execute(create);
+            replicaStatement.execute("INSERT INTO test_bean (test_key, some_long, some_int, some_string) VALUES (1, 1, 1, 'replica')");
+        }
+        final int[] replicaConnections = {0};
+        final RoutingConnectionSupplier routing = RoutingConnectionSupplier.from(RoutingConnectionSupplier.Strategy.EWMA,
+                () -> DriverManager.getConnection(primaryUrl), Collections.singletonList(() -> {
+                    replicaConnections[0]++;
+                    return DriverManager.getConnection(replicaUrl);
+                }));
+
+        try (Connection connection = routing.get()) {
+            assertThat(BDSM.find(connection, 1L, TestBean.class).getSomeString(), equalTo("replica"));
+        }
+        assertThat(replicaConnections[0], equalTo(1));
+        try (Connection connection = routing.get()) {
+            connection.getTransactionIsolation();
+            assertThat(replicaConnections[0], equalTo(1));//getters don't take a replica
+            connection.setAutoCommit(false);
+            assertThat(BDSM.select("SELECT * FROM test_bean WHERE some_string = 'replica'", TestBean.class).list(connection).size(), equalTo(0));
+            connection.rollback();
+        }
+        assertThat(replicaConnections[0], equalTo(1));
+        assertThat(BetterSqlTransaction.returning(connection -> BDSM.find(connection, 1L, TestBean.class).getSomeString())
+                .readOnly(routing.read()).execute(routing), equalTo("replica"));
+
+        final TestBean found = BetterSqlTransaction.returning(connection -> {
+            final TestBean inserted = BDSM.insert(connection, new TestBean(null, 2, 2, "routed", null, 0, TestBean.Status.ON));
+            return BDSM.find(connection, inserted.getTestKey(), TestBean.class);//pinned to the primary, reads its own write
+        }).execute(routing);
+        assertThat(found.getSomeString(), equalTo("routed"));
+
+        try (Connection connection = routing.read().get()) {
+            assertThat(BDSM.find(connection, 1L, TestBean.class).getSomeString(), equalTo("replica"));
+        }
+        try (Connection connection = routing.write().get()) {
+            assertThat(BDSM.find(connection, found.getTestKey(), TestBean.class).getSomeString(), equalTo("routed"));
+        }
+    }
+
+    @Test
+    public void testRoutingReplaysSessionInOrder() throws Exception {
+        final List<String> clientInfo = new ArrayList<>();
+        final ConnectionSupplier primary = () -> {
+            final Connection real = DriverManager.getConnection("jdbc:h2:mem:");
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                if (method.getName().equals("setClientInfo")) {
+                    clientInfo.add(args.length == 1 ? args[0].toString() : args[0] + "=" + args[1]);
+                    return null;
+                }
+                try {
+                    return method.invoke(real, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            });
+        };
+        final RoutingConnectionSupplier routing = RoutingConnectionSupplier.from(RoutingConnectionSupplier.Strategy.LEAST_OUTSTANDING, primary, Collections.emptyList());
+        try (Connection connection = routing.get()) {
+            connection.setClientInfo("ApplicationName", "first");
+            final Properties properties = new Properties();
+            properties.setProperty("ClientUser", "user");
+            connection.setClientInfo(properties);//replaces the name set before
+            properties.setProperty("ClientUser", "changed after");
+            connection.setClientInfo("ApplicationName", "second");
+            assertTrue(clientInfo.isEmpty());
+            connection.createStatement().close();//takes the primary, replaying the session
+        }
+        assertThat(clientInfo, contains("{ClientUser=user}", "ApplicationName=second"));
+    }
+
+    @Test
+    public void testMetrics() throws Exception {
+        final TransactionMetrics metrics = TransactionMetrics.from("io.github.yeagy.bss.test");
+        try {
+            final Integer one = BetterSqlTransaction.returning(connection -> 1).named("metrics").withListener(metrics).execute(() -> DriverManager.getConnection("jdbc:h2:mem:"));
+            assertThat(one, equalTo(1));
+            try {
+                BetterSqlTransaction.with(connection -> {
+                    throw new IllegalStateException("rolled back");
+                }).named("metrics").withListener(metrics).execute(connectionH2);
+                fail();
+            } catch (BetterSqlException expected) {
+            }
+            try {
+                BetterSqlTransaction.with(connection -> {
+                    throw new SQLException("serialization failure", "40001");
+                }).named("metrics").withListener(metrics).execute(connectionH2);
+                fail();
+            } catch (BetterSqlException expected) {
+            }
+            BetterSqlTransaction.with(connection -> {
+            }).withListener(metrics).execute(connectionH2);
+
+            final TransactionMetrics.TransactionStatsMXBean stats = metrics.get("metrics");
+            assertThat(stats.getCommits(), equalTo(1L));
+            assertThat(stats.getRollbacks(), equalTo(2L));
+            assertThat(stats.getRollbacksByCause().get(IllegalStateException.class.getName()), equalTo(1L));
+            assertThat(stats.getRollbacksByCause().get("SQLState 40001"), equalTo(1L));
+            assertTrue(stats.getAcquireNanosMax() > 0);
+            assertThat(metrics.get("unnamed").getCommits(), equalTo(1L));
+
+            final Object commits = ManagementFactory.getPlatformMBeanServer().getAttribute(
+                    new ObjectName("io.github.yeagy.bss.test:type=Transaction,name=\"metrics\""), "Commits");
+            assertThat(commits, equalTo((Object) 1L));
+            final TransactionMetrics sameDomain = TransactionMetrics.from("io.github.yeagy.bss.test");
+            BetterSqlTransaction.with(connection -> {
+            }).named("metrics").withListener(sameDomain).execute(connectionH2);//already registered, counts without JMX
+            assertThat(sameDomain.get("metrics").getCommits(), equalTo(1L));
+        } finally {
+            metrics.unregister();
+        }
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(new ObjectName("io.github.yeagy.bss.test:type=Transaction,name=\"metrics\"")));
+
+        final Integer committed = BetterSqlTransaction.returning(connection -> 1).withListener(new BetterSqlTransaction.TransactionListener() {
+            @Override
+            public void onCommit(String name, long acquireNanos, long transformNanos, long commitNanos) {
+                throw new IllegalStateException("listener failure");
+            }
+
+            @Override
+            public void onRollback(String name, long acquireNanos, long transformNanos, Throwable cause) {
+                throw new IllegalStateException("listener failure");
+            }
+        }).execute(connectionH2);
+        assertThat(committed, equalTo(1));
+    }
+}